@@ -27,6 +27,7 @@ try {
   $manifests = @(
     @{ label = "ConfigMap"; file = "configmap.yaml" },
     @{ label = "Secret"; file = "secret.yaml" },
+    @{ label = "PVC"; file = "pvc.yaml" },
     @{ label = "Deployment"; file = "deployment.yaml" },
     @{ label = "Service"; file = "service.yaml" },
     @{ label = "Route"; file = "route.yaml" },
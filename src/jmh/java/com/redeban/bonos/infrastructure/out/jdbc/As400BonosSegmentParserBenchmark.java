@@ -0,0 +1,84 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.redeban.bonos.domain.model.Bono;
+
+/**
+ * Lectura del segmento de bonos de recuperarBono: {@link As400BonosSegmentParser} sobre la vista de la trama
+ * frente al armado original con {@code substring}, {@code split(";")} y {@code split(",")}.
+ *
+ * <p>Se ejecuta con el perfil {@code jmh}: {@code mvn -Pjmh test-compile exec:exec}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class As400BonosSegmentParserBenchmark {
+
+    @Param({"1", "10", "50"})
+    int bonos;
+
+    private String resultado;
+    private As400TramaDecoder decoder;
+
+    @Setup
+    public void setUp() {
+        StringBuilder segment = new StringBuilder();
+        for (int i = 0; i < bonos; i++) {
+            segment.append(String.format("7700%06d,%d00;", i, 150000 + i));
+        }
+        resultado = StringUtils.rightPad("BO002003" + "20240101120000" + "457812001000000900123456" + "00"
+                + StringUtils.rightPad("CONSULTA EXITOSA", 75), 160)
+                + StringUtils.rightPad(segment.toString(), 1299) + StringUtils.repeat(' ', 565);
+        decoder = As400TramaDecoder.builder()
+                .field(As400TramaField.CODIGO_RESPUESTA, 46, 2, false)
+                .field(As400TramaField.BONOS, 160, 1299, true)
+                .build();
+    }
+
+    @Benchmark
+    public List<Bono> parser() {
+        return decoder.view(resultado).read(As400TramaField.BONOS, As400BonosSegmentParser::parse);
+    }
+
+    @Benchmark
+    public List<Bono> split() {
+        String bonosSegment = StringUtils.trimToNull(StringUtils.substring(resultado, 160, 1459));
+        List<Bono> lista = new ArrayList<>();
+        if (StringUtils.isNotBlank(bonosSegment)) {
+            for (String registro : bonosSegment.split(";")) {
+                if (StringUtils.isBlank(registro)) {
+                    continue;
+                }
+                String[] data = registro.split(",");
+                if (data.length >= 2) {
+                    Bono bono = new Bono();
+                    bono.setNumero(StringUtils.trimToNull(data[0]));
+                    String valor = data[1];
+                    if (valor != null && valor.length() >= 2) {
+                        bono.setValor(Long.valueOf(valor.substring(0, valor.length() - 2)));
+                    }
+                    lista.add(bono);
+                }
+            }
+        }
+        return lista;
+    }
+}
@@ -0,0 +1,103 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.redeban.bonos.domain.model.Deadline;
+import com.redeban.bonos.domain.model.RecuperarBonoRequest;
+import com.redeban.bonos.domain.model.RecuperarBonoResponse;
+import com.redeban.bonos.infrastructure.camel.common.configs.As400ClientProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.As400DataSourceProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosSettingsProvider;
+import com.redeban.bonos.infrastructure.camel.common.configs.TestProperties;
+import com.redeban.bonos.infrastructure.out.cache.InMemoryNegativeResultCache;
+
+/**
+ * recuperarBono contra un AS400 real con cada transporte ({@code jdbc} y {@code program-call}), pasando por
+ * {@link As400Connector} completo (pool, limitador y circuit breaker). El modo {@code SampleTime} reporta los
+ * percentiles p50/p99/p99.9 de cada uno.
+ *
+ * <p>Necesita las variables de la aplicación ({@code BONOS_DATASOURCE_URL}, {@code BONOS_DATASOURCE_USER},
+ * {@code BONOS_DATASOURCE_PASSWORD} y las demás que se quieran cambiar) y {@code BONOS_BENCHMARK_DOCUMENTO},
+ * un titular con bonos del ambiente (el nit, bin y subtipo se toman de {@code BONOS_BENCHMARK_NIT},
+ * {@code _BIN} y {@code _SUBTIPO}): {@code mvn -Pjmh test-compile exec:exec
+ * -Djmh.args="As400TransportBenchmark -t 16"}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Threads(16)
+@Fork(1)
+public class As400TransportBenchmark {
+
+    @Param({"jdbc", "program-call"})
+    String transport;
+
+    private As400Connector connector;
+    private As400StoredProcedureClient client;
+    private RecuperarBonoRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        String documento = System.getenv("BONOS_BENCHMARK_DOCUMENTO");
+        Map<String, String> properties = new HashMap<>(TestProperties.environment());
+        if (StringUtils.isBlank(properties.get("bonos.datasource.url")) || StringUtils.isBlank(documento)) {
+            throw new IllegalStateException("Defina BONOS_DATASOURCE_URL, BONOS_DATASOURCE_USER,"
+                    + " BONOS_DATASOURCE_PASSWORD y BONOS_BENCHMARK_DOCUMENTO");
+        }
+        properties.put("bonos.as400.transport", transport);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        GestionBonosProperties gestionBonos = TestProperties.of(GestionBonosProperties.class, properties);
+        GestionBonosSettingsProvider settings = TestProperties.settings(gestionBonos, meterRegistry);
+        As400TramaLayoutRegistry layouts = new As400TramaLayoutRegistry(gestionBonos, settings, new ObjectMapper(),
+                meterRegistry);
+        layouts.init();
+        As400ClientProperties clientProperties = TestProperties.of(As400ClientProperties.class, properties);
+        connector = new As400Connector(TestProperties.of(As400DataSourceProperties.class, properties),
+                clientProperties, meterRegistry);
+        connector.init();
+        while (!connector.isWarmedUp()) {
+            Thread.sleep(100);
+        }
+        client = new As400StoredProcedureClient(settings, connector, layouts, clientProperties,
+                new InMemoryNegativeResultCache(gestionBonos, settings, meterRegistry));
+        request = new RecuperarBonoRequest();
+        request.setBin(StringUtils.defaultIfBlank(System.getenv("BONOS_BENCHMARK_BIN"), "457812"));
+        request.setSubtipo(StringUtils.defaultIfBlank(System.getenv("BONOS_BENCHMARK_SUBTIPO"), "001"));
+        request.setNit(StringUtils.defaultIfBlank(System.getenv("BONOS_BENCHMARK_NIT"), "900123456"));
+        request.setTipoDocumento("CC");
+        request.setNumeroDocumento(documento);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        connector.shutdown();
+    }
+
+    @Benchmark
+    public RecuperarBonoResponse recuperarBono() {
+        return client.recuperarBono(request, Deadline.none());
+    }
+}
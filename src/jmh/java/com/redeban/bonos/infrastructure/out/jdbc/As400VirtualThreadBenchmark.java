@@ -0,0 +1,100 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.redeban.bonos.domain.model.Deadline;
+import com.redeban.bonos.infrastructure.camel.common.configs.As400ClientProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.As400DataSourceProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.TestProperties;
+
+/**
+ * Una ronda de {@code callers} invocaciones simultáneas a {@link As400Connector} desde hilos de plataforma o
+ * virtuales, sobre {@link FakeAs400Transport} con latencia fija. Las invocaciones desde hilos virtuales pasan
+ * por el ejecutor {@code as400-io} ({@code ioThreads} hilos), de modo que la ronda tarda
+ * {@code ceil(callers / ioThreads) * latencyMillis}; las de plataforma corren en el hilo que llama. El
+ * limitador se desactiva y la cola del ejecutor admite la ronda completa para medir sólo el tope de hilos.
+ *
+ * <p>Se ejecuta con el perfil {@code jmh} en Java 21: {@code mvn -Pjmh test-compile exec:exec
+ * -Djmh.args="As400VirtualThreadBenchmark"}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class As400VirtualThreadBenchmark {
+
+    @Param({"platform", "virtual"})
+    String threads;
+
+    @Param({"50", "200"})
+    int callers;
+
+    @Param({"50", "200"})
+    int ioThreads;
+
+    @Param({"20"})
+    long latencyMillis;
+
+    private As400Connector connector;
+    private ExecutorService callerExecutor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("bonos.as400.limiter.enabled", "false");
+        properties.put("bonos.as400.executor.max-threads", String.valueOf(ioThreads));
+        properties.put("bonos.as400.executor.queue-size", String.valueOf(callers));
+        connector = new As400Connector(TestProperties.of(As400DataSourceProperties.class, properties),
+                TestProperties.of(As400ClientProperties.class, properties), new SimpleMeterRegistry());
+        connector.init();
+        connector.start(new FakeAs400Transport("fake", latencyMillis));
+        callerExecutor = "virtual".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(callers);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        callerExecutor.shutdownNow();
+        connector.shutdown();
+    }
+
+    @Benchmark
+    public int ronda() throws InterruptedException, ExecutionException {
+        List<Future<String>> results = new ArrayList<>(callers);
+        for (int i = 0; i < callers; i++) {
+            results.add(callerExecutor.submit(() -> connector.execute(As400Operation.RECUPERAR, "BONOS", "trama",
+                    Deadline.none())));
+        }
+        int respondidas = 0;
+        for (Future<String> result : results) {
+            result.get();
+            respondidas++;
+        }
+        return respondidas;
+    }
+}
@@ -0,0 +1,23 @@
+package com.redeban.bonos.application.usecase;
+
+import com.redeban.bonos.domain.port.in.AdministracionCacheInPort;
+import com.redeban.bonos.domain.port.out.NegativeResultCachePort;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+@ApplicationScoped
+public class AdministracionCacheUseCase implements AdministracionCacheInPort {
+
+    private final NegativeResultCachePort negativeResults;
+
+    @Inject
+    public AdministracionCacheUseCase(NegativeResultCachePort negativeResults) {
+        this.negativeResults = negativeResults;
+    }
+
+    @Override
+    public int purgarResultadosNegativos(String codigo, String nit) {
+        return negativeResults.purge(codigo, nit);
+    }
+}
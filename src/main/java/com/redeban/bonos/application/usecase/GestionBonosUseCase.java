@@ -1,14 +1,23 @@
 package com.redeban.bonos.application.usecase;
 
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import com.redeban.bonos.domain.exception.BonoTimeoutException;
 import com.redeban.bonos.domain.model.ActivarBonoRequest;
 import com.redeban.bonos.domain.model.ActivarBonoResponse;
+import com.redeban.bonos.domain.model.CacheDirectives;
 import com.redeban.bonos.domain.model.CrearBonoRequest;
 import com.redeban.bonos.domain.model.CrearBonoResponse;
+import com.redeban.bonos.domain.model.Deadline;
 import com.redeban.bonos.domain.model.HeaderContext;
 import com.redeban.bonos.domain.model.RecuperarBonoRequest;
 import com.redeban.bonos.domain.model.RecuperarBonoResponse;
 import com.redeban.bonos.domain.port.in.GestionBonosInPort;
 import com.redeban.bonos.domain.port.out.GestionBonosOutPort;
+import com.redeban.bonos.domain.port.out.IdempotencyPort;
+import com.redeban.bonos.domain.port.out.RecuperarBonoCachePort;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -16,25 +25,138 @@ import jakarta.inject.Inject;
 @ApplicationScoped
 public class GestionBonosUseCase implements GestionBonosInPort {
 
+    private static final String CREAR = "crear";
+    private static final String ACTIVAR = "activar";
+    private static final String KEY_SEPARATOR = "|";
+
     private final GestionBonosOutPort gestionBonosOutPort;
+    private final RecuperarBonoCachePort recuperarBonoCache;
+    private final IdempotencyPort idempotency;
 
     @Inject
-    public GestionBonosUseCase(GestionBonosOutPort gestionBonosOutPort) {
+    public GestionBonosUseCase(GestionBonosOutPort gestionBonosOutPort, RecuperarBonoCachePort recuperarBonoCache,
+                               IdempotencyPort idempotency) {
         this.gestionBonosOutPort = gestionBonosOutPort;
+        this.recuperarBonoCache = recuperarBonoCache;
+        this.idempotency = idempotency;
     }
 
     @Override
     public CrearBonoResponse crearBono(CrearBonoRequest request, HeaderContext headerContext) {
-        return gestionBonosOutPort.crearBono(request);
+        Deadline deadline = activeDeadline(headerContext);
+        Optional<String> key = crearKey(request, headerContext);
+        try {
+            if (key.isEmpty()) {
+                return gestionBonosOutPort.crearBono(request, deadline);
+            }
+            return idempotency.execute(CREAR, key.get(), deadline,
+                    () -> gestionBonosOutPort.crearBono(request, deadline));
+        } finally {
+            recuperarBonoCache.invalidate(request);
+        }
     }
 
     @Override
     public ActivarBonoResponse activarBono(ActivarBonoRequest request, HeaderContext headerContext) {
-        return gestionBonosOutPort.activarBono(request);
+        Deadline deadline = activeDeadline(headerContext);
+        ActivarBonoResponse response = null;
+        try {
+            response = idempotency.execute(ACTIVAR, activarKey(request), deadline,
+                    () -> gestionBonosOutPort.activarBono(request, deadline));
+            return response;
+        } finally {
+            recuperarBonoCache.invalidate(request, response);
+        }
     }
 
     @Override
     public RecuperarBonoResponse recuperarBono(RecuperarBonoRequest request, HeaderContext headerContext) {
-        return gestionBonosOutPort.recuperarBono(request);
+        Deadline deadline = activeDeadline(headerContext);
+        CacheDirectives directives = headerContext.cacheDirectives();
+        Optional<RecuperarBonoResponse> cached = recuperarBonoCache.find(request, directives);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        long version = recuperarBonoCache.version();
+        RecuperarBonoResponse response = gestionBonosOutPort.recuperarBono(request, deadline);
+        recuperarBonoCache.store(request, response, directives, version);
+        return response;
+    }
+
+    @Override
+    public CompletionStage<CrearBonoResponse> crearBonoAsync(CrearBonoRequest request, HeaderContext headerContext) {
+        if (headerContext.deadline().isExpired()) {
+            return CompletableFuture.failedFuture(expired());
+        }
+        Deadline deadline = headerContext.deadline();
+        Optional<String> key = crearKey(request, headerContext);
+        CompletionStage<CrearBonoResponse> stage = key.isEmpty()
+                ? gestionBonosOutPort.crearBonoAsync(request, deadline)
+                : idempotency.executeAsync(CREAR, key.get(),
+                        () -> gestionBonosOutPort.crearBonoAsync(request, deadline));
+        return stage.whenComplete((response, error) -> recuperarBonoCache.invalidate(request));
+    }
+
+    @Override
+    public CompletionStage<ActivarBonoResponse> activarBonoAsync(ActivarBonoRequest request,
+                                                                 HeaderContext headerContext) {
+        if (headerContext.deadline().isExpired()) {
+            return CompletableFuture.failedFuture(expired());
+        }
+        return idempotency.executeAsync(ACTIVAR, activarKey(request),
+                        () -> gestionBonosOutPort.activarBonoAsync(request, headerContext.deadline()))
+                .whenComplete((response, error) -> recuperarBonoCache.invalidate(request, response));
+    }
+
+    @Override
+    public CompletionStage<RecuperarBonoResponse> recuperarBonoAsync(RecuperarBonoRequest request,
+                                                                     HeaderContext headerContext) {
+        if (headerContext.deadline().isExpired()) {
+            return CompletableFuture.failedFuture(expired());
+        }
+        CacheDirectives directives = headerContext.cacheDirectives();
+        Optional<RecuperarBonoResponse> cached = recuperarBonoCache.find(request, directives);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached.get());
+        }
+        long version = recuperarBonoCache.version();
+        return gestionBonosOutPort.recuperarBonoAsync(request, headerContext.deadline())
+                .thenApply(response -> {
+                    recuperarBonoCache.store(request, response, directives, version);
+                    return response;
+                });
+    }
+
+    /**
+     * Un titular puede tener varios bonos, así que crearBono solo es idempotente cuando el consumidor identifica
+     * el intento con {@code idTransaccion}; los datos del bono se incluyen para no confundir solicitudes
+     * distintas que reutilicen el mismo identificador.
+     */
+    private static Optional<String> crearKey(CrearBonoRequest request, HeaderContext headerContext) {
+        return headerContext.idTransaccion().map(idTransaccion -> String.join(KEY_SEPARATOR,
+                headerContext.nombreAplicacion().orElse(""), idTransaccion, request.getBin(), request.getSubtipo(),
+                request.getNit(), request.getTipoDocumento(), request.getNumeroDocumento(), request.getNombre()));
+    }
+
+    /**
+     * La auditoría y el consecutivo identifican la carga ante el AS400, así que un reintento con los mismos datos
+     * es la misma activación aunque no traiga {@code idTransaccion}.
+     */
+    private static String activarKey(ActivarBonoRequest request) {
+        return String.join(KEY_SEPARATOR, request.getBin(), request.getSubtipo(), request.getNit(),
+                request.getNumeroBono(), request.getValorCarga(), request.getNumeroAuditoria(),
+                request.getConsecutivo());
+    }
+
+    private Deadline activeDeadline(HeaderContext headerContext) {
+        Deadline deadline = headerContext.deadline();
+        if (deadline.isExpired()) {
+            throw expired();
+        }
+        return deadline;
+    }
+
+    private BonoTimeoutException expired() {
+        return new BonoTimeoutException("Tiempo de la solicitud agotado antes de invocar el AS400");
     }
 }
@@ -0,0 +1,16 @@
+package com.redeban.bonos.domain.exception;
+
+/**
+ * Error técnico que indica que el proveedor AS400 no está disponible para atender la solicitud
+ * (rechazo por límite de concurrencia, circuito abierto, pool agotado). Se responde con E08.
+ */
+public class BonoProviderUnavailableException extends BonoTechnicalException {
+
+    public BonoProviderUnavailableException(String message) {
+        super(message, 503);
+    }
+
+    public BonoProviderUnavailableException(String message, Throwable cause) {
+        super(message, 503, cause);
+    }
+}
@@ -0,0 +1,15 @@
+package com.redeban.bonos.domain.exception;
+
+/**
+ * Error técnico por vencimiento del tiempo disponible para la solicitud. Se responde con E10.
+ */
+public class BonoTimeoutException extends BonoTechnicalException {
+
+    public BonoTimeoutException(String message) {
+        super(message, 504);
+    }
+
+    public BonoTimeoutException(String message, Throwable cause) {
+        super(message, 504, cause);
+    }
+}
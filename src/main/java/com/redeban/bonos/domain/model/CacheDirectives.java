@@ -0,0 +1,48 @@
+package com.redeban.bonos.domain.model;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Directivas de caché que el consumidor envía en {@code Cache-Control} para una consulta.
+ *
+ * <p>{@code no-cache} obliga a consultar al AS400 (el resultado sí se guarda), {@code no-store} impide guardar
+ * el resultado y {@code max-age} limita la antigüedad aceptable de una respuesta en caché.</p>
+ */
+public final class CacheDirectives {
+
+    private static final CacheDirectives NONE = new CacheDirectives(false, false, null);
+
+    private final boolean noCache;
+    private final boolean noStore;
+    private final Duration maxAge;
+
+    private CacheDirectives(boolean noCache, boolean noStore, Duration maxAge) {
+        this.noCache = noCache;
+        this.noStore = noStore;
+        this.maxAge = maxAge;
+    }
+
+    public static CacheDirectives none() {
+        return NONE;
+    }
+
+    public static CacheDirectives of(boolean noCache, boolean noStore, Duration maxAge) {
+        if (!noCache && !noStore && maxAge == null) {
+            return NONE;
+        }
+        return new CacheDirectives(noCache, noStore, maxAge);
+    }
+
+    public boolean noCache() {
+        return noCache;
+    }
+
+    public boolean noStore() {
+        return noStore;
+    }
+
+    public Optional<Duration> maxAge() {
+        return Optional.ofNullable(maxAge);
+    }
+}
@@ -0,0 +1,50 @@
+package com.redeban.bonos.domain.model;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Instante límite para atender una solicitud. Se calcula al recibir la petición y viaja hasta el conector
+ * AS400 para no ocupar conexiones ni trabajos del host con solicitudes que el consumidor ya abandonó.
+ */
+public final class Deadline {
+
+    private static final Deadline NONE = new Deadline(null);
+
+    private final Instant expiresAt;
+
+    private Deadline(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public static Deadline at(Instant expiresAt) {
+        return new Deadline(expiresAt);
+    }
+
+    public static Deadline none() {
+        return NONE;
+    }
+
+    public boolean isBounded() {
+        return expiresAt != null;
+    }
+
+    public boolean isExpired() {
+        return expiresAt != null && !Instant.now().isBefore(expiresAt);
+    }
+
+    /**
+     * Tiempo restante; {@link Duration#ZERO} si ya venció. Para un deadline sin límite retorna {@code fallback}.
+     */
+    public Duration remaining(Duration fallback) {
+        if (expiresAt == null) {
+            return fallback;
+        }
+        Duration remaining = Duration.between(Instant.now(), expiresAt);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    public Instant expiresAt() {
+        return expiresAt;
+    }
+}
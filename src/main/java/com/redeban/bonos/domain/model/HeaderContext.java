@@ -10,17 +10,32 @@ public class HeaderContext {
     private final String ipAplicacion;
     private final String timestamp;
     private final OffsetDateTime receivedAt;
+    private final Deadline deadline;
+    private final CacheDirectives cacheDirectives;
 
     public HeaderContext(String idTransaccion,
                          String nombreAplicacion,
                          String ipAplicacion,
                          String timestamp,
-                         OffsetDateTime receivedAt) {
+                         OffsetDateTime receivedAt,
+                         Deadline deadline) {
+        this(idTransaccion, nombreAplicacion, ipAplicacion, timestamp, receivedAt, deadline, CacheDirectives.none());
+    }
+
+    public HeaderContext(String idTransaccion,
+                         String nombreAplicacion,
+                         String ipAplicacion,
+                         String timestamp,
+                         OffsetDateTime receivedAt,
+                         Deadline deadline,
+                         CacheDirectives cacheDirectives) {
         this.idTransaccion = idTransaccion;
         this.nombreAplicacion = nombreAplicacion;
         this.ipAplicacion = ipAplicacion;
         this.timestamp = timestamp;
         this.receivedAt = receivedAt;
+        this.deadline = deadline == null ? Deadline.none() : deadline;
+        this.cacheDirectives = cacheDirectives == null ? CacheDirectives.none() : cacheDirectives;
     }
 
     public Optional<String> idTransaccion() {
@@ -43,6 +58,14 @@ public class HeaderContext {
         return receivedAt;
     }
 
+    public Deadline deadline() {
+        return deadline;
+    }
+
+    public CacheDirectives cacheDirectives() {
+        return cacheDirectives;
+    }
+
     private String blankToNull(String value) {
         return value == null || value.isBlank() ? null : value;
     }
@@ -0,0 +1,10 @@
+package com.redeban.bonos.domain.port.in;
+
+public interface AdministracionCacheInPort {
+
+    /**
+     * Retira de la caché negativa las entradas del código ({@code E11}/{@code E12}) y NIT indicados; {@code null}
+     * no filtra. Retorna cuántas se retiraron.
+     */
+    int purgarResultadosNegativos(String codigo, String nit);
+}
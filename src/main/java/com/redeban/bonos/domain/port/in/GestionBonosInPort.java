@@ -1,5 +1,7 @@
 package com.redeban.bonos.domain.port.in;
 
+import java.util.concurrent.CompletionStage;
+
 import com.redeban.bonos.domain.model.ActivarBonoRequest;
 import com.redeban.bonos.domain.model.ActivarBonoResponse;
 import com.redeban.bonos.domain.model.CrearBonoRequest;
@@ -15,4 +17,11 @@ public interface GestionBonosInPort {
     ActivarBonoResponse activarBono(ActivarBonoRequest request, HeaderContext headerContext);
 
     RecuperarBonoResponse recuperarBono(RecuperarBonoRequest request, HeaderContext headerContext);
+
+    CompletionStage<CrearBonoResponse> crearBonoAsync(CrearBonoRequest request, HeaderContext headerContext);
+
+    CompletionStage<ActivarBonoResponse> activarBonoAsync(ActivarBonoRequest request, HeaderContext headerContext);
+
+    CompletionStage<RecuperarBonoResponse> recuperarBonoAsync(RecuperarBonoRequest request,
+                                                             HeaderContext headerContext);
 }
@@ -1,17 +1,26 @@
 package com.redeban.bonos.domain.port.out;
 
+import java.util.concurrent.CompletionStage;
+
 import com.redeban.bonos.domain.model.ActivarBonoRequest;
 import com.redeban.bonos.domain.model.ActivarBonoResponse;
 import com.redeban.bonos.domain.model.CrearBonoRequest;
 import com.redeban.bonos.domain.model.CrearBonoResponse;
+import com.redeban.bonos.domain.model.Deadline;
 import com.redeban.bonos.domain.model.RecuperarBonoRequest;
 import com.redeban.bonos.domain.model.RecuperarBonoResponse;
 
 public interface GestionBonosOutPort {
 
-    CrearBonoResponse crearBono(CrearBonoRequest request);
+    CrearBonoResponse crearBono(CrearBonoRequest request, Deadline deadline);
+
+    ActivarBonoResponse activarBono(ActivarBonoRequest request, Deadline deadline);
+
+    RecuperarBonoResponse recuperarBono(RecuperarBonoRequest request, Deadline deadline);
+
+    CompletionStage<CrearBonoResponse> crearBonoAsync(CrearBonoRequest request, Deadline deadline);
 
-    ActivarBonoResponse activarBono(ActivarBonoRequest request);
+    CompletionStage<ActivarBonoResponse> activarBonoAsync(ActivarBonoRequest request, Deadline deadline);
 
-    RecuperarBonoResponse recuperarBono(RecuperarBonoRequest request);
+    CompletionStage<RecuperarBonoResponse> recuperarBonoAsync(RecuperarBonoRequest request, Deadline deadline);
 }
@@ -0,0 +1,24 @@
+package com.redeban.bonos.domain.port.out;
+
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+import com.redeban.bonos.domain.model.Deadline;
+
+/**
+ * Registro de idempotencia de las operaciones que modifican bonos en el AS400.
+ *
+ * <p>Dentro de la ventana configurada, una clave ya atendida con éxito retorna la misma respuesta sin volver a
+ * ejecutar {@code call}; si la original sigue en curso, el duplicado espera su resultado (éxito o error). Los
+ * errores no se guardan: un reintento posterior vuelve a ejecutar la operación.</p>
+ */
+public interface IdempotencyPort {
+
+    /**
+     * Ejecuta {@code call} una sola vez por {@code key}. Un duplicado espera a la original como máximo hasta
+     * {@code deadline}.
+     */
+    <T> T execute(String operation, String key, Deadline deadline, Supplier<T> call);
+
+    <T> CompletionStage<T> executeAsync(String operation, String key, Supplier<CompletionStage<T>> call);
+}
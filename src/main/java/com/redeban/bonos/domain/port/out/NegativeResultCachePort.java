@@ -0,0 +1,46 @@
+package com.redeban.bonos.domain.port.out;
+
+import java.util.Optional;
+
+import com.redeban.bonos.domain.model.ActivarBonoRequest;
+import com.redeban.bonos.domain.model.ActivarBonoResponse;
+import com.redeban.bonos.domain.model.CrearBonoRequest;
+import com.redeban.bonos.domain.model.CrearBonoResponse;
+import com.redeban.bonos.domain.model.RecuperarBonoRequest;
+import com.redeban.bonos.domain.model.RecuperarBonoResponse;
+
+/**
+ * Caché de respuestas negativas del AS400: "la consulta no arroja resultados" (E11) por titular y "comercio
+ * bloqueado" (E12) por NIT. Las respuestas con otros códigos se ignoran.
+ */
+public interface NegativeResultCachePort {
+
+    Optional<RecuperarBonoResponse> find(RecuperarBonoRequest request);
+
+    Optional<CrearBonoResponse> find(CrearBonoRequest request);
+
+    Optional<ActivarBonoResponse> find(ActivarBonoRequest request);
+
+    /**
+     * Versión de invalidación vigente. Se toma antes de consultar al AS400 para que un E11 que llegue después de
+     * un crearBono del titular no se guarde.
+     */
+    long version();
+
+    void record(RecuperarBonoRequest request, RecuperarBonoResponse response, long version);
+
+    void record(CrearBonoRequest request, CrearBonoResponse response);
+
+    void record(ActivarBonoRequest request, ActivarBonoResponse response);
+
+    /**
+     * Descarta el E11 del titular, que deja de ser cierto si el bono se creó.
+     */
+    void invalidate(CrearBonoRequest request);
+
+    /**
+     * Retira las entradas del código ({@code E11} o {@code E12}) y del NIT indicados; {@code null} en cualquiera
+     * de los dos no filtra por ese criterio. Retorna cuántas entradas se retiraron.
+     */
+    int purge(String codigo, String nit);
+}
@@ -0,0 +1,39 @@
+package com.redeban.bonos.domain.port.out;
+
+import java.util.Optional;
+
+import com.redeban.bonos.domain.model.ActivarBonoRequest;
+import com.redeban.bonos.domain.model.ActivarBonoResponse;
+import com.redeban.bonos.domain.model.CacheDirectives;
+import com.redeban.bonos.domain.model.CrearBonoRequest;
+import com.redeban.bonos.domain.model.RecuperarBonoRequest;
+import com.redeban.bonos.domain.model.RecuperarBonoResponse;
+
+/**
+ * Caché de resultados de {@code recuperarBono} por titular, invalidada por las operaciones que modifican sus
+ * bonos.
+ */
+public interface RecuperarBonoCachePort {
+
+    /**
+     * Respuesta en caché para el titular de la solicitud, si existe, no venció y cumple {@code directives}.
+     * Cada llamada retorna una copia independiente.
+     */
+    Optional<RecuperarBonoResponse> find(RecuperarBonoRequest request, CacheDirectives directives);
+
+    /**
+     * Versión de invalidación vigente. Se toma antes de consultar al AS400 y se entrega a {@link #store} para
+     * descartar resultados que una invalidación posterior dejó obsoletos.
+     */
+    long version();
+
+    void store(RecuperarBonoRequest request, RecuperarBonoResponse response, CacheDirectives directives,
+               long version);
+
+    void invalidate(CrearBonoRequest request);
+
+    /**
+     * Invalida el titular y el bono activados. {@code response} es {@code null} si la activación falló.
+     */
+    void invalidate(ActivarBonoRequest request, ActivarBonoResponse response);
+}
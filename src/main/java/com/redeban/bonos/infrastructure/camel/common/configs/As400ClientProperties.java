@@ -0,0 +1,159 @@
+package com.redeban.bonos.infrastructure.camel.common.configs;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import io.smallrye.config.WithName;
+import java.time.Duration;
+import java.util.Optional;
+
+@ConfigMapping(prefix = "bonos.as400")
+public interface As400ClientProperties {
+
+    @WithDefault("jdbc")
+    Transport transport();
+
+    ProgramCall programCall();
+
+    Limiter limiter();
+
+    @WithName("circuit-breaker")
+    CircuitBreakers circuitBreaker();
+
+    Hedge hedge();
+
+    Coalesce coalesce();
+
+    Routing routing();
+
+    Executor executor();
+
+    Ebcdic ebcdic();
+
+    enum Transport {
+        JDBC,
+        PROGRAM_CALL
+    }
+
+    interface ProgramCall {
+        Optional<String> system();
+
+        Optional<String> library();
+
+        @WithDefault("2024")
+        int inputLength();
+
+        @WithDefault("2024")
+        int outputLength();
+
+        Optional<Integer> ccsid();
+    }
+
+    interface Limiter {
+        @WithDefault("true")
+        boolean enabled();
+
+        @WithDefault("10")
+        int initialLimit();
+
+        @WithDefault("1")
+        int minLimit();
+
+        @WithDefault("50")
+        int maxLimit();
+
+        @WithDefault("0.9")
+        double backoffRatio();
+
+        @WithDefault("PT2S")
+        Duration latencyThreshold();
+    }
+
+    interface CircuitBreakers {
+        CircuitBreaker crear();
+
+        CircuitBreaker activar();
+
+        CircuitBreaker recuperar();
+    }
+
+    interface CircuitBreaker {
+        @WithDefault("true")
+        boolean enabled();
+
+        @WithDefault("0.5")
+        double failureRatio();
+
+        @WithDefault("20")
+        int requestVolumeThreshold();
+
+        @WithDefault("PT30S")
+        Duration delay();
+    }
+
+    interface Hedge {
+        @WithDefault("false")
+        boolean enabled();
+
+        @WithDefault("0.95")
+        double percentile();
+
+        @WithDefault("PT0.05S")
+        Duration minDelay();
+
+        @WithDefault("0.05")
+        double maxRatio();
+
+        @WithDefault("1000")
+        int window();
+    }
+
+    interface Coalesce {
+        @WithDefault("true")
+        boolean enabled();
+
+        @WithDefault("16")
+        int stripes();
+    }
+
+    interface Routing {
+        @WithDefault("0.2")
+        double smoothing();
+
+        @WithDefault("5")
+        int ejectionConsecutiveFailures();
+
+        @WithDefault("0.5")
+        double ejectionErrorRate();
+
+        @WithDefault("PT30S")
+        Duration ejectionDuration();
+
+        @WithDefault("PT10S")
+        Duration probeInterval();
+    }
+
+    interface Executor {
+        @WithDefault("50")
+        int maxThreads();
+
+        @WithDefault("100")
+        int queueSize();
+
+        @WithDefault("PT60S")
+        Duration keepAlive();
+    }
+
+    interface Ebcdic {
+        @WithDefault("false")
+        boolean enabled();
+
+        @WithDefault("37")
+        int ccsid();
+
+        /**
+         * Procedimiento con parámetros {@code FOR BIT DATA} a invocar en modo EBCDIC; si falta se usa
+         * {@code bonos.as400.store-procedure}.
+         */
+        Optional<String> storeProcedure();
+    }
+}
@@ -2,6 +2,8 @@ package com.redeban.bonos.infrastructure.camel.common.configs;
 
 import io.smallrye.config.ConfigMapping;
 import io.smallrye.config.WithDefault;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
 @ConfigMapping(prefix = "bonos.datasource")
@@ -9,6 +11,11 @@ public interface As400DataSourceProperties {
 
     Optional<String> url();
 
+    /**
+     * Hosts AS400 alternativos (una URL JDBC por host). Si se define, reemplaza a {@link #url()}.
+     */
+    Optional<List<String>> urls();
+
     Optional<String> user();
 
     Optional<String> password();
@@ -17,4 +24,53 @@ public interface As400DataSourceProperties {
     String driver();
 
     Optional<Integer> loginTimeout();
+
+    Pool pool();
+
+    interface Pool {
+        @WithDefault("2")
+        int minSize();
+
+        @WithDefault("10")
+        int maxSize();
+
+        @WithDefault("true")
+        boolean prewarm();
+
+        /**
+         * Conexiones a abrir antes de reportar readiness; por defecto {@code min-size}.
+         */
+        Optional<Integer> prewarmSize();
+
+        /**
+         * Conexiones libres sin uso ni validación durante este intervalo se validan en segundo plano para que
+         * firewalls y balanceadores no corten el socket; {@code PT0S} lo desactiva.
+         */
+        @WithDefault("PT2M")
+        Duration keepaliveInterval();
+
+        @WithDefault("true")
+        boolean validateOnBorrow();
+
+        @WithDefault("2")
+        int validationTimeout();
+
+        @WithDefault("PT5S")
+        Duration acquireTimeout();
+
+        @WithDefault("PT30M")
+        Duration maxLifetime();
+
+        @WithDefault("PT10M")
+        Duration idleTimeout();
+
+        @WithDefault("PT30S")
+        Duration evictionInterval();
+
+        @WithDefault("PT1M")
+        Duration leakDetectionThreshold();
+
+        @WithDefault("8")
+        int statementCacheSize();
+    }
 }
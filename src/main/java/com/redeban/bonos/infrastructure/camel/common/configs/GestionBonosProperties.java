@@ -1,8 +1,11 @@
 package com.redeban.bonos.infrastructure.camel.common.configs;
 
 import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
 import io.smallrye.config.WithName;
+import java.time.Duration;
 import java.util.Map;
+import java.util.Optional;
 
 @ConfigMapping(prefix = "bonos")
 public interface GestionBonosProperties {
@@ -26,6 +29,18 @@ public interface GestionBonosProperties {
 
     Descripcion descripcion();
 
+    Timeout timeout();
+
+    Trama trama();
+
+    Reload reload();
+
+    Cache cache();
+
+    Idempotency idempotency();
+
+    Lote lote();
+
     interface Codigo {
         String aplicacion();
 
@@ -56,6 +71,19 @@ public interface GestionBonosProperties {
 
         @WithName("E12")
         String e12();
+
+        Host host();
+    }
+
+    /**
+     * Códigos de respuesta de dos caracteres que devuelve AUBONB1 en la trama de salida.
+     */
+    interface Host {
+        @WithDefault("11")
+        String sinResultados();
+
+        @WithDefault("12")
+        String comercioBloqueado();
     }
 
     interface Novedad {
@@ -120,4 +148,143 @@ public interface GestionBonosProperties {
         @WithName("E12")
         String e12();
     }
+
+    interface Timeout {
+        @WithDefault("PT30S")
+        Duration crear();
+
+        @WithDefault("PT30S")
+        Duration activar();
+
+        @WithDefault("PT30S")
+        Duration recuperar();
+
+        @WithName("header-timestamp")
+        @WithDefault("false")
+        boolean headerTimestamp();
+    }
+
+    interface Trama {
+        /**
+         * Versión de layout activa si ningún layout externo se marca como activo.
+         */
+        @WithDefault("v1")
+        String version();
+
+        /**
+         * Directorio con layouts JSON adicionales; se revisa periódicamente sin reiniciar.
+         */
+        Optional<String> layoutDir();
+
+        @WithDefault("PT30S")
+        Duration reloadInterval();
+    }
+
+    interface Reload {
+        /**
+         * Directorio del ConfigMap montado (un archivo por variable); si no se define no hay recarga.
+         */
+        Optional<String> dir();
+
+        @WithDefault("PT30S")
+        Duration interval();
+    }
+
+    interface Cache {
+        Recuperar recuperar();
+
+        Negativo negativo();
+
+        interface Recuperar {
+            @WithDefault("true")
+            boolean enabled();
+
+            @WithDefault("10000")
+            int maxSize();
+
+            @WithDefault("PT30S")
+            Duration ttl();
+        }
+
+        interface Negativo {
+            @WithDefault("true")
+            boolean enabled();
+
+            @WithDefault("10000")
+            int maxSize();
+
+            @WithName("E11.ttl")
+            @WithDefault("PT10S")
+            Duration e11Ttl();
+
+            @WithName("E12.ttl")
+            @WithDefault("PT60S")
+            Duration e12Ttl();
+        }
+    }
+
+    interface Idempotency {
+        @WithDefault("true")
+        boolean enabled();
+
+        @WithDefault("PT5M")
+        Duration window();
+
+        @WithDefault("10000")
+        int maxSize();
+    }
+
+    interface Lote {
+        /**
+         * Registros de un lote en curso a la vez (invocados y aún no escritos en la respuesta).
+         */
+        @WithDefault("8")
+        int parallelism();
+
+        @WithDefault("10000")
+        int maxItems();
+
+        /**
+         * Titulares por solicitud del lote de recuperarBono, que responde todo junto.
+         */
+        @WithDefault("200")
+        int maxHolders();
+
+        Activacion activacion();
+
+        interface Activacion {
+            /**
+             * Directorio de los jobs (archivo recibido, metadatos y bitácora). Debe sobrevivir a los reinicios del
+             * pod para poder reanudar; compartido entre pods permite consultar cualquier job desde cualquiera de
+             * ellos.
+             */
+            @WithDefault("/tmp/bonos-jobs")
+            String dir();
+
+            /**
+             * Cada cuánto se buscan en {@link #dir()} jobs sin terminar que ningún pod procesa (el suyo se detuvo)
+             * para reanudarlos; cero sólo los busca al arrancar.
+             */
+            @WithDefault("PT1M")
+            Duration scanInterval();
+
+            @WithDefault("4")
+            int parallelism();
+
+            /**
+             * Filas enviadas por segundo como máximo; cero no limita.
+             */
+            @WithDefault("20")
+            double rate();
+
+            @WithDefault("1000000")
+            int maxRows();
+
+            /**
+             * Tamaño máximo del archivo recibido; se corta la copia al superarlo para no llenar el volumen compartido.
+             */
+            @WithDefault("67108864")
+            long maxBytes();
+        }
+    }
 }
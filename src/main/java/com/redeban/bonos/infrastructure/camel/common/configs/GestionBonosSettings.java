@@ -0,0 +1,265 @@
+package com.redeban.bonos.infrastructure.camel.common.configs;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Copia inmutable y aplanada de la configuración que usa cada solicitud: constantes de la trama, catálogo de
+ * documentos en ambos sentidos, códigos y descripciones de error, estados HTTP ya convertidos y presupuestos
+ * de tiempo. Se construye una vez (y en cada recarga) para que la ruta de la solicitud no recorra los proxies
+ * de {@link GestionBonosProperties}.
+ *
+ * <p>{@code overrides} son valores por nombre de variable de entorno ({@code BONOS_CODIGO_APLICACION},
+ * {@code BONOS_DOCUMENTO_CC}...) que reemplazan a los de la configuración, típicamente los archivos del
+ * ConfigMap montado.</p>
+ */
+public final class GestionBonosSettings {
+
+    private static final int NUMERIC_CODES = 100;
+
+    private final String storedProcedure;
+    private final Map<String, String> tramaConstants;
+    private final Map<String, String> codigoPorTipo;
+    private final String[] tipoPorCodigoNumerico = new String[NUMERIC_CODES];
+    private final Map<String, String> tipoPorCodigo = new HashMap<>();
+    private final Respuesta e01;
+    private final Respuesta e03;
+    private final Respuesta e08;
+    private final Respuesta e09;
+    private final Respuesta e10;
+    private final Respuesta e11;
+    private final Respuesta e12;
+    private final String hostSinResultados;
+    private final String hostComercioBloqueado;
+    private final int httpErrorGeneral;
+    private final int httpErrorEstructura;
+    private final Duration timeoutCrear;
+    private final Duration timeoutActivar;
+    private final Duration timeoutRecuperar;
+    private final boolean headerTimestamp;
+
+    private GestionBonosSettings(GestionBonosProperties properties, Map<String, String> overrides) {
+        Function<String, String> env = overrides::get;
+        this.storedProcedure = value(env, "BONOS_AS400_SP", properties.storedProcedure());
+
+        Map<String, String> constants = new HashMap<>();
+        constants.put("codigo.aplicacion", value(env, "BONOS_CODIGO_APLICACION", properties.codigo().aplicacion()));
+        constants.put("codigo.switch", value(env, "BONOS_CODIGO_SWITCH", properties.codigo().switchCode()));
+        constants.put("codigo.novedad.crear",
+                value(env, "BONOS_CODIGO_NOVEDAD_CREAR", properties.codigo().novedad().crear()));
+        constants.put("codigo.novedad.activar",
+                value(env, "BONOS_CODIGO_NOVEDAD_ACTIVAR", properties.codigo().novedad().activar()));
+        constants.put("codigo.novedad.consultar",
+                value(env, "BONOS_CODIGO_NOVEDAD_CONSULTAR", properties.codigo().novedad().consultar()));
+        constants.put("codigo.transaccion.activacion",
+                value(env, "BONOS_CODIGO_TX_ACTIVACION", properties.codigo().transaccion().activacion()));
+        constants.put("dispositivo.activacion",
+                value(env, "BONOS_DISPOSITIVO_ACTIVACION", properties.dispositivo().activacion()));
+        constants.put("tipo.transaccion.activacion",
+                value(env, "BONOS_TIPO_TX_ACTIVACION", properties.tipo().transaccion().activacion()));
+        this.tramaConstants = Map.copyOf(constants);
+
+        // Orden alfabético por tipo: si dos tipos comparten código, la búsqueda inversa es determinista.
+        Map<String, String> documentos = new TreeMap<>(properties.documentos());
+        overrides.forEach((name, codigo) -> {
+            if (name.startsWith("BONOS_DOCUMENTO_") && name.length() > "BONOS_DOCUMENTO_".length()) {
+                documentos.put(name.substring("BONOS_DOCUMENTO_".length()), codigo);
+            }
+        });
+        this.codigoPorTipo = Map.copyOf(documentos);
+        documentos.forEach((tipo, codigo) -> {
+            int index = numericIndex(codigo);
+            if (index >= 0) {
+                if (tipoPorCodigoNumerico[index] == null) {
+                    tipoPorCodigoNumerico[index] = tipo;
+                }
+            } else {
+                tipoPorCodigo.putIfAbsent(codigo, tipo);
+            }
+        });
+
+        GestionBonosProperties.Codigo codigo = properties.codigo();
+        GestionBonosProperties.Descripcion descripcion = properties.descripcion();
+        this.e01 = respuesta(env, "E01", codigo.e01(), descripcion.e01());
+        this.e03 = respuesta(env, "E03", codigo.e03(), descripcion.e03());
+        this.e08 = respuesta(env, "E08", codigo.e08(), descripcion.e08());
+        this.e09 = respuesta(env, "E09", codigo.e09(), descripcion.e09());
+        this.e10 = respuesta(env, "E10", codigo.e10(), descripcion.e10());
+        this.e11 = respuesta(env, "E11", codigo.e11(), descripcion.e11());
+        this.e12 = respuesta(env, "E12", codigo.e12(), descripcion.e12());
+        this.hostSinResultados = value(env, "BONOS_CODIGO_HOST_SIN_RESULTADOS", codigo.host().sinResultados());
+        this.hostComercioBloqueado = value(env, "BONOS_CODIGO_HOST_COMERCIO_BLOQUEADO",
+                codigo.host().comercioBloqueado());
+        this.httpErrorGeneral = toInt(value(env, "HTTP_ERROR_GENERAL",
+                properties.codigoRespuesta().error().general()), 500);
+        this.httpErrorEstructura = toInt(value(env, "HTTP_ERROR_ESTRUCTURA",
+                properties.codigoRespuesta().error().estructura()), 400);
+
+        GestionBonosProperties.Timeout timeout = properties.timeout();
+        this.timeoutCrear = duration(env, "BONOS_TIMEOUT_CREAR", timeout.crear());
+        this.timeoutActivar = duration(env, "BONOS_TIMEOUT_ACTIVAR", timeout.activar());
+        this.timeoutRecuperar = duration(env, "BONOS_TIMEOUT_RECUPERAR", timeout.recuperar());
+        this.headerTimestamp = Boolean.parseBoolean(value(env, "BONOS_TIMEOUT_HEADER_TIMESTAMP",
+                String.valueOf(timeout.headerTimestamp())));
+    }
+
+    public static GestionBonosSettings of(GestionBonosProperties properties, Map<String, String> overrides) {
+        return new GestionBonosSettings(properties, overrides);
+    }
+
+    public String storedProcedure() {
+        return storedProcedure;
+    }
+
+    /**
+     * Constante de la trama por el nombre con que la refieren los layouts ({@code codigo.aplicacion}...).
+     */
+    public String tramaConstant(String property) {
+        String value = tramaConstants.get(property);
+        if (value == null) {
+            throw new IllegalArgumentException("Propiedad de trama desconocida: " + property);
+        }
+        return value;
+    }
+
+    /**
+     * Código AS400 del tipo de documento ({@code CC} → {@code 01}), o {@code null} si no existe.
+     */
+    public String codigoDocumento(String tipoDocumento) {
+        return codigoPorTipo.get(tipoDocumento);
+    }
+
+    /**
+     * Tipo de documento del código AS400 ({@code 01} → {@code CC}), o {@code null} si no existe. Los códigos
+     * numéricos de hasta dos dígitos se resuelven por índice.
+     */
+    public String tipoDocumento(String codigoDocumento) {
+        if (codigoDocumento == null) {
+            return null;
+        }
+        int index = numericIndex(codigoDocumento);
+        return index >= 0 ? tipoPorCodigoNumerico[index] : tipoPorCodigo.get(codigoDocumento);
+    }
+
+    public Respuesta e01() {
+        return e01;
+    }
+
+    public Respuesta e03() {
+        return e03;
+    }
+
+    public Respuesta e08() {
+        return e08;
+    }
+
+    public Respuesta e09() {
+        return e09;
+    }
+
+    public Respuesta e10() {
+        return e10;
+    }
+
+    public Respuesta e11() {
+        return e11;
+    }
+
+    public Respuesta e12() {
+        return e12;
+    }
+
+    /**
+     * Código de AUBONB1 para "la consulta no arroja resultados".
+     */
+    public String hostSinResultados() {
+        return hostSinResultados;
+    }
+
+    /**
+     * Código de AUBONB1 para "comercio bloqueado".
+     */
+    public String hostComercioBloqueado() {
+        return hostComercioBloqueado;
+    }
+
+    public int httpErrorGeneral() {
+        return httpErrorGeneral;
+    }
+
+    public int httpErrorEstructura() {
+        return httpErrorEstructura;
+    }
+
+    public Duration timeoutCrear() {
+        return timeoutCrear;
+    }
+
+    public Duration timeoutActivar() {
+        return timeoutActivar;
+    }
+
+    public Duration timeoutRecuperar() {
+        return timeoutRecuperar;
+    }
+
+    public boolean headerTimestamp() {
+        return headerTimestamp;
+    }
+
+    /**
+     * {@code true} si las constantes de la trama difieren de las de {@code other}.
+     */
+    public boolean tramaChanged(GestionBonosSettings other) {
+        return other == null || !tramaConstants.equals(other.tramaConstants);
+    }
+
+    /**
+     * Índice de un código de exactamente dos dígitos ASCII ({@code 00}–{@code 99}), o {@code -1}.
+     */
+    private static int numericIndex(String codigo) {
+        if (codigo.length() != 2) {
+            return -1;
+        }
+        int tens = codigo.charAt(0) - '0';
+        int units = codigo.charAt(1) - '0';
+        if (tens < 0 || tens > 9 || units < 0 || units > 9) {
+            return -1;
+        }
+        return tens * 10 + units;
+    }
+
+    private static Respuesta respuesta(Function<String, String> env, String code, String codigo,
+                                       String descripcion) {
+        return new Respuesta(value(env, "BONOS_CODIGO_" + code, codigo),
+                value(env, "BONOS_DESCRIPCION_" + code, descripcion));
+    }
+
+    private static String value(Function<String, String> env, String name, String defaultValue) {
+        // Igual que en la configuración, un valor vacío cuenta como no definido.
+        String value = env.apply(name);
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+
+    private static Duration duration(Function<String, String> env, String name, Duration defaultValue) {
+        String value = env.apply(name);
+        return value == null || value.isBlank() ? defaultValue : Duration.parse(value);
+    }
+
+    private static int toInt(String value, int defaultValue) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Código y descripción de una respuesta funcional.
+     */
+    public record Respuesta(String codigo, String descripcion) {
+    }
+}
@@ -0,0 +1,148 @@
+package com.redeban.bonos.infrastructure.camel.common.configs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Mantiene el {@link GestionBonosSettings} vigente.
+ *
+ * <p>Al arrancar lo construye desde la configuración. Si {@code bonos.reload.dir} apunta al ConfigMap montado
+ * como volumen (un archivo por variable, actualizado por el kubelet), revisa los archivos cada
+ * {@code bonos.reload.interval}. Cuando cambian, construye una nueva copia con esos valores por encima de los
+ * de arranque y la reemplaza de forma atómica. Una copia inválida se descarta y se conserva la vigente. Las
+ * variables que no forman parte de la copia (datasource, pool...) siguen requiriendo reinicio.</p>
+ */
+@ApplicationScoped
+public class GestionBonosSettingsProvider {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GestionBonosSettingsProvider.class);
+
+    private final GestionBonosProperties properties;
+    private final List<Consumer<GestionBonosSettings>> listeners = new CopyOnWriteArrayList<>();
+    private final Counter reloadOk;
+    private final Counter reloadError;
+    private ScheduledExecutorService reloader;
+    private volatile GestionBonosSettings current;
+    private volatile Map<String, String> loadedOverrides = Map.of();
+
+    @Inject
+    public GestionBonosSettingsProvider(GestionBonosProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.reloadOk = Counter.builder("bonos.config.reload").tag("result", "ok")
+                .description("Recargas de la configuración de negocio desde el ConfigMap montado")
+                .register(meterRegistry);
+        this.reloadError = Counter.builder("bonos.config.reload").tag("result", "error")
+                .description("Recargas de la configuración de negocio descartadas por error")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        Map<String, String> overrides = readOverrides();
+        current = GestionBonosSettings.of(properties, overrides);
+        loadedOverrides = overrides;
+        long interval = properties.reload().interval().toMillis();
+        if (properties.reload().dir().isPresent() && interval > 0) {
+            reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "bonos-config-reload");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reloader.scheduleWithFixedDelay(this::reloadIfChanged, interval, interval, TimeUnit.MILLISECONDS);
+            LOGGER.info("Recarga de configuración de negocio activa desde {} cada {}",
+                    properties.reload().dir().get(), properties.reload().interval());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    public GestionBonosSettings current() {
+        return current;
+    }
+
+    /**
+     * Registra una acción a ejecutar (en el hilo de recarga) cada vez que se reemplaza la copia vigente.
+     */
+    public void onChange(Consumer<GestionBonosSettings> listener) {
+        listeners.add(listener);
+    }
+
+    void reloadIfChanged() {
+        Map<String, String> overrides = readOverrides();
+        if (overrides.equals(loadedOverrides)) {
+            return;
+        }
+        loadedOverrides = overrides;
+        GestionBonosSettings settings;
+        try {
+            settings = GestionBonosSettings.of(properties, overrides);
+        } catch (RuntimeException ex) {
+            reloadError.increment();
+            LOGGER.error("Configuración de negocio inválida en {}, se conserva la vigente: {}",
+                    properties.reload().dir().orElse(""), ex.getMessage());
+            return;
+        }
+        current = settings;
+        reloadOk.increment();
+        LOGGER.info("Configuración de negocio recargada desde {}", properties.reload().dir().orElse(""));
+        for (Consumer<GestionBonosSettings> listener : listeners) {
+            try {
+                listener.accept(settings);
+            } catch (RuntimeException ex) {
+                LOGGER.error("Error aplicando la configuración de negocio recargada: {}", ex.getMessage(), ex);
+            }
+        }
+    }
+
+    /**
+     * Lee el ConfigMap montado: cada archivo es una variable y su contenido el valor. Se ignoran las entradas
+     * internas del volumen ({@code ..data}, {@code ..2024_...}).
+     */
+    private Map<String, String> readOverrides() {
+        if (properties.reload().dir().isEmpty()) {
+            return Map.of();
+        }
+        Path directory = Path.of(properties.reload().dir().get());
+        if (!Files.isDirectory(directory)) {
+            LOGGER.warn("Directorio de configuración {} no existe", directory);
+            return loadedOverrides;
+        }
+        Map<String, String> overrides = new HashMap<>();
+        try (Stream<Path> entries = Files.list(directory)) {
+            List<Path> files = entries.filter(path -> !path.getFileName().toString().startsWith("."))
+                    .filter(Files::isRegularFile)
+                    .toList();
+            for (Path file : files) {
+                overrides.put(file.getFileName().toString(), Files.readString(file, StandardCharsets.UTF_8).strip());
+            }
+        } catch (IOException ex) {
+            LOGGER.warn("No se pudo leer el directorio de configuración {}: {}", directory, ex.getMessage());
+            return loadedOverrides;
+        }
+        return overrides;
+    }
+}
@@ -0,0 +1,137 @@
+package com.redeban.bonos.infrastructure.in.job;
+
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.redeban.bonos.infrastructure.in.rest.dto.ActivacionJobResponseDto;
+
+/**
+ * Estado en memoria de un job de activación. Lo reconstruye la bitácora: al tomar el job y, para los jobs de otro
+ * pod, en cada consulta.
+ */
+final class ActivacionJob {
+
+    static final int HTTP_OK = 200;
+
+    enum Estado {
+        EN_COLA, EN_CURSO, TERMINADO, FALLIDO
+    }
+
+    private final Metadata metadata;
+    private final Path dir;
+    private final AtomicLong filasLeidas = new AtomicLong();
+    private final LongAdder exitosas = new LongAdder();
+    private final LongAdder fallidas = new LongAdder();
+    private final AtomicLong enDuda = new AtomicLong();
+    private final AtomicLong enCurso = new AtomicLong();
+    private final ConcurrentHashMap<String, LongAdder> codigos = new ConcurrentHashMap<>();
+    private volatile Estado estado = Estado.EN_COLA;
+    private volatile OffsetDateTime actualizado;
+    private volatile String detalle;
+
+    ActivacionJob(Metadata metadata, Path dir) {
+        this.metadata = metadata;
+        this.dir = dir;
+        this.actualizado = metadata.creado();
+    }
+
+    String id() {
+        return metadata.id();
+    }
+
+    Metadata metadata() {
+        return metadata;
+    }
+
+    Path input() {
+        return dir.resolve("input.csv");
+    }
+
+    Path journal() {
+        return dir.resolve("journal.log");
+    }
+
+    /**
+     * Archivo sobre el que el pod que procesa el job mantiene un bloqueo.
+     */
+    Path owner() {
+        return dir.resolve("owner.lock");
+    }
+
+    void estado(Estado estado, String detalle) {
+        this.estado = estado;
+        if (detalle != null) {
+            this.detalle = detalle;
+        }
+        this.actualizado = OffsetDateTime.now();
+    }
+
+    void actualizado(OffsetDateTime actualizado) {
+        this.actualizado = actualizado;
+    }
+
+    void filasLeidas(long filas) {
+        filasLeidas.set(filas);
+    }
+
+    void enDuda(long filas) {
+        enDuda.set(filas);
+    }
+
+    void enCurso(long filas) {
+        enCurso.set(filas);
+    }
+
+    void launched() {
+        enCurso.incrementAndGet();
+    }
+
+    /**
+     * Cuenta una fila terminada; {@code enviada} indica si estaba en curso contra el AS400.
+     */
+    void record(int estadoHttp, String codigo, boolean enviada) {
+        if (estadoHttp == HTTP_OK) {
+            exitosas.increment();
+        } else {
+            fallidas.increment();
+        }
+        codigos.computeIfAbsent(codigo == null ? "-" : codigo, ignored -> new LongAdder()).increment();
+        if (enviada) {
+            enCurso.decrementAndGet();
+        }
+        actualizado = OffsetDateTime.now();
+    }
+
+    ActivacionJobResponseDto toDto() {
+        ActivacionJobResponseDto dto = new ActivacionJobResponseDto();
+        dto.setId(metadata.id());
+        dto.setEstado(estado.name());
+        dto.setBin(metadata.bin());
+        dto.setNit(metadata.nit());
+        dto.setSubtipo(metadata.subtipo());
+        dto.setFilasLeidas(filasLeidas.get());
+        dto.setExitosas(exitosas.sum());
+        dto.setFallidas(fallidas.sum());
+        dto.setEnDuda(enDuda.get());
+        dto.setEnCurso(enCurso.get());
+        Map<String, Long> porCodigo = new TreeMap<>();
+        codigos.forEach((codigo, count) -> porCodigo.put(codigo, count.sum()));
+        dto.setCodigos(porCodigo);
+        dto.setCreado(metadata.creado());
+        dto.setActualizado(actualizado);
+        dto.setDetalle(detalle);
+        return dto;
+    }
+
+    /**
+     * Datos del job que se guardan en {@code job.json} junto al archivo.
+     */
+    record Metadata(String id, String bin, String nit, String subtipo, String nombreAplicacion,
+                    String ipAplicacion, OffsetDateTime creado) {
+    }
+}
@@ -0,0 +1,223 @@
+package com.redeban.bonos.infrastructure.in.job;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Bitácora de avance de un job de activación, sólo de escritura al final. Cada línea es un evento:
+ *
+ * <ul>
+ *   <li>{@code S <fila>}: la fila se va a enviar al AS400.</li>
+ *   <li>{@code D <fila> <estado> <codigo>}: la fila terminó con ese estado HTTP y código de respuesta o de
+ *   error.</li>
+ *   <li>{@code U <fila>}: la fila se envió pero su resultado se perdió en un reinicio.</li>
+ *   <li>{@code F}: el job terminó.</li>
+ * </ul>
+ *
+ * <p>Las {@code S} se fuerzan a disco antes de invocar al host, así que una fila enviada nunca parece pendiente
+ * después de un reinicio: si no tiene {@code D} queda en duda y no se vuelve a enviar. Las {@code D} no se
+ * fuerzan una a una; las persiste el siguiente {@link #started} o {@link #finished}, y perder alguna sólo deja la
+ * fila en duda.</p>
+ *
+ * <p>Al abrirla se descarta una línea cortada a medias al final, para que el siguiente evento no quede pegado a
+ * ella y se pierda al leerla.</p>
+ *
+ * <p>Se escribe con un {@link RandomAccessFile} y no con un {@code FileChannel}: al apagar el pod se interrumpe el
+ * hilo del job, y un canal usado desde un hilo interrumpido se cierra, con lo que se perderían los resultados de
+ * las filas en curso.</p>
+ */
+final class ActivacionJournal implements Closeable {
+
+    private final RandomAccessFile file;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private ActivacionJournal(RandomAccessFile file) {
+        this.file = file;
+    }
+
+    /**
+     * Abre la bitácora para seguir escribiendo al final. Si la última línea quedó a medias se trunca: una
+     * {@code S} cortada no llegó a forzarse, así que el AS400 no se invocó para esa fila; una {@code D} cortada
+     * deja la fila en duda; una {@code U} cortada se vuelve a escribir.
+     */
+    static ActivacionJournal open(Path path) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw");
+        try {
+            long end = lastLineEnd(file);
+            if (end < file.length()) {
+                file.setLength(end);
+                file.getFD().sync();
+            }
+            file.seek(end);
+        } catch (IOException | RuntimeException ex) {
+            file.close();
+            throw ex;
+        }
+        return new ActivacionJournal(file);
+    }
+
+    /**
+     * Posición siguiente al último {@code '\n'}, o cero si no hay ninguna línea completa.
+     */
+    private static long lastLineEnd(RandomAccessFile file) throws IOException {
+        byte[] block = new byte[512];
+        long end = file.length();
+        while (end > 0) {
+            int length = (int) Math.min(block.length, end);
+            long start = end - length;
+            file.seek(start);
+            file.readFully(block, 0, length);
+            for (int i = length - 1; i >= 0; i--) {
+                if (block[i] == '\n') {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0;
+    }
+
+    /**
+     * Registra las filas que se van a enviar y espera a que estén en disco.
+     */
+    void started(List<Integer> filas) throws IOException {
+        StringBuilder events = new StringBuilder(filas.size() * 8);
+        for (int fila : filas) {
+            events.append("S ").append(fila).append('\n');
+        }
+        append(events, true);
+    }
+
+    void done(int fila, int estado, String codigo) throws IOException {
+        append(new StringBuilder(24).append("D ").append(fila).append(' ').append(estado).append(' ')
+                .append(codigo == null || codigo.isBlank() ? "-" : codigo.strip().replace(' ', '_')).append('\n'),
+                false);
+    }
+
+    void inDoubt(BitSet filas) throws IOException {
+        if (filas.isEmpty()) {
+            return;
+        }
+        StringBuilder events = new StringBuilder();
+        filas.stream().forEach(fila -> events.append("U ").append(fila).append('\n'));
+        append(events, true);
+    }
+
+    void finished() throws IOException {
+        append(new StringBuilder("F\n"), true);
+    }
+
+    private void append(CharSequence events, boolean force) throws IOException {
+        byte[] bytes = events.toString().getBytes(StandardCharsets.US_ASCII);
+        lock.lock();
+        try {
+            file.write(bytes);
+            if (force) {
+                file.getFD().sync();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try (RandomAccessFile closing = file) {
+            closing.getFD().sync();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reconstruye el avance a partir de la bitácora. Una línea incompleta al final (corte durante la escritura)
+     * se ignora; {@link #open} la trunca antes de seguir escribiendo. {@code results} recibe el estado y código
+     * de cada fila terminada.
+     */
+    static Replay replay(Path file, BiConsumer<Integer, String> results) throws IOException {
+        Replay replay = new Replay();
+        if (!Files.exists(file)) {
+            return replay;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(" ");
+                try {
+                    switch (parts[0]) {
+                        case "S" -> replay.started.set(Integer.parseInt(parts[1]));
+                        case "D" -> {
+                            if (parts.length == 4) {
+                                int fila = Integer.parseInt(parts[1]);
+                                int estado = Integer.parseInt(parts[2]);
+                                replay.started.set(fila);
+                                replay.done.set(fila);
+                                results.accept(estado, parts[3]);
+                            }
+                        }
+                        case "U" -> replay.inDoubt.set(Integer.parseInt(parts[1]));
+                        case "F" -> replay.finished = true;
+                        default -> {
+                            // Línea vacía o incompleta.
+                        }
+                    }
+                } catch (RuntimeException ex) {
+                    // Línea incompleta: se escribió a medias antes del corte.
+                }
+            }
+        }
+        return replay;
+    }
+
+    static final class Replay {
+
+        private final BitSet started = new BitSet();
+        private final BitSet done = new BitSet();
+        private final BitSet inDoubt = new BitSet();
+        private boolean finished;
+
+        /**
+         * {@code true} si la fila ya se envió (terminada o en duda) y no se debe volver a enviar.
+         */
+        boolean isSent(int fila) {
+            return started.get(fila);
+        }
+
+        /**
+         * Filas enviadas sin resultado que todavía no están marcadas en duda.
+         */
+        BitSet unresolved() {
+            BitSet unresolved = (BitSet) started.clone();
+            unresolved.andNot(done);
+            unresolved.andNot(inDoubt);
+            return unresolved;
+        }
+
+        /**
+         * Última fila con algún evento, enviada o rechazada por validación.
+         */
+        int lastRow() {
+            return Math.max(started.length() - 1, 0);
+        }
+
+        int inDoubtCount() {
+            BitSet all = (BitSet) started.clone();
+            all.andNot(done);
+            return all.cardinality();
+        }
+
+        boolean finished() {
+            return finished;
+        }
+    }
+}
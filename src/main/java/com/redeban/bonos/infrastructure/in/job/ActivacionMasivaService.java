@@ -0,0 +1,689 @@
+package com.redeban.bonos.infrastructure.in.job;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.redeban.bonos.domain.exception.BonoBusinessException;
+import com.redeban.bonos.domain.model.ActivarBonoResponse;
+import com.redeban.bonos.domain.model.HeaderContext;
+import com.redeban.bonos.domain.port.in.GestionBonosInPort;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosSettings;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosSettingsProvider;
+import com.redeban.bonos.infrastructure.in.rest.HeaderContextFactory;
+import com.redeban.bonos.infrastructure.in.rest.RestErrorMapper;
+import com.redeban.bonos.infrastructure.in.rest.dto.ActivacionJobResponseDto;
+import com.redeban.bonos.infrastructure.in.rest.dto.ActivarBonoRequestDto;
+import com.redeban.bonos.infrastructure.in.rest.dto.CommonBonoRequestDto;
+import com.redeban.bonos.infrastructure.out.mapper.GestionBonosMapper;
+
+/**
+ * Jobs de activación masiva a partir de un archivo CSV ({@code numeroBono,valorCarga,numeroAuditoria,consecutivo}
+ * por fila, separado por coma o punto y coma, con encabezado opcional) de un comercio.
+ *
+ * <p>El archivo se guarda en {@code bonos.lote.activacion.dir/<id>} y se procesa en segundo plano, un job a la
+ * vez y leyendo fila a fila: a lo sumo {@code parallelism} filas en curso contra el AS400 y {@code rate} filas
+ * por segundo. El avance queda en una {@link ActivacionJournal bitácora}; al arrancar, los jobs sin terminar se
+ * reanudan desde la primera fila no enviada. Una fila enviada cuyo resultado se perdió en el reinicio no se
+ * vuelve a enviar: queda en duda para revisión manual, de modo que ningún bono se activa dos veces.</p>
+ *
+ * <p>El directorio puede ser un volumen compartido por los pods. Cada job lo procesa un solo pod, el que tiene el
+ * bloqueo de su {@code owner.lock}; los demás lo consultan leyendo la bitácora. Si ese pod se detiene, el
+ * bloqueo se libera y otro pod reanuda el job en su siguiente búsqueda ({@code scan-interval}).</p>
+ */
+@ApplicationScoped
+public class ActivacionMasivaService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ActivacionMasivaService.class);
+
+    private static final String METADATA = "job.json";
+    private static final int COLUMNS = 4;
+    private static final Pattern JOB_ID = Pattern.compile("[A-Za-z0-9-]+");
+
+    private final GestionBonosInPort gestionBonosUseCase;
+    private final GestionBonosMapper mapper;
+    private final RestErrorMapper restErrorMapper;
+    private final GestionBonosSettingsProvider settings;
+    private final HeaderContextFactory headerContextFactory;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final GestionBonosProperties.Lote.Activacion config;
+    private final Path root;
+    private final ConcurrentHashMap<String, ActivacionJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService runner;
+    private final ReentrantLock claims = new ReentrantLock();
+    private ScheduledExecutorService scanner;
+    private volatile boolean stopping;
+
+    private final Counter exitosas;
+    private final Counter fallidas;
+    private final Counter enDuda;
+
+    @Inject
+    public ActivacionMasivaService(GestionBonosInPort gestionBonosUseCase,
+                                   GestionBonosMapper mapper,
+                                   RestErrorMapper restErrorMapper,
+                                   GestionBonosSettingsProvider settings,
+                                   HeaderContextFactory headerContextFactory,
+                                   ObjectMapper objectMapper,
+                                   Validator validator,
+                                   GestionBonosProperties properties,
+                                   MeterRegistry meterRegistry) {
+        this.gestionBonosUseCase = gestionBonosUseCase;
+        this.mapper = mapper;
+        this.restErrorMapper = restErrorMapper;
+        this.settings = settings;
+        this.headerContextFactory = headerContextFactory;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.config = properties.lote().activacion();
+        this.root = Paths.get(config.dir());
+        this.runner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bonos-activacion-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.exitosas = filas(meterRegistry, "exitosa");
+        this.fallidas = filas(meterRegistry, "fallida");
+        this.enDuda = filas(meterRegistry, "en-duda");
+    }
+
+    /**
+     * Toma los jobs del directorio que ningún pod procesa y, si {@code scan-interval} no es cero, vuelve a
+     * buscarlos periódicamente para reanudar los de un pod que se detuvo.
+     */
+    void onStart(@Observes StartupEvent ignored) {
+        try {
+            Files.createDirectories(root);
+        } catch (IOException ex) {
+            LOGGER.error("Directorio de jobs de activación {} no disponible", root, ex);
+            return;
+        }
+        int found = scan();
+        if (found > 0) {
+            LOGGER.info("Jobs de activación encontrados en {}: {}", root, found);
+        }
+        long interval = config.scanInterval().toMillis();
+        if (interval > 0) {
+            scanner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "bonos-activacion-scan");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scanner.scheduleWithFixedDelay(this::rescan, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Guarda el archivo y encola el job. El comercio se valida antes de leer el cuerpo; las filas se validan al
+     * procesarlas.
+     */
+    public ActivacionJobResponseDto submit(CommonBonoRequestDto comercio, String nombreAplicacion,
+                                           String ipAplicacion, InputStream body) throws IOException {
+        Set<ConstraintViolation<CommonBonoRequestDto>> violations = validator.validate(comercio);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        ActivacionJob.Metadata metadata = new ActivacionJob.Metadata(UUID.randomUUID().toString(),
+                comercio.getBin(), comercio.getNit(), comercio.getSubtipo(), nombreAplicacion, ipAplicacion,
+                OffsetDateTime.now());
+        Path dir = Files.createDirectories(root.resolve(metadata.id()));
+        Path partial = dir.resolve("input.part");
+        try {
+            copy(body, partial, config.maxBytes());
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(partial);
+            Files.deleteIfExists(dir);
+            throw ex;
+        }
+        objectMapper.writeValue(dir.resolve(METADATA).toFile(), metadata);
+        ActivacionJob job = new ActivacionJob(metadata, dir);
+        FileLock owner;
+        claims.lock();
+        try {
+            owner = claim(job);
+            if (owner == null) {
+                throw new IOException("bloqueo de " + job.owner() + " no disponible");
+            }
+            jobs.put(job.id(), job);
+        } finally {
+            claims.unlock();
+        }
+        try {
+            // Sólo un directorio con input.csv es un job completo para la reanudación; ya tiene dueño.
+            Files.move(partial, job.input(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            jobs.remove(job.id());
+            release(job, owner);
+            throw ex;
+        }
+        start(job, owner);
+        LOGGER.info("Job de activación {} recibido (nit={} {} bytes)", job.id(), metadata.nit(),
+                Files.size(job.input()));
+        return job.toDto();
+    }
+
+    /**
+     * Estado del job. Los que procesa otro pod se leen de su bitácora en el directorio compartido.
+     */
+    public Optional<ActivacionJobResponseDto> status(String id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        ActivacionJob job = jobs.get(id);
+        if (job != null) {
+            return Optional.of(job.toDto());
+        }
+        if (!JOB_ID.matcher(id).matches()) {
+            return Optional.empty();
+        }
+        return load(root.resolve(id)).flatMap(this::snapshot);
+    }
+
+    public List<ActivacionJobResponseDto> list() {
+        List<ActivacionJobResponseDto> all = new ArrayList<>();
+        jobs.values().forEach(job -> all.add(job.toDto()));
+        try (Stream<Path> dirs = Files.list(root)) {
+            for (Path dir : (Iterable<Path>) dirs::iterator) {
+                if (!jobs.containsKey(dir.getFileName().toString())) {
+                    load(dir).flatMap(this::snapshot).ifPresent(all::add);
+                }
+            }
+        } catch (IOException ex) {
+            LOGGER.warn("Directorio de jobs de activación {} no disponible: {}", root, ex.getMessage());
+        }
+        all.sort(Comparator.comparing(ActivacionJobResponseDto::getCreado));
+        return all;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stopping = true;
+        if (scanner != null) {
+            scanner.shutdownNow();
+        }
+        runner.shutdownNow();
+    }
+
+    /**
+     * Toma los jobs del directorio que no están en este pod y cuyo bloqueo está libre: los terminados quedan para
+     * consulta y los demás se encolan por fecha de creación. Devuelve cuántos se tomaron.
+     */
+    int scan() {
+        List<ActivacionJob> found = new ArrayList<>();
+        try (Stream<Path> dirs = Files.list(root)) {
+            for (Path dir : (Iterable<Path>) dirs::iterator) {
+                if (!jobs.containsKey(dir.getFileName().toString())) {
+                    load(dir).ifPresent(found::add);
+                }
+            }
+        } catch (IOException ex) {
+            LOGGER.error("Directorio de jobs de activación {} no disponible", root, ex);
+            return 0;
+        }
+        found.sort(Comparator.comparing(job -> job.metadata().creado()));
+        int taken = 0;
+        for (ActivacionJob job : found) {
+            FileLock owner;
+            claims.lock();
+            try {
+                if (stopping || jobs.containsKey(job.id())) {
+                    continue;
+                }
+                owner = claim(job);
+                if (owner == null) {
+                    continue;
+                }
+                jobs.put(job.id(), job);
+            } catch (IOException ex) {
+                LOGGER.warn("Job de activación {}: bloqueo no disponible: {}", job.id(), ex.getMessage());
+                continue;
+            } finally {
+                claims.unlock();
+            }
+            start(job, owner);
+            taken++;
+        }
+        return taken;
+    }
+
+    private void rescan() {
+        int taken = scan();
+        if (taken > 0) {
+            LOGGER.info("Jobs de activación tomados de {}: {}", root, taken);
+        }
+    }
+
+    private Optional<ActivacionJob> load(Path dir) {
+        Path metadata = dir.resolve(METADATA);
+        if (!Files.isRegularFile(metadata) || !Files.isRegularFile(dir.resolve("input.csv"))) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new ActivacionJob(objectMapper.readValue(metadata.toFile(),
+                    ActivacionJob.Metadata.class), dir));
+        } catch (IOException ex) {
+            LOGGER.warn("Job de activación en {} ignorado: {}", dir, ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Bloqueo exclusivo sobre {@code owner.lock}, o {@code null} si lo tiene otro pod. El sistema de archivos lo
+     * libera solo si el pod muere, y así otro pod puede reanudar el job. Se llama bajo {@code claims} y sólo para
+     * jobs que no están en este pod: cerrar cualquier canal sobre el archivo libera los bloqueos del proceso.
+     */
+    private static FileLock claim(ActivacionJob job) throws IOException {
+        FileChannel channel = FileChannel.open(job.owner(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock = null;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException ex) {
+            // Ya es de este pod.
+        } finally {
+            if (lock == null) {
+                channel.close();
+            }
+        }
+        return lock;
+    }
+
+    private static void release(ActivacionJob job, FileLock owner) {
+        try {
+            owner.channel().close();
+        } catch (IOException ex) {
+            LOGGER.warn("Job de activación {}: no se pudo liberar el bloqueo: {}", job.id(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Avance de un job de otro pod leído de su bitácora: las filas enviadas sin resultado están en curso en ese
+     * pod.
+     */
+    private Optional<ActivacionJobResponseDto> snapshot(ActivacionJob job) {
+        ActivacionJournal.Replay replay;
+        try {
+            replay = ActivacionJournal.replay(job.journal(), (estado, codigo) -> job.record(estado, codigo, false));
+            if (Files.exists(job.journal())) {
+                job.actualizado(OffsetDateTime.ofInstant(Files.getLastModifiedTime(job.journal()).toInstant(),
+                        ZoneId.systemDefault()));
+            }
+        } catch (IOException ex) {
+            LOGGER.warn("Job de activación {}: no se pudo leer la bitácora: {}", job.id(), ex.getMessage());
+            return Optional.empty();
+        }
+        int enCurso = replay.unresolved().cardinality();
+        job.filasLeidas(replay.lastRow());
+        job.enCurso(enCurso);
+        job.enDuda(replay.inDoubtCount() - enCurso);
+        ActivacionJobResponseDto dto = job.toDto();
+        dto.setEstado(replay.finished() ? ActivacionJob.Estado.TERMINADO.name()
+                : ActivacionJob.Estado.EN_CURSO.name());
+        if (!replay.finished()) {
+            dto.setDetalle("en otro pod");
+        }
+        return Optional.of(dto);
+    }
+
+    /**
+     * Reconstruye el avance del job desde su bitácora y, si no terminó, lo encola. {@code owner} se libera al
+     * terminar o detener el job.
+     */
+    private void start(ActivacionJob job, FileLock owner) {
+        ActivacionJournal.Replay replay;
+        try {
+            replay = ActivacionJournal.replay(job.journal(), (estado, codigo) -> job.record(estado, codigo, false));
+        } catch (IOException ex) {
+            LOGGER.error("Job de activación {}: no se pudo leer la bitácora", job.id(), ex);
+            job.estado(ActivacionJob.Estado.FALLIDO, "bitácora ilegible: " + ex.getMessage());
+            release(job, owner);
+            return;
+        }
+        job.enDuda(replay.inDoubtCount());
+        if (replay.finished()) {
+            job.estado(ActivacionJob.Estado.TERMINADO, null);
+            release(job, owner);
+            return;
+        }
+        try {
+            runner.execute(() -> run(job, replay, owner));
+        } catch (RejectedExecutionException ex) {
+            // El pod se está deteniendo; otro pod lo reanuda.
+            release(job, owner);
+        }
+    }
+
+    private void run(ActivacionJob job, ActivacionJournal.Replay replay, FileLock owner) {
+        if (stopping) {
+            release(job, owner);
+            return;
+        }
+        job.estado(ActivacionJob.Estado.EN_CURSO, null);
+        int parallelism = Math.max(config.parallelism(), 1);
+        Semaphore permits = new Semaphore(parallelism);
+        Pacer pacer = new Pacer(config.rate());
+        long startNanos = System.nanoTime();
+        try (ActivacionJournal journal = ActivacionJournal.open(job.journal());
+             BufferedReader reader = Files.newBufferedReader(job.input(), StandardCharsets.UTF_8)) {
+            BitSet unresolved = replay.unresolved();
+            if (!unresolved.isEmpty()) {
+                LOGGER.warn("Job de activación {}: {} filas enviadas sin resultado antes del reinicio quedan en duda",
+                        job.id(), unresolved.cardinality());
+                enDuda.increment(unresolved.cardinality());
+                journal.inDoubt(unresolved);
+            }
+            try {
+                process(job, reader, journal, replay, permits, pacer, parallelism);
+            } finally {
+                awaitInFlight(job, permits, parallelism);
+            }
+            journal.finished();
+            job.estado(ActivacionJob.Estado.TERMINADO, null);
+            LOGGER.info("Job de activación {} terminado: {}", job.id(), summary(job, startNanos));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            job.estado(ActivacionJob.Estado.EN_COLA, "interrumpido; lo reanuda otro pod o este al reiniciar");
+            LOGGER.info("Job de activación {} interrumpido: {}", job.id(), summary(job, startNanos));
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.error("Job de activación {} fallido: {}", job.id(), summary(job, startNanos), ex);
+            job.estado(ActivacionJob.Estado.FALLIDO, ex.getMessage());
+        } finally {
+            release(job, owner);
+        }
+    }
+
+    /**
+     * Recorre el archivo. Las filas se envían en grupos: las {@code S} de un grupo se fuerzan a disco juntas y
+     * luego se invoca el AS400. Con límite de velocidad el grupo suele ser de una fila; sin límite se llena hasta
+     * los permisos libres.
+     */
+    private void process(ActivacionJob job, BufferedReader reader, ActivacionJournal journal,
+                         ActivacionJournal.Replay replay, Semaphore permits, Pacer pacer, int parallelism)
+            throws IOException, InterruptedException {
+        List<Fila> batch = new ArrayList<>(parallelism);
+        try {
+            read(job, reader, journal, replay, permits, pacer, batch);
+        } catch (InterruptedException ex) {
+            // Las filas del grupo sin lanzar no están en la bitácora: se envían al reanudar y no se esperan.
+            permits.release(batch.size());
+            batch.clear();
+            throw ex;
+        }
+        launch(job, journal, batch, permits);
+    }
+
+    private void read(ActivacionJob job, BufferedReader reader, ActivacionJournal journal,
+                      ActivacionJournal.Replay replay, Semaphore permits, Pacer pacer, List<Fila> batch)
+            throws IOException, InterruptedException {
+        int fila = 0;
+        boolean header = true;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] columns = columns(line);
+            if (header) {
+                header = false;
+                if (!StringUtils.isNumeric(columns[0])) {
+                    continue;
+                }
+            }
+            if (fila >= config.maxRows()) {
+                job.estado(ActivacionJob.Estado.EN_CURSO, "el archivo supera " + config.maxRows()
+                        + " filas; las siguientes no se procesan");
+                break;
+            }
+            fila++;
+            job.filasLeidas(fila);
+            if (replay.isSent(fila)) {
+                continue;
+            }
+            if (stopping || Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+            ActivarBonoRequestDto dto = toDto(job.metadata(), columns);
+            Set<ConstraintViolation<ActivarBonoRequestDto>> violations = columns.length == COLUMNS
+                    ? validator.validate(dto) : Set.of();
+            if (columns.length != COLUMNS || !violations.isEmpty()) {
+                RestErrorMapper.ErrorWrapper error = restErrorMapper.toError(columns.length != COLUMNS
+                        ? structureError("se esperaban " + COLUMNS + " columnas")
+                        : new ConstraintViolationException(violations));
+                journal.done(fila, error.status(), error.body().getCodigoError());
+                job.record(error.status(), error.body().getCodigoError(), false);
+                fallidas.increment();
+                continue;
+            }
+            permits.acquire();
+            try {
+                pacer.await();
+            } catch (InterruptedException ex) {
+                permits.release();
+                throw ex;
+            }
+            batch.add(new Fila(fila, dto));
+            if (permits.availablePermits() == 0 || pacer.limited()) {
+                launch(job, journal, batch, permits);
+            }
+        }
+    }
+
+    private void launch(ActivacionJob job, ActivacionJournal journal, List<Fila> batch, Semaphore permits)
+            throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            journal.started(batch.stream().map(Fila::numero).toList());
+        } catch (IOException ex) {
+            permits.release(batch.size());
+            batch.clear();
+            throw ex;
+        }
+        Duration budget = settings.current().timeoutActivar();
+        for (Fila fila : batch) {
+            job.launched();
+            HeaderContext headerContext = headerContextFactory.create(job.id() + "-" + fila.numero(),
+                    job.metadata().nombreAplicacion(), job.metadata().ipAplicacion(), null, OffsetDateTime.now(),
+                    budget);
+            CompletionStage<ActivarBonoResponse> stage;
+            try {
+                stage = gestionBonosUseCase.activarBonoAsync(mapper.toDomain(fila.dto()), headerContext);
+            } catch (RuntimeException ex) {
+                stage = CompletableFuture.failedFuture(ex);
+            }
+            stage.whenComplete((response, error) -> {
+                try {
+                    complete(job, journal, fila.numero(), response, error);
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+        batch.clear();
+    }
+
+    private void complete(ActivacionJob job, ActivacionJournal journal, int fila, ActivarBonoResponse response,
+                          Throwable error) {
+        int estado;
+        String codigo;
+        if (error == null && response != null) {
+            estado = ActivacionJob.HTTP_OK;
+            codigo = StringUtils.trim(response.getCodigoRespuesta());
+            exitosas.increment();
+        } else {
+            RestErrorMapper.ErrorWrapper errorWrapper = restErrorMapper.toError(error);
+            estado = errorWrapper.status();
+            codigo = errorWrapper.body().getCodigoError();
+            fallidas.increment();
+            LOGGER.warn("Job de activación {} fila {}: {} {}", job.id(), fila, codigo,
+                    errorWrapper.body().getDescripcionError());
+        }
+        try {
+            journal.done(fila, estado, codigo);
+        } catch (IOException ex) {
+            // La fila queda en duda si el pod se reinicia antes del siguiente registro.
+            LOGGER.warn("Job de activación {} fila {}: resultado no registrado en la bitácora: {}", job.id(), fila,
+                    ex.getMessage());
+        }
+        job.record(estado, codigo, true);
+    }
+
+    /**
+     * Espera a las filas en curso para que su resultado quede en la bitácora antes de cerrarla. Si el hilo se
+     * interrumpió (apagado del pod) se espera a lo sumo el timeout de activarBono.
+     */
+    private void awaitInFlight(ActivacionJob job, Semaphore permits, int parallelism) throws InterruptedException {
+        boolean interrupted = Thread.interrupted();
+        try {
+            if (!permits.tryAcquire(parallelism, settings.current().timeoutActivar().toMillis() + 1000,
+                    TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("Job de activación {}: filas en curso sin resultado al cerrar la bitácora", job.id());
+                interrupted = true;
+            }
+        } catch (InterruptedException ex) {
+            interrupted = true;
+        }
+        if (interrupted) {
+            throw new InterruptedException();
+        }
+    }
+
+    private ActivarBonoRequestDto toDto(ActivacionJob.Metadata metadata, String[] columns) {
+        ActivarBonoRequestDto dto = new ActivarBonoRequestDto();
+        dto.setBin(metadata.bin());
+        dto.setNit(metadata.nit());
+        dto.setSubtipo(metadata.subtipo());
+        if (columns.length == COLUMNS) {
+            dto.setNumeroBono(columns[0]);
+            dto.setValorCarga(columns[1]);
+            dto.setNumeroAuditoria(columns[2]);
+            dto.setConsecutivo(columns[3]);
+        }
+        return dto;
+    }
+
+    /**
+     * Copia el cuerpo hasta {@code maxBytes}; uno mayor no se lee completo.
+     */
+    private void copy(InputStream body, Path target, long maxBytes) throws IOException {
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(target, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE)) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                total += read;
+                if (total > maxBytes) {
+                    throw structureError("el archivo supera " + maxBytes + " bytes");
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private BonoBusinessException structureError(String detail) {
+        GestionBonosSettings current = settings.current();
+        return new BonoBusinessException(current.e01().codigo(),
+                current.e01().descripcion() + ": " + detail, current.httpErrorEstructura());
+    }
+
+    private static String[] columns(String line) {
+        String[] columns = line.split("[,;]", -1);
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = StringUtils.strip(columns[i].strip(), "\"");
+        }
+        return columns;
+    }
+
+    private static String summary(ActivacionJob job, long startNanos) {
+        ActivacionJobResponseDto dto = job.toDto();
+        return dto.getFilasLeidas() + " filas, " + dto.getExitosas() + " exitosas, " + dto.getFallidas()
+                + " fallidas, " + dto.getEnDuda() + " en duda, "
+                + Duration.ofNanos(System.nanoTime() - startNanos).toSeconds() + " s";
+    }
+
+    private static Counter filas(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("bonos.lote.activacion.filas").tag("resultado", resultado)
+                .description("Filas procesadas por los jobs de activación masiva")
+                .register(meterRegistry);
+    }
+
+    private record Fila(int numero, ActivarBonoRequestDto dto) {
+    }
+
+    /**
+     * Espaciado mínimo entre envíos para respetar {@code rate}.
+     */
+    private static final class Pacer {
+
+        private final long intervalNanos;
+        private long next = System.nanoTime();
+
+        private Pacer(double rate) {
+            this.intervalNanos = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / rate) : 0L;
+        }
+
+        private boolean limited() {
+            return intervalNanos > 0;
+        }
+
+        private void await() throws InterruptedException {
+            if (intervalNanos == 0) {
+                return;
+            }
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            next = Math.max(next, System.nanoTime()) + intervalNanos;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.redeban.bonos.infrastructure.in.rest;
+
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import org.jboss.resteasy.reactive.RestHeader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.redeban.bonos.infrastructure.in.job.ActivacionMasivaService;
+import com.redeban.bonos.infrastructure.in.rest.dto.ActivacionJobResponseDto;
+import com.redeban.bonos.infrastructure.in.rest.dto.CommonBonoRequestDto;
+
+/**
+ * Activación masiva desde archivo. El POST guarda el CSV y responde 202 con el identificador del job; el avance
+ * se consulta con GET desde cualquier pod: los jobs viven en el volumen compartido {@code bonos.lote.activacion.dir}.
+ */
+@Path("/servicios/bonos/gestionBonos/lote/activacion")
+@Produces(MediaType.APPLICATION_JSON)
+@ApplicationScoped
+public class ActivacionMasivaController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ActivacionMasivaController.class);
+
+    private final ActivacionMasivaService activacionMasiva;
+    private final RestErrorMapper restErrorMapper;
+
+    @Inject
+    public ActivacionMasivaController(ActivacionMasivaService activacionMasiva, RestErrorMapper restErrorMapper) {
+        this.activacionMasiva = activacionMasiva;
+        this.restErrorMapper = restErrorMapper;
+    }
+
+    @POST
+    @Consumes({"text/csv", MediaType.TEXT_PLAIN, MediaType.APPLICATION_OCTET_STREAM})
+    @RunOnVirtualThread
+    public Response crear(@QueryParam("bin") String bin,
+                          @QueryParam("nit") String nit,
+                          @QueryParam("subtipo") String subtipo,
+                          @RestHeader("nombreAplicacion") String nombreAplicacion,
+                          @RestHeader("ipAplicacion") String ipAplicacion,
+                          @Context UriInfo uriInfo,
+                          InputStream body) {
+        CommonBonoRequestDto comercio = new CommonBonoRequestDto();
+        comercio.setBin(bin);
+        comercio.setNit(nit);
+        comercio.setSubtipo(subtipo);
+        try {
+            ActivacionJobResponseDto job = activacionMasiva.submit(comercio, nombreAplicacion, ipAplicacion, body);
+            // Con la ruta absoluta de la petición, que incluye el quarkus.http.root-path del despliegue.
+            return Response.accepted(job)
+                    .location(uriInfo.getAbsolutePathBuilder().path(job.getId()).build())
+                    .build();
+        } catch (IOException ex) {
+            LOGGER.error("No se pudo guardar el archivo de activación masiva (nit={})", nit, ex);
+            return error(ex);
+        } catch (RuntimeException ex) {
+            return error(ex);
+        }
+    }
+
+    @GET
+    public List<ActivacionJobResponseDto> listar() {
+        return activacionMasiva.list();
+    }
+
+    @GET
+    @Path("/{id}")
+    public Response consultar(@PathParam("id") String id) {
+        return activacionMasiva.status(id)
+                .map(job -> Response.ok(job).build())
+                .orElseGet(() -> Response.status(Response.Status.NOT_FOUND).build());
+    }
+
+    private Response error(Throwable error) {
+        RestErrorMapper.ErrorWrapper errorWrapper = restErrorMapper.toError(error);
+        return Response.status(errorWrapper.status()).entity(errorWrapper.body()).build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.redeban.bonos.infrastructure.in.rest;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import com.redeban.bonos.domain.port.in.AdministracionCacheInPort;
+import com.redeban.bonos.infrastructure.in.rest.dto.PurgaCacheResponseDto;
+
+/**
+ * Administración de las cachés locales del pod. Cada pod tiene las suyas, así que la purga se debe invocar en
+ * todos (por ejemplo, recorriendo los endpoints del servicio headless).
+ */
+@Path("/servicios/bonos/admin/cache")
+@Produces(MediaType.APPLICATION_JSON)
+@ApplicationScoped
+public class AdministracionCacheController {
+
+    private final AdministracionCacheInPort administracionCache;
+    private final RestErrorMapper restErrorMapper;
+
+    @Inject
+    public AdministracionCacheController(AdministracionCacheInPort administracionCache,
+                                         RestErrorMapper restErrorMapper) {
+        this.administracionCache = administracionCache;
+        this.restErrorMapper = restErrorMapper;
+    }
+
+    @DELETE
+    @Path("/negativo")
+    public Response purgarNegativo(@QueryParam("codigo") String codigo, @QueryParam("nit") String nit) {
+        try {
+            int eliminadas = administracionCache.purgarResultadosNegativos(codigo, nit);
+            return Response.ok(new PurgaCacheResponseDto(eliminadas)).build();
+        } catch (RuntimeException ex) {
+            RestErrorMapper.ErrorWrapper errorWrapper = restErrorMapper.toError(ex);
+            return Response.status(errorWrapper.status()).entity(errorWrapper.body()).build();
+        }
+    }
+}
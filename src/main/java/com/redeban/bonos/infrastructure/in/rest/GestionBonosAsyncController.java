@@ -0,0 +1,142 @@
+package com.redeban.bonos.infrastructure.in.rest;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.PUT;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.time.OffsetDateTime;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.jboss.resteasy.reactive.RestHeader;
+
+import com.redeban.bonos.domain.model.HeaderContext;
+import com.redeban.bonos.domain.port.in.GestionBonosInPort;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosSettingsProvider;
+import com.redeban.bonos.infrastructure.in.rest.dto.ActivarBonoRequestDto;
+import com.redeban.bonos.infrastructure.in.rest.dto.CrearBonoRequestDto;
+import com.redeban.bonos.infrastructure.in.rest.dto.ErrorResponseDto;
+import com.redeban.bonos.infrastructure.in.rest.dto.RecuperarBonoRequestDto;
+import com.redeban.bonos.infrastructure.logging.RequestResponseLogger;
+import com.redeban.bonos.infrastructure.out.mapper.GestionBonosMapper;
+
+/**
+ * Variantes no bloqueantes de los endpoints de gestión de bonos. Validación, mapeo y serialización corren en
+ * el event loop; sólo la invocación al AS400 se delega al ejecutor acotado del conector y el resultado vuelve
+ * al contexto Vert.x de la solicitud.
+ */
+@Path("/servicios/bonos/gestionBonos/async")
+@Consumes(MediaType.APPLICATION_JSON)
+@Produces(MediaType.APPLICATION_JSON)
+@ApplicationScoped
+public class GestionBonosAsyncController {
+
+    private final GestionBonosInPort gestionBonosUseCase;
+    private final GestionBonosMapper mapper;
+    private final RequestResponseLogger requestResponseLogger;
+    private final RestErrorMapper restErrorMapper;
+    private final GestionBonosSettingsProvider settings;
+    private final HeaderContextFactory headerContextFactory;
+
+    @Inject
+    public GestionBonosAsyncController(GestionBonosInPort gestionBonosUseCase,
+                                       GestionBonosMapper mapper,
+                                       RequestResponseLogger requestResponseLogger,
+                                       RestErrorMapper restErrorMapper,
+                                       GestionBonosSettingsProvider settings,
+                                       HeaderContextFactory headerContextFactory) {
+        this.gestionBonosUseCase = gestionBonosUseCase;
+        this.mapper = mapper;
+        this.requestResponseLogger = requestResponseLogger;
+        this.restErrorMapper = restErrorMapper;
+        this.settings = settings;
+        this.headerContextFactory = headerContextFactory;
+    }
+
+    @POST
+    @Path("/crearBono")
+    public Uni<Response> crearBono(@RestHeader("idTransaccion") String idTransaccion,
+                                   @RestHeader("nombreAplicacion") String nombreAplicacion,
+                                   @RestHeader("ipAplicacion") String ipAplicacion,
+                                   @RestHeader("timestamp") String timestamp,
+                                   @Valid CrearBonoRequestDto requestDto) {
+        OffsetDateTime start = OffsetDateTime.now();
+        HeaderContext headerContext = headerContextFactory.create(idTransaccion, nombreAplicacion, ipAplicacion,
+                timestamp, start, settings.current().timeoutCrear());
+        return respond("crearBono", headerContext, requestDto, start,
+                () -> gestionBonosUseCase.crearBonoAsync(mapper.toDomain(requestDto), headerContext),
+                mapper::toDto);
+    }
+
+    @PUT
+    @Path("/activarBono")
+    public Uni<Response> activarBono(@RestHeader("idTransaccion") String idTransaccion,
+                                     @RestHeader("nombreAplicacion") String nombreAplicacion,
+                                     @RestHeader("ipAplicacion") String ipAplicacion,
+                                     @RestHeader("timestamp") String timestamp,
+                                     @Valid ActivarBonoRequestDto requestDto) {
+        OffsetDateTime start = OffsetDateTime.now();
+        HeaderContext headerContext = headerContextFactory.create(idTransaccion, nombreAplicacion, ipAplicacion,
+                timestamp, start, settings.current().timeoutActivar());
+        return respond("activarBono", headerContext, requestDto, start,
+                () -> gestionBonosUseCase.activarBonoAsync(mapper.toDomain(requestDto), headerContext),
+                mapper::toDto);
+    }
+
+    @POST
+    @Path("/recuperarBono")
+    public Uni<Response> recuperarBono(@RestHeader("idTransaccion") String idTransaccion,
+                                       @RestHeader("nombreAplicacion") String nombreAplicacion,
+                                       @RestHeader("ipAplicacion") String ipAplicacion,
+                                       @RestHeader("timestamp") String timestamp,
+                                       @RestHeader("Cache-Control") String cacheControl,
+                                       @Valid RecuperarBonoRequestDto requestDto) {
+        OffsetDateTime start = OffsetDateTime.now();
+        HeaderContext headerContext = headerContextFactory.create(idTransaccion, nombreAplicacion, ipAplicacion,
+                timestamp, start, settings.current().timeoutRecuperar(), cacheControl);
+        return respond("recuperarBono", headerContext, requestDto, start,
+                () -> gestionBonosUseCase.recuperarBonoAsync(mapper.toDomain(requestDto), headerContext),
+                mapper::toDto);
+    }
+
+    private <T, D> Uni<Response> respond(String operation, HeaderContext headerContext, Object requestDto,
+                                         OffsetDateTime start, Supplier<CompletionStage<T>> call,
+                                         Function<T, D> toDto) {
+        return Uni.createFrom().completionStage(call)
+                .emitOn(requestContext())
+                .map(response -> {
+                    D responseDto = toDto.apply(response);
+                    requestResponseLogger.logSuccess(operation, headerContext, requestDto, responseDto, start,
+                            OffsetDateTime.now());
+                    return Response.ok(responseDto).build();
+                })
+                .onFailure().recoverWithItem(ex -> {
+                    RestErrorMapper.ErrorWrapper errorWrapper = restErrorMapper.toError(ex);
+                    ErrorResponseDto errorResponseDto = errorWrapper.body();
+                    requestResponseLogger.logError(operation, headerContext, requestDto, errorResponseDto, start,
+                            OffsetDateTime.now(), ex);
+                    return Response.status(errorWrapper.status()).entity(errorResponseDto).build();
+                });
+    }
+
+    /**
+     * Ejecutor que devuelve la continuación al contexto Vert.x (event loop) de la solicitud en curso.
+     */
+    private Executor requestContext() {
+        Context context = Vertx.currentContext();
+        if (context == null) {
+            return Runnable::run;
+        }
+        return command -> context.runOnContext(ignored -> command.run());
+    }
+}
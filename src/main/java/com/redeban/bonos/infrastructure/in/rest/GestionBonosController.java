@@ -1,5 +1,6 @@
 package com.redeban.bonos.infrastructure.in.rest;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
@@ -15,6 +16,7 @@ import org.jboss.resteasy.reactive.RestHeader;
 
 import com.redeban.bonos.domain.model.HeaderContext;
 import com.redeban.bonos.domain.port.in.GestionBonosInPort;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosSettingsProvider;
 import com.redeban.bonos.infrastructure.in.rest.dto.ActivarBonoRequestDto;
 import com.redeban.bonos.infrastructure.in.rest.dto.ActivarBonoResponseDto;
 import com.redeban.bonos.infrastructure.in.rest.dto.CrearBonoRequestDto;
@@ -25,6 +27,10 @@ import com.redeban.bonos.infrastructure.in.rest.dto.RecuperarBonoResponseDto;
 import com.redeban.bonos.infrastructure.logging.RequestResponseLogger;
 import com.redeban.bonos.infrastructure.out.mapper.GestionBonosMapper;
 
+/**
+ * Endpoints de gestión de bonos. Se ejecutan en hilos virtuales cuando {@code quarkus.virtual-threads.enabled}
+ * está activo; si no, Quarkus los despacha al pool de workers.
+ */
 @Path("/servicios/bonos/gestionBonos")
 @Consumes(MediaType.APPLICATION_JSON)
 @Produces(MediaType.APPLICATION_JSON)
@@ -35,27 +41,35 @@ public class GestionBonosController {
     private final GestionBonosMapper mapper;
     private final RequestResponseLogger requestResponseLogger;
     private final RestErrorMapper restErrorMapper;
+    private final GestionBonosSettingsProvider settings;
+    private final HeaderContextFactory headerContextFactory;
 
     @Inject
     public GestionBonosController(GestionBonosInPort gestionBonosUseCase,
                                   GestionBonosMapper mapper,
                                   RequestResponseLogger requestResponseLogger,
-                                  RestErrorMapper restErrorMapper) {
+                                  RestErrorMapper restErrorMapper,
+                                  GestionBonosSettingsProvider settings,
+                                  HeaderContextFactory headerContextFactory) {
         this.gestionBonosUseCase = gestionBonosUseCase;
         this.mapper = mapper;
         this.requestResponseLogger = requestResponseLogger;
         this.restErrorMapper = restErrorMapper;
+        this.settings = settings;
+        this.headerContextFactory = headerContextFactory;
     }
 
     @POST
     @Path("/crearBono")
+    @RunOnVirtualThread
     public Response crearBono(@RestHeader("idTransaccion") String idTransaccion,
                               @RestHeader("nombreAplicacion") String nombreAplicacion,
                               @RestHeader("ipAplicacion") String ipAplicacion,
                               @RestHeader("timestamp") String timestamp,
                               @Valid CrearBonoRequestDto requestDto) {
         OffsetDateTime start = OffsetDateTime.now();
-        HeaderContext headerContext = new HeaderContext(idTransaccion, nombreAplicacion, ipAplicacion, timestamp, start);
+        HeaderContext headerContext = headerContextFactory.create(idTransaccion, nombreAplicacion, ipAplicacion,
+                timestamp, start, settings.current().timeoutCrear());
         try {
             CrearBonoResponseDto responseDto = mapper.toDto(
                     gestionBonosUseCase.crearBono(mapper.toDomain(requestDto), headerContext));
@@ -73,13 +87,15 @@ public class GestionBonosController {
 
     @PUT
     @Path("/activarBono")
+    @RunOnVirtualThread
     public Response activarBono(@RestHeader("idTransaccion") String idTransaccion,
                                 @RestHeader("nombreAplicacion") String nombreAplicacion,
                                 @RestHeader("ipAplicacion") String ipAplicacion,
                                 @RestHeader("timestamp") String timestamp,
                                 @Valid ActivarBonoRequestDto requestDto) {
         OffsetDateTime start = OffsetDateTime.now();
-        HeaderContext headerContext = new HeaderContext(idTransaccion, nombreAplicacion, ipAplicacion, timestamp, start);
+        HeaderContext headerContext = headerContextFactory.create(idTransaccion, nombreAplicacion, ipAplicacion,
+                timestamp, start, settings.current().timeoutActivar());
         try {
             ActivarBonoResponseDto responseDto = mapper.toDto(
                     gestionBonosUseCase.activarBono(mapper.toDomain(requestDto), headerContext));
@@ -97,13 +113,16 @@ public class GestionBonosController {
 
     @POST
     @Path("/recuperarBono")
+    @RunOnVirtualThread
     public Response recuperarBono(@RestHeader("idTransaccion") String idTransaccion,
                                   @RestHeader("nombreAplicacion") String nombreAplicacion,
                                   @RestHeader("ipAplicacion") String ipAplicacion,
                                   @RestHeader("timestamp") String timestamp,
+                                  @RestHeader("Cache-Control") String cacheControl,
                                   @Valid RecuperarBonoRequestDto requestDto) {
         OffsetDateTime start = OffsetDateTime.now();
-        HeaderContext headerContext = new HeaderContext(idTransaccion, nombreAplicacion, ipAplicacion, timestamp, start);
+        HeaderContext headerContext = headerContextFactory.create(idTransaccion, nombreAplicacion, ipAplicacion,
+                timestamp, start, settings.current().timeoutRecuperar(), cacheControl);
         try {
             RecuperarBonoResponseDto responseDto = mapper.toDto(
                     gestionBonosUseCase.recuperarBono(mapper.toDomain(requestDto), headerContext));
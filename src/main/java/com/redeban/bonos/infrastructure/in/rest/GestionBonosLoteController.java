@@ -0,0 +1,511 @@
+package com.redeban.bonos.infrastructure.in.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.apache.commons.lang3.StringUtils;
+import org.jboss.resteasy.reactive.RestHeader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.redeban.bonos.domain.exception.BonoBusinessException;
+import com.redeban.bonos.domain.exception.BonoTimeoutException;
+import com.redeban.bonos.domain.model.Deadline;
+import com.redeban.bonos.domain.model.HeaderContext;
+import com.redeban.bonos.domain.port.in.GestionBonosInPort;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosSettings;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosSettingsProvider;
+import com.redeban.bonos.infrastructure.in.rest.dto.BonoDto;
+import com.redeban.bonos.infrastructure.in.rest.dto.CrearBonoRequestDto;
+import com.redeban.bonos.infrastructure.in.rest.dto.ExportBonoDto;
+import com.redeban.bonos.infrastructure.in.rest.dto.LoteItemResponseDto;
+import com.redeban.bonos.infrastructure.in.rest.dto.LoteRecuperarBonoResponseDto;
+import com.redeban.bonos.infrastructure.in.rest.dto.RecuperarBonoRequestDto;
+import com.redeban.bonos.infrastructure.in.rest.dto.RecuperarBonoResponseDto;
+import com.redeban.bonos.infrastructure.logging.RequestResponseLogger;
+import com.redeban.bonos.infrastructure.out.mapper.GestionBonosMapper;
+
+/**
+ * Endpoints de lote. El cuerpo (arreglo JSON o NDJSON) se lee registro a registro y cada uno se ejecuta como
+ * una solicitud individual con su propio deadline, con a lo sumo {@code bonos.lote.parallelism} registros en
+ * curso; los resultados se escriben (NDJSON, o CSV en la exportación) a medida que terminan, así que el lote
+ * nunca está completo en memoria y el orden de las líneas no es el del cuerpo ({@code registro} lo identifica).
+ *
+ * <p>Si la solicitud trae {@code idTransaccion}, cada registro usa {@code <idTransaccion>-<registro>}: reenviar
+ * el mismo lote con el mismo identificador no vuelve a crear los bonos ya creados.</p>
+ */
+@Path("/servicios/bonos/gestionBonos/lote")
+@ApplicationScoped
+public class GestionBonosLoteController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GestionBonosLoteController.class);
+
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    public static final String TEXT_CSV = "text/csv";
+
+    private static final byte[] NEW_LINE = {'\n'};
+    /**
+     * Columnas del CSV de exportarBonos: una fila por bono; un titular sin bonos sale en una fila con
+     * {@code numero} y {@code valor} vacíos y uno con error en una fila con {@code codigoError}.
+     */
+    private static final byte[] CSV_HEADER =
+            "registro,nit,tipoDocumento,numeroDocumento,numero,valor,codigoError,descripcionError\n"
+                    .getBytes(StandardCharsets.UTF_8);
+    private static final Duration MAX_WAIT = Duration.ofMinutes(5);
+
+    private final GestionBonosInPort gestionBonosUseCase;
+    private final GestionBonosMapper mapper;
+    private final RequestResponseLogger requestResponseLogger;
+    private final RestErrorMapper restErrorMapper;
+    private final GestionBonosSettingsProvider settings;
+    private final HeaderContextFactory headerContextFactory;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final GestionBonosProperties.Lote config;
+
+    @Inject
+    public GestionBonosLoteController(GestionBonosInPort gestionBonosUseCase,
+                                      GestionBonosMapper mapper,
+                                      RequestResponseLogger requestResponseLogger,
+                                      RestErrorMapper restErrorMapper,
+                                      GestionBonosSettingsProvider settings,
+                                      HeaderContextFactory headerContextFactory,
+                                      ObjectMapper objectMapper,
+                                      Validator validator,
+                                      GestionBonosProperties properties) {
+        this.gestionBonosUseCase = gestionBonosUseCase;
+        this.mapper = mapper;
+        this.requestResponseLogger = requestResponseLogger;
+        this.restErrorMapper = restErrorMapper;
+        this.settings = settings;
+        this.headerContextFactory = headerContextFactory;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.config = properties.lote();
+    }
+
+    @POST
+    @Path("/crearBono")
+    @Consumes({MediaType.APPLICATION_JSON, APPLICATION_NDJSON})
+    @Produces(APPLICATION_NDJSON)
+    @RunOnVirtualThread
+    public Response crearBono(@RestHeader("idTransaccion") String idTransaccion,
+                              @RestHeader("nombreAplicacion") String nombreAplicacion,
+                              @RestHeader("ipAplicacion") String ipAplicacion,
+                              InputStream body) {
+        LoteHeaders headers = new LoteHeaders(idTransaccion, nombreAplicacion, ipAplicacion);
+        StreamingOutput output = out -> stream("crearBono", body, CrearBonoRequestDto.class, out,
+                item -> execute("crearBono", item, headerContextFactory.create(headers.idTransaccion(item.registro()),
+                                headers.nombreAplicacion(), headers.ipAplicacion(), null, OffsetDateTime.now(),
+                                settings.current().timeoutCrear()),
+                        (dto, headerContext) -> gestionBonosUseCase.crearBonoAsync(mapper.toDomain(dto),
+                                headerContext),
+                        mapper::toDto),
+                this::write);
+        return Response.ok(output, APPLICATION_NDJSON).build();
+    }
+
+    /**
+     * Exporta los bonos de una lista de titulares (el cuerpo de recuperarBono, en arreglo JSON o NDJSON) con una
+     * línea por bono, en NDJSON o, con {@code formato=csv}, en CSV. Las consultas se hacen como en el lote de
+     * crearBono y cada titular se escribe apenas termina, así que la memoria no depende del tamaño de la
+     * exportación. Si el cliente se desconecta, no se lanzan más consultas.
+     */
+    @POST
+    @Path("/exportarBonos")
+    @Consumes({MediaType.APPLICATION_JSON, APPLICATION_NDJSON})
+    @Produces({APPLICATION_NDJSON, TEXT_CSV})
+    @RunOnVirtualThread
+    public Response exportarBonos(@QueryParam("formato") String formato,
+                                  @RestHeader("idTransaccion") String idTransaccion,
+                                  @RestHeader("nombreAplicacion") String nombreAplicacion,
+                                  @RestHeader("ipAplicacion") String ipAplicacion,
+                                  @RestHeader("Cache-Control") String cacheControl,
+                                  InputStream body) {
+        boolean csv = "csv".equalsIgnoreCase(StringUtils.trim(formato));
+        LoteHeaders headers = new LoteHeaders(idTransaccion, nombreAplicacion, ipAplicacion);
+        StreamingOutput output = out -> {
+            if (csv) {
+                out.write(CSV_HEADER);
+            }
+            stream("exportarBonos", body, RecuperarBonoRequestDto.class, out,
+                    item -> execute("recuperarBono", item,
+                            headerContextFactory.create(headers.idTransaccion(item.registro()),
+                                    headers.nombreAplicacion(), headers.ipAplicacion(), null, OffsetDateTime.now(),
+                                    settings.current().timeoutRecuperar(), cacheControl),
+                            (dto, headerContext) -> gestionBonosUseCase.recuperarBonoAsync(mapper.toDomain(dto),
+                                    headerContext),
+                            response -> new Portafolio(item.value(), mapper.toDto(response)))
+                            .thenApply(result -> result.getError() == null ? result
+                                    : new LoteItemResponseDto<>(result.getRegistro(), result.getEstado(),
+                                    new Portafolio(item.value(), null), result.getError())),
+                    (target, result) -> writeExport(target, result, csv));
+        };
+        return Response.ok(output, csv ? TEXT_CSV : APPLICATION_NDJSON).build();
+    }
+
+    /**
+     * Consulta varios titulares a la vez. Los titulares repetidos se consultan una sola vez y se ejecutan a lo
+     * sumo {@code parallelism} consultas en paralelo. Todas comparten el deadline del lote
+     * ({@code bonos.timeout.recuperar}): un titular que no alcanzó a consultarse, o cuya consulta no terminó a
+     * tiempo, se reporta con E10 y la respuesta sale igual con el resto.
+     */
+    @POST
+    @Path("/recuperarBono")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @RunOnVirtualThread
+    public Response recuperarBono(@RestHeader("idTransaccion") String idTransaccion,
+                                  @RestHeader("nombreAplicacion") String nombreAplicacion,
+                                  @RestHeader("ipAplicacion") String ipAplicacion,
+                                  @RestHeader("timestamp") String timestamp,
+                                  @RestHeader("Cache-Control") String cacheControl,
+                                  List<RecuperarBonoRequestDto> consultas) {
+        HeaderContext loteContext = headerContextFactory.create(idTransaccion, nombreAplicacion, ipAplicacion,
+                timestamp, OffsetDateTime.now(), settings.current().timeoutRecuperar(), cacheControl);
+        try {
+            return Response.ok(recuperar(consultas, new LoteHeaders(idTransaccion, nombreAplicacion, ipAplicacion),
+                    loteContext)).build();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            RestErrorMapper.ErrorWrapper errorWrapper = restErrorMapper.toError(ex);
+            return Response.status(errorWrapper.status()).entity(errorWrapper.body()).build();
+        } catch (RuntimeException ex) {
+            RestErrorMapper.ErrorWrapper errorWrapper = restErrorMapper.toError(ex);
+            return Response.status(errorWrapper.status()).entity(errorWrapper.body()).build();
+        }
+    }
+
+    private LoteRecuperarBonoResponseDto recuperar(List<RecuperarBonoRequestDto> consultas, LoteHeaders headers,
+                                                   HeaderContext loteContext) throws InterruptedException {
+        if (consultas == null || consultas.isEmpty()) {
+            throw structureError("la lista de titulares está vacía");
+        }
+        if (consultas.size() > config.maxHolders()) {
+            throw structureError("el lote supera " + config.maxHolders() + " titulares");
+        }
+        long startNanos = System.nanoTime();
+        Map<Object, Integer> titulares = new LinkedHashMap<>();
+        List<Integer> primerRegistro = new ArrayList<>(consultas.size());
+        for (int i = 0; i < consultas.size(); i++) {
+            RecuperarBonoRequestDto dto = consultas.get(i);
+            int registro = i + 1;
+            primerRegistro.add(titulares.computeIfAbsent(dto == null ? registro : HolderKey.of(dto),
+                    ignored -> registro));
+        }
+
+        Deadline deadline = loteContext.deadline();
+        Semaphore permits = new Semaphore(Math.max(config.parallelism(), 1));
+        Map<Integer, CompletableFuture<LoteItemResponseDto<?>>> pending = new HashMap<>();
+        for (int registro : titulares.values()) {
+            LoteItemReader.Item<RecuperarBonoRequestDto> item = new LoteItemReader.Item<>(registro,
+                    consultas.get(registro - 1), null);
+            CompletableFuture<LoteItemResponseDto<?>> result;
+            if (deadline.isExpired()
+                    || !permits.tryAcquire(deadline.remaining(MAX_WAIT).toNanos(), TimeUnit.NANOSECONDS)) {
+                result = CompletableFuture.completedFuture(failed(registro, expired()));
+            } else {
+                HeaderContext headerContext = new HeaderContext(headers.idTransaccion(registro),
+                        headers.nombreAplicacion(), headers.ipAplicacion(), loteContext.timestamp().orElse(null),
+                        loteContext.receivedAt(), deadline, loteContext.cacheDirectives());
+                result = execute("recuperarBono", item, headerContext,
+                        (dto, context) -> gestionBonosUseCase.recuperarBonoAsync(mapper.toDomain(dto), context),
+                        mapper::toDto).toCompletableFuture();
+                result.whenComplete((ignored, error) -> permits.release());
+            }
+            pending.put(registro, result);
+        }
+        try {
+            CompletableFuture.allOf(pending.values().toArray(CompletableFuture[]::new))
+                    .get(deadline.remaining(MAX_WAIT).toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException ex) {
+            // Los titulares sin respuesta se reportan con E10.
+        }
+
+        List<LoteItemResponseDto<?>> resultados = new ArrayList<>(consultas.size());
+        int errores = 0;
+        for (int i = 0; i < consultas.size(); i++) {
+            CompletableFuture<LoteItemResponseDto<?>> pendingResult = pending.get(primerRegistro.get(i));
+            LoteItemResponseDto<?> result = pendingResult.isDone()
+                    ? pendingResult.join() : failed(primerRegistro.get(i), expired());
+            resultados.add(new LoteItemResponseDto<>(i + 1, result.getEstado(), result.getRespuesta(),
+                    result.getError()));
+            errores += result.getError() != null ? 1 : 0;
+        }
+        LOGGER.info("Lote recuperarBono: {} titulares ({} distintos), {} con error, {} ms", consultas.size(),
+                pending.size(), errores, Duration.ofNanos(System.nanoTime() - startNanos).toMillis());
+        return new LoteRecuperarBonoResponseDto(consultas.size(), pending.size(), consultas.size() - errores, errores,
+                resultados);
+    }
+
+    /**
+     * Lee el lote y escribe los resultados. Un registro cuenta como pendiente desde que se lanza hasta que su
+     * línea se escribe, de modo que la cola de resultados tampoco crece más allá de {@code parallelism}.
+     */
+    private <D> void stream(String operation, InputStream body, Class<D> type, OutputStream out,
+                            Function<LoteItemReader.Item<D>, CompletionStage<LoteItemResponseDto<?>>> launcher,
+                            ResultWriter writer)
+            throws IOException {
+        int parallelism = Math.max(config.parallelism(), 1);
+        BlockingQueue<LoteItemResponseDto<?>> completed = new LinkedBlockingQueue<>();
+        long startNanos = System.nanoTime();
+        int pending = 0;
+        int registros = 0;
+        int errores = 0;
+        IOException readError = null;
+        try {
+            LoteItemReader<D> reader = new LoteItemReader<>(body, objectMapper, type);
+            while (true) {
+                try {
+                    if (!reader.hasNext()) {
+                        break;
+                    }
+                } catch (UncheckedIOException ex) {
+                    // El cuerpo dejó de poder leerse: se escriben los registros ya lanzados y se corta el lote.
+                    readError = ex.getCause();
+                    break;
+                }
+                while (pending >= parallelism) {
+                    errores += writer.write(out, completed.take());
+                    pending--;
+                }
+                LoteItemResponseDto<?> ready;
+                while ((ready = completed.poll()) != null) {
+                    errores += writer.write(out, ready);
+                    pending--;
+                }
+                out.flush();
+                LoteItemReader.Item<D> item = reader.next();
+                registros++;
+                pending++;
+                if (item.registro() > config.maxItems()) {
+                    completed.add(rejected(item.registro(), "el lote supera " + config.maxItems() + " registros"));
+                    break;
+                }
+                launcher.apply(item).whenComplete((result, error) ->
+                        completed.add(result != null ? result : failed(item.registro(), error)));
+            }
+            while (pending > 0) {
+                errores += writer.write(out, completed.take());
+                pending--;
+            }
+            out.flush();
+            if (readError != null) {
+                throw readError;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Lote " + operation + " interrumpido");
+        } catch (IOException ex) {
+            LOGGER.warn("Lote {} cortado en el registro {} ({} sin escribir): {}", operation, registros, pending,
+                    ex.getMessage());
+            throw ex;
+        } finally {
+            LOGGER.info("Lote {}: {} registros, {} con error, {} ms", operation, registros, errores,
+                    Duration.ofNanos(System.nanoTime() - startNanos).toMillis());
+        }
+    }
+
+    /**
+     * Ejecuta un registro como solicitud individual. La etapa retornada nunca falla: un error del registro se
+     * convierte en su línea de resultado con el código de {@link RestErrorMapper}.
+     */
+    private <D, R> CompletionStage<LoteItemResponseDto<?>> execute(
+            String operation, LoteItemReader.Item<D> item, HeaderContext headerContext,
+            BiFunction<D, HeaderContext, CompletionStage<R>> call, Function<R, ?> toDto) {
+        OffsetDateTime start = OffsetDateTime.now();
+        CompletionStage<R> stage;
+        try {
+            stage = call.apply(validated(item), headerContext);
+        } catch (RuntimeException ex) {
+            stage = CompletableFuture.failedFuture(ex);
+        }
+        return stage.handle((response, error) -> {
+            if (error == null) {
+                Object responseDto = toDto.apply(response);
+                requestResponseLogger.logSuccess(operation, headerContext, item.value(), responseDto, start,
+                        OffsetDateTime.now());
+                return new LoteItemResponseDto<>(item.registro(), Response.Status.OK.getStatusCode(), responseDto,
+                        null);
+            }
+            RestErrorMapper.ErrorWrapper errorWrapper = restErrorMapper.toError(error);
+            requestResponseLogger.logError(operation, headerContext, item.value(), errorWrapper.body(), start,
+                    OffsetDateTime.now(), error);
+            return new LoteItemResponseDto<>(item.registro(), errorWrapper.status(), null, errorWrapper.body());
+        });
+    }
+
+    private <D> D validated(LoteItemReader.Item<D> item) {
+        if (item.error() != null) {
+            String detail = item.error() instanceof JsonProcessingException json
+                    ? json.getOriginalMessage() : item.error().getMessage();
+            throw structureError("registro " + item.registro() + " no es JSON válido: " + detail);
+        }
+        if (item.value() == null) {
+            throw structureError("registro " + item.registro() + " vacío");
+        }
+        Set<ConstraintViolation<D>> violations = validator.validate(item.value());
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        return item.value();
+    }
+
+    private LoteItemResponseDto<?> rejected(int registro, String detail) {
+        return failed(registro, structureError(detail));
+    }
+
+    private LoteItemResponseDto<?> failed(int registro, Throwable error) {
+        RestErrorMapper.ErrorWrapper errorWrapper = restErrorMapper.toError(error);
+        return new LoteItemResponseDto<>(registro, errorWrapper.status(), null, errorWrapper.body());
+    }
+
+    private BonoTimeoutException expired() {
+        return new BonoTimeoutException("Deadline del lote vencido antes de obtener la respuesta del titular");
+    }
+
+    private BonoBusinessException structureError(String detail) {
+        GestionBonosSettings current = settings.current();
+        return new BonoBusinessException(current.e01().codigo(), current.e01().descripcion() + ": " + detail,
+                current.httpErrorEstructura());
+    }
+
+    /**
+     * Escribe una línea y retorna 1 si el registro terminó con error.
+     */
+    private int write(OutputStream out, LoteItemResponseDto<?> result) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(result));
+        out.write(NEW_LINE);
+        return result.getError() != null ? 1 : 0;
+    }
+
+    /**
+     * Titular normalizado como en la caché de recuperarBono, para no consultar dos veces el mismo.
+     */
+    private record HolderKey(String bin, String subtipo, String nit, String tipoDocumento, String numeroDocumento) {
+
+        private static HolderKey of(RecuperarBonoRequestDto dto) {
+            return new HolderKey(StringUtils.trimToEmpty(dto.getBin()), StringUtils.trimToEmpty(dto.getSubtipo()),
+                    StringUtils.trimToEmpty(dto.getNit()), StringUtils.trimToEmpty(dto.getTipoDocumento()),
+                    StringUtils.stripStart(StringUtils.trimToEmpty(dto.getNumeroDocumento()), "0"));
+        }
+    }
+
+    /**
+     * Escribe una línea por bono del titular, una sin número si no tiene bonos o la de su error. Retorna 1 si el
+     * titular terminó con error.
+     */
+    private int writeExport(OutputStream out, LoteItemResponseDto<?> result, boolean csv) throws IOException {
+        Portafolio portafolio = result.getRespuesta() instanceof Portafolio value ? value : null;
+        RecuperarBonoRequestDto titular = portafolio != null ? portafolio.titular() : null;
+        if (result.getError() != null) {
+            ExportBonoDto row = exportRow(result.getRegistro(), titular);
+            row.setEstado(result.getEstado());
+            row.setError(result.getError());
+            writeExportRow(out, row, csv);
+            return 1;
+        }
+        List<BonoDto> bonos = portafolio != null && portafolio.respuesta() != null
+                ? portafolio.respuesta().getBonos() : null;
+        if (bonos == null || bonos.isEmpty()) {
+            // El titular se consultó y no tiene bonos: una fila sin número para distinguirlo de uno omitido.
+            writeExportRow(out, exportRow(result.getRegistro(), titular), csv);
+            return 0;
+        }
+        for (BonoDto bono : bonos) {
+            ExportBonoDto row = exportRow(result.getRegistro(), titular);
+            row.setNumero(bono.getNumero());
+            row.setValor(bono.getValor());
+            writeExportRow(out, row, csv);
+        }
+        return 0;
+    }
+
+    private ExportBonoDto exportRow(int registro, RecuperarBonoRequestDto titular) {
+        return titular == null ? new ExportBonoDto(registro, null, null, null)
+                : new ExportBonoDto(registro, titular.getNit(), titular.getTipoDocumento(),
+                titular.getNumeroDocumento());
+    }
+
+    private void writeExportRow(OutputStream out, ExportBonoDto row, boolean csv) throws IOException {
+        if (!csv) {
+            out.write(objectMapper.writeValueAsBytes(row));
+            out.write(NEW_LINE);
+            return;
+        }
+        String line = String.join(",", String.valueOf(row.getRegistro()), csvField(row.getNit()),
+                csvField(row.getTipoDocumento()), csvField(row.getNumeroDocumento()), csvField(row.getNumero()),
+                row.getValor() == null ? "" : row.getValor().toString(),
+                row.getError() == null ? "" : csvField(row.getError().getCodigoError()),
+                row.getError() == null ? "" : csvField(row.getError().getDescripcionError()));
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.write(NEW_LINE);
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        return StringUtils.containsAny(value, ',', '"', '\n', '\r')
+                ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+
+    /**
+     * Escribe el resultado de un registro y retorna 1 si terminó con error.
+     */
+    @FunctionalInterface
+    private interface ResultWriter {
+        int write(OutputStream out, LoteItemResponseDto<?> result) throws IOException;
+    }
+
+    /**
+     * Titular exportado y su respuesta ({@code null} si la consulta falló).
+     */
+    private record Portafolio(RecuperarBonoRequestDto titular, RecuperarBonoResponseDto respuesta) {
+    }
+
+    private record LoteHeaders(String idTransaccion, String nombreAplicacion, String ipAplicacion) {
+
+        private String idTransaccion(int registro) {
+            return StringUtils.isBlank(idTransaccion) ? null : idTransaccion + "-" + registro;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.redeban.bonos.infrastructure.in.rest;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import org.apache.commons.lang3.StringUtils;
+
+import com.redeban.bonos.domain.model.CacheDirectives;
+import com.redeban.bonos.domain.model.Deadline;
+import com.redeban.bonos.domain.model.HeaderContext;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosSettingsProvider;
+
+/**
+ * Construye el {@link HeaderContext} de una solicitud REST, incluido su deadline.
+ */
+@ApplicationScoped
+public class HeaderContextFactory {
+
+    private final GestionBonosSettingsProvider settings;
+
+    @Inject
+    public HeaderContextFactory(GestionBonosSettingsProvider settings) {
+        this.settings = settings;
+    }
+
+    public HeaderContext create(String idTransaccion, String nombreAplicacion, String ipAplicacion, String timestamp,
+                                OffsetDateTime start, Duration budget) {
+        return create(idTransaccion, nombreAplicacion, ipAplicacion, timestamp, start, budget, null);
+    }
+
+    /**
+     * Igual que {@link #create(String, String, String, String, OffsetDateTime, Duration)} e incluye las
+     * directivas del header {@code Cache-Control} para las consultas.
+     */
+    public HeaderContext create(String idTransaccion, String nombreAplicacion, String ipAplicacion, String timestamp,
+                                OffsetDateTime start, Duration budget, String cacheControl) {
+        return new HeaderContext(idTransaccion, nombreAplicacion, ipAplicacion, timestamp, start,
+                deadline(budget, timestamp, start), cacheDirectives(cacheControl));
+    }
+
+    /**
+     * Calcula el deadline de la solicitud a partir de la hora de recepción. Si
+     * {@code bonos.timeout.header-timestamp} está activo y el header {@code timestamp} es anterior a la
+     * recepción, el presupuesto se cuenta desde ese instante.
+     */
+    private Deadline deadline(Duration budget, String timestamp, OffsetDateTime receivedAt) {
+        if (budget.isZero() || budget.isNegative()) {
+            return Deadline.none();
+        }
+        Instant start = receivedAt.toInstant();
+        if (settings.current().headerTimestamp()) {
+            Instant sentAt = parseTimestamp(timestamp);
+            if (sentAt != null && sentAt.isBefore(start)) {
+                start = sentAt;
+            }
+        }
+        return Deadline.at(start.plus(budget));
+    }
+
+    /**
+     * Interpreta {@code no-cache}, {@code no-store} y {@code max-age=<segundos>}; el resto de directivas se
+     * ignora.
+     */
+    private CacheDirectives cacheDirectives(String cacheControl) {
+        if (StringUtils.isBlank(cacheControl)) {
+            return CacheDirectives.none();
+        }
+        boolean noCache = false;
+        boolean noStore = false;
+        Duration maxAge = null;
+        for (String directive : StringUtils.split(cacheControl, ',')) {
+            String value = directive.trim().toLowerCase(Locale.ROOT);
+            if (value.equals("no-cache")) {
+                noCache = true;
+            } else if (value.equals("no-store")) {
+                noStore = true;
+            } else if (value.startsWith("max-age=")) {
+                String seconds = StringUtils.strip(value.substring("max-age=".length()).trim(), "\"");
+                if (StringUtils.isNumeric(seconds) && seconds.length() <= 9) {
+                    maxAge = Duration.ofSeconds(Long.parseLong(seconds));
+                }
+            }
+        }
+        return CacheDirectives.of(noCache, noStore, maxAge);
+    }
+
+    private Instant parseTimestamp(String timestamp) {
+        if (StringUtils.isBlank(timestamp)) {
+            return null;
+        }
+        String value = timestamp.trim();
+        if (StringUtils.isNumeric(value) && value.length() <= 18) {
+            return Instant.ofEpochMilli(Long.parseLong(value));
+        }
+        try {
+            return OffsetDateTime.parse(value).toInstant();
+        } catch (DateTimeParseException ignored) {
+            // Se intenta sin zona horaria.
+        }
+        try {
+            return LocalDateTime.parse(value).atZone(ZoneId.systemDefault()).toInstant();
+        } catch (DateTimeParseException ignored) {
+            return null;
+        }
+    }
+}
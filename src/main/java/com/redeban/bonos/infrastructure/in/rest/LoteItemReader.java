@@ -0,0 +1,123 @@
+package com.redeban.bonos.infrastructure.in.rest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lee uno a uno los registros de un lote, sin cargar el cuerpo completo en memoria. Acepta un arreglo JSON o
+ * NDJSON (un objeto por línea); se decide por el primer carácter distinto de espacio.
+ *
+ * <p>En NDJSON una línea inválida se reporta como registro con error y la lectura sigue con la siguiente. En
+ * un arreglo no hay forma segura de ubicar el siguiente elemento, así que el primer error termina el lote.</p>
+ */
+final class LoteItemReader<T> implements Iterator<LoteItemReader.Item<T>> {
+
+    private final ObjectMapper objectMapper;
+    private final Class<T> type;
+    private final JsonParser arrayParser;
+    private final BufferedReader lines;
+    private int registro;
+    private Item<T> next;
+    private boolean finished;
+
+    LoteItemReader(InputStream body, ObjectMapper objectMapper, Class<T> type) throws IOException {
+        this.objectMapper = objectMapper;
+        this.type = type;
+        BufferedInputStream input = new BufferedInputStream(body);
+        if (firstSignificantByte(input) == '[') {
+            this.arrayParser = objectMapper.getFactory().createParser(input);
+            this.arrayParser.nextToken();
+            this.lines = null;
+        } else {
+            this.arrayParser = null;
+            this.lines = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            next = arrayParser != null ? readElement() : readLine();
+            if (next == null) {
+                finished = true;
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Item<T> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Item<T> item = next;
+        next = null;
+        return item;
+    }
+
+    private Item<T> readElement() {
+        try {
+            JsonToken token = arrayParser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+        } catch (IOException ex) {
+            finished = true;
+            return new Item<>(registro + 1, null, ex);
+        }
+        registro++;
+        try {
+            return new Item<>(registro, objectMapper.readValue(arrayParser, type), null);
+        } catch (IOException ex) {
+            finished = true;
+            return new Item<>(registro, null, ex);
+        }
+    }
+
+    private Item<T> readLine() {
+        String line;
+        try {
+            do {
+                line = lines.readLine();
+            } while (line != null && line.isBlank());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        if (line == null) {
+            return null;
+        }
+        registro++;
+        try {
+            return new Item<>(registro, objectMapper.readValue(line, type), null);
+        } catch (IOException ex) {
+            return new Item<>(registro, null, ex);
+        }
+    }
+
+    private static int firstSignificantByte(BufferedInputStream input) throws IOException {
+        while (true) {
+            input.mark(1);
+            int value = input.read();
+            if (value == -1 || !Character.isWhitespace(value)) {
+                input.reset();
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Registro leído (numerado desde 1) o, si no se pudo interpretar, el error de lectura.
+     */
+    record Item<T>(int registro, T value, IOException error) {
+    }
+}
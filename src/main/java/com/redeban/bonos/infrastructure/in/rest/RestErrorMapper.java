@@ -7,31 +7,42 @@ import jakarta.validation.ConstraintViolationException;
 import java.util.stream.Collectors;
 
 import com.redeban.bonos.domain.exception.BonoBusinessException;
+import com.redeban.bonos.domain.exception.BonoProviderUnavailableException;
 import com.redeban.bonos.domain.exception.BonoTechnicalException;
-import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosProperties;
+import com.redeban.bonos.domain.exception.BonoTimeoutException;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosSettings;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosSettingsProvider;
 import com.redeban.bonos.infrastructure.in.rest.dto.ErrorResponseDto;
 
 @ApplicationScoped
 public class RestErrorMapper {
 
-    private final GestionBonosProperties properties;
+    private final GestionBonosSettingsProvider settings;
 
     @Inject
-    public RestErrorMapper(GestionBonosProperties properties) {
-        this.properties = properties;
+    public RestErrorMapper(GestionBonosSettingsProvider settings) {
+        this.settings = settings;
     }
 
-    public ErrorWrapper toError(Throwable throwable) {
+    public ErrorWrapper toError(Throwable error) {
+        Throwable throwable = unwrap(error);
+        GestionBonosSettings config = settings.current();
         if (throwable instanceof BonoBusinessException business) {
             return new ErrorWrapper(business.getHttpStatus(),
                     new ErrorResponseDto(business.getCodigo(), business.getDescripcion()));
         }
 
+        if (throwable instanceof BonoTimeoutException timeout) {
+            return new ErrorWrapper(timeout.getHttpStatus(), toDto(config.e10()));
+        }
+
+        if (throwable instanceof BonoProviderUnavailableException unavailable) {
+            return new ErrorWrapper(unavailable.getHttpStatus(), toDto(config.e08()));
+        }
+
         if (throwable instanceof BonoTechnicalException technical) {
-            int status = technical.getHttpStatus() > 0 ? technical.getHttpStatus()
-                    : safeToInt(properties.codigoRespuesta().error().general(), 500);
-            return new ErrorWrapper(status,
-                    new ErrorResponseDto(properties.codigo().e09(), properties.descripcion().e09()));
+            int status = technical.getHttpStatus() > 0 ? technical.getHttpStatus() : config.httpErrorGeneral();
+            return new ErrorWrapper(status, toDto(config.e09()));
         }
 
         if (throwable instanceof ConstraintViolationException violationException) {
@@ -39,27 +50,39 @@ public class RestErrorMapper {
                     .stream()
                     .map(this::formatViolation)
                     .collect(Collectors.joining(", "));
-            ErrorResponseDto responseDto = new ErrorResponseDto(properties.codigo().e01(),
-                    properties.descripcion().e01() + ": " + message);
-            int status = safeToInt(properties.codigoRespuesta().error().estructura(), 400);
-            return new ErrorWrapper(status, responseDto);
+            ErrorResponseDto responseDto = new ErrorResponseDto(config.e01().codigo(),
+                    config.e01().descripcion() + ": " + message);
+            return new ErrorWrapper(config.httpErrorEstructura(), responseDto);
         }
 
-        int status = safeToInt(properties.codigoRespuesta().error().general(), 500);
-        return new ErrorWrapper(status,
-                new ErrorResponseDto(properties.codigo().e09(), properties.descripcion().e09()));
+        return new ErrorWrapper(config.httpErrorGeneral(), toDto(config.e09()));
+    }
+
+    /**
+     * Las excepciones lanzadas dentro de las rutas Camel llegan envueltas (p. ej. en
+     * {@code CamelExecutionException}); se busca la excepción del dominio en la cadena de causas.
+     */
+    private Throwable unwrap(Throwable throwable) {
+        Throwable current = throwable;
+        while (current != null) {
+            if (current instanceof BonoBusinessException || current instanceof BonoTechnicalException
+                    || current instanceof ConstraintViolationException) {
+                return current;
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+            current = current.getCause();
+        }
+        return throwable;
     }
 
     private String formatViolation(ConstraintViolation<?> violation) {
         return violation.getPropertyPath() + " => " + violation.getMessage();
     }
 
-    private int safeToInt(String value, int defaultValue) {
-        try {
-            return Integer.parseInt(value);
-        } catch (Exception ignored) {
-            return defaultValue;
-        }
+    private ErrorResponseDto toDto(GestionBonosSettings.Respuesta respuesta) {
+        return new ErrorResponseDto(respuesta.codigo(), respuesta.descripcion());
     }
 
     public record ErrorWrapper(int status, ErrorResponseDto body) {
@@ -0,0 +1,140 @@
+package com.redeban.bonos.infrastructure.in.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+/**
+ * Estado de un job de activación masiva. {@code codigos} cuenta las filas terminadas por código de respuesta
+ * del AS400 o código de error.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ActivacionJobResponseDto {
+
+    private String id;
+    private String estado;
+    private String bin;
+    private String nit;
+    private String subtipo;
+    private long filasLeidas;
+    private long exitosas;
+    private long fallidas;
+    private long enDuda;
+    private long enCurso;
+    private Map<String, Long> codigos;
+    private OffsetDateTime creado;
+    private OffsetDateTime actualizado;
+    private String detalle;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getEstado() {
+        return estado;
+    }
+
+    public void setEstado(String estado) {
+        this.estado = estado;
+    }
+
+    public String getBin() {
+        return bin;
+    }
+
+    public void setBin(String bin) {
+        this.bin = bin;
+    }
+
+    public String getNit() {
+        return nit;
+    }
+
+    public void setNit(String nit) {
+        this.nit = nit;
+    }
+
+    public String getSubtipo() {
+        return subtipo;
+    }
+
+    public void setSubtipo(String subtipo) {
+        this.subtipo = subtipo;
+    }
+
+    public long getFilasLeidas() {
+        return filasLeidas;
+    }
+
+    public void setFilasLeidas(long filasLeidas) {
+        this.filasLeidas = filasLeidas;
+    }
+
+    public long getExitosas() {
+        return exitosas;
+    }
+
+    public void setExitosas(long exitosas) {
+        this.exitosas = exitosas;
+    }
+
+    public long getFallidas() {
+        return fallidas;
+    }
+
+    public void setFallidas(long fallidas) {
+        this.fallidas = fallidas;
+    }
+
+    public long getEnDuda() {
+        return enDuda;
+    }
+
+    public void setEnDuda(long enDuda) {
+        this.enDuda = enDuda;
+    }
+
+    public long getEnCurso() {
+        return enCurso;
+    }
+
+    public void setEnCurso(long enCurso) {
+        this.enCurso = enCurso;
+    }
+
+    public Map<String, Long> getCodigos() {
+        return codigos;
+    }
+
+    public void setCodigos(Map<String, Long> codigos) {
+        this.codigos = codigos;
+    }
+
+    public OffsetDateTime getCreado() {
+        return creado;
+    }
+
+    public void setCreado(OffsetDateTime creado) {
+        this.creado = creado;
+    }
+
+    public OffsetDateTime getActualizado() {
+        return actualizado;
+    }
+
+    public void setActualizado(OffsetDateTime actualizado) {
+        this.actualizado = actualizado;
+    }
+
+    public String getDetalle() {
+        return detalle;
+    }
+
+    public void setDetalle(String detalle) {
+        this.detalle = detalle;
+    }
+}
@@ -0,0 +1,94 @@
+package com.redeban.bonos.infrastructure.in.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Línea de la exportación de bonos: un bono de un titular, el titular sin {@code numero} si no tiene bonos o, si
+ * la consulta del titular falló, el error con el {@code estado} que habría tenido la solicitud individual.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExportBonoDto {
+
+    private int registro;
+    private String nit;
+    private String tipoDocumento;
+    private String numeroDocumento;
+    private String numero;
+    private Long valor;
+    private Integer estado;
+    private ErrorResponseDto error;
+
+    public ExportBonoDto() {
+    }
+
+    public ExportBonoDto(int registro, String nit, String tipoDocumento, String numeroDocumento) {
+        this.registro = registro;
+        this.nit = nit;
+        this.tipoDocumento = tipoDocumento;
+        this.numeroDocumento = numeroDocumento;
+    }
+
+    public int getRegistro() {
+        return registro;
+    }
+
+    public void setRegistro(int registro) {
+        this.registro = registro;
+    }
+
+    public String getNit() {
+        return nit;
+    }
+
+    public void setNit(String nit) {
+        this.nit = nit;
+    }
+
+    public String getTipoDocumento() {
+        return tipoDocumento;
+    }
+
+    public void setTipoDocumento(String tipoDocumento) {
+        this.tipoDocumento = tipoDocumento;
+    }
+
+    public String getNumeroDocumento() {
+        return numeroDocumento;
+    }
+
+    public void setNumeroDocumento(String numeroDocumento) {
+        this.numeroDocumento = numeroDocumento;
+    }
+
+    public String getNumero() {
+        return numero;
+    }
+
+    public void setNumero(String numero) {
+        this.numero = numero;
+    }
+
+    public Long getValor() {
+        return valor;
+    }
+
+    public void setValor(Long valor) {
+        this.valor = valor;
+    }
+
+    public Integer getEstado() {
+        return estado;
+    }
+
+    public void setEstado(Integer estado) {
+        this.estado = estado;
+    }
+
+    public ErrorResponseDto getError() {
+        return error;
+    }
+
+    public void setError(ErrorResponseDto error) {
+        this.error = error;
+    }
+}
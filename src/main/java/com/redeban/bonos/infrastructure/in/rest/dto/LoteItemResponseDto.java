@@ -0,0 +1,58 @@
+package com.redeban.bonos.infrastructure.in.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Resultado de un registro de un lote: {@code estado} es el código HTTP que habría tenido la solicitud
+ * individual; lleva {@code respuesta} o {@code error}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LoteItemResponseDto<T> {
+
+    private int registro;
+    private int estado;
+    private T respuesta;
+    private ErrorResponseDto error;
+
+    public LoteItemResponseDto() {
+    }
+
+    public LoteItemResponseDto(int registro, int estado, T respuesta, ErrorResponseDto error) {
+        this.registro = registro;
+        this.estado = estado;
+        this.respuesta = respuesta;
+        this.error = error;
+    }
+
+    public int getRegistro() {
+        return registro;
+    }
+
+    public void setRegistro(int registro) {
+        this.registro = registro;
+    }
+
+    public int getEstado() {
+        return estado;
+    }
+
+    public void setEstado(int estado) {
+        this.estado = estado;
+    }
+
+    public T getRespuesta() {
+        return respuesta;
+    }
+
+    public void setRespuesta(T respuesta) {
+        this.respuesta = respuesta;
+    }
+
+    public ErrorResponseDto getError() {
+        return error;
+    }
+
+    public void setError(ErrorResponseDto error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,68 @@
+package com.redeban.bonos.infrastructure.in.rest.dto;
+
+import java.util.List;
+
+/**
+ * Respuesta del lote de recuperarBono: un resultado por titular solicitado, en el orden de la solicitud
+ * ({@code registro}), aunque los titulares repetidos se hayan consultado una sola vez.
+ */
+public class LoteRecuperarBonoResponseDto {
+
+    private int titulares;
+    private int distintos;
+    private int exitosos;
+    private int fallidos;
+    private List<LoteItemResponseDto<?>> resultados;
+
+    public LoteRecuperarBonoResponseDto() {
+    }
+
+    public LoteRecuperarBonoResponseDto(int titulares, int distintos, int exitosos, int fallidos,
+                                        List<LoteItemResponseDto<?>> resultados) {
+        this.titulares = titulares;
+        this.distintos = distintos;
+        this.exitosos = exitosos;
+        this.fallidos = fallidos;
+        this.resultados = resultados;
+    }
+
+    public int getTitulares() {
+        return titulares;
+    }
+
+    public void setTitulares(int titulares) {
+        this.titulares = titulares;
+    }
+
+    public int getDistintos() {
+        return distintos;
+    }
+
+    public void setDistintos(int distintos) {
+        this.distintos = distintos;
+    }
+
+    public int getExitosos() {
+        return exitosos;
+    }
+
+    public void setExitosos(int exitosos) {
+        this.exitosos = exitosos;
+    }
+
+    public int getFallidos() {
+        return fallidos;
+    }
+
+    public void setFallidos(int fallidos) {
+        this.fallidos = fallidos;
+    }
+
+    public List<LoteItemResponseDto<?>> getResultados() {
+        return resultados;
+    }
+
+    public void setResultados(List<LoteItemResponseDto<?>> resultados) {
+        this.resultados = resultados;
+    }
+}
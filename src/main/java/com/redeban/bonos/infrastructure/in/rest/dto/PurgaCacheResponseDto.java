@@ -0,0 +1,21 @@
+package com.redeban.bonos.infrastructure.in.rest.dto;
+
+public class PurgaCacheResponseDto {
+
+    private int eliminadas;
+
+    public PurgaCacheResponseDto() {
+    }
+
+    public PurgaCacheResponseDto(int eliminadas) {
+        this.eliminadas = eliminadas;
+    }
+
+    public int getEliminadas() {
+        return eliminadas;
+    }
+
+    public void setEliminadas(int eliminadas) {
+        this.eliminadas = eliminadas;
+    }
+}
@@ -0,0 +1,217 @@
+package com.redeban.bonos.infrastructure.out.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.redeban.bonos.domain.exception.BonoTechnicalException;
+import com.redeban.bonos.domain.exception.BonoTimeoutException;
+import com.redeban.bonos.domain.model.Deadline;
+import com.redeban.bonos.domain.port.out.IdempotencyPort;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosProperties;
+
+/**
+ * Registro de idempotencia en memoria.
+ *
+ * <p>Cada clave tiene un único {@link CompletableFuture}: quien lo registra ejecuta la operación y los
+ * duplicados esperan ese mismo resultado. Las respuestas exitosas se conservan durante {@code window}; como
+ * todas tienen la misma ventana se desalojan en orden de finalización, y también al superar
+ * {@code max-size}. Cualquier error, incluso un {@link Error}, libera la clave y llega a los duplicados; el
+ * reintento vuelve al AS400.</p>
+ */
+@ApplicationScoped
+public class InMemoryIdempotencyStore implements IdempotencyPort {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryIdempotencyStore.class);
+    private static final String KEY_SEPARATOR = "|";
+
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxSize;
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+    private final Queue<Completed> completed = new ConcurrentLinkedQueue<>();
+    private final Map<String, Counter> replays = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final Counter evictions;
+
+    @Inject
+    public InMemoryIdempotencyStore(GestionBonosProperties properties, MeterRegistry meterRegistry) {
+        GestionBonosProperties.Idempotency config = properties.idempotency();
+        Duration window = config.window();
+        this.enabled = config.enabled() && config.maxSize() > 0 && window.toNanos() > 0;
+        this.windowNanos = window.toNanos();
+        this.maxSize = config.maxSize();
+        this.meterRegistry = meterRegistry;
+        this.evictions = Counter.builder("bonos.idempotency.evictions")
+                .description("Respuestas retiradas del registro de idempotencia").register(meterRegistry);
+        Gauge.builder("bonos.idempotency.size", slots, Map::size)
+                .description("Claves en el registro de idempotencia, en curso o atendidas").register(meterRegistry);
+        if (enabled) {
+            LOGGER.info("Registro de idempotencia activo (window={} max-size={})", window, maxSize);
+        }
+    }
+
+    @Override
+    public <T> T execute(String operation, String requestKey, Deadline deadline, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        String key = operation + KEY_SEPARATOR + requestKey;
+        Slot slot = new Slot();
+        Slot existing = claim(key, slot);
+        if (existing != null) {
+            return await(operation, existing, deadline);
+        }
+        T result;
+        try {
+            result = call.get();
+        } catch (Throwable ex) {
+            release(key, slot, ex);
+            throw ex;
+        }
+        complete(key, slot, result);
+        return result;
+    }
+
+    @Override
+    public <T> CompletionStage<T> executeAsync(String operation, String requestKey,
+                                               Supplier<CompletionStage<T>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        String key = operation + KEY_SEPARATOR + requestKey;
+        Slot slot = new Slot();
+        Slot existing = claim(key, slot);
+        if (existing != null) {
+            replayed(operation, existing);
+            return existing.future.thenApply(InMemoryIdempotencyStore::<T>cast);
+        }
+        CompletionStage<T> stage;
+        try {
+            stage = call.get();
+        } catch (Throwable ex) {
+            release(key, slot, ex);
+            return CompletableFuture.failedFuture(ex);
+        }
+        return stage.whenComplete((result, error) -> {
+            if (error != null) {
+                release(key, slot, unwrap(error));
+            } else {
+                complete(key, slot, result);
+            }
+        });
+    }
+
+    /**
+     * Registra {@code slot} para la clave, o retorna el vigente si otra solicitud ya la tomó. Un registro
+     * vencido se reemplaza.
+     */
+    private Slot claim(String key, Slot slot) {
+        while (true) {
+            Slot existing = slots.putIfAbsent(key, slot);
+            if (existing == null) {
+                return null;
+            }
+            if (!existing.isExpired(System.nanoTime(), windowNanos)) {
+                return existing;
+            }
+            slots.remove(key, existing);
+        }
+    }
+
+    private void complete(String key, Slot slot, Object result) {
+        long now = System.nanoTime();
+        slot.completedAt = now;
+        slot.future.complete(result);
+        completed.add(new Completed(key, slot));
+        evict(now);
+    }
+
+    private void release(String key, Slot slot, Throwable error) {
+        slots.remove(key, slot);
+        slot.future.completeExceptionally(error);
+    }
+
+    /**
+     * Retira las respuestas fuera de la ventana y, si hace falta, las más antiguas hasta volver a
+     * {@code max-size}.
+     */
+    private void evict(long now) {
+        Completed eldest;
+        while ((eldest = completed.peek()) != null
+                && (eldest.slot.isExpired(now, windowNanos) || slots.size() > maxSize)) {
+            if (completed.remove(eldest) && slots.remove(eldest.key, eldest.slot)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private <T> T await(String operation, Slot existing, Deadline deadline) {
+        replayed(operation, existing);
+        try {
+            Object result = deadline.isBounded()
+                    ? existing.future.get(deadline.remaining(Duration.ZERO).toNanos(), TimeUnit.NANOSECONDS)
+                    : existing.future.get();
+            return cast(result);
+        } catch (TimeoutException ex) {
+            throw new BonoTimeoutException("Tiempo de la solicitud agotado esperando la solicitud original", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BonoTechnicalException("Interrumpido esperando la solicitud original", 500, ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new BonoTechnicalException("Error en la solicitud original: " + ex.getCause().getMessage(), 500,
+                    ex.getCause());
+        }
+    }
+
+    private void replayed(String operation, Slot existing) {
+        String result = existing.future.isDone() ? "stored" : "in-flight";
+        replays.computeIfAbsent(operation + "|" + result, ignored -> Counter.builder("bonos.idempotency.replays")
+                .tag("operation", operation)
+                .tag("result", result)
+                .description("Solicitudes duplicadas atendidas sin invocar el AS400")
+                .register(meterRegistry))
+                .increment();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object value) {
+        return (T) value;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static final class Slot {
+
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        private volatile long completedAt;
+
+        private boolean isExpired(long now, long windowNanos) {
+            return future.isDone() && !future.isCompletedExceptionally() && now - completedAt >= windowNanos;
+        }
+    }
+
+    private record Completed(String key, Slot slot) {
+    }
+}
@@ -0,0 +1,295 @@
+package com.redeban.bonos.infrastructure.out.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.redeban.bonos.domain.exception.BonoBusinessException;
+import com.redeban.bonos.domain.model.ActivarBonoRequest;
+import com.redeban.bonos.domain.model.ActivarBonoResponse;
+import com.redeban.bonos.domain.model.CrearBonoRequest;
+import com.redeban.bonos.domain.model.CrearBonoResponse;
+import com.redeban.bonos.domain.model.OperationResponse;
+import com.redeban.bonos.domain.model.RecuperarBonoRequest;
+import com.redeban.bonos.domain.model.RecuperarBonoResponse;
+import com.redeban.bonos.domain.port.out.NegativeResultCachePort;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosSettings;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosSettingsProvider;
+
+/**
+ * Caché en memoria de respuestas negativas del AS400.
+ *
+ * <p>Un recuperarBono sin bonos se guarda por titular (E11) y un crearBono o activarBono con el comercio
+ * bloqueado por NIT (E12), cada uno con su TTL; un TTL de cero desactiva ese caso. El código de dos caracteres
+ * de la trama se compara con {@code bonos.codigo.host.sin-resultados} y {@code comercio-bloqueado}, de modo que
+ * sigue la recarga de configuración. Todas las entradas comparten un mapa en orden de escritura limitado a
+ * {@code max-size}; las vencidas se descartan al leerlas. Sólo se guardan el código y la descripción del
+ * AS400: las respuestas se reconstruyen en cada acierto.</p>
+ */
+@ApplicationScoped
+public class InMemoryNegativeResultCache implements NegativeResultCachePort {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryNegativeResultCache.class);
+
+    private static final String E11 = "E11";
+    private static final String E12 = "E12";
+
+    private final GestionBonosSettingsProvider settings;
+    private final boolean enabled;
+    private final int maxSize;
+    private final long e11TtlNanos;
+    private final long e12TtlNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>();
+    private volatile long version;
+
+    private final Counter e11Hits;
+    private final Counter e12Hits;
+    private final Counter purged;
+
+    @Inject
+    public InMemoryNegativeResultCache(GestionBonosProperties properties, GestionBonosSettingsProvider settings,
+                                       MeterRegistry meterRegistry) {
+        GestionBonosProperties.Cache.Negativo config = properties.cache().negativo();
+        this.settings = settings;
+        this.e11TtlNanos = Math.max(config.e11Ttl().toNanos(), 0L);
+        this.e12TtlNanos = Math.max(config.e12Ttl().toNanos(), 0L);
+        this.enabled = config.enabled() && config.maxSize() > 0 && (e11TtlNanos > 0 || e12TtlNanos > 0);
+        this.maxSize = Math.max(config.maxSize(), 0);
+
+        this.e11Hits = hits(meterRegistry, E11);
+        this.e12Hits = hits(meterRegistry, E12);
+        this.purged = Counter.builder("bonos.cache.negativo.purged")
+                .description("Entradas retiradas de la caché negativa por el endpoint de administración")
+                .register(meterRegistry);
+        Gauge.builder("bonos.cache.negativo.size", this, InMemoryNegativeResultCache::size)
+                .description("Titulares (E11) y NIT (E12) con respuesta negativa en caché").register(meterRegistry);
+        if (enabled) {
+            LOGGER.info("Caché negativa activa (max-size={} E11.ttl={} E12.ttl={})", maxSize,
+                    Duration.ofNanos(e11TtlNanos), Duration.ofNanos(e12TtlNanos));
+        }
+    }
+
+    @Override
+    public Optional<RecuperarBonoResponse> find(RecuperarBonoRequest request) {
+        if (!enabled || e11TtlNanos == 0) {
+            return Optional.empty();
+        }
+        return lookup(HolderKey.of(request.getBin(), request.getSubtipo(), request.getNit(),
+                request.getTipoDocumento(), request.getNumeroDocumento()), e11Hits)
+                .map(entry -> {
+                    RecuperarBonoResponse response = entry.fill(new RecuperarBonoResponse());
+                    response.setBonos(new ArrayList<>());
+                    return response;
+                });
+    }
+
+    @Override
+    public Optional<CrearBonoResponse> find(CrearBonoRequest request) {
+        return findBlocked(request.getNit()).map(entry -> entry.fill(new CrearBonoResponse()));
+    }
+
+    @Override
+    public Optional<ActivarBonoResponse> find(ActivarBonoRequest request) {
+        return findBlocked(request.getNit()).map(entry -> entry.fill(new ActivarBonoResponse()));
+    }
+
+    @Override
+    public long version() {
+        return version;
+    }
+
+    @Override
+    public void record(RecuperarBonoRequest request, RecuperarBonoResponse response, long version) {
+        if (!enabled || e11TtlNanos == 0 || response == null
+                || (response.getBonos() != null && !response.getBonos().isEmpty())
+                || !matches(response, settings.current().hostSinResultados())) {
+            return;
+        }
+        HolderKey key = HolderKey.of(request.getBin(), request.getSubtipo(), request.getNit(),
+                request.getTipoDocumento(), request.getNumeroDocumento());
+        lock.lock();
+        try {
+            if (this.version != version) {
+                // Un crearBono posterior al inicio de la consulta pudo dejar obsoleto el E11.
+                return;
+            }
+            put(key, Entry.of(response, E11, System.nanoTime() + e11TtlNanos));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void record(CrearBonoRequest request, CrearBonoResponse response) {
+        recordBlocked(request.getNit(), response);
+    }
+
+    @Override
+    public void record(ActivarBonoRequest request, ActivarBonoResponse response) {
+        recordBlocked(request.getNit(), response);
+    }
+
+    @Override
+    public void invalidate(CrearBonoRequest request) {
+        if (!enabled) {
+            return;
+        }
+        HolderKey key = HolderKey.of(request.getBin(), request.getSubtipo(), request.getNit(),
+                request.getTipoDocumento(), request.getNumeroDocumento());
+        lock.lock();
+        try {
+            version++;
+            entries.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int purge(String codigo, String nit) {
+        String code = StringUtils.trimToNull(codigo);
+        if (code != null && !E11.equalsIgnoreCase(code) && !E12.equalsIgnoreCase(code)) {
+            GestionBonosSettings config = settings.current();
+            throw new BonoBusinessException(config.e01().codigo(),
+                    config.e01().descripcion() + ": codigo debe ser E11 o E12", config.httpErrorEstructura());
+        }
+        String nitFilter = StringUtils.trimToNull(nit);
+        int removed = 0;
+        lock.lock();
+        try {
+            version++;
+            Iterator<Map.Entry<Object, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Object, Entry> candidate = iterator.next();
+                if ((code == null || code.equalsIgnoreCase(candidate.getValue().code()))
+                        && (nitFilter == null || nitFilter.equals(nitOf(candidate.getKey())))) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        purged.increment(removed);
+        LOGGER.info("Caché negativa purgada (codigo={} nit={}): {} entradas", code, nitFilter, removed);
+        return removed;
+    }
+
+    private Optional<Entry> findBlocked(String nit) {
+        if (!enabled || e12TtlNanos == 0) {
+            return Optional.empty();
+        }
+        return lookup(new NitKey(StringUtils.trimToEmpty(nit)), e12Hits);
+    }
+
+    private void recordBlocked(String nit, OperationResponse response) {
+        if (!enabled || e12TtlNanos == 0 || response == null
+                || !matches(response, settings.current().hostComercioBloqueado())) {
+            return;
+        }
+        lock.lock();
+        try {
+            put(new NitKey(StringUtils.trimToEmpty(nit)), Entry.of(response, E12, System.nanoTime() + e12TtlNanos));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Optional<Entry> lookup(Object key, Counter hits) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            if (now - entry.expiresAt() >= 0) {
+                entries.remove(key);
+                return Optional.empty();
+            }
+            hits.increment();
+            return Optional.of(entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(Object key, Entry entry) {
+        entries.remove(key);
+        entries.put(key, entry);
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private int size() {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            entries.values().removeIf(entry -> now - entry.expiresAt() >= 0);
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean matches(OperationResponse response, String codigoHost) {
+        return StringUtils.isNotBlank(codigoHost)
+                && codigoHost.strip().equals(StringUtils.trim(response.getCodigoRespuesta()));
+    }
+
+    private static String nitOf(Object key) {
+        return key instanceof HolderKey holder ? holder.nit() : ((NitKey) key).nit();
+    }
+
+    private static Counter hits(MeterRegistry meterRegistry, String code) {
+        return Counter.builder("bonos.cache.negativo.hits").tag("codigo", code)
+                .description("Solicitudes respondidas desde la caché negativa sin invocar el AS400")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Titular de la consulta, normalizado como en la caché de recuperarBono.
+     */
+    private record HolderKey(String bin, String subtipo, String nit, String tipoDocumento, String numeroDocumento) {
+
+        private static HolderKey of(String bin, String subtipo, String nit, String tipoDocumento,
+                                    String numeroDocumento) {
+            return new HolderKey(StringUtils.trimToEmpty(bin), StringUtils.trimToEmpty(subtipo),
+                    StringUtils.trimToEmpty(nit), StringUtils.trimToEmpty(tipoDocumento),
+                    StringUtils.stripStart(StringUtils.trimToEmpty(numeroDocumento), "0"));
+        }
+    }
+
+    private record NitKey(String nit) {
+    }
+
+    private record Entry(String codigoRespuesta, String descripcionRespuesta, String code, long expiresAt) {
+
+        private static Entry of(OperationResponse response, String code, long expiresAt) {
+            return new Entry(response.getCodigoRespuesta(), response.getDescripcionRespuesta(), code, expiresAt);
+        }
+
+        private <R extends OperationResponse> R fill(R response) {
+            response.setCodigoRespuesta(codigoRespuesta);
+            response.setDescripcionRespuesta(descripcionRespuesta);
+            return response;
+        }
+    }
+}
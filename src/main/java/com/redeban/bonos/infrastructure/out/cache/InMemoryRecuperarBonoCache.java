@@ -0,0 +1,346 @@
+package com.redeban.bonos.infrastructure.out.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.redeban.bonos.domain.model.ActivarBonoRequest;
+import com.redeban.bonos.domain.model.ActivarBonoResponse;
+import com.redeban.bonos.domain.model.Bono;
+import com.redeban.bonos.domain.model.CacheDirectives;
+import com.redeban.bonos.domain.model.CrearBonoRequest;
+import com.redeban.bonos.domain.model.RecuperarBonoRequest;
+import com.redeban.bonos.domain.model.RecuperarBonoResponse;
+import com.redeban.bonos.domain.port.out.RecuperarBonoCachePort;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosProperties;
+
+/**
+ * Caché en memoria de {@code recuperarBono} por titular (bin, subtipo, nit, tipo y número de documento).
+ *
+ * <p>Las entradas se guardan en orden de escritura: como todas tienen el mismo TTL, las vencidas forman
+ * siempre un prefijo y se descartan al consultar o escribir; al superar {@code max-size} sale la escrita hace
+ * más tiempo. Sólo se guardan respuestas con bonos y se entregan copias, de modo que nadie modifica la
+ * entrada compartida.</p>
+ *
+ * <p>Crear y activar invalidan el titular (y, al activar, el titular que tenga el bono en caché) aunque la
+ * operación falle, porque un timeout no garantiza que el host no la haya aplicado. Cada invalidación deja una
+ * marca con su versión: una consulta que empezó antes y termina después no guarda su resultado. Las marcas
+ * más antiguas se descartan por tamaño y a partir de ahí se rechaza cualquier consulta anterior a ellas.</p>
+ */
+@ApplicationScoped
+public class InMemoryRecuperarBonoCache implements RecuperarBonoCachePort {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryRecuperarBonoCache.class);
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<HolderKey, Entry> entries = new LinkedHashMap<>();
+    private final Map<String, HolderKey> holdersByBono = new HashMap<>();
+    private final LinkedHashMap<Object, Long> tombstones = new LinkedHashMap<>();
+    private volatile long version;
+    private long prunedVersion;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bypasses;
+    private final Counter expirations;
+    private final Counter sizeEvictions;
+    private final Counter invalidations;
+
+    @Inject
+    public InMemoryRecuperarBonoCache(GestionBonosProperties properties, MeterRegistry meterRegistry) {
+        GestionBonosProperties.Cache.Recuperar config = properties.cache().recuperar();
+        this.enabled = config.enabled() && config.maxSize() > 0 && config.ttl().toNanos() > 0;
+        this.maxSize = Math.max(config.maxSize(), 0);
+        this.ttlNanos = config.ttl().toNanos();
+
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.bypasses = requests(meterRegistry, "bypass");
+        this.expirations = evictions(meterRegistry, "expired");
+        this.sizeEvictions = evictions(meterRegistry, "size");
+        this.invalidations = evictions(meterRegistry, "invalidated");
+        Gauge.builder("bonos.cache.recuperar.size", this, InMemoryRecuperarBonoCache::size)
+                .description("Titulares con respuesta de recuperarBono en caché").register(meterRegistry);
+        Gauge.builder("bonos.cache.recuperar.hit.ratio", this, InMemoryRecuperarBonoCache::hitRatio)
+                .description("Fracción de consultas recuperarBono respondidas desde la caché").register(meterRegistry);
+        if (enabled) {
+            LOGGER.info("Caché de recuperarBono activa (max-size={} ttl={})", maxSize, config.ttl());
+        }
+    }
+
+    @Override
+    public Optional<RecuperarBonoResponse> find(RecuperarBonoRequest request, CacheDirectives directives) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        if (directives.noCache()) {
+            bypasses.increment();
+            return Optional.empty();
+        }
+        HolderKey key = HolderKey.of(request);
+        long now = System.nanoTime();
+        Entry entry;
+        lock.lock();
+        try {
+            purgeExpired(now);
+            entry = entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+        if (entry == null || directives.maxAge().map(age -> now - entry.storedAt() > age.toNanos()).orElse(false)) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(entry.toResponse());
+    }
+
+    @Override
+    public long version() {
+        return version;
+    }
+
+    @Override
+    public void store(RecuperarBonoRequest request, RecuperarBonoResponse response, CacheDirectives directives,
+                      long version) {
+        if (!enabled || directives.noStore() || response == null || response.getBonos() == null
+                || response.getBonos().isEmpty()) {
+            return;
+        }
+        HolderKey key = HolderKey.of(request);
+        long now = System.nanoTime();
+        Entry entry = Entry.of(response, now);
+        lock.lock();
+        try {
+            if (invalidatedSince(key, entry, version)) {
+                return;
+            }
+            purgeExpired(now);
+            remove(key);
+            entries.put(key, entry);
+            for (Entry.Item item : entry.bonos()) {
+                if (item.numero() != null) {
+                    holdersByBono.put(item.numero(), key);
+                }
+            }
+            Iterator<Map.Entry<HolderKey, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxSize && eldest.hasNext()) {
+                Map.Entry<HolderKey, Entry> evicted = eldest.next();
+                eldest.remove();
+                unindex(evicted.getKey(), evicted.getValue());
+                sizeEvictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void invalidate(CrearBonoRequest request) {
+        if (!enabled) {
+            return;
+        }
+        HolderKey key = HolderKey.of(request.getBin(), request.getSubtipo(), request.getNit(),
+                request.getTipoDocumento(), request.getNumeroDocumento());
+        lock.lock();
+        try {
+            long current = ++version;
+            tombstone(key, current);
+            if (remove(key)) {
+                invalidations.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void invalidate(ActivarBonoRequest request, ActivarBonoResponse response) {
+        if (!enabled) {
+            return;
+        }
+        String numeroBono = StringUtils.trimToNull(request.getNumeroBono());
+        HolderKey holder = null;
+        if (response != null && StringUtils.isNoneBlank(response.getTipoDocumento(), response.getNumeroDocumento())) {
+            holder = HolderKey.of(request.getBin(), request.getSubtipo(), request.getNit(),
+                    response.getTipoDocumento(), response.getNumeroDocumento());
+        }
+        lock.lock();
+        try {
+            long current = ++version;
+            if (numeroBono != null) {
+                tombstone(numeroBono, current);
+                HolderKey indexed = holdersByBono.get(numeroBono);
+                if (indexed != null && remove(indexed)) {
+                    invalidations.increment();
+                }
+            }
+            if (holder != null) {
+                tombstone(holder, current);
+                if (remove(holder)) {
+                    invalidations.increment();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@code true} si el titular o alguno de sus bonos se invalidó después de {@code since}, o si las marcas
+     * que lo dirían ya se descartaron.
+     */
+    private boolean invalidatedSince(HolderKey key, Entry entry, long since) {
+        if (since < prunedVersion) {
+            return true;
+        }
+        Long invalidated = tombstones.get(key);
+        if (invalidated != null && invalidated > since) {
+            return true;
+        }
+        for (Entry.Item item : entry.bonos()) {
+            invalidated = item.numero() == null ? null : tombstones.get(item.numero());
+            if (invalidated != null && invalidated > since) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void tombstone(Object key, long current) {
+        tombstones.remove(key);
+        tombstones.put(key, current);
+        Iterator<Long> eldest = tombstones.values().iterator();
+        while (tombstones.size() > maxSize && eldest.hasNext()) {
+            prunedVersion = Math.max(prunedVersion, eldest.next());
+            eldest.remove();
+        }
+    }
+
+    private void purgeExpired(long now) {
+        Iterator<Map.Entry<HolderKey, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<HolderKey, Entry> eldest = iterator.next();
+            if (now - eldest.getValue().storedAt() < ttlNanos) {
+                return;
+            }
+            iterator.remove();
+            unindex(eldest.getKey(), eldest.getValue());
+            expirations.increment();
+        }
+    }
+
+    private boolean remove(HolderKey key) {
+        Entry removed = entries.remove(key);
+        if (removed == null) {
+            return false;
+        }
+        unindex(key, removed);
+        return true;
+    }
+
+    private void unindex(HolderKey key, Entry entry) {
+        for (Entry.Item item : entry.bonos()) {
+            if (item.numero() != null) {
+                holdersByBono.remove(item.numero(), key);
+            }
+        }
+    }
+
+    private int size() {
+        lock.lock();
+        try {
+            purgeExpired(System.nanoTime());
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double hitRatio() {
+        double found = hits.count();
+        double total = found + misses.count() + bypasses.count();
+        return total == 0 ? 0 : found / total;
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("bonos.cache.recuperar.requests").tag("result", result)
+                .description("Consultas recuperarBono atendidas por la caché").register(meterRegistry);
+    }
+
+    private static Counter evictions(MeterRegistry meterRegistry, String cause) {
+        return Counter.builder("bonos.cache.recuperar.evictions").tag("cause", cause)
+                .description("Entradas retiradas de la caché de recuperarBono").register(meterRegistry);
+    }
+
+    /**
+     * Titular de la consulta. El número de documento se compara sin ceros a la izquierda porque la trama lo
+     * completa con ceros y así puede volver en la respuesta de activación.
+     */
+    private record HolderKey(String bin, String subtipo, String nit, String tipoDocumento, String numeroDocumento) {
+
+        private static HolderKey of(RecuperarBonoRequest request) {
+            return of(request.getBin(), request.getSubtipo(), request.getNit(), request.getTipoDocumento(),
+                    request.getNumeroDocumento());
+        }
+
+        private static HolderKey of(String bin, String subtipo, String nit, String tipoDocumento,
+                                    String numeroDocumento) {
+            return new HolderKey(StringUtils.trimToEmpty(bin), StringUtils.trimToEmpty(subtipo),
+                    StringUtils.trimToEmpty(nit), StringUtils.trimToEmpty(tipoDocumento),
+                    StringUtils.stripStart(StringUtils.trimToEmpty(numeroDocumento), "0"));
+        }
+    }
+
+    /**
+     * Copia inmutable de la respuesta.
+     */
+    private record Entry(String codigoRespuesta, String descripcionRespuesta, List<Item> bonos, long storedAt) {
+
+        private static Entry of(RecuperarBonoResponse response, long storedAt) {
+            List<Item> bonos = new ArrayList<>(response.getBonos().size());
+            for (Bono bono : response.getBonos()) {
+                bonos.add(new Item(StringUtils.trimToNull(bono.getNumero()), bono.getNumero(), bono.getValor()));
+            }
+            return new Entry(response.getCodigoRespuesta(), response.getDescripcionRespuesta(), List.copyOf(bonos),
+                    storedAt);
+        }
+
+        private RecuperarBonoResponse toResponse() {
+            RecuperarBonoResponse response = new RecuperarBonoResponse();
+            response.setCodigoRespuesta(codigoRespuesta);
+            response.setDescripcionRespuesta(descripcionRespuesta);
+            List<Bono> copia = new ArrayList<>(bonos.size());
+            for (Item item : bonos) {
+                Bono bono = new Bono();
+                bono.setNumero(item.original());
+                bono.setValor(item.valor());
+                copia.add(bono);
+            }
+            response.setBonos(copia);
+            return response;
+        }
+
+        /**
+         * {@code numero} es la clave de índice (recortada); {@code original} el valor tal como llegó.
+         */
+        private record Item(String numero, String original, Long valor) {
+        }
+    }
+}
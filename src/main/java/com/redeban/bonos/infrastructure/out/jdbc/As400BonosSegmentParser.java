@@ -0,0 +1,115 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.redeban.bonos.domain.model.Bono;
+
+/**
+ * Lector del segmento de bonos de la respuesta de recuperarBono: registros {@code numero,valor} separados por
+ * {@code ;}, con el valor en centavos (los dos últimos dígitos se descartan).
+ *
+ * <p>Recorre el segmento una sola vez por índices, sin {@code split} ni subcadenas intermedias: la única
+ * cadena creada por registro es el número del bono y el valor se convierte directamente a {@code long}. Los
+ * casos límite conservan el comportamiento del armado con {@code split}: se omiten los registros en blanco o
+ * sin valor, y un valor de menos de dos caracteres queda en {@code null}. Un valor de sólo centavos
+ * ({@code 00}) es cero; el armado con {@code split} fallaba ahí con {@code NumberFormatException}. Un valor no
+ * numérico lanza {@link MalformedEntryException} con la posición del registro.</p>
+ */
+final class As400BonosSegmentParser {
+
+    private As400BonosSegmentParser() {
+    }
+
+    /**
+     * Lee los bonos del rango {@code [from, to)} de {@code source}, que ya viene recortado.
+     */
+    static List<Bono> parse(String source, int from, int to) {
+        if (from == to) {
+            return List.of();
+        }
+        List<Bono> bonos = new ArrayList<>();
+        int start = from;
+        int registro = 0;
+        while (start <= to) {
+            int end = indexOf(source, ';', start, to);
+            registro++;
+            Bono bono = parseRegistro(source, start, end, registro);
+            if (bono != null) {
+                bonos.add(bono);
+            }
+            start = end + 1;
+        }
+        return bonos;
+    }
+
+    private static Bono parseRegistro(String source, int start, int end, int registro) {
+        int comma = indexOf(source, ',', start, end);
+        if (comma == end || !hasValue(source, comma + 1, end)) {
+            // Registro en blanco, sin coma o sin nada después de ella.
+            return null;
+        }
+        Bono bono = new Bono();
+        bono.setNumero(trimToNull(source, start, comma));
+        int valorStart = comma + 1;
+        int valorEnd = indexOf(source, ',', valorStart, end);
+        if (valorEnd - valorStart > 2) {
+            try {
+                bono.setValor(Long.parseLong(source, valorStart, valorEnd - 2, 10));
+            } catch (NumberFormatException ex) {
+                throw malformedValor(source, valorStart, valorEnd, registro);
+            }
+        } else if (valorEnd - valorStart == 2) {
+            if (!isDigit(source.charAt(valorStart)) || !isDigit(source.charAt(valorStart + 1))) {
+                throw malformedValor(source, valorStart, valorEnd, registro);
+            }
+            bono.setValor(0L);
+        }
+        return bono;
+    }
+
+    private static boolean isDigit(char character) {
+        return character >= '0' && character <= '9';
+    }
+
+    private static MalformedEntryException malformedValor(String source, int start, int end, int registro) {
+        return new MalformedEntryException(registro, "valor '" + source.substring(start, end) + "' no es numérico");
+    }
+
+    /**
+     * {@code true} si después de la primera coma hay algo distinto de comas.
+     */
+    private static boolean hasValue(String source, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (source.charAt(i) != ',') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int indexOf(String source, char character, int from, int to) {
+        int index = source.indexOf(character, from);
+        return index < 0 || index > to ? to : index;
+    }
+
+    private static String trimToNull(String source, int start, int end) {
+        while (start < end && source.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && source.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return start == end ? null : source.substring(start, end);
+    }
+
+    /**
+     * Registro del segmento de bonos que no respeta el formato {@code numero,valor}.
+     */
+    static final class MalformedEntryException extends RuntimeException {
+
+        MalformedEntryException(int registro, String detalle) {
+            super("registro " + registro + " del segmento de bonos: " + detalle);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.redeban.bonos.domain.exception.BonoTechnicalException;
+import com.redeban.bonos.domain.exception.BonoTimeoutException;
+import com.redeban.bonos.domain.model.Deadline;
+
+/**
+ * Control de una invocación al AS400: su deadline y la acción que la interrumpe ({@code Statement.cancel()}
+ * o la desconexión del servicio de comandos). {@link As400Connector} la cancela al vencer el deadline o
+ * cuando otra invocación cubierta (hedge) respondió primero.
+ */
+public final class As400CallControl {
+
+    private final Deadline deadline;
+    private final String avoidHost;
+    private final AtomicReference<Runnable> cancelAction = new AtomicReference<>();
+    private volatile boolean cancelled;
+    private volatile String host;
+
+    public As400CallControl(Deadline deadline) {
+        this(deadline, null);
+    }
+
+    private As400CallControl(Deadline deadline, String avoidHost) {
+        this.deadline = deadline;
+        this.avoidHost = avoidHost;
+    }
+
+    /**
+     * Control para una invocación paralela a ésta (hedge): mismo deadline y, si hay alternativa, otro host.
+     */
+    public As400CallControl sibling() {
+        return new As400CallControl(deadline, host);
+    }
+
+    public Deadline deadline() {
+        return deadline;
+    }
+
+    /**
+     * Host al que se envió la invocación, si el transporte enruta entre varios.
+     */
+    public String host() {
+        return host;
+    }
+
+    void assignHost(String host) {
+        this.host = host;
+    }
+
+    /**
+     * Host que el enrutador debe evitar si tiene otro disponible; {@code null} si no hay preferencia.
+     */
+    String avoidHost() {
+        return avoidHost;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Registra la acción que interrumpe la invocación en curso. Retorna {@code false} si la invocación ya
+     * estaba cancelada, en cuyo caso no debe ejecutarse.
+     */
+    public boolean onCancel(Runnable action) {
+        if (cancelled) {
+            return false;
+        }
+        cancelAction.set(action);
+        return !cancelled || !cancelAction.compareAndSet(action, null);
+    }
+
+    /**
+     * Retira la acción registrada. Retorna {@code false} si la cancelación ya la tomó: en ese caso la
+     * interrupción pudo alcanzar la conexión y ésta no debe reutilizarse.
+     */
+    public boolean clearCancel() {
+        return cancelAction.getAndSet(null) != null;
+    }
+
+    public void cancel() {
+        cancelled = true;
+        Runnable action = cancelAction.getAndSet(null);
+        if (action != null) {
+            action.run();
+        }
+    }
+
+    /**
+     * Excepción a lanzar cuando la invocación terminó por cancelación.
+     */
+    public RuntimeException cancellationException(Throwable cause) {
+        if (deadline.isExpired()) {
+            return new BonoTimeoutException("Invocación AS400 cancelada por tiempo agotado", cause);
+        }
+        return new BonoTechnicalException("Invocación AS400 cancelada", 500, cause);
+    }
+}
@@ -0,0 +1,162 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.redeban.bonos.domain.exception.BonoProviderUnavailableException;
+import com.redeban.bonos.infrastructure.camel.common.configs.As400ClientProperties;
+
+/**
+ * Circuit breaker de una operación AS400.
+ *
+ * <p>En estado cerrado registra el resultado de las últimas {@code request-volume-threshold} llamadas y abre
+ * el circuito cuando la proporción de fallos técnicos alcanza {@code failure-ratio}. Abierto, rechaza las
+ * llamadas sin tocar el pool. Pasado {@code delay} pasa a semiabierto y ejecuta en segundo plano la prueba de
+ * conectividad ({@code SELECT 1 FROM SYSIBM.SYSDUMMY1}); si responde se cierra, si no vuelve a abrirse.
+ * La prueba no depende de tráfico entrante, así que el circuito se recupera aunque nadie esté llamando.</p>
+ */
+public class As400CircuitBreaker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(As400CircuitBreaker.class);
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final As400Operation operation;
+    private final As400ClientProperties.CircuitBreaker config;
+    private final BooleanSupplier probe;
+    private final ScheduledExecutorService scheduler;
+    private final MeterRegistry meterRegistry;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final ReentrantLock windowLock = new ReentrantLock();
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCalls;
+    private int windowFailures;
+
+    public As400CircuitBreaker(As400Operation operation,
+                               As400ClientProperties.CircuitBreaker config,
+                               BooleanSupplier probe,
+                               ScheduledExecutorService scheduler,
+                               MeterRegistry meterRegistry) {
+        this.operation = operation;
+        this.config = config;
+        this.probe = probe;
+        this.scheduler = scheduler;
+        this.meterRegistry = meterRegistry;
+        this.window = new boolean[Math.max(config.requestVolumeThreshold(), 1)];
+
+        Gauge.builder("bonos.as400.circuit-breaker.state", state, s -> s.get().ordinal())
+                .tags(Tags.of("operation", operation.tag()))
+                .description("Estado del circuit breaker AS400 (0=cerrado, 1=abierto, 2=semiabierto)")
+                .register(meterRegistry);
+    }
+
+    public State state() {
+        return state.get();
+    }
+
+    /**
+     * Rechaza de inmediato la llamada si el circuito no está cerrado.
+     */
+    public void checkAllowed() {
+        if (config.enabled() && state.get() != State.CLOSED) {
+            throw new BonoProviderUnavailableException("Circuito AS400 abierto para la operación " + operation.tag());
+        }
+    }
+
+    public void onSuccess() {
+        record(false);
+    }
+
+    public void onFailure() {
+        record(true);
+    }
+
+    private void record(boolean failure) {
+        if (!config.enabled() || state.get() != State.CLOSED) {
+            return;
+        }
+        boolean trip;
+        windowLock.lock();
+        try {
+            if (windowCalls == window.length) {
+                if (window[windowIndex]) {
+                    windowFailures--;
+                }
+            } else {
+                windowCalls++;
+            }
+            window[windowIndex] = failure;
+            if (failure) {
+                windowFailures++;
+            }
+            windowIndex = (windowIndex + 1) % window.length;
+            trip = windowCalls == window.length
+                    && (double) windowFailures / windowCalls >= config.failureRatio();
+        } finally {
+            windowLock.unlock();
+        }
+        if (trip && transition(State.CLOSED, State.OPEN)) {
+            scheduleProbe();
+        }
+    }
+
+    private void scheduleProbe() {
+        scheduler.schedule(this::probe, config.delay().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void probe() {
+        if (!transition(State.OPEN, State.HALF_OPEN)) {
+            return;
+        }
+        boolean healthy;
+        try {
+            healthy = probe.getAsBoolean();
+        } catch (RuntimeException ex) {
+            healthy = false;
+        }
+        if (healthy) {
+            resetWindow();
+            transition(State.HALF_OPEN, State.CLOSED);
+        } else if (transition(State.HALF_OPEN, State.OPEN)) {
+            scheduleProbe();
+        }
+    }
+
+    private void resetWindow() {
+        windowLock.lock();
+        try {
+            windowIndex = 0;
+            windowCalls = 0;
+            windowFailures = 0;
+        } finally {
+            windowLock.unlock();
+        }
+    }
+
+    private boolean transition(State from, State to) {
+        if (!state.compareAndSet(from, to)) {
+            return false;
+        }
+        meterRegistry.counter("bonos.as400.circuit-breaker.transitions",
+                "operation", operation.tag(), "from", from.name(), "to", to.name()).increment();
+        if (to == State.CLOSED) {
+            LOGGER.info("Circuito AS400 [{}] {} -> {}", operation.tag(), from, to);
+        } else {
+            LOGGER.warn("Circuito AS400 [{}] {} -> {}", operation.tag(), from, to);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,40 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import io.smallrye.health.api.HealthGroup;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.Map;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+
+/**
+ * Expone el estado de los circuit breakers AS400 en {@code /q/health/group/as400}. Se publica en un grupo
+ * propio y no en readiness: si el circuito abierto sacara al pod del balanceo, los consumidores dejarían de
+ * recibir la respuesta E08 del servicio.
+ */
+@HealthGroup("as400")
+@ApplicationScoped
+public class As400CircuitBreakerHealthCheck implements HealthCheck {
+
+    private final As400Connector connector;
+
+    @Inject
+    public As400CircuitBreakerHealthCheck(As400Connector connector) {
+        this.connector = connector;
+    }
+
+    @Override
+    public HealthCheckResponse call() {
+        HealthCheckResponseBuilder builder = HealthCheckResponse.named("as400-circuit-breaker");
+        if (!connector.isEnabled()) {
+            return builder.down().withData("datasource", "no configurado").build();
+        }
+        boolean up = true;
+        for (Map.Entry<As400Operation, As400CircuitBreaker.State> entry : connector.circuitBreakerStates().entrySet()) {
+            builder.withData(entry.getKey().tag(), entry.getValue().name());
+            up &= entry.getValue() == As400CircuitBreaker.State.CLOSED;
+        }
+        return builder.status(up).build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.redeban.bonos.domain.exception.BonoProviderUnavailableException;
+import com.redeban.bonos.infrastructure.camel.common.configs.As400ClientProperties;
+
+/**
+ * Limitador adaptativo (AIMD) de invocaciones concurrentes al AS400.
+ *
+ * <p>Mientras las respuestas llegan por debajo de {@code latency-threshold} y el límite está siendo
+ * aprovechado, el límite crece de a una llamada; ante una respuesta lenta o un error técnico se reduce
+ * multiplicándolo por {@code backoff-ratio}. Las llamadas que exceden el límite se rechazan de inmediato
+ * con {@link BonoProviderUnavailableException} en lugar de encolarse en los hilos de trabajo.</p>
+ */
+public class As400ConcurrencyLimiter {
+
+    private final As400ClientProperties.Limiter config;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger limit;
+    private final Counter rejected;
+    private final long latencyThresholdNanos;
+
+    public As400ConcurrencyLimiter(As400ClientProperties.Limiter config, MeterRegistry meterRegistry) {
+        if (config.minLimit() < 1 || config.minLimit() > config.maxLimit()
+                || config.backoffRatio() <= 0 || config.backoffRatio() >= 1) {
+            throw new IllegalArgumentException("Configuración de limitador AS400 inválida: min-limit="
+                    + config.minLimit() + " max-limit=" + config.maxLimit() + " backoff-ratio=" + config.backoffRatio());
+        }
+        this.config = config;
+        this.limit = new AtomicInteger(clamp(config.initialLimit()));
+        this.latencyThresholdNanos = config.latencyThreshold().toNanos();
+
+        Gauge.builder("bonos.as400.limiter.limit", limit, AtomicInteger::get)
+                .description("Límite actual de invocaciones AS400 concurrentes").register(meterRegistry);
+        Gauge.builder("bonos.as400.limiter.inflight", inFlight, AtomicInteger::get)
+                .description("Invocaciones AS400 en curso").register(meterRegistry);
+        this.rejected = Counter.builder("bonos.as400.limiter.rejected")
+                .description("Invocaciones AS400 rechazadas por el limitador").register(meterRegistry);
+    }
+
+    /**
+     * Reserva un cupo o rechaza la llamada si ya hay {@code limit} invocaciones en curso.
+     */
+    public Permit acquire() {
+        if (!config.enabled()) {
+            return new Permit(System.nanoTime(), false);
+        }
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                rejected.increment();
+                throw new BonoProviderUnavailableException("Límite de concurrencia AS400 alcanzado (limit="
+                        + limit.get() + ")");
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(System.nanoTime(), true);
+            }
+        }
+    }
+
+    /**
+     * Reserva un cupo si hay disponible; retorna {@code null} en lugar de rechazar. Lo usan las invocaciones
+     * opcionales (hedges), que no deben contarse como rechazos.
+     */
+    public Permit tryAcquire() {
+        if (!config.enabled()) {
+            return new Permit(System.nanoTime(), false);
+        }
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(System.nanoTime(), true);
+            }
+        }
+    }
+
+    private void onSuccess(int inFlightAtStart, long latencyNanos) {
+        if (latencyThresholdNanos > 0 && latencyNanos > latencyThresholdNanos) {
+            decrease();
+            return;
+        }
+        // Sólo crece si el límite se está usando; evita inflarlo en periodos de poco tráfico.
+        if (inFlightAtStart * 2 >= limit.get()) {
+            limit.updateAndGet(current -> clamp(current + 1));
+        }
+    }
+
+    private void decrease() {
+        limit.updateAndGet(current -> clamp((int) (current * config.backoffRatio())));
+    }
+
+    private int clamp(int value) {
+        return Math.max(config.minLimit(), Math.min(config.maxLimit(), value));
+    }
+
+    /**
+     * Cupo tomado por una invocación. Debe cerrarse exactamente una vez con {@link #success()},
+     * {@link #dropped()} o {@link #release()}.
+     */
+    public final class Permit {
+
+        private final long start;
+        private final boolean tracked;
+        private final int inFlightAtStart;
+
+        private Permit(long start, boolean tracked) {
+            this.start = start;
+            this.tracked = tracked;
+            this.inFlightAtStart = tracked ? inFlight.get() : 0;
+        }
+
+        public void success() {
+            if (tracked) {
+                inFlight.decrementAndGet();
+                onSuccess(inFlightAtStart, System.nanoTime() - start);
+            }
+        }
+
+        public void dropped() {
+            if (tracked) {
+                inFlight.decrementAndGet();
+                decrease();
+            }
+        }
+
+        /**
+         * Libera el cupo sin ajustar el límite, p. ej. para la invocación perdedora de un hedge.
+         */
+        public void release() {
+            if (tracked) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.redeban.bonos.domain.exception.BonoTechnicalException;
+import com.redeban.bonos.infrastructure.camel.common.configs.As400DataSourceProperties;
+
+/**
+ * Pool acotado de conexiones JDBC hacia el AS400.
+ *
+ * <p>El número de conexiones prestadas se limita con un semáforo justo de {@code max-size} permisos y las
+ * conexiones libres se reutilizan en orden LIFO para mantener calientes las más recientes. Un hilo de
+ * mantenimiento expulsa conexiones inactivas o vencidas, valida (keepalive) las libres que llevan
+ * {@code keepalive-interval} sin tráfico y reemplaza las que ya no responden, repone el mínimo configurado y
+ * reporta préstamos que superan el umbral de fuga. Cada conexión conserva sus propios {@code CallableStatement} preparados,
+ * que se cierran junto con ella.</p>
+ */
+public class As400ConnectionPool implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(As400ConnectionPool.class);
+
+    private final String name;
+    private final ConnectionFactory connectionFactory;
+    private final As400DataSourceProperties.Pool config;
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<As400PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<As400PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ScheduledExecutorService maintenance;
+    private final Timer acquireTimer;
+    private final As400PooledConnection.StatementCacheMetrics statementCacheMetrics;
+    private final Counter keepaliveOk;
+    private final Counter keepaliveStale;
+    private volatile boolean closed;
+
+    public As400ConnectionPool(String name,
+                               ConnectionFactory connectionFactory,
+                               As400DataSourceProperties.Pool config,
+                               MeterRegistry meterRegistry) {
+        if (config.minSize() < 0 || config.maxSize() < 1 || config.minSize() > config.maxSize()) {
+            throw new IllegalArgumentException("Configuración de pool AS400 inválida: min-size=" + config.minSize()
+                    + " max-size=" + config.maxSize());
+        }
+        this.name = name;
+        this.connectionFactory = connectionFactory;
+        this.config = config;
+        this.permits = new Semaphore(config.maxSize(), true);
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "as400-pool-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Tags tags = Tags.of("pool", name);
+        Gauge.builder("bonos.as400.pool.active", borrowed, Set::size).tags(tags)
+                .description("Conexiones AS400 prestadas").register(meterRegistry);
+        Gauge.builder("bonos.as400.pool.idle", idle, LinkedBlockingDeque::size).tags(tags)
+                .description("Conexiones AS400 libres").register(meterRegistry);
+        Gauge.builder("bonos.as400.pool.pending", pending, AtomicInteger::get).tags(tags)
+                .description("Solicitudes esperando una conexión AS400").register(meterRegistry);
+        Gauge.builder("bonos.as400.pool.total", total, AtomicInteger::get).tags(tags)
+                .description("Conexiones AS400 abiertas").register(meterRegistry);
+        this.acquireTimer = Timer.builder("bonos.as400.pool.acquire").tags(tags)
+                .description("Tiempo de espera para obtener una conexión AS400")
+                .register(meterRegistry);
+        this.statementCacheMetrics = new As400PooledConnection.StatementCacheMetrics(
+                Counter.builder("bonos.as400.statement.cache").tags(tags).tag("result", "hit")
+                        .description("CallableStatement reutilizados desde la caché de la conexión")
+                        .register(meterRegistry),
+                Counter.builder("bonos.as400.statement.cache").tags(tags).tag("result", "miss")
+                        .description("CallableStatement preparados por no estar en caché")
+                        .register(meterRegistry),
+                Timer.builder("bonos.as400.statement.prepare").tags(tags)
+                        .description("Tiempo de preparación de CallableStatement en el AS400")
+                        .register(meterRegistry));
+        this.keepaliveOk = Counter.builder("bonos.as400.pool.keepalive").tags(tags).tag("result", "ok")
+                .description("Conexiones AS400 libres validadas por keepalive").register(meterRegistry);
+        this.keepaliveStale = Counter.builder("bonos.as400.pool.keepalive").tags(tags).tag("result", "stale")
+                .description("Conexiones AS400 libres reemplazadas por no responder al keepalive")
+                .register(meterRegistry);
+
+        long interval = Math.max(config.evictionInterval().toMillis(), 1000L);
+        maintenance.scheduleWithFixedDelay(this::maintain, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Abre conexiones hasta alcanzar {@code prewarm-size} (por defecto {@code min-size}). Los fallos se
+     * registran y no detienen el arranque; el mantenimiento seguirá reponiendo el mínimo.
+     */
+    public void prewarm() {
+        int target = Math.min(config.prewarmSize().orElse(config.minSize()), config.maxSize());
+        int created = fillTo(target);
+        LOGGER.info("Pool AS400 [{}] precalentado con {} conexiones (objetivo={} min-size={} max-size={})",
+                name, created, target, config.minSize(), config.maxSize());
+    }
+
+    public As400PooledConnection borrow() {
+        return borrow(config.acquireTimeout());
+    }
+
+    public As400PooledConnection borrow(Duration timeout) {
+        if (closed) {
+            throw new BonoTechnicalException("Pool AS400 [" + name + "] cerrado", 503);
+        }
+        long start = System.nanoTime();
+        pending.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(Math.max(timeout.toNanos(), 0L), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BonoTechnicalException("Interrumpido esperando conexión AS400", 503, ex);
+        } finally {
+            pending.decrementAndGet();
+        }
+        if (!acquired) {
+            acquireTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw new BonoTechnicalException("Tiempo de espera agotado obteniendo conexión del pool AS400 ["
+                    + name + "]", 503);
+        }
+
+        try {
+            As400PooledConnection pooled = takeIdleOrCreate();
+            long now = System.nanoTime();
+            pooled.markBorrowed(now);
+            borrowed.add(pooled);
+            acquireTimer.record(now - start, TimeUnit.NANOSECONDS);
+            return pooled;
+        } catch (RuntimeException ex) {
+            permits.release();
+            acquireTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw ex;
+        }
+    }
+
+    /**
+     * Devuelve la conexión al pool. Si {@code broken} es verdadero o la conexión superó su vida máxima se
+     * cierra en lugar de reutilizarse.
+     */
+    public void release(As400PooledConnection pooled, boolean broken) {
+        if (!borrowed.remove(pooled)) {
+            return;
+        }
+        long now = System.nanoTime();
+        try {
+            if (broken || closed || isExpired(pooled, now)) {
+                destroy(pooled);
+            } else {
+                pooled.markReturned(now);
+                idle.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        maintenance.shutdownNow();
+        As400PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+        LOGGER.info("Pool AS400 [{}] cerrado", name);
+    }
+
+    private As400PooledConnection takeIdleOrCreate() {
+        As400PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isExpired(pooled, System.nanoTime())
+                    || (config.validateOnBorrow() && !pooled.isValid(config.validationTimeout()))) {
+                destroy(pooled);
+                continue;
+            }
+            return pooled;
+        }
+        return create();
+    }
+
+    private As400PooledConnection create() {
+        try {
+            Connection connection = connectionFactory.create();
+            total.incrementAndGet();
+            return new As400PooledConnection(connection, System.nanoTime(), config.statementCacheSize(),
+                    statementCacheMetrics);
+        } catch (SQLException ex) {
+            throw new BonoTechnicalException("No fue posible abrir conexión AS400: " + ex.getMessage(), 503, ex);
+        }
+    }
+
+    private void destroy(As400PooledConnection pooled) {
+        total.decrementAndGet();
+        pooled.closeQuietly();
+    }
+
+    private boolean isExpired(As400PooledConnection pooled, long now) {
+        long maxLifetime = config.maxLifetime().toNanos();
+        return maxLifetime > 0 && now - pooled.createdAt() >= maxLifetime;
+    }
+
+    private void maintain() {
+        try {
+            evictIdle();
+            keepAlive();
+            detectLeaks();
+            fillTo(config.minSize());
+        } catch (RuntimeException ex) {
+            LOGGER.warn("Mantenimiento del pool AS400 [{}] falló: {}", name, ex.getMessage());
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        long idleTimeout = config.idleTimeout().toNanos();
+        Iterator<As400PooledConnection> iterator = idle.descendingIterator();
+        while (iterator.hasNext()) {
+            As400PooledConnection pooled = iterator.next();
+            boolean idleTooLong = idleTimeout > 0 && now - pooled.lastUsedAt() >= idleTimeout
+                    && total.get() > config.minSize();
+            if ((idleTooLong || isExpired(pooled, now)) && idle.remove(pooled)) {
+                destroy(pooled);
+            }
+        }
+    }
+
+    private void detectLeaks() {
+        long threshold = config.leakDetectionThreshold().toNanos();
+        if (threshold <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (As400PooledConnection pooled : borrowed) {
+            long borrowedAt = pooled.borrowedAt();
+            if (borrowedAt != 0L && !pooled.leakReported() && now - borrowedAt >= threshold) {
+                pooled.markLeakReported();
+                LOGGER.warn("Posible fuga de conexión AS400 [{}]: prestada hace {} ms al hilo {}",
+                        name, TimeUnit.NANOSECONDS.toMillis(now - borrowedAt), pooled.borrowedBy());
+            }
+        }
+    }
+
+    /**
+     * Valida las conexiones libres sin tráfico durante {@code keepalive-interval}. La validación viaja al host,
+     * lo que mantiene vivo el socket; las que no responden se destruyen y el llenado posterior las repone antes
+     * de que una solicitud las encuentre rotas.
+     */
+    private void keepAlive() {
+        long interval = config.keepaliveInterval().toNanos();
+        if (interval <= 0) {
+            return;
+        }
+        for (As400PooledConnection pooled : new ArrayList<>(idle)) {
+            if (closed || System.nanoTime() - pooled.lastActiveAt() < interval) {
+                continue;
+            }
+            // Toma un permiso para que la conexión fuera de la lista no se compense creando otra.
+            if (!permits.tryAcquire()) {
+                return;
+            }
+            try {
+                if (!idle.remove(pooled)) {
+                    continue;
+                }
+                if (pooled.isValid(config.validationTimeout())) {
+                    pooled.markValidated(System.nanoTime());
+                    idle.offerLast(pooled);
+                    keepaliveOk.increment();
+                } else {
+                    destroy(pooled);
+                    keepaliveStale.increment();
+                    LOGGER.info("Conexión AS400 [{}] sin respuesta al keepalive; se reemplaza", name);
+                }
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    private int fillTo(int target) {
+        int created = 0;
+        while (!closed && total.get() < target && permits.tryAcquire()) {
+            try {
+                idle.offerLast(create());
+                created++;
+            } catch (BonoTechnicalException ex) {
+                LOGGER.warn("No fue posible completar el mínimo del pool AS400 [{}]: {}", name, ex.getMessage());
+                break;
+            } finally {
+                permits.release();
+            }
+        }
+        return created;
+    }
+
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+}
@@ -1,22 +1,49 @@
 package com.redeban.bonos.infrastructure.out.jdbc;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.quarkus.runtime.Startup;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import java.sql.CallableStatement;
-import java.sql.Connection;
 import java.sql.DriverManager;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.sql.Statement;
-import java.sql.Types;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.redeban.bonos.domain.exception.BonoProviderUnavailableException;
 import com.redeban.bonos.domain.exception.BonoTechnicalException;
+import com.redeban.bonos.domain.exception.BonoTimeoutException;
+import com.redeban.bonos.domain.model.Deadline;
+import com.redeban.bonos.infrastructure.camel.common.configs.As400ClientProperties;
 import com.redeban.bonos.infrastructure.camel.common.configs.As400DataSourceProperties;
 
 @Startup
@@ -26,75 +53,473 @@ public class As400Connector {
     private static final Logger LOGGER = LoggerFactory.getLogger(As400Connector.class);
 
     private final As400DataSourceProperties dataSourceProperties;
+    private final As400ClientProperties clientProperties;
+    private final MeterRegistry meterRegistry;
     private final AtomicBoolean driverLoaded = new AtomicBoolean(false);
     private volatile boolean enabled;
+    private volatile boolean warmedUp;
+    private volatile As400Transport transport;
+    private volatile Timer callTimer;
+    private volatile As400ConcurrencyLimiter limiter;
+    private volatile ThreadPoolExecutor blockingExecutor;
+    private static final As400CallControl HEDGE_CLOSED = new As400CallControl(Deadline.none());
+
+    private final Map<As400Operation, As400CircuitBreaker> circuitBreakers = new EnumMap<>(As400Operation.class);
+    private final Map<As400Operation, As400HedgePolicy> hedgePolicies = new EnumMap<>(As400Operation.class);
+    private final ScheduledExecutorService maintenanceScheduler =
+            Executors.newSingleThreadScheduledExecutor(daemonThreads("as400-maintenance"));
+    private final ScheduledExecutorService timeoutScheduler =
+            Executors.newScheduledThreadPool(2, daemonThreads("as400-timeout"));
+    private final ExecutorService hedgeExecutor = Executors.newCachedThreadPool(daemonThreads("as400-hedge"));
 
     @Inject
-    public As400Connector(As400DataSourceProperties dataSourceProperties) {
+    public As400Connector(As400DataSourceProperties dataSourceProperties,
+                          As400ClientProperties clientProperties,
+                          MeterRegistry meterRegistry) {
         this.dataSourceProperties = dataSourceProperties;
+        this.clientProperties = clientProperties;
+        this.meterRegistry = meterRegistry;
     }
 
     @PostConstruct
     void init() {
-        Optional<String> url = sanitize(dataSourceProperties.url());
+        blockingExecutor = createBlockingExecutor(clientProperties.executor());
+        List<String> urls = endpoints();
         Optional<String> user = sanitize(dataSourceProperties.user());
         Optional<String> password = sanitize(dataSourceProperties.password());
 
-        if (url.isEmpty() || user.isEmpty() || password.isEmpty()) {
+        if (urls.isEmpty() || user.isEmpty() || password.isEmpty()) {
             enabled = false;
             LOGGER.warn("Datasource AS400 no configurado completamente (url/user/password). El servicio seguirá disponible pero las operaciones devolverán error hasta completar la configuración.");
             return;
         }
 
+        As400Transport configured;
+        if (urls.size() == 1) {
+            configured = createTransport(urls.get(0), user.get(), password.get(), null);
+        } else {
+            Map<String, As400Transport> hosts = new LinkedHashMap<>();
+            for (String url : urls) {
+                String host = hostFromUrl(url);
+                if (hosts.containsKey(host)) {
+                    host = host + "-" + (hosts.size() + 1);
+                }
+                hosts.put(host, createTransport(url, user.get(), password.get(), host));
+            }
+            configured = new RoutingAs400Transport(hosts, clientProperties.routing(), maintenanceScheduler,
+                    meterRegistry);
+        }
+        LOGGER.info("Datasource AS400 configurado correctamente (url={} user={} transporte={})",
+                urls.stream().map(this::mask).collect(Collectors.joining(",")), user.get(), configured.name());
+        start(configured);
+    }
+
+    /**
+     * Habilita el conector sobre {@code transport}: métricas, limitador, circuit breakers, hedging y
+     * precalentamiento. Las pruebas lo invocan después de {@link #init()} con un transporte falso.
+     */
+    void start(As400Transport transport) {
+        this.transport = transport;
+        callTimer = Timer.builder("bonos.as400.call")
+                .tag("transport", transport.name())
+                .description("Duración de la invocación del programa AS400")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        limiter = new As400ConcurrencyLimiter(clientProperties.limiter(), meterRegistry);
+        As400ClientProperties.CircuitBreakers breakers = clientProperties.circuitBreaker();
+        circuitBreakers.put(As400Operation.CREAR, createCircuitBreaker(As400Operation.CREAR, breakers.crear()));
+        circuitBreakers.put(As400Operation.ACTIVAR, createCircuitBreaker(As400Operation.ACTIVAR, breakers.activar()));
+        circuitBreakers.put(As400Operation.RECUPERAR,
+                createCircuitBreaker(As400Operation.RECUPERAR, breakers.recuperar()));
+        if (clientProperties.hedge().enabled()) {
+            // Sólo recuperar es de lectura pura; crear y activar no pueden repetirse sin efectos.
+            hedgePolicies.put(As400Operation.RECUPERAR,
+                    new As400HedgePolicy(As400Operation.RECUPERAR, clientProperties.hedge(), meterRegistry));
+        }
+        enabled = true;
+        // El precalentamiento corre fuera del arranque; As400ReadinessCheck reporta DOWN hasta que termine.
+        maintenanceScheduler.execute(this::warmUp);
+    }
+
+    public String execute(As400Operation operation, String storedProcedure, String payload, Deadline deadline) {
+        return execute(operation, deadline, (target, control) -> target.call(storedProcedure, payload, control));
+    }
+
+    /**
+     * Variante de {@link #execute} con la trama en bytes EBCDIC; mismas políticas de circuito, límite de
+     * concurrencia, hedging y deadline.
+     */
+    public byte[] executeBytes(As400Operation operation, String storedProcedure, byte[] payload, Deadline deadline) {
+        return execute(operation, deadline, (target, control) -> target.callBytes(storedProcedure, payload, control));
+    }
+
+    private <T> T execute(As400Operation operation, Deadline deadline, Call<T> call) {
+        if (!enabled) {
+            throw new BonoTechnicalException("Datasource AS400 no configurado. Verifique bonos.datasource.*", 503);
+        }
+        if (Thread.currentThread().isVirtual()) {
+            // jt400 sincroniza sus lecturas de socket: en un hilo virtual fijaría el carrier durante toda la
+            // invocación. El hilo virtual espera (sin fijar) mientras un hilo de plataforma hace la llamada.
+            return awaitOnPlatformThread(() -> executeBlocking(operation, deadline, call));
+        }
+        return executeBlocking(operation, deadline, call);
+    }
+
+    private <T> T executeBlocking(As400Operation operation, Deadline deadline, Call<T> call) {
+        if (deadline.isExpired()) {
+            throw new BonoTimeoutException("Tiempo de la solicitud agotado antes de invocar el AS400");
+        }
+        As400CircuitBreaker circuitBreaker = circuitBreakers.get(operation);
+        circuitBreaker.checkAllowed();
+        As400HedgePolicy hedgePolicy = hedgePolicies.get(operation);
+        if (hedgePolicy != null) {
+            return executeHedged(circuitBreaker, hedgePolicy, deadline, call);
+        }
+        return invoke(circuitBreaker, limiter.acquire(), call, new As400CallControl(deadline));
+    }
+
+    /**
+     * Ejecuta una tarea bloqueante hacia el AS400 en el ejecutor acotado {@code as400-io}, para los puertos
+     * asíncronos. Si la cola está llena el resultado falla con {@link BonoProviderUnavailableException}.
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, blockingExecutor);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.failedFuture(
+                    new BonoProviderUnavailableException("Cola de invocaciones AS400 llena", ex));
+        }
+    }
+
+    private <T> T awaitOnPlatformThread(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = blockingExecutor.submit(task);
+        } catch (RejectedExecutionException ex) {
+            throw new BonoProviderUnavailableException("Cola de invocaciones AS400 llena", ex);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new BonoTechnicalException("Interrumpido esperando la invocación AS400", 500, ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new BonoTechnicalException("Error ejecutando invocación AS400: " + ex.getCause().getMessage(), 500,
+                    ex.getCause());
+        }
+    }
+
+    /**
+     * Estado de los circuit breakers por operación; vacío si el datasource no está configurado.
+     */
+    public Map<As400Operation, As400CircuitBreaker.State> circuitBreakerStates() {
+        Map<As400Operation, As400CircuitBreaker.State> states = new EnumMap<>(As400Operation.class);
+        circuitBreakers.forEach((operation, breaker) -> states.put(operation, breaker.state()));
+        return Collections.unmodifiableMap(states);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Indica si terminó el precalentamiento de conexiones, haya logrado o no abrirlas.
+     */
+    public boolean isWarmedUp() {
+        return warmedUp;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        maintenanceScheduler.shutdownNow();
+        timeoutScheduler.shutdownNow();
+        hedgeExecutor.shutdownNow();
+        if (blockingExecutor != null) {
+            blockingExecutor.shutdownNow();
+        }
+        if (transport != null) {
+            transport.close();
+        }
+    }
+
+    /**
+     * Ejecuta una operación de sólo lectura con hedging: si la invocación original no respondió en la espera
+     * calculada por la política, se envía una segunda sobre otra conexión. Gana la primera respuesta y la otra
+     * se cancela.
+     */
+    private <T> T executeHedged(As400CircuitBreaker circuitBreaker, As400HedgePolicy hedgePolicy,
+                                Deadline deadline, Call<T> call) {
+        As400ConcurrencyLimiter.Permit permit = limiter.acquire();
+        As400CallControl primary = new As400CallControl(deadline);
+        AtomicReference<As400CallControl> hedge = new AtomicReference<>();
+        CompletableFuture<T> hedgeResult = new CompletableFuture<>();
+        long start = System.nanoTime();
+        ScheduledFuture<?> trigger = schedule(
+                () -> launchHedge(circuitBreaker, hedgePolicy, call, primary, hedge, hedgeResult),
+                hedgePolicy.delayNanos(), permit);
+        try {
+            T resultado;
+            try {
+                resultado = invoke(circuitBreaker, permit, call, primary);
+            } catch (RuntimeException ex) {
+                if (hedge.get() == null) {
+                    throw ex;
+                }
+                resultado = awaitHedge(hedgeResult, deadline, ex);
+            }
+            hedgePolicy.recordLatency(System.nanoTime() - start);
+            return resultado;
+        } finally {
+            trigger.cancel(false);
+            As400CallControl pending = hedge.getAndSet(HEDGE_CLOSED);
+            if (pending != null) {
+                pending.cancel();
+            }
+        }
+    }
+
+    private <T> void launchHedge(As400CircuitBreaker circuitBreaker, As400HedgePolicy hedgePolicy, Call<T> call,
+                                 As400CallControl primary, AtomicReference<As400CallControl> hedge,
+                                 CompletableFuture<T> hedgeResult) {
+        if (circuitBreaker.state() != As400CircuitBreaker.State.CLOSED) {
+            hedgePolicy.onSkipped();
+            return;
+        }
+        if (!hedgePolicy.tryAcquireBudget()) {
+            return;
+        }
+        As400ConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            hedgePolicy.onSkipped();
+            return;
+        }
+        As400CallControl control = primary.sibling();
+        if (!hedge.compareAndSet(null, control)) {
+            permit.release();
+            return;
+        }
+        hedgePolicy.onSent();
+        try {
+            hedgeExecutor.execute(() -> {
+                try {
+                    T resultado = invoke(circuitBreaker, permit, call, control);
+                    if (hedgeResult.complete(resultado)) {
+                        hedgePolicy.onWin();
+                        primary.cancel();
+                    }
+                } catch (RuntimeException ex) {
+                    hedgeResult.completeExceptionally(ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            permit.release();
+            hedgeResult.completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * Espera la respuesta del hedge cuando la invocación original falló o fue cancelada por él. Si el hedge
+     * tampoco responde se propaga el error original.
+     */
+    private <T> T awaitHedge(CompletableFuture<T> hedgeResult, Deadline deadline, RuntimeException primaryError) {
+        try {
+            if (!deadline.isBounded()) {
+                return hedgeResult.get();
+            }
+            return hedgeResult.get(deadline.remaining(Duration.ZERO).toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw primaryError;
+        } catch (ExecutionException | TimeoutException ex) {
+            throw primaryError;
+        }
+    }
+
+    private <T> T invoke(As400CircuitBreaker circuitBreaker, As400ConcurrencyLimiter.Permit permit, Call<T> call,
+                         As400CallControl control) {
+        ScheduledFuture<?> expiration = scheduleExpiration(control, permit);
+        long start = System.nanoTime();
+        try {
+            T resultado = call.run(transport, control);
+            permit.success();
+            circuitBreaker.onSuccess();
+            return resultado;
+        } catch (RuntimeException ex) {
+            if (control.isCancelled() && !control.deadline().isExpired()) {
+                // Perdedora de un hedge: su cancelación no dice nada de la salud del AS400.
+                permit.release();
+            } else {
+                permit.dropped();
+                circuitBreaker.onFailure();
+            }
+            throw ex;
+        } finally {
+            if (expiration != null) {
+                expiration.cancel(false);
+            }
+            callTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Programa la cancelación de la invocación en el instante exacto en que vence su deadline.
+     */
+    private ScheduledFuture<?> scheduleExpiration(As400CallControl control, As400ConcurrencyLimiter.Permit permit) {
+        Deadline deadline = control.deadline();
+        if (!deadline.isBounded()) {
+            return null;
+        }
+        return schedule(control::cancel, deadline.remaining(Duration.ZERO).toNanos(), permit);
+    }
+
+    /**
+     * Programa una tarea de la invocación que tiene {@code permit}. Si el programador ya se detuvo (el conector
+     * se está cerrando) libera el cupo antes de rechazar la invocación.
+     */
+    private ScheduledFuture<?> schedule(Runnable task, long delayNanos, As400ConcurrencyLimiter.Permit permit) {
+        try {
+            return timeoutScheduler.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException ex) {
+            permit.release();
+            throw new BonoProviderUnavailableException("Conector AS400 detenido", ex);
+        }
+    }
+
+    /**
+     * Ejecutor acotado de hilos de plataforma donde corren las llamadas bloqueantes a jt400 cuando la solicitud
+     * llega en un hilo virtual o por los puertos asíncronos. Con la cola llena se rechaza con E08 en lugar de
+     * acumular solicitudes.
+     */
+    private ThreadPoolExecutor createBlockingExecutor(As400ClientProperties.Executor config) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(config.maxThreads(), config.maxThreads(),
+                config.keepAlive().toMillis(), TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(config.queueSize(), 1)), daemonThreads("as400-io"));
+        executor.allowCoreThreadTimeOut(true);
+        Gauge.builder("bonos.as400.executor.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hilos de plataforma ejecutando invocaciones AS400").register(meterRegistry);
+        Gauge.builder("bonos.as400.executor.queued", executor, e -> e.getQueue().size())
+                .description("Invocaciones AS400 en cola del ejecutor de plataforma").register(meterRegistry);
+        return executor;
+    }
+
+    private As400CircuitBreaker createCircuitBreaker(As400Operation operation,
+                                                     As400ClientProperties.CircuitBreaker config) {
+        return new As400CircuitBreaker(operation, config, () -> transport.ping(), maintenanceScheduler,
+                meterRegistry);
+    }
+
+    /**
+     * Crea el transporte de un host. {@code poolName} es {@code null} cuando hay un solo host, en cuyo caso se
+     * conservan los nombres de pool originales.
+     */
+    private As400Transport createTransport(String url, String user, String password, String poolName) {
+        return switch (clientProperties.transport()) {
+            case JDBC -> createJdbcTransport(url, user, password, poolName == null ? "as400" : poolName);
+            case PROGRAM_CALL -> createProgramCallTransport(url, user, password, poolName);
+        };
+    }
+
+    private As400Transport createJdbcTransport(String url, String user, String password, String poolName) {
         try {
             if (driverLoaded.compareAndSet(false, true)) {
                 Class.forName(dataSourceProperties.driver());
                 dataSourceProperties.loginTimeout().ifPresent(DriverManager::setLoginTimeout);
             }
-            enabled = true;
-            LOGGER.info("Datasource AS400 configurado correctamente (url={} user={})", mask(url.get()), user.get());
-            testConnection(url.get(), user.get(), password.get());
         } catch (ClassNotFoundException e) {
             enabled = false;
             throw new BonoTechnicalException("No se pudo cargar el driver JDBC AS400", 500, e);
         }
+        As400ConnectionPool pool = new As400ConnectionPool(poolName,
+                () -> DriverManager.getConnection(url, user, password),
+                dataSourceProperties.pool(),
+                meterRegistry);
+        return new JdbcAs400Transport(pool, dataSourceProperties.pool().acquireTimeout());
     }
 
-    public String execute(String storedProcedure, String payload) {
-        if (!enabled) {
-            throw new BonoTechnicalException("Datasource AS400 no configurado. Verifique bonos.datasource.*", 503);
+    private As400Transport createProgramCallTransport(String url, String user, String password, String poolName) {
+        As400ClientProperties.ProgramCall programCall = clientProperties.programCall();
+        // Con varios hosts el sistema sale de cada URL; program-call.system sólo aplica a un host.
+        String system = poolName != null ? hostFromUrl(url)
+                : programCall.system().filter(StringUtils::isNotBlank).orElseGet(() -> hostFromUrl(url));
+        String library = programCall.library().filter(StringUtils::isNotBlank).orElseGet(() -> libraryFromUrl(url));
+        if (StringUtils.isAnyBlank(system, library)) {
+            throw new BonoTechnicalException("Transporte program-call requiere bonos.as400.program-call.system/library"
+                    + " o una URL JDBC con host y libraries", 500);
         }
+        return new ProgramCallAs400Transport(poolName == null ? "program-call" : poolName, system, user, password,
+                library, programCall, dataSourceProperties.pool(), meterRegistry);
+    }
 
-        try (Connection connection = DriverManager.getConnection(
-                sanitize(dataSourceProperties.url()).orElseThrow(),
-                sanitize(dataSourceProperties.user()).orElseThrow(),
-                sanitize(dataSourceProperties.password()).orElseThrow());
-             CallableStatement statement = connection.prepareCall("call " + storedProcedure)) {
+    /**
+     * URLs de los hosts AS400: {@code bonos.datasource.urls} si está definida, si no {@code bonos.datasource.url}.
+     */
+    private List<String> endpoints() {
+        List<String> urls = dataSourceProperties.urls().orElse(List.of()).stream()
+                .filter(StringUtils::isNotBlank)
+                .map(String::trim)
+                .toList();
+        if (!urls.isEmpty()) {
+            return urls;
+        }
+        return sanitize(dataSourceProperties.url()).map(List::of).orElse(List.of());
+    }
 
-            statement.setString(1, payload);
-            statement.registerOutParameter(2, Types.VARCHAR);
-            statement.execute();
-            return statement.getString(2);
+    private void warmUp() {
+        long start = System.nanoTime();
+        try {
+            if (dataSourceProperties.pool().prewarm()) {
+                transport.prewarm();
+            }
+            testConnection();
+        } catch (RuntimeException ex) {
+            LOGGER.warn("Precalentamiento AS400 incompleto: {}", ex.getMessage());
+        } finally {
+            warmedUp = true;
+            LOGGER.info("Precalentamiento AS400 finalizado en {} ms",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
 
-        } catch (SQLException ex) {
-            throw new BonoTechnicalException("Error ejecutando stored procedure AS400: " + ex.getMessage(), 500, ex);
+    private void testConnection() {
+        if (transport.ping()) {
+            LOGGER.info("Prueba de conectividad AS400 exitosa (transporte={})", transport.name());
         }
     }
 
-    private void testConnection(String url, String user, String password) {
-        try (Connection connection = DriverManager.getConnection(url, user, password);
-             Statement statement = connection.createStatement();
-             ResultSet resultSet = statement.executeQuery("SELECT 1 FROM SYSIBM.SYSDUMMY1")) {
+    /**
+     * Extrae el host de una URL {@code jdbc:as400://host[:puerto][/...][;propiedades]}.
+     */
+    private String hostFromUrl(String url) {
+        String rest = StringUtils.substringAfter(url, "//");
+        int end = StringUtils.indexOfAny(rest, ':', '/', ';');
+        return end >= 0 ? rest.substring(0, end) : rest;
+    }
 
-            if (resultSet.next()) {
-                LOGGER.info("Prueba de conectividad AS400 exitosa (SELECT 1 FROM SYSIBM.SYSDUMMY1 -> {})", resultSet.getInt(1));
-            } else {
-                LOGGER.warn("Prueba de conectividad AS400 no devolvió resultados (SELECT 1 FROM SYSIBM.SYSDUMMY1).");
+    /**
+     * Toma la primera librería de la propiedad {@code libraries} de la URL JDBC.
+     */
+    private String libraryFromUrl(String url) {
+        for (String property : StringUtils.split(url, ';')) {
+            if (StringUtils.startsWithIgnoreCase(property.trim(), "libraries=")) {
+                String libraries = StringUtils.substringAfter(property, "=");
+                String[] entries = StringUtils.split(libraries, ", ");
+                return entries.length > 0 ? entries[0] : null;
             }
-
-        } catch (SQLException ex) {
-            LOGGER.warn("La prueba de conectividad AS400 falló: {}", ex.getMessage());
         }
+        return null;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 
     private String mask(String value) {
@@ -107,4 +532,12 @@ public class As400Connector {
     private Optional<String> sanitize(Optional<String> value) {
         return value.filter(v -> v != null && !v.isBlank());
     }
+
+    /**
+     * Invocación concreta sobre el transporte: trama en texto o en bytes EBCDIC.
+     */
+    @FunctionalInterface
+    private interface Call<T> {
+        T run(As400Transport transport, As400CallControl control);
+    }
 }
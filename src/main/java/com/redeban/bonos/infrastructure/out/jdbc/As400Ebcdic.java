@@ -0,0 +1,121 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Conversión EBCDIC de un byte por carácter (CCSID 37, 284 y afines) con tablas precalculadas a partir del
+ * charset del JDK, para armar y leer la trama directamente en bytes sin pasar por la conversión de jt400.
+ *
+ * <p>Los caracteres sin representación en el CCSID se escriben como {@code 0x3F} (SUB), igual que jt400.
+ * Si todos los bytes del CCSID decodifican a Latin-1 la trama de salida se convierte con una sola tabla
+ * byte a byte y el {@link String} resultante queda compacto.</p>
+ */
+public final class As400Ebcdic {
+
+    private static final byte SUBSTITUTE = 0x3F;
+
+    private final int ccsid;
+    private final byte[] encodeTable = new byte[Character.MAX_VALUE + 1];
+    private final char[] decodeTable = new char[256];
+    private final byte[] latin1Table;
+
+    public As400Ebcdic(int ccsid) {
+        Charset charset = charset(ccsid);
+        CharsetEncoder encoder = charset.newEncoder();
+        if (encoder.maxBytesPerChar() != 1f) {
+            throw new IllegalArgumentException("CCSID " + ccsid + " no es de un byte por carácter");
+        }
+        this.ccsid = ccsid;
+        byte[] all = new byte[256];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = (byte) i;
+        }
+        String decoded = new String(all, charset);
+        if (decoded.length() != 256) {
+            throw new IllegalArgumentException("CCSID " + ccsid + " no es de un byte por carácter");
+        }
+        boolean latin1 = true;
+        Arrays.fill(encodeTable, SUBSTITUTE);
+        for (int i = 0; i < 256; i++) {
+            char character = decoded.charAt(i);
+            decodeTable[i] = character;
+            latin1 &= character <= 0xFF;
+        }
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            if (!Character.isSurrogate((char) c) && encoder.canEncode((char) c)) {
+                try {
+                    encodeTable[c] = encoder.encode(CharBuffer.wrap(new char[] {(char) c})).get();
+                } catch (CharacterCodingException ex) {
+                    encodeTable[c] = SUBSTITUTE;
+                }
+            }
+        }
+        if (latin1) {
+            latin1Table = new byte[256];
+            for (int i = 0; i < 256; i++) {
+                latin1Table[i] = (byte) decodeTable[i];
+            }
+        } else {
+            latin1Table = null;
+        }
+    }
+
+    public int ccsid() {
+        return ccsid;
+    }
+
+    public byte encode(char character) {
+        return encodeTable[character];
+    }
+
+    public char decode(byte value) {
+        return decodeTable[value & 0xFF];
+    }
+
+    public byte[] encode(String value) {
+        byte[] bytes = new byte[value.length()];
+        encode(value, bytes, 0);
+        return bytes;
+    }
+
+    /**
+     * Escribe {@code value} en {@code destination} a partir de {@code offset}.
+     */
+    public void encode(String value, byte[] destination, int offset) {
+        for (int i = 0, length = value.length(); i < length; i++) {
+            destination[offset + i] = encodeTable[value.charAt(i)];
+        }
+    }
+
+    public String decode(byte[] bytes) {
+        return decode(bytes, 0, bytes.length);
+    }
+
+    public String decode(byte[] bytes, int offset, int length) {
+        if (latin1Table != null) {
+            byte[] latin1 = new byte[length];
+            for (int i = 0; i < length; i++) {
+                latin1[i] = latin1Table[bytes[offset + i] & 0xFF];
+            }
+            return new String(latin1, StandardCharsets.ISO_8859_1);
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = decodeTable[bytes[offset + i] & 0xFF];
+        }
+        return new String(chars);
+    }
+
+    private static Charset charset(int ccsid) {
+        try {
+            return Charset.forName(String.format("Cp%03d", ccsid));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("CCSID EBCDIC no soportado por el JDK: " + ccsid, ex);
+        }
+    }
+}
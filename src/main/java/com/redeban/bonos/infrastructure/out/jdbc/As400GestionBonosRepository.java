@@ -1,16 +1,20 @@
 package com.redeban.bonos.infrastructure.out.jdbc;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import java.util.concurrent.CompletionStage;
 import org.apache.camel.ProducerTemplate;
 
 import com.redeban.bonos.domain.model.ActivarBonoRequest;
 import com.redeban.bonos.domain.model.ActivarBonoResponse;
 import com.redeban.bonos.domain.model.CrearBonoRequest;
 import com.redeban.bonos.domain.model.CrearBonoResponse;
+import com.redeban.bonos.domain.model.Deadline;
 import com.redeban.bonos.domain.model.RecuperarBonoRequest;
 import com.redeban.bonos.domain.model.RecuperarBonoResponse;
 import com.redeban.bonos.domain.port.out.GestionBonosOutPort;
+import com.redeban.bonos.infrastructure.camel.common.configs.As400ClientProperties;
 
 @ApplicationScoped
 public class As400GestionBonosRepository implements GestionBonosOutPort {
@@ -20,24 +24,68 @@ public class As400GestionBonosRepository implements GestionBonosOutPort {
     private static final String ENDPOINT_RECUPERAR = "direct:gestion-bonos-recuperar";
 
     private final ProducerTemplate producerTemplate;
+    private final As400Connector connector;
+    private final As400RequestCoalescer<RecuperarKey, RecuperarBonoResponse> recuperarCoalescer;
 
     @Inject
-    public As400GestionBonosRepository(ProducerTemplate producerTemplate) {
+    public As400GestionBonosRepository(ProducerTemplate producerTemplate, As400Connector connector,
+                                       As400ClientProperties properties, MeterRegistry meterRegistry) {
         this.producerTemplate = producerTemplate;
+        this.connector = connector;
+        this.recuperarCoalescer = new As400RequestCoalescer<>(As400Operation.RECUPERAR, properties.coalesce(),
+                meterRegistry);
     }
 
     @Override
-    public CrearBonoResponse crearBono(CrearBonoRequest request) {
-        return producerTemplate.requestBody(ENDPOINT_CREAR, request, CrearBonoResponse.class);
+    public CrearBonoResponse crearBono(CrearBonoRequest request, Deadline deadline) {
+        return producerTemplate.requestBodyAndHeader(ENDPOINT_CREAR, request,
+                As400StoredProcedureClient.DEADLINE_HEADER, deadline, CrearBonoResponse.class);
     }
 
     @Override
-    public ActivarBonoResponse activarBono(ActivarBonoRequest request) {
-        return producerTemplate.requestBody(ENDPOINT_ACTIVAR, request, ActivarBonoResponse.class);
+    public ActivarBonoResponse activarBono(ActivarBonoRequest request, Deadline deadline) {
+        return producerTemplate.requestBodyAndHeader(ENDPOINT_ACTIVAR, request,
+                As400StoredProcedureClient.DEADLINE_HEADER, deadline, ActivarBonoResponse.class);
     }
 
     @Override
-    public RecuperarBonoResponse recuperarBono(RecuperarBonoRequest request) {
-        return producerTemplate.requestBody(ENDPOINT_RECUPERAR, request, RecuperarBonoResponse.class);
+    public RecuperarBonoResponse recuperarBono(RecuperarBonoRequest request, Deadline deadline) {
+        return recuperarCoalescer.execute(RecuperarKey.of(request), deadline,
+                () -> requestRecuperar(request, deadline));
+    }
+
+    @Override
+    public CompletionStage<CrearBonoResponse> crearBonoAsync(CrearBonoRequest request, Deadline deadline) {
+        return connector.supplyAsync(() -> crearBono(request, deadline));
+    }
+
+    @Override
+    public CompletionStage<ActivarBonoResponse> activarBonoAsync(ActivarBonoRequest request, Deadline deadline) {
+        return connector.supplyAsync(() -> activarBono(request, deadline));
+    }
+
+    @Override
+    public CompletionStage<RecuperarBonoResponse> recuperarBonoAsync(RecuperarBonoRequest request,
+                                                                    Deadline deadline) {
+        return recuperarCoalescer.executeAsync(RecuperarKey.of(request), deadline,
+                () -> connector.supplyAsync(() -> requestRecuperar(request, deadline)));
+    }
+
+    private RecuperarBonoResponse requestRecuperar(RecuperarBonoRequest request, Deadline deadline) {
+        return producerTemplate.requestBodyAndHeader(ENDPOINT_RECUPERAR, request,
+                As400StoredProcedureClient.DEADLINE_HEADER, deadline, RecuperarBonoResponse.class);
+    }
+
+    /**
+     * Campos de la solicitud que van en la trama de recuperarBono; el timestamp no cuenta, así que dos consultas
+     * con la misma clave producen la misma invocación al AS400.
+     */
+    private record RecuperarKey(String bin, String subtipo, String nit, String tipoDocumento,
+                                String numeroDocumento) {
+
+        private static RecuperarKey of(RecuperarBonoRequest request) {
+            return new RecuperarKey(request.getBin(), request.getSubtipo(), request.getNit(),
+                    request.getTipoDocumento(), request.getNumeroDocumento());
+        }
     }
 }
@@ -0,0 +1,116 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.redeban.bonos.infrastructure.camel.common.configs.As400ClientProperties;
+
+/**
+ * Política de hedging de una operación de sólo lectura.
+ *
+ * <p>Conserva las últimas {@code window} latencias exitosas y recalcula cada cierto número de muestras el
+ * percentil configurado, que es la espera antes de enviar la invocación cubierta (nunca menor que
+ * {@code min-delay}). El presupuesto es un balde de tokens: cada solicitud deposita {@code max-ratio} tokens y
+ * cada hedge consume uno, de modo que los hedges no superan esa fracción del tráfico.</p>
+ */
+public class As400HedgePolicy {
+
+    private static final long TOKEN = 1_000L;
+    private static final long MAX_TOKENS = 10L * TOKEN;
+    private static final int RECALCULATE_EVERY = 64;
+
+    private final long minDelayNanos;
+    private final double percentile;
+    private final long depositPerRequest;
+    private final AtomicLongArray latencies;
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong tokens = new AtomicLong();
+    private final AtomicLong delayNanos;
+    private final Counter sent;
+    private final Counter wins;
+    private final Counter skipped;
+
+    public As400HedgePolicy(As400Operation operation, As400ClientProperties.Hedge config,
+                            MeterRegistry meterRegistry) {
+        if (config.percentile() <= 0 || config.percentile() >= 1 || config.maxRatio() < 0 || config.maxRatio() > 1) {
+            throw new IllegalArgumentException("Configuración de hedging AS400 inválida: percentile="
+                    + config.percentile() + " max-ratio=" + config.maxRatio());
+        }
+        this.minDelayNanos = Math.max(config.minDelay().toNanos(), 0L);
+        this.percentile = config.percentile();
+        this.depositPerRequest = Math.round(config.maxRatio() * TOKEN);
+        this.latencies = new AtomicLongArray(Math.max(config.window(), RECALCULATE_EVERY));
+        this.delayNanos = new AtomicLong(minDelayNanos);
+
+        Tags tags = Tags.of("operation", operation.tag());
+        Gauge.builder("bonos.as400.hedge.delay", delayNanos, d -> d.get() / 1_000_000_000d).tags(tags)
+                .description("Espera actual antes de enviar la invocación AS400 cubierta (segundos)")
+                .register(meterRegistry);
+        this.sent = Counter.builder("bonos.as400.hedge.sent").tags(tags)
+                .description("Invocaciones AS400 cubiertas enviadas").register(meterRegistry);
+        this.wins = Counter.builder("bonos.as400.hedge.wins").tags(tags)
+                .description("Invocaciones AS400 cubiertas que respondieron antes que la original")
+                .register(meterRegistry);
+        this.skipped = Counter.builder("bonos.as400.hedge.skipped").tags(tags)
+                .description("Hedges no enviados por presupuesto, circuito o limitador").register(meterRegistry);
+    }
+
+    /**
+     * Espera antes de enviar el hedge. Deposita en el presupuesto la parte correspondiente a la solicitud.
+     */
+    public long delayNanos() {
+        tokens.updateAndGet(current -> Math.min(MAX_TOKENS, current + depositPerRequest));
+        return delayNanos.get();
+    }
+
+    /**
+     * Consume un token del presupuesto; retorna {@code false} si está agotado.
+     */
+    public boolean tryAcquireBudget() {
+        while (true) {
+            long current = tokens.get();
+            if (current < TOKEN) {
+                skipped.increment();
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    public void recordLatency(long nanos) {
+        long sample = samples.getAndIncrement();
+        latencies.set((int) (sample % latencies.length()), nanos);
+        if (sample % RECALCULATE_EVERY == RECALCULATE_EVERY - 1) {
+            recalculate((int) Math.min(sample + 1, latencies.length()));
+        }
+    }
+
+    public void onSent() {
+        sent.increment();
+    }
+
+    public void onSkipped() {
+        skipped.increment();
+    }
+
+    public void onWin() {
+        wins.increment();
+    }
+
+    private void recalculate(int count) {
+        long[] snapshot = new long[count];
+        for (int i = 0; i < count; i++) {
+            snapshot[i] = latencies.get(i);
+        }
+        Arrays.sort(snapshot);
+        int index = Math.min(count - 1, (int) Math.ceil(percentile * count) - 1);
+        delayNanos.set(Math.max(minDelayNanos, snapshot[Math.max(index, 0)]));
+    }
+}
@@ -0,0 +1,22 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+/**
+ * Operaciones de negocio que invocan el programa AS400. Se usan para aplicar políticas por operación
+ * y para etiquetar métricas.
+ */
+public enum As400Operation {
+
+    CREAR("crear"),
+    ACTIVAR("activar"),
+    RECUPERAR("recuperar");
+
+    private final String tag;
+
+    As400Operation(String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+}
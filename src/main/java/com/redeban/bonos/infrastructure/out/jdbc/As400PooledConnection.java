@@ -0,0 +1,158 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conexión JDBC administrada por {@link As400ConnectionPool}. Conserva los tiempos de creación,
+ * último uso y préstamo que el pool necesita para aplicar vida máxima, expiración por inactividad
+ * y detección de fugas, junto con la caché LRU de {@link CallableStatement} preparados sobre ella.
+ *
+ * <p>La conexión se presta en exclusiva a un solo hilo, por lo que la caché no requiere sincronización.</p>
+ */
+public class As400PooledConnection {
+
+    private final Connection connection;
+    private final long createdAt;
+    private final StatementCacheMetrics statementCacheMetrics;
+    private final Map<String, CallableStatement> statements;
+    private volatile long lastUsedAt;
+    private volatile long lastValidatedAt;
+    private volatile long borrowedAt;
+    private volatile String borrowedBy;
+    private volatile boolean leakReported;
+
+    As400PooledConnection(Connection connection, long createdAt, int statementCacheSize,
+                          StatementCacheMetrics statementCacheMetrics) {
+        this.connection = connection;
+        this.createdAt = createdAt;
+        this.lastUsedAt = createdAt;
+        this.lastValidatedAt = createdAt;
+        this.statementCacheMetrics = statementCacheMetrics;
+        int capacity = Math.max(statementCacheSize, 1);
+        this.statements = new LinkedHashMap<>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CallableStatement> eldest) {
+                if (size() > capacity) {
+                    closeStatementQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Connection connection() {
+        return connection;
+    }
+
+    /**
+     * Retorna el {@link CallableStatement} ya preparado para el procedimiento o lo prepara y lo guarda
+     * en caché. El statement pertenece a la conexión: el llamador no debe cerrarlo.
+     */
+    public CallableStatement prepareCall(String storedProcedure) throws SQLException {
+        CallableStatement statement = statements.get(storedProcedure);
+        if (statement != null) {
+            statementCacheMetrics.hits().increment();
+            return statement;
+        }
+        statementCacheMetrics.misses().increment();
+        long start = System.nanoTime();
+        statement = connection.prepareCall("call " + storedProcedure);
+        statementCacheMetrics.prepare().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        statements.put(storedProcedure, statement);
+        return statement;
+    }
+
+    /**
+     * Descarta el statement cacheado del procedimiento, por ejemplo tras un error que lo deja inservible.
+     */
+    public void invalidateStatement(String storedProcedure) {
+        closeStatementQuietly(statements.remove(storedProcedure));
+    }
+
+    long createdAt() {
+        return createdAt;
+    }
+
+    long lastUsedAt() {
+        return lastUsedAt;
+    }
+
+    /**
+     * Último instante en que la conexión tuvo tráfico, por uso o por keepalive.
+     */
+    long lastActiveAt() {
+        return Math.max(lastUsedAt, lastValidatedAt);
+    }
+
+    void markValidated(long now) {
+        this.lastValidatedAt = now;
+    }
+
+    long borrowedAt() {
+        return borrowedAt;
+    }
+
+    String borrowedBy() {
+        return borrowedBy;
+    }
+
+    boolean leakReported() {
+        return leakReported;
+    }
+
+    void markLeakReported() {
+        this.leakReported = true;
+    }
+
+    void markBorrowed(long now) {
+        this.borrowedAt = now;
+        this.borrowedBy = Thread.currentThread().getName();
+        this.leakReported = false;
+    }
+
+    void markReturned(long now) {
+        this.lastUsedAt = now;
+        this.borrowedAt = 0L;
+        this.borrowedBy = null;
+    }
+
+    boolean isValid(int timeoutSeconds) {
+        try {
+            return !connection.isClosed() && connection.isValid(timeoutSeconds);
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    void closeQuietly() {
+        statements.values().forEach(As400PooledConnection::closeStatementQuietly);
+        statements.clear();
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // La conexión se descarta; un error al cerrarla no cambia el resultado.
+        }
+    }
+
+    private static void closeStatementQuietly(CallableStatement statement) {
+        if (statement == null) {
+            return;
+        }
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+            // El statement se descarta; un error al cerrarlo no cambia el resultado.
+        }
+    }
+
+    record StatementCacheMetrics(Counter hits, Counter misses, Timer prepare) {
+    }
+}
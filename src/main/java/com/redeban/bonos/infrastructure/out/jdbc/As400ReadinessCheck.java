@@ -0,0 +1,36 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+
+/**
+ * Mantiene el pod fuera del balanceo mientras se precalientan las conexiones AS400, para que las primeras
+ * solicitudes tras un despliegue no paguen la apertura de conexiones. Sólo espera a que el precalentamiento
+ * termine: si el AS400 no responde el pod igual queda listo y responde E08/E09.
+ */
+@Readiness
+@ApplicationScoped
+public class As400ReadinessCheck implements HealthCheck {
+
+    private final As400Connector connector;
+
+    @Inject
+    public As400ReadinessCheck(As400Connector connector) {
+        this.connector = connector;
+    }
+
+    @Override
+    public HealthCheckResponse call() {
+        if (!connector.isEnabled()) {
+            return HealthCheckResponse.named("as400-prewarm").up().withData("datasource", "no configurado").build();
+        }
+        boolean warmedUp = connector.isWarmedUp();
+        return HealthCheckResponse.named("as400-prewarm")
+                .status(warmedUp)
+                .withData("prewarm", warmedUp ? "completado" : "en curso")
+                .build();
+    }
+}
@@ -0,0 +1,172 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import com.redeban.bonos.domain.exception.BonoTechnicalException;
+import com.redeban.bonos.domain.exception.BonoTimeoutException;
+import com.redeban.bonos.domain.model.Deadline;
+import com.redeban.bonos.infrastructure.camel.common.configs.As400ClientProperties;
+
+/**
+ * Agrupa las invocaciones idénticas que coinciden en el tiempo en una sola llamada al AS400.
+ *
+ * <p>La primera solicitud de una clave invoca al host; las que llegan mientras sigue en curso esperan su
+ * resultado (respuesta o error) en lugar de enviar otra trama. Las solicitudes en curso se reparten en
+ * {@code stripes} tablas con su propio lock, que sólo se toma para registrar o retirar la clave. Si la original
+ * agota su deadline, quien espera y aún tiene tiempo vuelve a intentar con el suyo.</p>
+ */
+public class As400RequestCoalescer<K, T> {
+
+    private final boolean enabled;
+    private final Stripe<K, T>[] stripes;
+    private final Counter coalesced;
+
+    @SuppressWarnings("unchecked")
+    public As400RequestCoalescer(As400Operation operation, As400ClientProperties.Coalesce config,
+                                 MeterRegistry meterRegistry) {
+        if (config.stripes() < 1) {
+            throw new IllegalArgumentException("Configuración de agrupación AS400 inválida: stripes="
+                    + config.stripes());
+        }
+        this.enabled = config.enabled();
+        this.stripes = new Stripe[Integer.highestOneBit(config.stripes() * 2 - 1)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe<>();
+        }
+        this.coalesced = Counter.builder("bonos.as400.coalesced").tag("operation", operation.tag())
+                .description("Solicitudes atendidas con la invocación AS400 idéntica que ya estaba en curso")
+                .register(meterRegistry);
+    }
+
+    public T execute(K key, Deadline deadline, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        Stripe<K, T> stripe = stripe(key);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        CompletableFuture<T> existing = stripe.register(key, future);
+        if (existing != null) {
+            coalesced.increment();
+            return await(key, existing, deadline, call);
+        }
+        T result;
+        try {
+            result = call.get();
+        } catch (Throwable ex) {
+            stripe.remove(key, future);
+            future.completeExceptionally(ex);
+            throw ex;
+        }
+        stripe.remove(key, future);
+        future.complete(result);
+        return result;
+    }
+
+    public CompletableFuture<T> executeAsync(K key, Deadline deadline, Supplier<CompletableFuture<T>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        Stripe<K, T> stripe = stripe(key);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        CompletableFuture<T> existing = stripe.register(key, future);
+        if (existing != null) {
+            coalesced.increment();
+            return existing.exceptionallyCompose(error -> retriable(unwrap(error), deadline)
+                    ? executeAsync(key, deadline, call)
+                    : CompletableFuture.failedFuture(unwrap(error)));
+        }
+        CompletableFuture<T> stage;
+        try {
+            stage = call.get();
+        } catch (Throwable ex) {
+            stage = CompletableFuture.failedFuture(ex);
+        }
+        stage.whenComplete((result, error) -> {
+            stripe.remove(key, future);
+            if (error != null) {
+                future.completeExceptionally(unwrap(error));
+            } else {
+                future.complete(result);
+            }
+        });
+        return future;
+    }
+
+    private T await(K key, CompletableFuture<T> existing, Deadline deadline, Supplier<T> call) {
+        try {
+            return deadline.isBounded()
+                    ? existing.get(deadline.remaining(Duration.ZERO).toNanos(), TimeUnit.NANOSECONDS)
+                    : existing.get();
+        } catch (TimeoutException ex) {
+            throw new BonoTimeoutException("Tiempo de la solicitud agotado esperando una consulta AS400 idéntica",
+                    ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BonoTechnicalException("Interrumpido esperando una consulta AS400 idéntica", 500, ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (retriable(cause, deadline)) {
+                return execute(key, deadline, call);
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new BonoTechnicalException("Error en la consulta AS400 idéntica: " + cause.getMessage(), 500,
+                    cause);
+        }
+    }
+
+    /**
+     * El deadline de la solicitud original puede ser más corto que el de quien la esperaba.
+     */
+    private static boolean retriable(Throwable error, Deadline deadline) {
+        return error instanceof BonoTimeoutException && !deadline.isExpired();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private Stripe<K, T> stripe(K key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static final class Stripe<K, T> {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<K, CompletableFuture<T>> inFlight = new HashMap<>();
+
+        /**
+         * Registra {@code future} para la clave, o retorna el de la invocación que ya está en curso.
+         */
+        private CompletableFuture<T> register(K key, CompletableFuture<T> future) {
+            lock.lock();
+            try {
+                return inFlight.putIfAbsent(key, future);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void remove(K key, CompletableFuture<T> future) {
+            lock.lock();
+            try {
+                inFlight.remove(key, future);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -6,8 +6,8 @@ import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 
 /**
- * Fuerza la inicialización temprana del conector AS400 para que el test de conectividad
- * se ejecute durante el arranque del pod.
+ * Fuerza la inicialización temprana del conector AS400 para que el precalentamiento de conexiones
+ * y el test de conectividad comiencen durante el arranque del pod.
  */
 @ApplicationScoped
 public class As400StartupProbe {
@@ -2,224 +2,207 @@ package com.redeban.bonos.infrastructure.out.jdbc;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Locale;
-import java.util.Map;
 import java.util.Optional;
+import org.apache.camel.Header;
 import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.redeban.bonos.domain.exception.BonoBusinessException;
 import com.redeban.bonos.domain.model.ActivarBonoRequest;
 import com.redeban.bonos.domain.model.ActivarBonoResponse;
-import com.redeban.bonos.domain.model.Bono;
 import com.redeban.bonos.domain.model.CrearBonoRequest;
 import com.redeban.bonos.domain.model.CrearBonoResponse;
+import com.redeban.bonos.domain.model.Deadline;
 import com.redeban.bonos.domain.model.RecuperarBonoRequest;
 import com.redeban.bonos.domain.model.RecuperarBonoResponse;
-import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosProperties;
+import com.redeban.bonos.domain.port.out.NegativeResultCachePort;
+import com.redeban.bonos.infrastructure.camel.common.configs.As400ClientProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosSettings;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosSettingsProvider;
 
 @ApplicationScoped
 public class As400StoredProcedureClient {
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd", Locale.ROOT);
-    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HHmmss", Locale.ROOT);
+    private static final Logger LOGGER = LoggerFactory.getLogger(As400StoredProcedureClient.class);
 
-    private final GestionBonosProperties properties;
+    public static final String DEADLINE_HEADER = "bonosDeadline";
+
+    private final GestionBonosSettingsProvider settings;
     private final As400Connector connector;
+    private final As400TramaLayoutRegistry layouts;
+    private final As400TramaClock clock = new As400TramaClock();
+    private final As400Ebcdic ebcdic;
+    private final String ebcdicProcedure;
+    private final NegativeResultCachePort negativeResults;
 
     @Inject
-    public As400StoredProcedureClient(GestionBonosProperties properties, As400Connector connector) {
-        this.properties = properties;
+    public As400StoredProcedureClient(GestionBonosSettingsProvider settings, As400Connector connector,
+                                      As400TramaLayoutRegistry layouts, As400ClientProperties clientProperties,
+                                      NegativeResultCachePort negativeResults) {
+        this.settings = settings;
         this.connector = connector;
+        this.layouts = layouts;
+        this.negativeResults = negativeResults;
+        As400ClientProperties.Ebcdic ebcdicConfig = clientProperties.ebcdic();
+        this.ebcdic = ebcdicConfig.enabled() ? new As400Ebcdic(ebcdicConfig.ccsid()) : null;
+        this.ebcdicProcedure = ebcdicConfig.storeProcedure().filter(StringUtils::isNotBlank).orElse(null);
+        if (ebcdic != null) {
+            LOGGER.info("Trama AUBONB1 en modo EBCDIC (ccsid={} procedimiento={})", ebcdic.ccsid(),
+                    ebcdicProcedure != null ? ebcdicProcedure : "bonos.as400.store-procedure");
+        }
+    }
+
+    public CrearBonoResponse crearBono(CrearBonoRequest request, @Header(DEADLINE_HEADER) Deadline deadline) {
+        GestionBonosSettings config = settings.current();
+        As400TramaLayout layout = layouts.current();
+        String[] values = crearValues(config, request);
+        Optional<CrearBonoResponse> blocked = negativeResults.find(request);
+        if (blocked.isPresent()) {
+            return blocked.get();
+        }
+        try {
+            CrearBonoResponse response = mapCrearResultado(invoke(As400Operation.CREAR, config, layout, values,
+                    deadline));
+            negativeResults.record(request, response);
+            return response;
+        } finally {
+            negativeResults.invalidate(request);
+        }
+    }
+
+    public ActivarBonoResponse activarBono(ActivarBonoRequest request, @Header(DEADLINE_HEADER) Deadline deadline) {
+        GestionBonosSettings config = settings.current();
+        As400TramaLayout layout = layouts.current();
+        String[] values = activarValues(request);
+        Optional<ActivarBonoResponse> blocked = negativeResults.find(request);
+        if (blocked.isPresent()) {
+            return blocked.get();
+        }
+        ActivarBonoResponse response = mapActivarResultado(config, invoke(As400Operation.ACTIVAR, config, layout,
+                values, deadline));
+        negativeResults.record(request, response);
+        return response;
     }
 
-    public CrearBonoResponse crearBono(CrearBonoRequest request) {
-        String payload = buildCrearPayload(request);
-        String resultado = connector.execute(properties.storedProcedure(), payload);
-        return mapCrearResultado(resultado);
+    public RecuperarBonoResponse recuperarBono(RecuperarBonoRequest request, @Header(DEADLINE_HEADER) Deadline deadline) {
+        GestionBonosSettings config = settings.current();
+        As400TramaLayout layout = layouts.current();
+        String[] values = recuperarValues(config, request);
+        Optional<RecuperarBonoResponse> sinResultados = negativeResults.find(request);
+        if (sinResultados.isPresent()) {
+            return sinResultados.get();
+        }
+        long version = negativeResults.version();
+        RecuperarBonoResponse response = mapRecuperarResultado(config, invoke(As400Operation.RECUPERAR, config,
+                layout, values, deadline));
+        negativeResults.record(request, response, version);
+        return response;
     }
 
-    public ActivarBonoResponse activarBono(ActivarBonoRequest request) {
-        String payload = buildActivarPayload(request);
-        String resultado = connector.execute(properties.storedProcedure(), payload);
-        return mapActivarResultado(resultado);
+    /**
+     * Codifica la trama, invoca el programa y retorna la vista de la salida. En modo EBCDIC la trama se arma y
+     * se lee en bytes del CCSID configurado, sin conversión de caracteres en jt400.
+     */
+    private As400TramaView invoke(As400Operation operation, GestionBonosSettings config, As400TramaLayout layout,
+                                  String[] values, Deadline deadline) {
+        As400TramaEncoder encoder = layout.encoder(operation);
+        As400TramaDecoder decoder = layout.decoder(operation);
+        if (ebcdic != null) {
+            String procedure = ebcdicProcedure != null ? ebcdicProcedure : config.storedProcedure();
+            byte[] resultado = connector.executeBytes(operation, procedure,
+                    encoder.encodeBytes(clock, values, ebcdic), deadline);
+            return decoder.view(resultado, ebcdic);
+        }
+        String resultado = connector.execute(operation, config.storedProcedure(), encoder.encode(clock, values),
+                deadline);
+        return decoder.view(resultado);
     }
 
-    public RecuperarBonoResponse recuperarBono(RecuperarBonoRequest request) {
-        String payload = buildRecuperarPayload(request);
-        String resultado = connector.execute(properties.storedProcedure(), payload);
-        return mapRecuperarResultado(resultado);
+    private String[] crearValues(GestionBonosSettings config, CrearBonoRequest request) {
+        String[] values = commonValues(request.getBin(), request.getSubtipo(), request.getNit());
+        values[As400TramaField.TIPO_DOCUMENTO.ordinal()] =
+                resolvedocumentoCodigo(config, request.getTipoDocumento());
+        values[As400TramaField.NUMERO_DOCUMENTO.ordinal()] = request.getNumeroDocumento();
+        values[As400TramaField.NOMBRE.ordinal()] = request.getNombre();
+        return values;
     }
 
-    private String buildCrearPayload(CrearBonoRequest request) {
-        String documentoCodigo = resolvedocumentoCodigo(request.getTipoDocumento());
-        StringBuilder trama = buildCommonTrama(properties.codigo().novedad().crear());
-
-        appendRightPad(trama, request.getBin(), 6);
-        appendRightPad(trama, request.getSubtipo(), 3);
-        appendLeftPad(trama, request.getNit(), 15);
-        appendRightPad(trama, "", 2);
-        appendRightPad(trama, "", 75);
-        appendRightPad(trama, "", 19);
-        appendRightPad(trama, documentoCodigo, 2);
-        appendLeftPad(trama, request.getNumeroDocumento(), 15);
-        appendRightPad(trama, request.getNombre(), 22);
-        appendRightPad(trama, "", 19);
-        appendRightPad(trama, "", 1824);
-
-        return trama.toString();
+    private String[] activarValues(ActivarBonoRequest request) {
+        String[] values = commonValues(request.getBin(), request.getSubtipo(), request.getNit());
+        values[As400TramaField.NUMERO_BONO.ordinal()] = request.getNumeroBono();
+        values[As400TramaField.VALOR_CARGA.ordinal()] = request.getValorCarga() + "00";
+        values[As400TramaField.NUMERO_AUDITORIA.ordinal()] = request.getNumeroAuditoria();
+        values[As400TramaField.CONSECUTIVO.ordinal()] = request.getConsecutivo();
+        return values;
     }
 
-    private String buildActivarPayload(ActivarBonoRequest request) {
-        StringBuilder trama = buildCommonTrama(properties.codigo().novedad().activar());
-        appendRightPad(trama, request.getBin(), 6);
-        appendRightPad(trama, request.getSubtipo(), 3);
-        appendLeftPad(trama, request.getNit(), 15);
-        appendRightPad(trama, "", 2);
-        appendRightPad(trama, "", 75);
-        appendRightPad(trama, "", 19);
-        appendRightPad(trama, request.getNumeroBono(), 19);
-        appendLeftPad(trama, request.getValorCarga() + "00", 12);
-        trama.append(properties.codigo().transaccion().activacion());
-        trama.append(properties.dispositivo().activacion());
-        appendRightPad(trama, request.getNumeroAuditoria(), 6);
-        appendRightPad(trama, request.getConsecutivo(), 12);
-        trama.append(properties.tipo().transaccion().activacion());
-        appendRightPad(trama, "", 6);
-        appendRightPad(trama, "", 2);
-        appendRightPad(trama, "", 16);
-        appendRightPad(trama, "", 25);
-        appendRightPad(trama, "", 19);
-        appendRightPad(trama, "", 1);
-        appendRightPad(trama, "", 1752);
-
-        return trama.toString();
+    private String[] recuperarValues(GestionBonosSettings config, RecuperarBonoRequest request) {
+        String[] values = commonValues(request.getBin(), request.getSubtipo(), request.getNit());
+        values[As400TramaField.TIPO_DOCUMENTO.ordinal()] =
+                resolvedocumentoCodigo(config, request.getTipoDocumento());
+        values[As400TramaField.NUMERO_DOCUMENTO.ordinal()] = request.getNumeroDocumento();
+        return values;
     }
 
-    private String buildRecuperarPayload(RecuperarBonoRequest request) {
-        String documentoCodigo = resolvedocumentoCodigo(request.getTipoDocumento());
-        StringBuilder trama = buildCommonTrama(properties.codigo().novedad().consultar());
-        appendRightPad(trama, request.getBin(), 6);
-        appendRightPad(trama, request.getSubtipo(), 3);
-        appendLeftPad(trama, request.getNit(), 15);
-        appendRightPad(trama, "", 2);
-        appendRightPad(trama, "", 75);
-        appendRightPad(trama, "", 19);
-        appendRightPad(trama, documentoCodigo, 2);
-        appendLeftPad(trama, request.getNumeroDocumento(), 15);
-        appendRightPad(trama, "", 1300);
-        appendRightPad(trama, "", 565);
-        return trama.toString();
+    /**
+     * Valores de la cabecera común a todas las novedades: bin, subtipo y nit.
+     */
+    private String[] commonValues(String bin, String subtipo, String nit) {
+        String[] values = new String[As400TramaField.COUNT];
+        values[As400TramaField.BIN.ordinal()] = bin;
+        values[As400TramaField.SUBTIPO.ordinal()] = subtipo;
+        values[As400TramaField.NIT.ordinal()] = nit;
+        return values;
     }
 
-    private CrearBonoResponse mapCrearResultado(String resultado) {
+    private CrearBonoResponse mapCrearResultado(As400TramaView resultado) {
         CrearBonoResponse response = new CrearBonoResponse();
-        response.setCodigoRespuesta(substring(resultado, 46, 48));
-        response.setDescripcionRespuesta(trimToNull(substring(resultado, 48, 123)));
-        String numeroBono = trimToNull(substring(resultado, 181, 200));
-        if (numeroBono != null) {
-            response.setNumeroBono(numeroBono);
-        }
+        response.setCodigoRespuesta(resultado.text(As400TramaField.CODIGO_RESPUESTA));
+        response.setDescripcionRespuesta(resultado.text(As400TramaField.DESCRIPCION_RESPUESTA));
+        response.setNumeroBono(resultado.text(As400TramaField.NUMERO_BONO));
         return response;
     }
 
-    private ActivarBonoResponse mapActivarResultado(String resultado) {
+    private ActivarBonoResponse mapActivarResultado(GestionBonosSettings config, As400TramaView resultado) {
         ActivarBonoResponse response = new ActivarBonoResponse();
-        response.setCodigoRespuesta(substring(resultado, 46, 48));
-        response.setDescripcionRespuesta(trimToNull(substring(resultado, 48, 123)));
-        response.setNumeroAutorizacion(trimToNull(substring(resultado, 203, 209)));
-        response.setTipoDocumento(resolveDocumentoTipo(trimToNull(substring(resultado, 209, 211))));
-        response.setNumeroDocumento(trimToNull(substring(resultado, 211, 227)));
-        response.setNombreCliente(trimToNull(substring(resultado, 227, 252)));
-        response.setNumeroCuenta(trimToNull(substring(resultado, 252, 271)));
-        response.setEstado(trimToNull(substring(resultado, 271, 272)));
+        response.setCodigoRespuesta(resultado.text(As400TramaField.CODIGO_RESPUESTA));
+        response.setDescripcionRespuesta(resultado.text(As400TramaField.DESCRIPCION_RESPUESTA));
+        response.setNumeroAutorizacion(resultado.text(As400TramaField.NUMERO_AUTORIZACION));
+        response.setTipoDocumento(resolveDocumentoTipo(config, resultado.text(As400TramaField.TIPO_DOCUMENTO)));
+        response.setNumeroDocumento(resultado.text(As400TramaField.NUMERO_DOCUMENTO));
+        response.setNombreCliente(resultado.text(As400TramaField.NOMBRE_CLIENTE));
+        response.setNumeroCuenta(resultado.text(As400TramaField.NUMERO_CUENTA));
+        response.setEstado(resultado.text(As400TramaField.ESTADO));
         return response;
     }
 
-    private RecuperarBonoResponse mapRecuperarResultado(String resultado) {
+    private RecuperarBonoResponse mapRecuperarResultado(GestionBonosSettings config, As400TramaView resultado) {
         RecuperarBonoResponse response = new RecuperarBonoResponse();
-        response.setCodigoRespuesta(substring(resultado, 46, 48));
-        response.setDescripcionRespuesta(trimToNull(substring(resultado, 48, 123)));
-        String bonosSegment = trimToNull(substring(resultado, 160, 1459));
-        if (StringUtils.isNotBlank(bonosSegment)) {
-            String[] registros = bonosSegment.split(";");
-            List<Bono> bonos = new ArrayList<>();
-            for (String registro : registros) {
-                if (StringUtils.isBlank(registro)) {
-                    continue;
-                }
-                String[] data = registro.split(",");
-                if (data.length >= 2) {
-                    Bono bono = new Bono();
-                    bono.setNumero(StringUtils.trimToNull(data[0]));
-                    String valor = data[1];
-                    if (valor != null && valor.length() >= 2) {
-                        String numero = valor.substring(0, valor.length() - 2);
-                        bono.setValor(Long.valueOf(numero));
-                    }
-                    bonos.add(bono);
-                }
-            }
-            response.setBonos(bonos);
-        } else {
-            response.setBonos(List.of());
+        response.setCodigoRespuesta(resultado.text(As400TramaField.CODIGO_RESPUESTA));
+        response.setDescripcionRespuesta(resultado.text(As400TramaField.DESCRIPCION_RESPUESTA));
+        try {
+            response.setBonos(resultado.read(As400TramaField.BONOS, As400BonosSegmentParser::parse));
+        } catch (As400BonosSegmentParser.MalformedEntryException ex) {
+            LOGGER.warn("Respuesta de recuperarBono con formato inválido: {}", ex.getMessage());
+            throw new BonoBusinessException(config.e03().codigo(),
+                    config.e03().descripcion() + ": " + ex.getMessage(), config.httpErrorGeneral());
         }
         return response;
     }
 
-    private StringBuilder buildCommonTrama(String codigoNovedad) {
-        LocalDateTime now = LocalDateTime.now();
-        StringBuilder trama = new StringBuilder();
-        trama.append(properties.codigo().aplicacion());
-        trama.append(properties.codigo().switchCode());
-        trama.append(codigoNovedad);
-        trama.append(DATE_FORMATTER.format(now));
-        trama.append(TIME_FORMATTER.format(now));
-        return trama;
-    }
-
-    private void appendRightPad(StringBuilder builder, String value, int size) {
-        builder.append(StringUtils.rightPad(Optional.ofNullable(value).orElse(""), size));
-    }
-
-    private void appendLeftPad(StringBuilder builder, String value, int size) {
-        builder.append(StringUtils.leftPad(Optional.ofNullable(value).orElse(""), size, '0'));
-    }
-
-    private String resolvedocumentoCodigo(String tipoDocumento) {
-        if (tipoDocumento == null) {
-            throw new BonoBusinessException(properties.codigo().e01(), properties.descripcion().e01(), 400);
-        }
-        Map<String, String> documentos = properties.documentos();
-        String codigo = documentos.get(tipoDocumento);
+    private String resolvedocumentoCodigo(GestionBonosSettings config, String tipoDocumento) {
+        String codigo = tipoDocumento == null ? null : config.codigoDocumento(tipoDocumento);
         if (codigo == null) {
-            throw new BonoBusinessException(properties.codigo().e01(), properties.descripcion().e01(), 400);
+            throw new BonoBusinessException(config.e01().codigo(), config.e01().descripcion(), 400);
         }
         return codigo;
     }
 
-    private String resolveDocumentoTipo(String codigoDocumento) {
+    private String resolveDocumentoTipo(GestionBonosSettings config, String codigoDocumento) {
         if (StringUtils.isBlank(codigoDocumento)) {
             return null;
         }
-        return properties.documentos().entrySet().stream()
-                .filter(entry -> codigoDocumento.equals(entry.getValue()))
-                .map(Map.Entry::getKey)
-                .findFirst()
-                .orElse(null);
-    }
-
-    private String substring(String source, int start, int end) {
-        if (source == null) {
-            return null;
-        }
-        return StringUtils.substring(source, start, end);
-    }
-
-    private String trimToNull(String value) {
-        return StringUtils.trimToNull(value);
+        return config.tipoDocumento(codigoDocumento);
     }
 }
@@ -0,0 +1,60 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Reloj de la trama: formatea {@code yyyyMMddHHmmss} en la zona del sistema una sola vez por segundo y
+ * reutiliza los caracteres para todas las solicitudes de ese segundo.
+ */
+public final class As400TramaClock {
+
+    static final int LENGTH = 14;
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss", Locale.ROOT);
+
+    private final Clock clock;
+    private volatile Snapshot snapshot = new Snapshot(Long.MIN_VALUE, new char[LENGTH]);
+
+    public As400TramaClock() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * Reloj con la hora y zona de {@code clock}; permite fijar el timestamp.
+     */
+    As400TramaClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    public void writeTimestamp(char[] destination, int offset) {
+        System.arraycopy(digits(), 0, destination, offset, LENGTH);
+    }
+
+    /**
+     * Escribe el timestamp ya convertido a EBCDIC con {@code codec}.
+     */
+    public void writeTimestamp(byte[] destination, int offset, As400Ebcdic codec) {
+        char[] digits = digits();
+        for (int i = 0; i < LENGTH; i++) {
+            destination[offset + i] = codec.encode(digits[i]);
+        }
+    }
+
+    private char[] digits() {
+        long second = Math.floorDiv(clock.millis(), 1000L);
+        Snapshot current = snapshot;
+        if (current.second() != second) {
+            LocalDateTime now = LocalDateTime.ofInstant(Instant.ofEpochSecond(second), clock.getZone());
+            current = new Snapshot(second, FORMATTER.format(now).toCharArray());
+            snapshot = current;
+        }
+        return current.digits();
+    }
+
+    private record Snapshot(long second, char[] digits) {
+    }
+}
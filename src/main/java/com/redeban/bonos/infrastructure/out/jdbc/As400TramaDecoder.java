@@ -0,0 +1,90 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import java.util.Arrays;
+
+/**
+ * Decodificador de la trama de salida de AUBONB1 para una novedad, compilado a partir de su layout
+ * ({@link As400TramaLayout}): posición, longitud y recorte de cada campo indexados por
+ * {@link As400TramaField#ordinal()}.
+ */
+public final class As400TramaDecoder {
+
+    private final int[] starts = new int[As400TramaField.COUNT];
+    private final int[] ends = new int[As400TramaField.COUNT];
+    private final boolean[] trim = new boolean[As400TramaField.COUNT];
+    private int extent;
+
+    private As400TramaDecoder() {
+        Arrays.fill(starts, -1);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean defines(As400TramaField field) {
+        return starts[field.ordinal()] >= 0;
+    }
+
+    /**
+     * Vista de la trama de salida: no copia ni recorta nada hasta que se pide un campo.
+     */
+    public As400TramaView view(String resultado) {
+        return new As400TramaView(resultado, this);
+    }
+
+    /**
+     * Vista de una trama de salida recibida en bytes EBCDIC. Sólo se convierte el tramo que cubren los campos
+     * declarados, con la tabla de {@code codec}; el resto de la trama no se lee.
+     */
+    public As400TramaView view(byte[] resultado, As400Ebcdic codec) {
+        if (resultado == null) {
+            return view((String) null);
+        }
+        return view(codec.decode(resultado, 0, Math.min(resultado.length, extent)));
+    }
+
+    /**
+     * Inicio del campo acotado a la longitud de la trama, o {@code -1} si el layout no lo declara.
+     */
+    int start(As400TramaField field, int length) {
+        int start = starts[field.ordinal()];
+        return start < 0 ? -1 : Math.min(start, length);
+    }
+
+    int end(As400TramaField field, int length) {
+        return Math.min(ends[field.ordinal()], length);
+    }
+
+    boolean trims(As400TramaField field) {
+        return trim[field.ordinal()];
+    }
+
+    public static final class Builder {
+
+        private final As400TramaDecoder decoder = new As400TramaDecoder();
+
+        private Builder() {
+        }
+
+        public Builder field(As400TramaField field, int offset, int length, boolean trim) {
+            int index = field.ordinal();
+            if (decoder.starts[index] >= 0) {
+                throw new IllegalArgumentException("Campo de trama repetido: " + field.key());
+            }
+            if (offset < 0 || length <= 0) {
+                throw new IllegalArgumentException("Posición inválida para el campo " + field.key() + ": offset="
+                        + offset + " length=" + length);
+            }
+            decoder.starts[index] = offset;
+            decoder.ends[index] = offset + length;
+            decoder.trim[index] = trim;
+            decoder.extent = Math.max(decoder.extent, offset + length);
+            return this;
+        }
+
+        public As400TramaDecoder build() {
+            return decoder;
+        }
+    }
+}
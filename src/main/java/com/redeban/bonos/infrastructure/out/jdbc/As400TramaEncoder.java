@@ -0,0 +1,237 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Codificador de ancho fijo de la trama de entrada de AUBONB1 para una novedad, compilado a partir de su
+ * layout ({@link As400TramaLayout}).
+ *
+ * <p>Al construirse precalcula la plantilla completa (constantes, blancos y relleno de cada campo) y la
+ * posición de cada campo variable. Codificar copia la plantilla a un buffer reutilizable por hilo, escribe el
+ * timestamp cacheado por segundo y copia sólo los valores, sin cadenas intermedias de relleno.</p>
+ *
+ * <p>La salida es idéntica a la del armado con {@code StringUtils.rightPad/leftPad}: {@code null} cuenta como
+ * vacío y un valor más largo que su campo no se trunca sino que desplaza el resto de la trama; ese caso se
+ * resuelve con un armado secuencial.</p>
+ */
+public final class As400TramaEncoder {
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[0]);
+
+    private final char[] template;
+    private final int timestampOffset;
+    private final Field[] fields;
+    private volatile EbcdicTemplate ebcdicTemplate;
+
+    private As400TramaEncoder(char[] template, int timestampOffset, List<Field> fields) {
+        this.template = template;
+        this.timestampOffset = timestampOffset;
+        this.fields = fields.toArray(new Field[0]);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int length() {
+        return template.length;
+    }
+
+    /**
+     * Codifica la trama. {@code values} se indexa por {@link As400TramaField#ordinal()}; los campos que el
+     * layout no declara se ignoran.
+     */
+    public String encode(As400TramaClock clock, String[] values) {
+        if (values.length != As400TramaField.COUNT) {
+            throw new IllegalArgumentException("Se esperaban " + As400TramaField.COUNT + " valores y se recibieron "
+                    + values.length);
+        }
+        int size = template.length;
+        char[] buffer = buffer(size);
+        System.arraycopy(template, 0, buffer, 0, size);
+        if (timestampOffset >= 0) {
+            clock.writeTimestamp(buffer, timestampOffset);
+        }
+        for (Field field : fields) {
+            String value = values[field.index];
+            if (value != null && value.length() > field.length) {
+                return encodeShifted(buffer, size, values);
+            }
+        }
+        for (Field field : fields) {
+            String value = values[field.index];
+            if (value != null && !value.isEmpty()) {
+                // El relleno ya quedó en su sitio al copiar la plantilla.
+                int start = field.rightAligned ? field.offset + field.length - value.length() : field.offset;
+                value.getChars(0, value.length(), buffer, start);
+            }
+        }
+        return new String(buffer, 0, size);
+    }
+
+    /**
+     * Codifica la trama directamente en bytes EBCDIC del CCSID de {@code codec}, para enlazarla como parámetro
+     * binario sin conversión de jt400. La plantilla en bytes se calcula una vez por CCSID y el resultado es
+     * byte a byte el de {@code codec.encode(encode(clock, values))}.
+     */
+    public byte[] encodeBytes(As400TramaClock clock, String[] values, As400Ebcdic codec) {
+        if (values.length != As400TramaField.COUNT) {
+            throw new IllegalArgumentException("Se esperaban " + As400TramaField.COUNT + " valores y se recibieron "
+                    + values.length);
+        }
+        for (Field field : fields) {
+            String value = values[field.index];
+            if (value != null && value.length() > field.length) {
+                return codec.encode(encode(clock, values));
+            }
+        }
+        byte[] trama = ebcdicTemplate(codec).clone();
+        if (timestampOffset >= 0) {
+            clock.writeTimestamp(trama, timestampOffset, codec);
+        }
+        for (Field field : fields) {
+            String value = values[field.index];
+            if (value != null && !value.isEmpty()) {
+                int start = field.rightAligned ? field.offset + field.length - value.length() : field.offset;
+                codec.encode(value, trama, start);
+            }
+        }
+        return trama;
+    }
+
+    private byte[] ebcdicTemplate(As400Ebcdic codec) {
+        EbcdicTemplate current = ebcdicTemplate;
+        if (current == null || current.codec() != codec) {
+            current = new EbcdicTemplate(codec, codec.encode(new String(template)));
+            ebcdicTemplate = current;
+        }
+        return current.bytes();
+    }
+
+    /**
+     * Armado secuencial para valores que exceden su campo: conserva la longitud original del valor y desplaza
+     * lo que sigue, igual que el relleno con {@code StringUtils}.
+     */
+    private String encodeShifted(char[] base, int size, String[] values) {
+        StringBuilder trama = new StringBuilder(size + 64);
+        int position = 0;
+        for (Field field : fields) {
+            trama.append(base, position, field.offset - position);
+            String value = values[field.index] == null ? "" : values[field.index];
+            int padding = field.length - value.length();
+            if (field.rightAligned) {
+                appendRepeated(trama, field.padding, padding);
+                trama.append(value);
+            } else {
+                trama.append(value);
+                appendRepeated(trama, field.padding, padding);
+            }
+            position = field.offset + field.length;
+        }
+        trama.append(base, position, size - position);
+        return trama.toString();
+    }
+
+    private static void appendRepeated(StringBuilder builder, char character, int count) {
+        for (int i = 0; i < count; i++) {
+            builder.append(character);
+        }
+    }
+
+    /**
+     * Buffer reutilizable del hilo. Los hilos virtuales son efímeros, así que reciben uno nuevo en lugar de
+     * retener uno por hilo.
+     */
+    private static char[] buffer(int size) {
+        if (Thread.currentThread().isVirtual()) {
+            return new char[size];
+        }
+        char[] buffer = BUFFER.get();
+        if (buffer.length < size) {
+            buffer = new char[size];
+            BUFFER.set(buffer);
+        }
+        return buffer;
+    }
+
+    private record Field(int index, int offset, int length, boolean rightAligned, char padding) {
+    }
+
+    private record EbcdicTemplate(As400Ebcdic codec, byte[] bytes) {
+    }
+
+    public static final class Builder {
+
+        private final StringBuilder template = new StringBuilder(2048);
+        private final List<Field> fields = new ArrayList<>();
+        private int timestampOffset = -1;
+
+        private Builder() {
+        }
+
+        /**
+         * Posición en la que empezará el siguiente elemento.
+         */
+        public int position() {
+            return template.length();
+        }
+
+        /**
+         * Texto fijo, copiado tal cual (códigos de aplicación, switch, novedad, transacción...).
+         */
+        public Builder constant(String value) {
+            template.append(value);
+            return this;
+        }
+
+        /**
+         * Fecha y hora de la solicitud, {@code yyyyMMddHHmmss}.
+         */
+        public Builder timestamp() {
+            timestampOffset = template.length();
+            return blank(As400TramaClock.LENGTH);
+        }
+
+        public Builder blank(int length) {
+            return repeat(' ', length);
+        }
+
+        /**
+         * Campo de texto alineado a la izquierda y completado con espacios.
+         */
+        public Builder text(As400TramaField field, int length) {
+            return field(field, length, false, ' ');
+        }
+
+        /**
+         * Campo numérico alineado a la derecha y completado con ceros.
+         */
+        public Builder number(As400TramaField field, int length) {
+            return field(field, length, true, '0');
+        }
+
+        public Builder field(As400TramaField field, int length, boolean rightAligned, char padding) {
+            for (Field declared : fields) {
+                if (declared.index() == field.ordinal()) {
+                    throw new IllegalArgumentException("Campo de trama repetido: " + field.key());
+                }
+            }
+            fields.add(new Field(field.ordinal(), template.length(), length, rightAligned, padding));
+            return repeat(padding, length);
+        }
+
+        private Builder repeat(char character, int length) {
+            for (int i = 0; i < length; i++) {
+                template.append(character);
+            }
+            return this;
+        }
+
+        public As400TramaEncoder build() {
+            char[] chars = new char[template.length()];
+            template.getChars(0, chars.length, chars, 0);
+            return new As400TramaEncoder(chars, timestampOffset, fields);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+/**
+ * Campos con nombre de la trama AUBONB1. El nombre ({@link #key()}) es el que usan los layouts declarativos;
+ * el ordinal indexa los valores al codificar y las posiciones al decodificar.
+ */
+public enum As400TramaField {
+
+    BIN("bin"),
+    SUBTIPO("subtipo"),
+    NIT("nit"),
+    TIPO_DOCUMENTO("tipoDocumento"),
+    NUMERO_DOCUMENTO("numeroDocumento"),
+    NOMBRE("nombre"),
+    NUMERO_BONO("numeroBono"),
+    VALOR_CARGA("valorCarga"),
+    NUMERO_AUDITORIA("numeroAuditoria"),
+    CONSECUTIVO("consecutivo"),
+    CODIGO_RESPUESTA("codigoRespuesta"),
+    DESCRIPCION_RESPUESTA("descripcionRespuesta"),
+    NUMERO_AUTORIZACION("numeroAutorizacion"),
+    NOMBRE_CLIENTE("nombreCliente"),
+    NUMERO_CUENTA("numeroCuenta"),
+    ESTADO("estado"),
+    BONOS("bonos");
+
+    public static final int COUNT = values().length;
+
+    private final String key;
+
+    As400TramaField(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public static As400TramaField fromKey(String key) {
+        for (As400TramaField field : values()) {
+            if (field.key.equals(key)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Campo de trama desconocido: " + key);
+    }
+}
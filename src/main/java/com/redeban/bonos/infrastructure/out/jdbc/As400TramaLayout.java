@@ -0,0 +1,171 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Versión compilada de un layout declarativo de AUBONB1: un codificador de entrada y un decodificador de
+ * salida por novedad.
+ *
+ * <p>El layout se describe en JSON ({@link Document}). La entrada es una secuencia de elementos:
+ * {@code constant} (valor de configuración por {@code property}, o literal por {@code value}),
+ * {@code timestamp}, {@code blank} y {@code field} (campo con nombre, longitud, alineación y carácter de
+ * relleno). Un {@code offset} declarado en la entrada se valida contra la posición calculada. La salida
+ * declara por campo su {@code offset}, {@code length} y si se recorta.</p>
+ */
+public final class As400TramaLayout {
+
+    private final String version;
+    private final String source;
+    private final Map<As400Operation, As400TramaEncoder> encoders;
+    private final Map<As400Operation, As400TramaDecoder> decoders;
+
+    private As400TramaLayout(String version, String source, Map<As400Operation, As400TramaEncoder> encoders,
+                             Map<As400Operation, As400TramaDecoder> decoders) {
+        this.version = version;
+        this.source = source;
+        this.encoders = encoders;
+        this.decoders = decoders;
+    }
+
+    public String version() {
+        return version;
+    }
+
+    public String source() {
+        return source;
+    }
+
+    public As400TramaEncoder encoder(As400Operation operation) {
+        return encoders.get(operation);
+    }
+
+    public As400TramaDecoder decoder(As400Operation operation) {
+        return decoders.get(operation);
+    }
+
+    /**
+     * Compila el documento. {@code constants} resuelve las propiedades referidas por los elementos
+     * {@code constant}; cualquier inconsistencia lanza {@link IllegalArgumentException}.
+     */
+    public static As400TramaLayout compile(Document document, String source, Function<String, String> constants) {
+        if (document.version() == null || document.version().isBlank()) {
+            throw new IllegalArgumentException("Layout de trama sin versión: " + source);
+        }
+        Map<As400Operation, As400TramaEncoder> encoders = new EnumMap<>(As400Operation.class);
+        Map<As400Operation, As400TramaDecoder> decoders = new EnumMap<>(As400Operation.class);
+        for (As400Operation operation : As400Operation.values()) {
+            Novedad novedad = document.novedades() == null ? null : document.novedades().get(operation.tag());
+            if (novedad == null || novedad.request() == null || novedad.response() == null) {
+                throw new IllegalArgumentException("El layout " + document.version() + " no define la novedad "
+                        + operation.tag());
+            }
+            String context = document.version() + "/" + operation.tag();
+            encoders.put(operation, compileRequest(novedad.request(), context, constants));
+            decoders.put(operation, compileResponse(novedad.response(), context));
+        }
+        return new As400TramaLayout(document.version(), source, encoders, decoders);
+    }
+
+    private static As400TramaEncoder compileRequest(List<RequestElement> elements, String context,
+                                                    Function<String, String> constants) {
+        As400TramaEncoder.Builder builder = As400TramaEncoder.builder();
+        for (RequestElement element : elements) {
+            String type = element.type() == null ? "field" : element.type();
+            if (element.offset() != null && element.offset() != builder.position()) {
+                throw new IllegalArgumentException("Layout " + context + ": el elemento " + describe(element)
+                        + " declara offset " + element.offset() + " pero inicia en " + builder.position());
+            }
+            switch (type) {
+                case "constant" -> builder.constant(constant(element, context, constants));
+                case "timestamp" -> builder.timestamp();
+                case "blank" -> builder.blank(length(element, context));
+                case "field" -> builder.field(As400TramaField.fromKey(element.name()), length(element, context),
+                        rightAligned(element, context), padding(element, context));
+                default -> throw new IllegalArgumentException("Layout " + context + ": tipo de elemento desconocido "
+                        + type);
+            }
+        }
+        return builder.build();
+    }
+
+    private static As400TramaDecoder compileResponse(List<ResponseField> fields, String context) {
+        As400TramaDecoder.Builder builder = As400TramaDecoder.builder();
+        for (ResponseField field : fields) {
+            if (field.offset() == null || field.length() == null) {
+                throw new IllegalArgumentException("Layout " + context + ": el campo de respuesta " + field.name()
+                        + " requiere offset y length");
+            }
+            builder.field(As400TramaField.fromKey(field.name()), field.offset(), field.length(),
+                    !Boolean.FALSE.equals(field.trim()));
+        }
+        As400TramaDecoder decoder = builder.build();
+        if (!decoder.defines(As400TramaField.CODIGO_RESPUESTA)) {
+            throw new IllegalArgumentException("Layout " + context + ": falta el campo de respuesta "
+                    + As400TramaField.CODIGO_RESPUESTA.key());
+        }
+        return decoder;
+    }
+
+    private static String constant(RequestElement element, String context, Function<String, String> constants) {
+        if (element.value() != null) {
+            return element.value();
+        }
+        if (element.property() == null) {
+            throw new IllegalArgumentException("Layout " + context + ": constante sin property ni value");
+        }
+        return constants.apply(element.property());
+    }
+
+    private static int length(RequestElement element, String context) {
+        if (element.length() == null || element.length() <= 0) {
+            throw new IllegalArgumentException("Layout " + context + ": el elemento " + describe(element)
+                    + " requiere length positivo");
+        }
+        return element.length();
+    }
+
+    private static boolean rightAligned(RequestElement element, String context) {
+        if (element.align() == null || "left".equals(element.align())) {
+            return false;
+        }
+        if ("right".equals(element.align())) {
+            return true;
+        }
+        throw new IllegalArgumentException("Layout " + context + ": alineación inválida " + element.align());
+    }
+
+    private static char padding(RequestElement element, String context) {
+        if (element.padding() == null) {
+            return ' ';
+        }
+        if (element.padding().length() != 1) {
+            throw new IllegalArgumentException("Layout " + context + ": el relleno del campo " + element.name()
+                    + " debe ser un carácter");
+        }
+        return element.padding().charAt(0);
+    }
+
+    private static String describe(RequestElement element) {
+        return element.name() != null ? element.name() : element.type();
+    }
+
+    /**
+     * Documento JSON de un layout. {@code active} permite activar esta versión desde el directorio externo sin
+     * cambiar la configuración.
+     */
+    public record Document(String version, Boolean active, Map<String, Novedad> novedades) {
+    }
+
+    public record Novedad(List<RequestElement> request, List<ResponseField> response) {
+    }
+
+    public record RequestElement(String type, String name, Integer offset, Integer length, String align,
+                                 String padding, String property, String value) {
+    }
+
+    public record ResponseField(String name, Integer offset, Integer length, Boolean trim) {
+    }
+}
@@ -0,0 +1,221 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosSettings;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosSettingsProvider;
+
+/**
+ * Registro de layouts de la trama AUBONB1.
+ *
+ * <p>Carga el layout incluido en la aplicación ({@value #BUNDLED_LAYOUT}) y los {@code *.json} del directorio
+ * {@code bonos.trama.layout-dir}, que puede ser un ConfigMap montado. La versión activa es la del layout
+ * externo marcado con {@code "active": true} (el más reciente si hay varios) o, en su defecto,
+ * {@code bonos.trama.version}. El directorio se revisa cada {@code reload-interval}; si algún archivo cambió
+ * se recompila y se reemplaza el layout activo de forma atómica. Un layout inválido al recargar se descarta y
+ * se conserva el vigente; al arrancar detiene la aplicación. Las constantes de la plantilla (aplicación, switch,
+ * novedad...) vienen de {@link GestionBonosSettings}, así que el layout también se recompila cuando una
+ * recarga de configuración las cambia.</p>
+ */
+@ApplicationScoped
+public class As400TramaLayoutRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(As400TramaLayoutRegistry.class);
+
+    static final String BUNDLED_LAYOUT = "tramas/aubonb1-v1.json";
+
+    private final GestionBonosProperties properties;
+    private final GestionBonosSettingsProvider settings;
+    private final ObjectMapper objectMapper;
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private final Counter reloadOk;
+    private final Counter reloadError;
+    private ScheduledExecutorService reloader;
+    private volatile As400TramaLayout current;
+    private volatile Map<Path, FileTime> loadedFiles = Map.of();
+    private GestionBonosSettings compiledWith;
+
+    @Inject
+    public As400TramaLayoutRegistry(GestionBonosProperties properties, GestionBonosSettingsProvider settings,
+                                    ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.settings = settings;
+        this.objectMapper = objectMapper;
+        this.reloadOk = Counter.builder("bonos.trama.layout.reload").tag("result", "ok")
+                .description("Recargas del layout de trama AUBONB1").register(meterRegistry);
+        this.reloadError = Counter.builder("bonos.trama.layout.reload").tag("result", "error")
+                .description("Recargas del layout de trama AUBONB1 descartadas por error").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        Map<Path, FileTime> files = scanExternal();
+        compiledWith = settings.current();
+        current = load(files, compiledWith);
+        loadedFiles = files;
+        settings.onChange(this::onSettingsChanged);
+        LOGGER.info("Layout de trama AUBONB1 activo: versión {} ({})", current.version(), current.source());
+        long interval = properties.trama().reloadInterval().toMillis();
+        if (properties.trama().layoutDir().isPresent() && interval > 0) {
+            reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "as400-trama-layout");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reloader.scheduleWithFixedDelay(this::reloadIfChanged, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    /**
+     * Layout vigente. Una solicitud debe codificar y decodificar con la misma instancia.
+     */
+    public As400TramaLayout current() {
+        return current;
+    }
+
+    void reloadIfChanged() {
+        Map<Path, FileTime> files = scanExternal();
+        if (files.equals(loadedFiles)) {
+            return;
+        }
+        reloadLock.lock();
+        try {
+            loadedFiles = files;
+            replace(files, compiledWith);
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private void onSettingsChanged(GestionBonosSettings updated) {
+        reloadLock.lock();
+        try {
+            if (updated.tramaChanged(compiledWith) && replace(loadedFiles, updated)) {
+                compiledWith = updated;
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private boolean replace(Map<Path, FileTime> files, GestionBonosSettings constants) {
+        try {
+            As400TramaLayout layout = load(files, constants);
+            String previous = current.version();
+            current = layout;
+            reloadOk.increment();
+            LOGGER.info("Layout de trama AUBONB1 recargado: versión {} ({}), antes {}", layout.version(),
+                    layout.source(), previous);
+            return true;
+        } catch (RuntimeException ex) {
+            reloadError.increment();
+            LOGGER.error("Layout de trama AUBONB1 inválido, se conserva la versión {}: {}", current.version(),
+                    ex.getMessage());
+            return false;
+        }
+    }
+
+    private As400TramaLayout load(Map<Path, FileTime> files, GestionBonosSettings constants) {
+        Map<String, Candidate> candidates = new HashMap<>();
+        Candidate bundled = readBundled();
+        candidates.put(bundled.document().version(), bundled);
+        Candidate active = null;
+        for (Map.Entry<Path, FileTime> file : files.entrySet()) {
+            Candidate candidate = readExternal(file.getKey(), file.getValue());
+            candidates.put(candidate.document().version(), candidate);
+            if (Boolean.TRUE.equals(candidate.document().active())
+                    && (active == null || candidate.modified().compareTo(active.modified()) > 0)) {
+                active = candidate;
+            }
+        }
+        if (active == null) {
+            active = candidates.get(properties.trama().version());
+            if (active == null) {
+                throw new IllegalArgumentException("No existe el layout de trama versión "
+                        + properties.trama().version() + "; disponibles " + candidates.keySet());
+            }
+        }
+        return As400TramaLayout.compile(active.document(), active.source(), constants::tramaConstant);
+    }
+
+    private Candidate readBundled() {
+        try (InputStream input = Thread.currentThread().getContextClassLoader().getResourceAsStream(BUNDLED_LAYOUT)) {
+            if (input == null) {
+                throw new IllegalStateException("No se encontró el layout de trama " + BUNDLED_LAYOUT);
+            }
+            return new Candidate(objectMapper.readValue(input, As400TramaLayout.Document.class),
+                    "classpath:" + BUNDLED_LAYOUT, FileTime.fromMillis(0));
+        } catch (IOException ex) {
+            throw new IllegalStateException("No se pudo leer el layout de trama " + BUNDLED_LAYOUT, ex);
+        }
+    }
+
+    private Candidate readExternal(Path file, FileTime modified) {
+        try {
+            As400TramaLayout.Document document = objectMapper.readValue(file.toFile(), As400TramaLayout.Document.class);
+            if (document.version() == null || document.version().isBlank()) {
+                throw new IllegalArgumentException("Layout de trama sin versión: " + file);
+            }
+            return new Candidate(document, file.toString(), modified);
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("No se pudo leer el layout de trama " + file + ": " + ex.getMessage(),
+                    ex);
+        }
+    }
+
+    private Map<Path, FileTime> scanExternal() {
+        if (properties.trama().layoutDir().isEmpty()) {
+            return Map.of();
+        }
+        Path directory = Path.of(properties.trama().layoutDir().get());
+        if (!Files.isDirectory(directory)) {
+            LOGGER.warn("Directorio de layouts de trama {} no existe", directory);
+            return Map.of();
+        }
+        Map<Path, FileTime> files = new HashMap<>();
+        try (Stream<Path> entries = Files.list(directory)) {
+            List<Path> layouts = entries.filter(path -> path.getFileName().toString().endsWith(".json"))
+                    .filter(Files::isRegularFile)
+                    .toList();
+            for (Path layout : layouts) {
+                files.put(layout, Files.getLastModifiedTime(layout));
+            }
+        } catch (IOException ex) {
+            LOGGER.warn("No se pudo listar el directorio de layouts de trama {}: {}", directory, ex.getMessage());
+            return loadedFiles;
+        }
+        return files;
+    }
+
+    private record Candidate(As400TramaLayout.Document document, String source, FileTime modified) {
+    }
+}
@@ -0,0 +1,88 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+/**
+ * Vista sobre la trama de salida de AUBONB1 según su layout.
+ *
+ * <p>Envuelve la cadena recibida una sola vez y resuelve cada campo bajo demanda: los límites del campo y del
+ * recorte se calculan sobre la trama original, sin subcadenas intermedias, y la única {@code String} creada es
+ * la del valor pedido. Los campos en blanco no crean ninguna. La semántica es la de
+ * {@code StringUtils.trimToNull(StringUtils.substring(...))} para los campos que se recortan y la de
+ * {@code StringUtils.substring} para los que no.</p>
+ */
+public final class As400TramaView {
+
+    private final String raw;
+    private final As400TramaDecoder decoder;
+
+    As400TramaView(String raw, As400TramaDecoder decoder) {
+        this.raw = raw;
+        this.decoder = decoder;
+    }
+
+    /**
+     * Valor del campo, o {@code null} si la trama es {@code null}, el layout no declara el campo o, cuando se
+     * recorta, está en blanco.
+     */
+    public String text(As400TramaField field) {
+        if (raw == null) {
+            return null;
+        }
+        int start = decoder.start(field, raw.length());
+        if (start < 0) {
+            return null;
+        }
+        int end = Math.max(decoder.end(field, raw.length()), start);
+        if (decoder.trims(field)) {
+            start = trimStart(start, end);
+            end = trimEnd(start, end);
+            if (start == end) {
+                return null;
+            }
+        }
+        return raw.substring(start, end);
+    }
+
+    /**
+     * {@code true} si el campo no existe o sólo tiene espacios, sin crear cadenas.
+     */
+    public boolean isBlank(As400TramaField field) {
+        return read(field, (source, start, end) -> start == end);
+    }
+
+    /**
+     * Entrega a {@code reader} la trama original y los límites del contenido recortado del campo, sin copiarlo.
+     * Un campo en blanco, inexistente o una trama {@code null} llegan como rango vacío. Sirve para recorrer
+     * segmentos largos, como la lista de bonos, sin materializarlos.
+     */
+    public <T> T read(As400TramaField field, RangeReader<T> reader) {
+        if (raw == null) {
+            return reader.read("", 0, 0);
+        }
+        int start = decoder.start(field, raw.length());
+        if (start < 0) {
+            return reader.read(raw, 0, 0);
+        }
+        int end = Math.max(decoder.end(field, raw.length()), start);
+        start = trimStart(start, end);
+        return reader.read(raw, start, trimEnd(start, end));
+    }
+
+    private int trimStart(int start, int end) {
+        while (start < end && raw.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimEnd(int start, int end) {
+        while (end > start && raw.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    @FunctionalInterface
+    public interface RangeReader<T> {
+        T read(String source, int start, int end);
+    }
+}
@@ -0,0 +1,39 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+/**
+ * Mecanismo con el que {@link As400Connector} invoca el programa AS400. Todas las implementaciones
+ * cumplen el mismo contrato: reciben la trama de entrada y retornan la trama de salida del programa.
+ */
+public interface As400Transport extends AutoCloseable {
+
+    /**
+     * Nombre corto del transporte, usado en logs y en las etiquetas de métricas.
+     */
+    String name();
+
+    /**
+     * Abre por anticipado las conexiones mínimas configuradas.
+     */
+    void prewarm();
+
+    /**
+     * Ejecuta el programa y retorna el parámetro de salida. La implementación registra en {@code control} la
+     * acción que interrumpe la ejecución; si el deadline vence durante la espera de conexión o la ejecución
+     * se lanza {@code BonoTimeoutException}.
+     */
+    String call(String storedProcedure, String payload, As400CallControl control);
+
+    /**
+     * Igual que {@link #call} pero con la trama ya codificada en EBCDIC ({@link As400Ebcdic}): los bytes viajan
+     * sin conversión de caracteres en ninguno de los dos sentidos.
+     */
+    byte[] callBytes(String storedProcedure, byte[] payload, As400CallControl control);
+
+    /**
+     * Verifica conectividad con el AS400 sin ejecutar lógica de negocio.
+     */
+    boolean ping();
+
+    @Override
+    void close();
+}
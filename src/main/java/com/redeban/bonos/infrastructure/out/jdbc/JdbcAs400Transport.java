@@ -0,0 +1,190 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import java.sql.CallableStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.redeban.bonos.domain.exception.BonoTechnicalException;
+import com.redeban.bonos.domain.exception.BonoTimeoutException;
+import com.redeban.bonos.domain.model.Deadline;
+
+/**
+ * Transporte por JDBC: ejecuta {@code call <procedimiento>} sobre una conexión del {@link As400ConnectionPool}.
+ *
+ * <p>El deadline se aplica con {@code setQueryTimeout} (resolución de segundos) y con un
+ * {@link Statement#cancel()} que {@link As400CallControl} ejecuta en el instante exacto de vencimiento o
+ * cuando otra invocación cubierta respondió primero.</p>
+ */
+public class JdbcAs400Transport implements As400Transport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JdbcAs400Transport.class);
+    private static final String PING_QUERY = "SELECT 1 FROM SYSIBM.SYSDUMMY1";
+
+    private final As400ConnectionPool pool;
+    private final Duration acquireTimeout;
+
+    public JdbcAs400Transport(As400ConnectionPool pool, Duration acquireTimeout) {
+        this.pool = pool;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public String name() {
+        return "jdbc";
+    }
+
+    @Override
+    public void prewarm() {
+        pool.prewarm();
+    }
+
+    @Override
+    public String call(String storedProcedure, String payload, As400CallControl control) {
+        return execute(storedProcedure, control, statement -> {
+            statement.setString(1, payload);
+            statement.registerOutParameter(2, Types.VARCHAR);
+        }, statement -> statement.getString(2));
+    }
+
+    /**
+     * Enlaza la trama como {@code VARBINARY}: el procedimiento debe declarar sus parámetros {@code FOR BIT DATA}
+     * para que el driver no convierta los bytes.
+     */
+    @Override
+    public byte[] callBytes(String storedProcedure, byte[] payload, As400CallControl control) {
+        return execute(storedProcedure, control, statement -> {
+            statement.setBytes(1, payload);
+            statement.registerOutParameter(2, Types.VARBINARY);
+        }, statement -> statement.getBytes(2));
+    }
+
+    private <T> T execute(String storedProcedure, As400CallControl control, Binder binder, Reader<T> reader) {
+        As400PooledConnection pooled = borrow(control.deadline());
+        boolean broken = false;
+        boolean cancellable = false;
+        try {
+            CallableStatement statement = pooled.prepareCall(storedProcedure);
+            binder.bind(statement);
+            Deadline deadline = control.deadline();
+            if (deadline.isBounded()) {
+                long remainingNanos = deadline.remaining(Duration.ZERO).toNanos();
+                if (remainingNanos <= 0) {
+                    throw new BonoTimeoutException("Tiempo de la solicitud agotado antes de invocar el AS400");
+                }
+                statement.setQueryTimeout((int) Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(remainingNanos + 999_999_999L)));
+            } else {
+                statement.setQueryTimeout(0);
+            }
+            cancellable = control.onCancel(() -> cancel(statement));
+            if (!cancellable) {
+                throw control.cancellationException(null);
+            }
+            statement.execute();
+            return reader.read(statement);
+
+        } catch (SQLException ex) {
+            pooled.invalidateStatement(storedProcedure);
+            if (control.isCancelled()) {
+                throw control.cancellationException(ex);
+            }
+            if (ex instanceof SQLTimeoutException) {
+                throw new BonoTimeoutException("Stored procedure AS400 cancelado por tiempo agotado", ex);
+            }
+            broken = isConnectionBroken(pooled, ex);
+            throw new BonoTechnicalException("Error ejecutando stored procedure AS400: " + ex.getMessage(), 500, ex);
+        } finally {
+            // Si la cancelación ya se disparó o está en curso, la conexión no se reutiliza para que el
+            // cancel() tardío no alcance la sentencia de otra solicitud.
+            if (cancellable && !control.clearCancel()) {
+                broken = true;
+            }
+            pool.release(pooled, broken);
+        }
+    }
+
+    @Override
+    public boolean ping() {
+        As400PooledConnection pooled;
+        try {
+            pooled = pool.borrow();
+        } catch (BonoTechnicalException ex) {
+            LOGGER.warn("La prueba de conectividad AS400 falló: {}", ex.getMessage());
+            return false;
+        }
+        boolean broken = false;
+        try (Statement statement = pooled.connection().createStatement();
+             ResultSet resultSet = statement.executeQuery(PING_QUERY)) {
+
+            if (resultSet.next()) {
+                LOGGER.debug("Prueba de conectividad AS400 exitosa ({} -> {})", PING_QUERY, resultSet.getInt(1));
+                return true;
+            }
+            LOGGER.warn("Prueba de conectividad AS400 no devolvió resultados ({}).", PING_QUERY);
+            return false;
+
+        } catch (SQLException ex) {
+            broken = isConnectionBroken(pooled, ex);
+            LOGGER.warn("La prueba de conectividad AS400 falló: {}", ex.getMessage());
+            return false;
+        } finally {
+            pool.release(pooled, broken);
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    private As400PooledConnection borrow(Deadline deadline) {
+        Duration wait = deadline.remaining(acquireTimeout);
+        if (wait.compareTo(acquireTimeout) >= 0) {
+            return pool.borrow(acquireTimeout);
+        }
+        try {
+            return pool.borrow(wait);
+        } catch (BonoTechnicalException ex) {
+            if (deadline.isExpired()) {
+                throw new BonoTimeoutException("Tiempo de la solicitud agotado esperando conexión AS400", ex);
+            }
+            throw ex;
+        }
+    }
+
+    private void cancel(Statement statement) {
+        try {
+            statement.cancel();
+        } catch (SQLException ex) {
+            LOGGER.warn("No fue posible cancelar el stored procedure AS400: {}", ex.getMessage());
+        }
+    }
+
+    private boolean isConnectionBroken(As400PooledConnection pooled, SQLException ex) {
+        String sqlState = ex.getSQLState();
+        if (sqlState != null && sqlState.startsWith("08")) {
+            return true;
+        }
+        try {
+            return pooled.connection().isClosed();
+        } catch (SQLException ignored) {
+            return true;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Binder {
+        void bind(CallableStatement statement) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface Reader<T> {
+        T read(CallableStatement statement) throws SQLException;
+    }
+}
@@ -0,0 +1,270 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import com.ibm.as400.access.AS400;
+import com.ibm.as400.access.AS400ConnectionPool;
+import com.ibm.as400.access.AS400Message;
+import com.ibm.as400.access.AS400Text;
+import com.ibm.as400.access.CommandCall;
+import com.ibm.as400.access.ProgramCall;
+import com.ibm.as400.access.ProgramParameter;
+import com.ibm.as400.access.QSYSObjectPathName;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.redeban.bonos.domain.exception.BonoTechnicalException;
+import com.redeban.bonos.domain.exception.BonoTimeoutException;
+import com.redeban.bonos.domain.model.Deadline;
+import com.redeban.bonos.infrastructure.camel.common.configs.As400ClientProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.As400DataSourceProperties;
+
+/**
+ * Transporte nativo jt400: invoca el programa con {@link ProgramCall} sobre el servidor de comandos remotos,
+ * sin pasar por la capa SQL. Los objetos {@link AS400} se reutilizan desde un {@link AS400ConnectionPool}
+ * dimensionado con los mismos parámetros de {@code bonos.datasource.pool}.
+ *
+ * <p>{@code ProgramCall} no admite cancelación; al cancelar la invocación (deadline vencido o hedge ganador)
+ * se desconecta el servicio de comandos del objeto {@link AS400}, lo que interrumpe la espera y descarta el
+ * trabajo del host.</p>
+ */
+public class ProgramCallAs400Transport implements As400Transport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProgramCallAs400Transport.class);
+    private static final byte EBCDIC_SPACE = 0x40;
+    private static final String PING_COMMAND = "CHKOBJ OBJ(QSYS/QSYS) OBJTYPE(*LIB)";
+
+    private final String poolName;
+    private final String system;
+    private final String user;
+    private final String password;
+    private final String library;
+    private final As400ClientProperties.ProgramCall config;
+    private final As400DataSourceProperties.Pool poolConfig;
+    private final AS400ConnectionPool pool;
+
+    public ProgramCallAs400Transport(String poolName,
+                                     String system,
+                                     String user,
+                                     String password,
+                                     String library,
+                                     As400ClientProperties.ProgramCall config,
+                                     As400DataSourceProperties.Pool poolConfig,
+                                     MeterRegistry meterRegistry) {
+        this.poolName = poolName;
+        this.system = system;
+        this.user = user;
+        this.password = password;
+        this.library = library;
+        this.config = config;
+        this.poolConfig = poolConfig;
+        this.pool = new AS400ConnectionPool();
+        pool.setMaxConnections(poolConfig.maxSize());
+        pool.setMaxLifetime(poolConfig.maxLifetime().toMillis());
+        pool.setMaxInactivity(poolConfig.idleTimeout().toMillis());
+        pool.setCleanupInterval(Math.max(poolConfig.evictionInterval().toMillis(), 1000L));
+        pool.setPretestConnections(poolConfig.validateOnBorrow());
+
+        Tags tags = Tags.of("pool", poolName);
+        Gauge.builder("bonos.as400.pool.active", pool, p -> p.getActiveConnectionCount(system, user)).tags(tags)
+                .description("Conexiones AS400 prestadas").register(meterRegistry);
+        Gauge.builder("bonos.as400.pool.idle", pool, p -> p.getAvailableConnectionCount(system, user)).tags(tags)
+                .description("Conexiones AS400 libres").register(meterRegistry);
+    }
+
+    @Override
+    public String name() {
+        return "program-call";
+    }
+
+    @Override
+    public void prewarm() {
+        if (poolConfig.minSize() <= 0) {
+            return;
+        }
+        try {
+            pool.fill(system, user, password, AS400.COMMAND, poolConfig.minSize());
+            LOGGER.info("Pool AS400 [{}] precalentado con {} conexiones (max-size={})",
+                    poolName, poolConfig.minSize(), poolConfig.maxSize());
+        } catch (Exception ex) {
+            LOGGER.warn("No fue posible precalentar el pool AS400 [{}]: {}", poolName, ex.getMessage());
+        }
+    }
+
+    @Override
+    public String call(String storedProcedure, String payload, As400CallControl control) {
+        return run(storedProcedure, control,
+                as400 -> new ProgramParameter(text(config.inputLength(), as400).toBytes(payload)),
+                (as400, output) -> (String) text(config.outputLength(), as400).toObject(output));
+    }
+
+    /**
+     * Pasa la trama EBCDIC tal cual, completada con espacios ({@code 0x40}) o truncada a {@code input-length}
+     * como haría {@link AS400Text}, y retorna los bytes de salida sin convertir.
+     */
+    @Override
+    public byte[] callBytes(String storedProcedure, byte[] payload, As400CallControl control) {
+        byte[] input = payload;
+        if (payload.length != config.inputLength()) {
+            input = Arrays.copyOf(payload, config.inputLength());
+            if (payload.length < input.length) {
+                Arrays.fill(input, payload.length, input.length, EBCDIC_SPACE);
+            }
+        }
+        byte[] parameter = input;
+        return run(storedProcedure, control, as400 -> new ProgramParameter(parameter), (as400, output) -> output);
+    }
+
+    private <T> T run(String storedProcedure, As400CallControl control, Function<AS400, ProgramParameter> input,
+                      BiFunction<AS400, byte[], T> output) {
+        if (control.deadline().isExpired()) {
+            throw new BonoTimeoutException("Tiempo de la solicitud agotado antes de invocar el AS400");
+        }
+        AS400 as400 = borrow();
+        boolean broken = false;
+        boolean cancellable = false;
+        try {
+            ProgramParameter[] parameters = new ProgramParameter[] {
+                    input.apply(as400),
+                    new ProgramParameter(config.outputLength())
+            };
+            ProgramCall programCall = new ProgramCall(as400, programPath(storedProcedure), parameters);
+            cancellable = control.onCancel(() -> as400.disconnectService(AS400.COMMAND));
+            if (!cancellable) {
+                throw control.cancellationException(null);
+            }
+            if (!programCall.run()) {
+                throw new BonoTechnicalException("Error ejecutando programa AS400: "
+                        + describe(programCall.getMessageList()), 500);
+            }
+            return output.apply(as400, parameters[1].getOutputData());
+
+        } catch (BonoTechnicalException ex) {
+            throw ex;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            broken = true;
+            throw new BonoTechnicalException("Interrumpido ejecutando programa AS400", 500, ex);
+        } catch (Exception ex) {
+            broken = true;
+            if (control.isCancelled()) {
+                throw control.cancellationException(ex);
+            }
+            throw new BonoTechnicalException("Error ejecutando programa AS400: " + ex.getMessage(), 500, ex);
+        } finally {
+            if (cancellable && !control.clearCancel()) {
+                broken = true;
+            }
+            giveBack(as400, broken);
+        }
+    }
+
+    /**
+     * Ejecuta un comando trivial en el host: {@code connectService} e {@code isConnected} solo miran el socket
+     * local y no detectan un host caído o colgado. Si el comando no responde en {@code validation-timeout} se
+     * desconecta el servicio, como al cancelar una invocación, y la conexión se descarta.
+     */
+    @Override
+    public boolean ping() {
+        AS400 as400;
+        try {
+            as400 = borrow();
+        } catch (BonoTechnicalException ex) {
+            LOGGER.warn("La prueba de conectividad AS400 falló: {}", ex.getMessage());
+            return false;
+        }
+        As400CallControl control = new As400CallControl(Deadline.at(Instant.now().plusSeconds(
+                Math.max(poolConfig.validationTimeout(), 1))));
+        boolean broken = false;
+        boolean cancellable = false;
+        try {
+            CommandCall commandCall = new CommandCall(as400);
+            cancellable = control.onCancel(() -> as400.disconnectService(AS400.COMMAND));
+            CompletableFuture.delayedExecutor(control.deadline().remaining(Duration.ZERO).toMillis(),
+                    TimeUnit.MILLISECONDS).execute(control::cancel);
+            if (commandCall.run(PING_COMMAND)) {
+                LOGGER.debug("Prueba de conectividad AS400 exitosa ({})", PING_COMMAND);
+                return true;
+            }
+            LOGGER.warn("La prueba de conectividad AS400 falló: {}", describe(commandCall.getMessageList()));
+            return false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            broken = true;
+            LOGGER.warn("Prueba de conectividad AS400 interrumpida");
+            return false;
+        } catch (Exception ex) {
+            broken = true;
+            LOGGER.warn("La prueba de conectividad AS400 falló{}: {}",
+                    control.isCancelled() ? " por tiempo agotado" : "", ex.getMessage());
+            return false;
+        } finally {
+            if (cancellable && !control.clearCancel()) {
+                broken = true;
+            }
+            giveBack(as400, broken);
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    private AS400 borrow() {
+        try {
+            AS400 as400 = pool.getConnection(system, user, password, AS400.COMMAND);
+            as400.setGuiAvailable(false);
+            return as400;
+        } catch (Exception ex) {
+            throw new BonoTechnicalException("No fue posible obtener conexión AS400 [" + poolName + "]: "
+                    + ex.getMessage(), 503, ex);
+        }
+    }
+
+    private void giveBack(AS400 as400, boolean broken) {
+        if (broken) {
+            as400.disconnectAllServices();
+        }
+        pool.returnConnectionToPool(as400);
+    }
+
+    private AS400Text text(int length, AS400 as400) {
+        return config.ccsid()
+                .map(ccsid -> new AS400Text(length, ccsid, as400))
+                .orElseGet(() -> new AS400Text(length, as400));
+    }
+
+    /**
+     * Convierte {@code AUBONB1(?,?)} o {@code LIB.AUBONB1(?,?)} en la ruta IFS del programa.
+     */
+    private String programPath(String storedProcedure) {
+        String program = StringUtils.substringBefore(storedProcedure, "(").trim();
+        String programLibrary = library;
+        int separator = StringUtils.indexOfAny(program, '.', '/');
+        if (separator > 0) {
+            programLibrary = program.substring(0, separator);
+            program = program.substring(separator + 1);
+        }
+        return QSYSObjectPathName.toPath(programLibrary.toUpperCase(), program.toUpperCase(), "PGM");
+    }
+
+    private String describe(AS400Message[] messages) {
+        if (messages == null || messages.length == 0) {
+            return "sin mensajes";
+        }
+        return Arrays.stream(messages)
+                .map(message -> message.getID() + " " + message.getText())
+                .collect(Collectors.joining("; "));
+    }
+}
@@ -0,0 +1,286 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.redeban.bonos.domain.exception.BonoTechnicalException;
+import com.redeban.bonos.domain.exception.BonoTimeoutException;
+import com.redeban.bonos.infrastructure.camel.common.configs.As400ClientProperties;
+
+/**
+ * Transporte que reparte las invocaciones entre varios hosts AS400 (LPAR o host servers que sirven la misma
+ * librería), cada uno con su propio transporte y pool.
+ *
+ * <p>El host se elige al azar con peso proporcional a {@code (1 - tasa de error) / latencia}, ambas como
+ * promedios móviles exponenciales. Un host con {@code ejection-consecutive-failures} fallos seguidos o con
+ * tasa de error sobre {@code ejection-error-rate} se expulsa durante {@code ejection-duration}; pasado ese
+ * tiempo la prueba de conectividad en segundo plano decide si se readmite. Si la conexión no pudo obtenerse
+ * (HTTP 503 del pool, nada se envió al host) la invocación se reintenta en otro host; los errores de ejecución
+ * no se reintentan porque crear y activar no son idempotentes.</p>
+ */
+public class RoutingAs400Transport implements As400Transport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RoutingAs400Transport.class);
+    private static final int MIN_SAMPLES = 10;
+    private static final double MIN_LATENCY_NANOS = 1_000_000d;
+
+    private final String name;
+    private final List<Host> hosts = new ArrayList<>();
+    private final As400ClientProperties.Routing config;
+    private final ScheduledFuture<?> probe;
+
+    public RoutingAs400Transport(Map<String, As400Transport> transports,
+                                 As400ClientProperties.Routing config,
+                                 ScheduledExecutorService scheduler,
+                                 MeterRegistry meterRegistry) {
+        if (transports.isEmpty()) {
+            throw new IllegalArgumentException("Se requiere al menos un host AS400");
+        }
+        if (config.smoothing() <= 0 || config.smoothing() > 1) {
+            throw new IllegalArgumentException("Configuración de enrutamiento AS400 inválida: smoothing="
+                    + config.smoothing());
+        }
+        this.config = config;
+        this.name = transports.values().iterator().next().name();
+        transports.forEach((host, transport) -> hosts.add(new Host(host, transport, meterRegistry)));
+        long interval = Math.max(config.probeInterval().toMillis(), 1000L);
+        this.probe = scheduler.scheduleWithFixedDelay(this::probeEjected, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public void prewarm() {
+        hosts.forEach(host -> host.transport.prewarm());
+    }
+
+    @Override
+    public String call(String storedProcedure, String payload, As400CallControl control) {
+        return route(control, transport -> transport.call(storedProcedure, payload, control));
+    }
+
+    @Override
+    public byte[] callBytes(String storedProcedure, byte[] payload, As400CallControl control) {
+        return route(control, transport -> transport.callBytes(storedProcedure, payload, control));
+    }
+
+    private <T> T route(As400CallControl control, Function<As400Transport, T> call) {
+        List<Host> tried = new ArrayList<>(hosts.size());
+        BonoTechnicalException lastError = null;
+        Host host;
+        while ((host = select(tried, control.avoidHost())) != null) {
+            tried.add(host);
+            control.assignHost(host.name);
+            long start = System.nanoTime();
+            try {
+                T resultado = call.apply(host.transport);
+                host.onSuccess(System.nanoTime() - start);
+                return resultado;
+            } catch (BonoTechnicalException ex) {
+                if (control.isCancelled() && !control.deadline().isExpired()) {
+                    // Perdedora de un hedge: no es un fallo del host.
+                    throw ex;
+                }
+                host.onFailure(System.nanoTime() - start);
+                if (ex instanceof BonoTimeoutException || ex.getHttpStatus() != 503 || control.deadline().isExpired()) {
+                    throw ex;
+                }
+                LOGGER.warn("Host AS400 [{}] no disponible, se intenta otro host: {}", host.name, ex.getMessage());
+                lastError = ex;
+            }
+        }
+        throw lastError != null ? lastError
+                : new BonoTechnicalException("Ningún host AS400 disponible", 503);
+    }
+
+    /**
+     * Disponible si al menos un host responde.
+     */
+    @Override
+    public boolean ping() {
+        boolean available = false;
+        for (Host host : hosts) {
+            available |= host.transport.ping();
+        }
+        return available;
+    }
+
+    @Override
+    public void close() {
+        probe.cancel(false);
+        hosts.forEach(host -> host.transport.close());
+    }
+
+    /**
+     * Elige por peso entre los hosts admitidos no intentados. Evita {@code avoidHost} si hay otro candidato y,
+     * si todos están expulsados, vuelve a considerarlos antes que fallar sin intentar.
+     */
+    private Host select(List<Host> tried, String avoidHost) {
+        List<Host> candidates = new ArrayList<>(hosts.size());
+        for (Host host : hosts) {
+            if (!tried.contains(host) && !host.ejected && !host.name.equals(avoidHost)) {
+                candidates.add(host);
+            }
+        }
+        if (candidates.isEmpty()) {
+            for (Host host : hosts) {
+                if (!tried.contains(host) && !host.ejected) {
+                    candidates.add(host);
+                }
+            }
+        }
+        if (candidates.isEmpty() && tried.isEmpty()) {
+            candidates.addAll(hosts);
+        }
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        double total = 0;
+        double[] weights = new double[candidates.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = candidates.get(i).weight();
+            total += weights[i];
+        }
+        double point = ThreadLocalRandom.current().nextDouble(total);
+        for (int i = 0; i < weights.length; i++) {
+            point -= weights[i];
+            if (point < 0) {
+                return candidates.get(i);
+            }
+        }
+        return candidates.get(candidates.size() - 1);
+    }
+
+    private void probeEjected() {
+        long now = System.nanoTime();
+        for (Host host : hosts) {
+            if (!host.ejected || now - host.ejectedUntil < 0) {
+                continue;
+            }
+            try {
+                if (host.transport.ping()) {
+                    host.readmit();
+                } else {
+                    host.extendEjection(System.nanoTime());
+                }
+            } catch (RuntimeException ex) {
+                LOGGER.warn("Prueba de conectividad del host AS400 [{}] falló: {}", host.name, ex.getMessage());
+                host.extendEjection(System.nanoTime());
+            }
+        }
+    }
+
+    private final class Host {
+
+        private final String name;
+        private final As400Transport transport;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Timer successTimer;
+        private final Timer failureTimer;
+        private final Counter ejections;
+        private double latencyNanos = MIN_LATENCY_NANOS;
+        private double errorRate;
+        private int consecutiveFailures;
+        private long samples;
+        private volatile boolean ejected;
+        private volatile long ejectedUntil;
+
+        private Host(String name, As400Transport transport, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.transport = transport;
+            Tags tags = Tags.of("host", name);
+            this.successTimer = Timer.builder("bonos.as400.host.call").tags(tags).tag("result", "success")
+                    .description("Invocaciones AS400 por host").register(meterRegistry);
+            this.failureTimer = Timer.builder("bonos.as400.host.call").tags(tags).tag("result", "failure")
+                    .description("Invocaciones AS400 por host").register(meterRegistry);
+            this.ejections = Counter.builder("bonos.as400.host.ejections").tags(tags)
+                    .description("Expulsiones del host AS400 del balanceo").register(meterRegistry);
+            Gauge.builder("bonos.as400.host.weight", this, Host::weight).tags(tags)
+                    .description("Peso actual del host AS400 en el balanceo").register(meterRegistry);
+            Gauge.builder("bonos.as400.host.ejected", this, host -> host.ejected ? 1 : 0).tags(tags)
+                    .description("Host AS400 expulsado del balanceo (1) o admitido (0)").register(meterRegistry);
+        }
+
+        private double weight() {
+            lock.lock();
+            try {
+                return Math.max(1 - errorRate, 0.01) / Math.max(latencyNanos, MIN_LATENCY_NANOS) * MIN_LATENCY_NANOS;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void onSuccess(long nanos) {
+            successTimer.record(nanos, TimeUnit.NANOSECONDS);
+            lock.lock();
+            try {
+                samples++;
+                consecutiveFailures = 0;
+                latencyNanos += config.smoothing() * (nanos - latencyNanos);
+                errorRate -= config.smoothing() * errorRate;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void onFailure(long nanos) {
+            failureTimer.record(nanos, TimeUnit.NANOSECONDS);
+            boolean eject;
+            int failures;
+            lock.lock();
+            try {
+                samples++;
+                consecutiveFailures++;
+                errorRate += config.smoothing() * (1 - errorRate);
+                eject = !ejected && (consecutiveFailures >= config.ejectionConsecutiveFailures()
+                        || (samples >= MIN_SAMPLES && errorRate >= config.ejectionErrorRate()));
+                failures = consecutiveFailures;
+                if (eject) {
+                    ejected = true;
+                    ejectedUntil = System.nanoTime() + config.ejectionDuration().toNanos();
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (eject) {
+                ejections.increment();
+                LOGGER.warn("Host AS400 [{}] expulsado del balanceo por {} (fallos consecutivos={})",
+                        name, config.ejectionDuration(), failures);
+            }
+        }
+
+        private void extendEjection(long now) {
+            ejectedUntil = now + config.ejectionDuration().toNanos();
+        }
+
+        private void readmit() {
+            lock.lock();
+            try {
+                consecutiveFailures = 0;
+                errorRate = 0;
+                samples = 0;
+                ejected = false;
+            } finally {
+                lock.unlock();
+            }
+            LOGGER.info("Host AS400 [{}] readmitido en el balanceo", name);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.redeban.bonos.infrastructure.camel.common.configs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import io.smallrye.config.WithName;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Instancias de las interfaces {@link ConfigMapping} para pruebas unitarias, sin levantar Quarkus.
+ *
+ * <p>Cada propiedad se resuelve como en la aplicación: primero los valores de la prueba, luego
+ * {@code application.properties} (con {@code ${VARIABLE:defecto}} resuelto a su defecto, sin perfiles) y por
+ * último {@link WithDefault}. Los nombres siguen las reglas de SmallRye: {@link WithName} o el método en
+ * kebab-case.</p>
+ */
+public final class TestProperties {
+
+    private static final Pattern EXPRESSION = Pattern.compile("\\$\\{([A-Za-z0-9_.]+)(?::([^}]*))?}");
+    private static final Map<String, String> APPLICATION = load();
+
+    private TestProperties() {
+    }
+
+    public static <T> T of(Class<T> type) {
+        return of(type, Map.of());
+    }
+
+    /**
+     * {@code properties} usa los nombres completos ({@code bonos.cache.negativo.max-size}).
+     */
+    public static <T> T of(Class<T> type, Map<String, String> properties) {
+        ConfigMapping mapping = type.getAnnotation(ConfigMapping.class);
+        if (mapping == null) {
+            throw new IllegalArgumentException(type + " no es un @ConfigMapping");
+        }
+        Map<String, String> values = new HashMap<>(APPLICATION);
+        values.putAll(properties);
+        return type.cast(group(type, mapping.prefix(), values));
+    }
+
+    /**
+     * Proveedor de configuración de negocio ya inicializado, como lo deja el contenedor.
+     */
+    public static GestionBonosSettingsProvider settings(GestionBonosProperties properties,
+                                                        MeterRegistry meterRegistry) {
+        GestionBonosSettingsProvider provider = new GestionBonosSettingsProvider(properties, meterRegistry);
+        provider.init();
+        return provider;
+    }
+
+    /**
+     * Propiedades de {@code application.properties} que cambian con las variables de entorno definidas, ya
+     * resueltas. Sólo para los benchmarks contra un AS400 real; las pruebas no dependen del entorno.
+     */
+    public static Map<String, String> environment() {
+        Map<String, String> values = new HashMap<>();
+        raw().forEach((key, value) -> {
+            String resolved = expand(value, System.getenv());
+            if (!resolved.equals(expand(value, Map.of()))) {
+                values.put(key, resolved);
+            }
+        });
+        return values;
+    }
+
+    private static Object group(Class<?> type, String prefix, Map<String, String> values) {
+        Map<String, Object> resolved = new HashMap<>();
+        for (Method method : type.getMethods()) {
+            if (method.getParameterCount() == 0 && !method.isDefault()) {
+                String name = prefix + "." + name(method);
+                resolved.put(method.getName(), value(method, name, values));
+            }
+        }
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> type.getSimpleName() + "[" + prefix + "]";
+                };
+            }
+            Object value = resolved.get(method.getName());
+            if (value instanceof NoSuchElementException missing) {
+                throw missing;
+            }
+            return value;
+        });
+    }
+
+    private static Object value(Method method, String name, Map<String, String> values) {
+        Class<?> type = method.getReturnType();
+        if (type.isInterface() && type != Map.class && type != List.class) {
+            return group(type, name, values);
+        }
+        if (type == Map.class) {
+            Map<String, String> map = new TreeMap<>();
+            values.forEach((key, value) -> {
+                if (key.startsWith(name + ".") && !value.isEmpty()) {
+                    map.put(key.substring(name.length() + 1), value);
+                }
+            });
+            return map;
+        }
+        String raw = values.get(name);
+        if (raw == null || raw.isEmpty()) {
+            WithDefault defaultValue = method.getAnnotation(WithDefault.class);
+            raw = defaultValue != null ? defaultValue.value() : null;
+        }
+        if (type == Optional.class) {
+            Type element = ((ParameterizedType) method.getGenericReturnType()).getActualTypeArguments()[0];
+            return raw == null ? Optional.empty() : Optional.of(convert(element, raw));
+        }
+        if (raw == null) {
+            return new NoSuchElementException("Falta la propiedad " + name);
+        }
+        return convert(method.getGenericReturnType(), raw);
+    }
+
+    private static Object convert(Type type, String raw) {
+        if (type instanceof ParameterizedType parameterized && parameterized.getRawType() == List.class) {
+            return Arrays.stream(raw.split(",")).map(String::strip).toList();
+        }
+        Class<?> target = (Class<?>) type;
+        if (target == String.class) {
+            return raw;
+        }
+        if (target == int.class || target == Integer.class) {
+            return Integer.valueOf(raw.strip());
+        }
+        if (target == long.class || target == Long.class) {
+            return Long.valueOf(raw.strip());
+        }
+        if (target == double.class || target == Double.class) {
+            return Double.valueOf(raw.strip());
+        }
+        if (target == boolean.class || target == Boolean.class) {
+            return Boolean.valueOf(raw.strip());
+        }
+        if (target == Duration.class) {
+            return duration(raw.strip());
+        }
+        if (target.isEnum()) {
+            String constant = raw.strip().replace('-', '_').toUpperCase(Locale.ROOT);
+            for (Object value : target.getEnumConstants()) {
+                if (((Enum<?>) value).name().equals(constant)) {
+                    return value;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Tipo de propiedad no soportado: " + type + " = " + raw);
+    }
+
+    /**
+     * ISO-8601 ({@code PT30S}), número de segundos o número con unidad ({@code 500ms}, {@code 2s}...).
+     */
+    private static Duration duration(String raw) {
+        if (raw.startsWith("P") || raw.startsWith("p")) {
+            return Duration.parse(raw);
+        }
+        if (raw.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(raw.substring(0, raw.length() - 2)));
+        }
+        char unit = raw.charAt(raw.length() - 1);
+        if (Character.isDigit(unit)) {
+            return Duration.ofSeconds(Long.parseLong(raw));
+        }
+        return Duration.parse("PT" + raw.toUpperCase(Locale.ROOT));
+    }
+
+    private static String name(Method method) {
+        WithName withName = method.getAnnotation(WithName.class);
+        if (withName != null) {
+            return withName.value();
+        }
+        StringBuilder name = new StringBuilder();
+        for (char character : method.getName().toCharArray()) {
+            if (Character.isUpperCase(character)) {
+                name.append('-').append(Character.toLowerCase(character));
+            } else {
+                name.append(character);
+            }
+        }
+        return name.toString();
+    }
+
+    private static Map<String, String> load() {
+        Map<String, String> values = new HashMap<>();
+        raw().forEach((key, value) -> values.put(key, expand(value, Map.of())));
+        return values;
+    }
+
+    private static Map<String, String> raw() {
+        Properties properties = new Properties();
+        try (InputStream input = TestProperties.class.getClassLoader()
+                .getResourceAsStream("application.properties")) {
+            if (input != null) {
+                properties.load(input);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        Map<String, String> values = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (!key.startsWith("%")) {
+                values.put(key, properties.getProperty(key));
+            }
+        }
+        return values;
+    }
+
+    private static String expand(String value, Map<String, String> variables) {
+        Matcher matcher = EXPRESSION.matcher(value);
+        StringBuilder expanded = new StringBuilder();
+        while (matcher.find()) {
+            String resolved = variables.get(matcher.group(1));
+            if (resolved == null) {
+                resolved = matcher.group(2) == null ? "" : matcher.group(2);
+            }
+            matcher.appendReplacement(expanded, Matcher.quoteReplacement(resolved));
+        }
+        matcher.appendTail(expanded);
+        return expanded.toString();
+    }
+}
@@ -0,0 +1,145 @@
+package com.redeban.bonos.infrastructure.in.job;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * {@link ActivacionJournal}: eventos, reconstrucción del avance y líneas cortadas por un reinicio.
+ */
+class ActivacionJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysStartedDoneAndInDoubtRows() throws IOException {
+        Path file = dir.resolve("journal.log");
+        try (ActivacionJournal journal = ActivacionJournal.open(file)) {
+            journal.started(List.of(1, 2, 3));
+            journal.done(1, 200, " 00 ");
+            journal.done(2, 504, "E10");
+            journal.started(List.of(4));
+        }
+        List<String> results = new ArrayList<>();
+
+        ActivacionJournal.Replay replay = ActivacionJournal.replay(file,
+                (estado, codigo) -> results.add(estado + " " + codigo));
+
+        Assertions.assertEquals(List.of("200 00", "504 E10"), results);
+        Assertions.assertTrue(replay.isSent(3));
+        Assertions.assertFalse(replay.isSent(5));
+        Assertions.assertEquals(bits(3, 4), replay.unresolved());
+        Assertions.assertEquals(2, replay.inDoubtCount());
+        Assertions.assertFalse(replay.finished());
+    }
+
+    @Test
+    void inDoubtRowsAreNotUnresolvedAgain() throws IOException {
+        Path file = dir.resolve("journal.log");
+        try (ActivacionJournal journal = ActivacionJournal.open(file)) {
+            journal.started(List.of(1, 2));
+            journal.inDoubt(bits(1, 2));
+            journal.finished();
+        }
+
+        ActivacionJournal.Replay replay = ActivacionJournal.replay(file, (estado, codigo) -> { });
+
+        Assertions.assertTrue(replay.unresolved().isEmpty());
+        Assertions.assertEquals(2, replay.inDoubtCount());
+        Assertions.assertTrue(replay.finished());
+    }
+
+    @Test
+    void tornStartedLineIsTruncatedBeforeAppending() throws IOException {
+        Path file = dir.resolve("journal.log");
+        Files.writeString(file, "S 1\nD 1 200 00\nS 1", StandardCharsets.US_ASCII);
+
+        try (ActivacionJournal journal = ActivacionJournal.open(file)) {
+            journal.started(List.of(12));
+        }
+        ActivacionJournal.Replay replay = ActivacionJournal.replay(file, (estado, codigo) -> { });
+
+        Assertions.assertEquals("S 1\nD 1 200 00\nS 12\n", Files.readString(file, StandardCharsets.US_ASCII));
+        Assertions.assertTrue(replay.isSent(12));
+        Assertions.assertEquals(bits(12), replay.unresolved());
+    }
+
+    @Test
+    void tornDoneLineLeavesTheRowInDoubt() throws IOException {
+        Path file = dir.resolve("journal.log");
+        Files.writeString(file, "S 3\nS 4\nD 3 20", StandardCharsets.US_ASCII);
+
+        ActivacionJournal.Replay replay = ActivacionJournal.replay(file, (estado, codigo) -> { });
+        try (ActivacionJournal journal = ActivacionJournal.open(file)) {
+            journal.inDoubt(replay.unresolved());
+        }
+
+        Assertions.assertEquals("S 3\nS 4\nU 3\nU 4\n", Files.readString(file, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void fileWithoutCompleteLinesIsEmptied() throws IOException {
+        Path file = dir.resolve("journal.log");
+        Files.writeString(file, "S 12345", StandardCharsets.US_ASCII);
+
+        try (ActivacionJournal journal = ActivacionJournal.open(file)) {
+            journal.started(List.of(7));
+        }
+
+        Assertions.assertEquals("S 7\n", Files.readString(file, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void tornLineIsFoundBeyondTheFirstBlock() throws IOException {
+        Path file = dir.resolve("journal.log");
+        StringBuilder content = new StringBuilder();
+        for (int fila = 1; fila <= 200; fila++) {
+            content.append("S ").append(fila).append('\n');
+        }
+        content.append("D 1 200 ").append("X".repeat(1500));
+        Files.writeString(file, content, StandardCharsets.US_ASCII);
+
+        try (ActivacionJournal journal = ActivacionJournal.open(file)) {
+            journal.finished();
+        }
+        ActivacionJournal.Replay replay = ActivacionJournal.replay(file, (estado, codigo) -> { });
+
+        Assertions.assertEquals(200, replay.inDoubtCount());
+        Assertions.assertTrue(replay.finished());
+    }
+
+    @Test
+    void interruptedThreadKeepsWriting() throws IOException {
+        Path file = dir.resolve("journal.log");
+        try (ActivacionJournal journal = ActivacionJournal.open(file)) {
+            journal.started(List.of(1, 2));
+            Thread.currentThread().interrupt();
+            try {
+                journal.started(List.of(3));
+                journal.done(1, 200, "00");
+            } finally {
+                Thread.interrupted();
+            }
+            journal.done(2, 200, "00");
+        }
+
+        Assertions.assertEquals("S 1\nS 2\nS 3\nD 1 200 00\nD 2 200 00\n",
+                Files.readString(file, StandardCharsets.US_ASCII));
+    }
+
+    private static BitSet bits(int... filas) {
+        BitSet bits = new BitSet();
+        for (int fila : filas) {
+            bits.set(fila);
+        }
+        return bits;
+    }
+}
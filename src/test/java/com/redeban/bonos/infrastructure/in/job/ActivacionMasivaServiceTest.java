@@ -0,0 +1,408 @@
+package com.redeban.bonos.infrastructure.in.job;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.executable.ExecutableValidator;
+import jakarta.validation.metadata.BeanDescriptor;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.redeban.bonos.domain.exception.BonoBusinessException;
+import com.redeban.bonos.domain.exception.BonoTimeoutException;
+import com.redeban.bonos.domain.model.ActivarBonoRequest;
+import com.redeban.bonos.domain.model.ActivarBonoResponse;
+import com.redeban.bonos.domain.model.CrearBonoRequest;
+import com.redeban.bonos.domain.model.CrearBonoResponse;
+import com.redeban.bonos.domain.model.HeaderContext;
+import com.redeban.bonos.domain.model.RecuperarBonoRequest;
+import com.redeban.bonos.domain.model.RecuperarBonoResponse;
+import com.redeban.bonos.domain.port.in.GestionBonosInPort;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosSettingsProvider;
+import com.redeban.bonos.infrastructure.camel.common.configs.TestProperties;
+import com.redeban.bonos.infrastructure.in.rest.HeaderContextFactory;
+import com.redeban.bonos.infrastructure.in.rest.RestErrorMapper;
+import com.redeban.bonos.infrastructure.in.rest.dto.ActivacionJobResponseDto;
+import com.redeban.bonos.infrastructure.in.rest.dto.CommonBonoRequestDto;
+import com.redeban.bonos.infrastructure.out.mapper.GestionBonosMapper;
+
+/**
+ * {@link ActivacionMasivaService} con un caso de uso que responde de forma asíncrona: conteos, paralelismo y
+ * reanudación desde la bitácora sin enviar ninguna fila dos veces.
+ */
+class ActivacionMasivaServiceTest {
+
+    private static final String NIT = "900123456";
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final Map<String, String> properties = new HashMap<>(Map.of(
+            "bonos.lote.activacion.parallelism", "3",
+            "bonos.lote.activacion.rate", "0",
+            "bonos.lote.activacion.max-rows", "1000"));
+    private final FakeUseCase useCase = new FakeUseCase();
+    private final NoViolations validator = new NoViolations();
+    private final List<ActivacionMasivaService> services = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        services.forEach(ActivacionMasivaService::shutdown);
+        useCase.scheduler.shutdownNow();
+    }
+
+    @Test
+    void processesEveryRowOnce() throws Exception {
+        ActivacionMasivaService service = service();
+
+        ActivacionJobResponseDto submitted = service.submit(comercio(), "APP", "10.0.0.1", csv(1, 30, true));
+        ActivacionJobResponseDto job = await(service, submitted.getId());
+
+        Assertions.assertEquals("TERMINADO", job.getEstado());
+        Assertions.assertEquals(30L, job.getFilasLeidas());
+        Assertions.assertEquals(28L, job.getExitosas());
+        Assertions.assertEquals(2L, job.getFallidas());
+        Assertions.assertEquals(0L, job.getEnDuda());
+        Assertions.assertEquals(0L, job.getEnCurso());
+        Assertions.assertEquals(Long.valueOf(1), job.getCodigos().get("E01"));
+        Assertions.assertEquals(Long.valueOf(1), job.getCodigos().get("E10"));
+        Assertions.assertEquals(Long.valueOf(1), job.getCodigos().get("12"));
+        Assertions.assertEquals(Long.valueOf(27), job.getCodigos().get("00"));
+        Assertions.assertEquals(29, useCase.calls.size());
+        Assertions.assertTrue(useCase.calls.values().stream().allMatch(count -> count.get() == 1));
+        Assertions.assertTrue(useCase.maxInFlight.get() <= 3, () -> "en curso: " + useCase.maxInFlight.get());
+        Assertions.assertTrue(useCase.idTransacciones.contains(job.getId() + "-30"));
+        List<String> journal = Files.readAllLines(dir.resolve(job.getId()).resolve("journal.log"));
+        Assertions.assertEquals("F", journal.get(journal.size() - 1));
+        Assertions.assertEquals(29, journal.stream().filter(line -> line.startsWith("S ")).count());
+        Assertions.assertEquals(1, service.list().size());
+    }
+
+    @Test
+    void resumesFromATornJournalWithoutResendingRows() throws Exception {
+        String id = "reanudado";
+        Path jobDir = Files.createDirectories(dir.resolve(id));
+        Files.writeString(jobDir.resolve("input.csv"), new String(csv(11, 20, false).readAllBytes(),
+                StandardCharsets.UTF_8).replace("7000000000015", "7000000000008")
+                .replace("7000000000016", "7000000000009"));
+        objectMapper.writeValue(jobDir.resolve("job.json").toFile(), new ActivacionJob.Metadata(id, "457812", NIT,
+                "001", "APP", "10.0.0.1", OffsetDateTime.now()));
+        Files.writeString(jobDir.resolve("journal.log"), "S 1\nS 2\nS 3\nS 4\nD 1 200 00\nD 2 504 E10\nD 3 2");
+        ActivacionMasivaService service = service();
+
+        service.onStart(null);
+        ActivacionJobResponseDto job = await(service, id);
+
+        Assertions.assertEquals(2L, job.getEnDuda());
+        Assertions.assertEquals(6L, job.getExitosas());
+        Assertions.assertEquals(2L, job.getFallidas());
+        Assertions.assertEquals(Set.of("7000000000008", "7000000000009", "7000000000017", "7000000000018",
+                "7000000000019", "7000000000020"), useCase.calls.keySet());
+        List<String> journal = Files.readAllLines(jobDir.resolve("journal.log"));
+        Assertions.assertEquals(List.of("S 1", "S 2", "S 3", "S 4", "D 1 200 00", "D 2 504 E10", "U 3", "U 4"),
+                journal.subList(0, 8));
+        Assertions.assertTrue(journal.stream().allMatch(line -> line.matches("[SU] \\d+|D \\d+ \\d+ \\S+|F")),
+                () -> "bitácora: " + journal);
+    }
+
+    @Test
+    void finishedJobsAreNotReprocessed() throws Exception {
+        ActivacionMasivaService first = service();
+        String id = first.submit(comercio(), "APP", "10.0.0.1", csv(1, 4, false)).getId();
+        await(first, id);
+        first.shutdown();
+        useCase.calls.clear();
+
+        ActivacionMasivaService second = service();
+        second.onStart(null);
+        ActivacionJobResponseDto job = second.status(id).orElseThrow();
+
+        Assertions.assertEquals("TERMINADO", job.getEstado());
+        Assertions.assertEquals(4L, job.getExitosas());
+        Assertions.assertTrue(useCase.calls.isEmpty());
+    }
+
+    @Test
+    void shutdownMidJobNeverSendsARowTwice() throws Exception {
+        properties.put("bonos.lote.activacion.parallelism", "4");
+        useCase.delayMillis = 100;
+        ActivacionMasivaService first = service();
+        String id = first.submit(comercio(), "APP", "10.0.0.1", csv(100, 160, false)).getId();
+        Thread.sleep(350);
+        first.shutdown();
+        Thread.sleep(300);
+        int firstRun = useCase.calls.size();
+
+        useCase.delayMillis = 5;
+        ActivacionMasivaService second = service();
+        second.onStart(null);
+        ActivacionJobResponseDto job = await(second, id);
+
+        Assertions.assertTrue(firstRun > 0 && firstRun < 61, () -> "primer tramo: " + firstRun);
+        Assertions.assertTrue(useCase.calls.values().stream().allMatch(count -> count.get() == 1));
+        Assertions.assertEquals(61, useCase.calls.size() + job.getEnDuda());
+        Assertions.assertEquals(61, job.getExitosas() + job.getFallidas() + job.getEnDuda());
+    }
+
+    @Test
+    void shutdownWithRowsNotYetLaunchedDoesNotWait() throws Exception {
+        properties.put("bonos.lote.activacion.parallelism", "1000");
+        validator.delayMillis = 2;
+        ActivacionMasivaService service = service();
+        String id = service.submit(comercio(), "APP", "10.0.0.1", csv(100, 400, false)).getId();
+        Thread.sleep(150);
+
+        service.shutdown();
+        long startNanos = System.nanoTime();
+        while (!"EN_COLA".equals(service.status(id).orElseThrow().getEstado())
+                && System.nanoTime() - startNanos < TimeUnit.SECONDS.toNanos(5)) {
+            Thread.sleep(10);
+        }
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        Assertions.assertTrue(millis < 1000, () -> "cierre: " + millis + " ms");
+        Assertions.assertTrue(useCase.calls.isEmpty(), () -> "enviadas: " + useCase.calls.size());
+    }
+
+    @Test
+    void oversizedFileIsRejectedWithoutLeavingItOnTheVolume() throws Exception {
+        properties.put("bonos.lote.activacion.max-bytes", "1024");
+        ActivacionMasivaService service = service();
+
+        BonoBusinessException ex = Assertions.assertThrows(BonoBusinessException.class,
+                () -> service.submit(comercio(), "APP", "10.0.0.1", csv(1, 100, false)));
+
+        Assertions.assertEquals("E01", ex.getCodigo());
+        Assertions.assertTrue(ex.getDescripcion().contains("1024 bytes"), ex::getDescripcion);
+        try (Stream<Path> files = Files.list(dir)) {
+            Assertions.assertEquals(List.of(), files.toList());
+        }
+        Assertions.assertTrue(service.list().isEmpty());
+        Assertions.assertTrue(useCase.calls.isEmpty());
+    }
+
+    @Test
+    void anyPodReadsTheProgressFromTheSharedDirectory() throws Exception {
+        useCase.delayMillis = 50;
+        ActivacionMasivaService owner = service();
+        ActivacionMasivaService other = service();
+        String id = owner.submit(comercio(), "APP", "10.0.0.1", csv(1, 12, false)).getId();
+        Thread.sleep(60);
+
+        ActivacionJobResponseDto running = other.status(id).orElseThrow();
+        ActivacionJobResponseDto finished = await(other, id);
+
+        Assertions.assertEquals("EN_CURSO", running.getEstado());
+        Assertions.assertEquals("en otro pod", running.getDetalle());
+        Assertions.assertEquals(10L, finished.getExitosas());
+        Assertions.assertEquals(12L, finished.getFilasLeidas());
+        Assertions.assertEquals(List.of(id), other.list().stream().map(ActivacionJobResponseDto::getId).toList());
+        Assertions.assertEquals(11, useCase.calls.size());
+    }
+
+    @Test
+    void journalOfAnotherPodShowsRowsInDoubt() throws Exception {
+        String id = "otro-pod";
+        Path jobDir = Files.createDirectories(dir.resolve(id));
+        Files.writeString(jobDir.resolve("input.csv"), "");
+        objectMapper.writeValue(jobDir.resolve("job.json").toFile(), new ActivacionJob.Metadata(id, "457812", NIT,
+                "001", "APP", "10.0.0.1", OffsetDateTime.now()));
+        Files.writeString(jobDir.resolve("journal.log"), "S 1\nS 2\nS 3\nD 1 200 00\nU 2\nD 4 400 E01\n");
+
+        ActivacionJobResponseDto job = service().status(id).orElseThrow();
+
+        Assertions.assertEquals("EN_CURSO", job.getEstado());
+        Assertions.assertEquals(4L, job.getFilasLeidas());
+        Assertions.assertEquals(1L, job.getExitosas());
+        Assertions.assertEquals(1L, job.getFallidas());
+        Assertions.assertEquals(1L, job.getEnDuda());
+        Assertions.assertEquals(1L, job.getEnCurso());
+    }
+
+    @Test
+    void idsOutsideTheDirectoryAreNotFound() throws Exception {
+        Files.createDirectories(dir.resolve("a"));
+
+        Assertions.assertTrue(service().status("../" + dir.getFileName() + "/a").isEmpty());
+        Assertions.assertTrue(service().status("no-existe").isEmpty());
+    }
+
+    private ActivacionMasivaService service() {
+        properties.put("bonos.lote.activacion.dir", dir.toString());
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        GestionBonosProperties gestionBonos = TestProperties.of(GestionBonosProperties.class, properties);
+        GestionBonosSettingsProvider settings = TestProperties.settings(gestionBonos, meterRegistry);
+        ActivacionMasivaService service = new ActivacionMasivaService(useCase, new GestionBonosMapper(),
+                new RestErrorMapper(settings), settings, new HeaderContextFactory(settings), objectMapper,
+                validator, gestionBonos, meterRegistry);
+        services.add(service);
+        return service;
+    }
+
+    private static ActivacionJobResponseDto await(ActivacionMasivaService service, String id)
+            throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            ActivacionJobResponseDto job = service.status(id).orElseThrow();
+            if ("TERMINADO".equals(job.getEstado()) || "FALLIDO".equals(job.getEstado())) {
+                return job;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("El job " + id + " no terminó");
+    }
+
+    private static CommonBonoRequestDto comercio() {
+        CommonBonoRequestDto comercio = new CommonBonoRequestDto();
+        comercio.setBin("457812");
+        comercio.setNit(NIT);
+        comercio.setSubtipo("001");
+        return comercio;
+    }
+
+    /**
+     * Filas {@code from..to}; la 5 tiene tres columnas y cada séptima termina con una línea en blanco.
+     */
+    private static ByteArrayInputStream csv(int from, int to, boolean header) {
+        StringBuilder csv = new StringBuilder(header ? "numeroBono;valorCarga;numeroAuditoria;consecutivo\n" : "");
+        for (int i = from; i <= to; i++) {
+            csv.append(String.format("700000000%04d", i)).append(";0001000;123456");
+            if (i != 5) {
+                csv.append(';').append(String.format("%02d", i));
+            }
+            csv.append(i % 7 == 0 ? "\r\n\n" : "\n");
+        }
+        return new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Caso de uso que activa cada bono unos milisegundos después; un bono terminado en {@code 0008} agota el
+     * tiempo y uno terminado en {@code 0009} responde el código {@code 12} del host.
+     */
+    static final class FakeUseCase implements GestionBonosInPort {
+
+        final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(8);
+        final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+        final List<String> idTransacciones = new CopyOnWriteArrayList<>();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        volatile long delayMillis = 10;
+
+        @Override
+        public CompletionStage<ActivarBonoResponse> activarBonoAsync(ActivarBonoRequest request,
+                                                                     HeaderContext headerContext) {
+            calls.computeIfAbsent(request.getNumeroBono(), ignored -> new AtomicInteger()).incrementAndGet();
+            idTransacciones.add(headerContext.idTransaccion().orElse("-"));
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            CompletableFuture<ActivarBonoResponse> future = new CompletableFuture<>();
+            scheduler.schedule(() -> {
+                inFlight.decrementAndGet();
+                if (request.getNumeroBono().endsWith("0008")) {
+                    future.completeExceptionally(new BonoTimeoutException("Tiempo agotado"));
+                } else {
+                    ActivarBonoResponse response = new ActivarBonoResponse();
+                    response.setCodigoRespuesta(request.getNumeroBono().endsWith("0009") ? "12" : "00");
+                    future.complete(response);
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+            return future;
+        }
+
+        @Override
+        public CompletionStage<CrearBonoResponse> crearBonoAsync(CrearBonoRequest request,
+                                                                 HeaderContext headerContext) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletionStage<RecuperarBonoResponse> recuperarBonoAsync(RecuperarBonoRequest request,
+                                                                         HeaderContext headerContext) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CrearBonoResponse crearBono(CrearBonoRequest request, HeaderContext headerContext) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ActivarBonoResponse activarBono(ActivarBonoRequest request, HeaderContext headerContext) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public RecuperarBonoResponse recuperarBono(RecuperarBonoRequest request, HeaderContext headerContext) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Validador sin violaciones; con {@code delayMillis} demora cada fila como un archivo que se lee lento.
+     */
+    static final class NoViolations implements Validator {
+
+        volatile long delayMillis;
+
+        @Override
+        public <T> Set<ConstraintViolation<T>> validate(T object, Class<?>... groups) {
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return Set.of();
+        }
+
+        @Override
+        public <T> Set<ConstraintViolation<T>> validateProperty(T object, String propertyName, Class<?>... groups) {
+            return Set.of();
+        }
+
+        @Override
+        public <T> Set<ConstraintViolation<T>> validateValue(Class<T> beanType, String propertyName, Object value,
+                                                             Class<?>... groups) {
+            return Set.of();
+        }
+
+        @Override
+        public BeanDescriptor getConstraintsForClass(Class<?> clazz) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> type) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ExecutableValidator forExecutables() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.redeban.bonos.infrastructure.in.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriBuilder;
+import jakarta.ws.rs.core.UriInfo;
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosSettingsProvider;
+import com.redeban.bonos.infrastructure.camel.common.configs.TestProperties;
+import com.redeban.bonos.infrastructure.in.job.ActivacionMasivaService;
+import com.redeban.bonos.infrastructure.in.rest.dto.ActivacionJobResponseDto;
+import com.redeban.bonos.infrastructure.out.mapper.GestionBonosMapper;
+
+/**
+ * {@link ActivacionMasivaController}: {@code Location} del job recibido con la ruta raíz del despliegue.
+ */
+class ActivacionMasivaControllerTest {
+
+    private static final String BASE =
+            "https://bonos.apps.redeban.com/bonos/servicios/bonos/gestionBonos/lote/activacion";
+
+    @TempDir
+    Path dir;
+
+    private final GestionBonosLoteControllerTest.FakeUseCase useCase = new GestionBonosLoteControllerTest.FakeUseCase();
+
+    @AfterEach
+    void shutdown() {
+        useCase.scheduler.shutdownNow();
+    }
+
+    @Test
+    void locationIncludesTheRootPath() {
+        ActivacionMasivaController controller = controller();
+
+        Response response = controller.crear("457812", "900123456", "001", "APP", "10.0.0.1", uriInfo(),
+                new ByteArrayInputStream(new byte[0]));
+
+        Assertions.assertEquals(202, response.getStatus());
+        String id = ((ActivacionJobResponseDto) response.getEntity()).getId();
+        Assertions.assertEquals(URI.create(BASE + "/" + id), response.getLocation());
+        Assertions.assertEquals(200, controller.consultar(id).getStatus());
+    }
+
+    @Test
+    void unknownJobIsNotFound() {
+        Assertions.assertEquals(404, controller().consultar("no-existe").getStatus());
+    }
+
+    private ActivacionMasivaController controller() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        GestionBonosProperties gestionBonos = TestProperties.of(GestionBonosProperties.class,
+                Map.of("bonos.lote.activacion.dir", dir.toString()));
+        GestionBonosSettingsProvider settings = TestProperties.settings(gestionBonos, meterRegistry);
+        RestErrorMapper restErrorMapper = new RestErrorMapper(settings);
+        ActivacionMasivaService service = new ActivacionMasivaService(useCase, new GestionBonosMapper(),
+                restErrorMapper, settings, new HeaderContextFactory(settings),
+                new ObjectMapper().findAndRegisterModules(), new GestionBonosLoteControllerTest.NoViolations(),
+                gestionBonos, meterRegistry);
+        return new ActivacionMasivaController(service, restErrorMapper);
+    }
+
+    private static UriInfo uriInfo() {
+        return (UriInfo) Proxy.newProxyInstance(UriInfo.class.getClassLoader(), new Class<?>[] {UriInfo.class},
+                (proxy, method, args) -> {
+                    if ("getAbsolutePathBuilder".equals(method.getName())) {
+                        return UriBuilder.fromUri(URI.create(BASE));
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
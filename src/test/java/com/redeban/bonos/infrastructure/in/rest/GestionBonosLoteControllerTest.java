@@ -0,0 +1,560 @@
+package com.redeban.bonos.infrastructure.in.rest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.executable.ExecutableValidator;
+import jakarta.validation.metadata.BeanDescriptor;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.redeban.bonos.domain.exception.BonoBusinessException;
+import com.redeban.bonos.domain.exception.BonoTimeoutException;
+import com.redeban.bonos.domain.model.ActivarBonoRequest;
+import com.redeban.bonos.domain.model.ActivarBonoResponse;
+import com.redeban.bonos.domain.model.Bono;
+import com.redeban.bonos.domain.model.CrearBonoRequest;
+import com.redeban.bonos.domain.model.CrearBonoResponse;
+import com.redeban.bonos.domain.model.HeaderContext;
+import com.redeban.bonos.domain.model.RecuperarBonoRequest;
+import com.redeban.bonos.domain.model.RecuperarBonoResponse;
+import com.redeban.bonos.domain.port.in.GestionBonosInPort;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosSettingsProvider;
+import com.redeban.bonos.infrastructure.camel.common.configs.TestProperties;
+import com.redeban.bonos.infrastructure.in.rest.dto.ErrorResponseDto;
+import com.redeban.bonos.infrastructure.in.rest.dto.LoteItemResponseDto;
+import com.redeban.bonos.infrastructure.in.rest.dto.LoteRecuperarBonoResponseDto;
+import com.redeban.bonos.infrastructure.in.rest.dto.RecuperarBonoRequestDto;
+import com.redeban.bonos.infrastructure.in.rest.dto.RecuperarBonoResponseDto;
+import com.redeban.bonos.infrastructure.logging.RequestResponseLogger;
+import com.redeban.bonos.infrastructure.out.mapper.GestionBonosMapper;
+
+/**
+ * {@link GestionBonosLoteController} con un caso de uso que responde de forma asíncrona. Las anotaciones de los
+ * DTO no se validan aquí (el validador no reporta violaciones); los errores de estructura salen de registros
+ * que no son JSON o superan el máximo.
+ */
+class GestionBonosLoteControllerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, String> properties = new HashMap<>(Map.of(
+            "bonos.lote.parallelism", "3",
+            "bonos.lote.max-items", "50"));
+    private final FakeUseCase useCase = new FakeUseCase();
+    private final RecordingLogger requestResponseLogger = new RecordingLogger(objectMapper);
+
+    @AfterEach
+    void shutdown() {
+        useCase.scheduler.shutdownNow();
+    }
+
+    @Test
+    void crearBonoStreamsOneLinePerRegistro() throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= 20; i++) {
+            body.append(crear(i, i == 7 ? "NOMBRE FALLA" : "NOMBRE " + i)).append('\n');
+            if (i == 10) {
+                body.append("{malo\n");
+            }
+        }
+
+        Map<Integer, JsonNode> lines = byRegistro(crearBono("TX", body.toString()));
+
+        Assertions.assertEquals(21, lines.size());
+        Assertions.assertEquals(200, lines.get(1).get("estado").asInt());
+        Assertions.assertEquals("B100001", lines.get(1).get("respuesta").get("numeroBono").asText());
+        Assertions.assertFalse(lines.get(1).hasNonNull("error"));
+        Assertions.assertEquals("E10", lines.get(7).get("error").get("codigoError").asText());
+        Assertions.assertEquals(400, lines.get(11).get("estado").asInt());
+        Assertions.assertTrue(lines.get(11).get("error").get("descripcionError").asText().contains("registro 11"));
+        Assertions.assertTrue(useCase.maxInFlight.get() <= 3, () -> "en curso: " + useCase.maxInFlight.get());
+        Assertions.assertTrue(useCase.idTransacciones.contains("TX-1"));
+        Assertions.assertTrue(useCase.idTransacciones.contains("TX-21"));
+    }
+
+    @Test
+    void crearBonoLogsEveryRegistro() throws IOException {
+        String body = crear(1, "NOMBRE UNO") + "\n" + crear(2, "NOMBRE FALLA") + "\n" + crear(3, "NOMBRE TRES");
+
+        crearBono("TX", body);
+
+        Assertions.assertEquals(List.of("crearBono", "crearBono"), requestResponseLogger.successes);
+        Assertions.assertEquals(List.of("crearBono"), requestResponseLogger.errors);
+    }
+
+    @Test
+    void crearBonoAcceptsAJsonArray() throws IOException {
+        List<JsonNode> lines = crearBono(null, "[" + crear(1, "NOMBRE A") + ", " + crear(2, "NOMBRE B") + " ]");
+
+        Assertions.assertEquals(2, lines.size());
+        Assertions.assertTrue(lines.stream().allMatch(line -> line.get("estado").asInt() == 200));
+        Assertions.assertTrue(crearBono(null, "[]").isEmpty());
+    }
+
+    @Test
+    void malformedArrayEndsTheLote() throws IOException {
+        Map<Integer, JsonNode> lines = byRegistro(crearBono(null, "  [ " + crear(1, "NOMBRE A") + ", {malo ]"));
+
+        Assertions.assertEquals(2, lines.size());
+        Assertions.assertEquals(400, lines.get(2).get("estado").asInt());
+    }
+
+    @Test
+    void rejectsRegistrosBeyondMaxItems() throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= 60; i++) {
+            body.append(crear(i, "NOMBRE " + i)).append('\n');
+        }
+
+        Map<Integer, JsonNode> lines = byRegistro(crearBono(null, body.toString()));
+
+        Assertions.assertEquals(51, lines.size());
+        Assertions.assertTrue(lines.get(51).get("error").get("descripcionError").asText().contains("supera 50"));
+    }
+
+    @Test
+    void disconnectedClientStopsTheLote() {
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= 40; i++) {
+            body.append(crear(i, "NOMBRE " + i)).append('\n');
+        }
+        Response response = controller().crearBono(null, null, null,
+                new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)));
+        OutputStream broken = new OutputStream() {
+            private int written;
+
+            @Override
+            public void write(int b) throws IOException {
+                if (++written > 200) {
+                    throw new IOException("Broken pipe");
+                }
+            }
+        };
+
+        Assertions.assertThrows(IOException.class, () -> ((StreamingOutput) response.getEntity()).write(broken));
+        Assertions.assertTrue(useCase.calls.get() < 40, () -> "llamadas: " + useCase.calls.get());
+    }
+
+    @Test
+    void bodyReadFailureWritesTheRegistrosInFlight() {
+        byte[] lines = (crear(1, "NOMBRE A") + "\n" + crear(2, "NOMBRE B") + "\n").getBytes(StandardCharsets.UTF_8);
+        InputStream body = new InputStream() {
+            private int read;
+
+            @Override
+            public int read() throws IOException {
+                if (read == lines.length) {
+                    throw new IOException("Connection reset");
+                }
+                return lines[read++];
+            }
+        };
+        Response response = controller().crearBono(null, null, null, body);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        IOException error = Assertions.assertThrows(IOException.class,
+                () -> ((StreamingOutput) response.getEntity()).write(out));
+
+        Assertions.assertEquals("Connection reset", error.getMessage());
+        Assertions.assertEquals(2, out.toString(StandardCharsets.UTF_8).split("\n").length);
+        Assertions.assertEquals(2, useCase.calls.get());
+    }
+
+    @Test
+    void recuperarBonoQueriesEachHolderOnce() {
+        List<RecuperarBonoRequestDto> consultas = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) {
+            consultas.add(recuperar("10000" + i));
+        }
+        consultas.add(recuperar("100003"));
+        consultas.add(recuperar("0100003"));
+        consultas.add(null);
+        consultas.add(recuperar("100013"));
+        consultas.add(recuperar("100001"));
+        long startNanos = System.nanoTime();
+
+        Response response = controller().recuperarBono("TX", "APP", "10.0.0.1", null, null, consultas);
+
+        long millis = Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+        LoteRecuperarBonoResponseDto lote = (LoteRecuperarBonoResponseDto) response.getEntity();
+        Assertions.assertEquals(200, response.getStatus());
+        Assertions.assertEquals(13, lote.getTitulares());
+        Assertions.assertEquals(10, lote.getDistintos());
+        Assertions.assertEquals(11, lote.getExitosos());
+        Assertions.assertEquals(2, lote.getFallidos());
+        Assertions.assertEquals(9, useCase.consultas.size());
+        Assertions.assertTrue(useCase.consultas.values().stream().allMatch(count -> count.get() == 1),
+                () -> "consultas: " + useCase.consultas);
+        Assertions.assertTrue(useCase.maxInFlight.get() <= 3, () -> "en curso: " + useCase.maxInFlight.get());
+        Assertions.assertTrue(millis >= 60 && millis < 1000, () -> "duración: " + millis + " ms");
+
+        List<LoteItemResponseDto<?>> resultados = lote.getResultados();
+        for (int i = 0; i < resultados.size(); i++) {
+            Assertions.assertEquals(i + 1, resultados.get(i).getRegistro());
+        }
+        Assertions.assertSame(resultados.get(2).getRespuesta(), resultados.get(8).getRespuesta());
+        Assertions.assertSame(resultados.get(2).getRespuesta(), resultados.get(9).getRespuesta());
+        Assertions.assertEquals("B1000030",
+                ((RecuperarBonoResponseDto) resultados.get(9).getRespuesta()).getBonos().get(0).getNumero());
+        Assertions.assertEquals("E01", resultados.get(10).getError().getCodigoError());
+        Assertions.assertEquals(404, resultados.get(11).getEstado());
+        Assertions.assertEquals("E11", resultados.get(11).getError().getCodigoError());
+        Assertions.assertTrue(useCase.idTransacciones.contains("TX-1"));
+        Assertions.assertEquals(1, useCase.deadlines.stream().distinct().count());
+    }
+
+    @Test
+    void recuperarBonoAnswersWithinTheLoteDeadline() {
+        properties.put("bonos.timeout.recuperar", "PT0.3S");
+        List<RecuperarBonoRequestDto> consultas = new ArrayList<>(List.of(recuperar("999999")));
+        for (int i = 1; i <= 12; i++) {
+            consultas.add(recuperar(String.valueOf(200000 + i)));
+        }
+        long startNanos = System.nanoTime();
+
+        LoteRecuperarBonoResponseDto lote = (LoteRecuperarBonoResponseDto) controller()
+                .recuperarBono(null, "APP", null, null, null, consultas).getEntity();
+
+        long millis = Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+        Assertions.assertTrue(millis < 1000, () -> "duración: " + millis + " ms");
+        Assertions.assertEquals("E10", lote.getResultados().get(0).getError().getCodigoError());
+        Assertions.assertEquals(12, lote.getExitosos());
+    }
+
+    @Test
+    void recuperarBonoRejectsEmptyAndOversizedLotes() {
+        properties.put("bonos.lote.max-holders", "20");
+        List<RecuperarBonoRequestDto> consultas = new ArrayList<>();
+        for (int i = 0; i <= 20; i++) {
+            consultas.add(recuperar(String.valueOf(400000 + i)));
+        }
+
+        Response empty = controller().recuperarBono(null, null, null, null, null, List.of());
+        Response oversized = controller().recuperarBono(null, null, null, null, null, consultas);
+
+        Assertions.assertEquals(400, empty.getStatus());
+        Assertions.assertEquals("E01", ((ErrorResponseDto) empty.getEntity()).getCodigoError());
+        Assertions.assertEquals(400, oversized.getStatus());
+        Assertions.assertTrue(((ErrorResponseDto) oversized.getEntity()).getDescripcionError()
+                .contains("20 titulares"));
+        Assertions.assertEquals(0, useCase.calls.get());
+    }
+
+    @Test
+    void exportarBonosWritesOneNdjsonLinePerBono() throws IOException {
+        Response response = controller().exportarBonos(null, null, "APP", null, null, export(40));
+
+        List<JsonNode> lines = lines(response);
+
+        Assertions.assertEquals(GestionBonosLoteController.APPLICATION_NDJSON, response.getMediaType().toString());
+        Assertions.assertEquals(39 * 2 + 2, lines.size());
+        Assertions.assertTrue(lines.stream().filter(line -> line.has("numero")).allMatch(line ->
+                "900123456".equals(line.get("nit").asText()) && line.has("valor") && !line.has("estado")));
+        Assertions.assertTrue(lines.stream().anyMatch(line -> line.hasNonNull("numeroDocumento")
+                && "100013".equals(line.get("numeroDocumento").asText()) && line.get("estado").asInt() == 404
+                && "E11".equals(line.get("error").get("codigoError").asText())));
+        Assertions.assertTrue(lines.stream().anyMatch(line -> line.get("registro").asInt() == 21
+                && "E01".equals(line.get("error").get("codigoError").asText())
+                && !line.hasNonNull("numeroDocumento")));
+        Assertions.assertTrue(useCase.maxInFlight.get() <= 3, () -> "en curso: " + useCase.maxInFlight.get());
+    }
+
+    @Test
+    void exportarBonosWritesCsvWithEscapedFields() throws IOException {
+        Response response = controller().exportarBonos("CSV", null, "APP", null, null, export(40));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(out);
+        List<String> lines = List.of(out.toString(StandardCharsets.UTF_8).split("\n"));
+
+        Assertions.assertEquals(GestionBonosLoteController.TEXT_CSV, response.getMediaType().toString());
+        Assertions.assertEquals("registro,nit,tipoDocumento,numeroDocumento,numero,valor,codigoError,descripcionError",
+                lines.get(0));
+        Assertions.assertEquals(81, lines.size());
+        Assertions.assertTrue(lines.contains("1,900123456,CC,100001,B1000010,1000,,"));
+        Assertions.assertTrue(lines.stream().anyMatch(line ->
+                line.endsWith(",CC,100013,,,E11,\"Sin bonos, \"\"consulta\"\" vacía\"")));
+    }
+
+    @Test
+    void holderWithoutBonosGetsOneEmptyRow() throws IOException {
+        String body = "[{\"bin\":\"457812\",\"nit\":\"900123456\",\"subtipo\":\"001\",\"tipoDocumento\":\"CC\","
+                + "\"numeroDocumento\":\"100077\"}]";
+
+        Response csv = controller().exportarBonos("csv", null, null, null, null,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        List<JsonNode> ndjson = lines(controller().exportarBonos(null, null, null, null, null,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingOutput) csv.getEntity()).write(out);
+        Assertions.assertEquals("1,900123456,CC,100077,,,,", out.toString(StandardCharsets.UTF_8).split("\n")[1]);
+        Assertions.assertEquals(1, ndjson.size());
+        Assertions.assertEquals("100077", ndjson.get(0).get("numeroDocumento").asText());
+        Assertions.assertFalse(ndjson.get(0).has("numero"));
+        Assertions.assertFalse(ndjson.get(0).has("error"));
+    }
+
+    @Test
+    void disconnectedClientStopsTheExport() {
+        properties.put("bonos.lote.max-items", "1000");
+        Response response = controller().exportarBonos(null, null, null, null, null, export(200));
+        OutputStream broken = new OutputStream() {
+            private int written;
+
+            @Override
+            public void write(int b) throws IOException {
+                if (++written > 2000) {
+                    throw new IOException("Broken pipe");
+                }
+            }
+        };
+
+        Assertions.assertThrows(IOException.class, () -> ((StreamingOutput) response.getEntity()).write(broken));
+        Assertions.assertTrue(useCase.calls.get() < 50, () -> "llamadas: " + useCase.calls.get());
+    }
+
+    GestionBonosLoteController controller() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        GestionBonosProperties gestionBonos = TestProperties.of(GestionBonosProperties.class, properties);
+        GestionBonosSettingsProvider settings = TestProperties.settings(gestionBonos, meterRegistry);
+        return new GestionBonosLoteController(useCase, new GestionBonosMapper(), requestResponseLogger,
+                new RestErrorMapper(settings), settings, new HeaderContextFactory(settings), objectMapper,
+                new NoViolations(), gestionBonos);
+    }
+
+    private List<JsonNode> crearBono(String idTransaccion, String body) throws IOException {
+        Response response = controller().crearBono(idTransaccion, "APP", "10.0.0.1",
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        return lines(response);
+    }
+
+    List<JsonNode> lines(Response response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(out);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isBlank()) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+
+    private static Map<Integer, JsonNode> byRegistro(List<JsonNode> lines) {
+        Map<Integer, JsonNode> byRegistro = new HashMap<>();
+        for (JsonNode line : lines) {
+            byRegistro.put(line.get("registro").asInt(), line);
+        }
+        return byRegistro;
+    }
+
+    private static String crear(int registro, String nombre) {
+        return "{\"bin\":\"457812\",\"nit\":\"900123456\",\"subtipo\":\"001\",\"tipoDocumento\":\"CC\","
+                + "\"numeroDocumento\":\"" + (100000 + registro) + "\",\"nombre\":\"" + nombre + "\"}";
+    }
+
+    /**
+     * Titulares en NDJSON; después del vigésimo va un registro que no es JSON.
+     */
+    private static InputStream export(int titulares) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= titulares; i++) {
+            body.append("{\"bin\":\"457812\",\"nit\":\"900123456\",\"subtipo\":\"001\",\"tipoDocumento\":\"CC\","
+                    + "\"numeroDocumento\":\"").append(100000 + i).append("\"}\n");
+            if (i == 20) {
+                body.append("{malo\n");
+            }
+        }
+        return new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static RecuperarBonoRequestDto recuperar(String numeroDocumento) {
+        RecuperarBonoRequestDto dto = new RecuperarBonoRequestDto();
+        dto.setBin("457812");
+        dto.setNit("900123456");
+        dto.setSubtipo("001");
+        dto.setTipoDocumento("CC");
+        dto.setNumeroDocumento(numeroDocumento);
+        return dto;
+    }
+
+    /**
+     * Caso de uso que responde cada registro unos milisegundos después; un nombre con {@code FALLA} termina en
+     * timeout. En recuperarBono cada titular tiene dos bonos, uno terminado en {@code 77} ninguno, uno terminado
+     * en {@code 13} responde E11 y el {@code 999999} tarda dos segundos.
+     */
+    static final class FakeUseCase implements GestionBonosInPort {
+
+        final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+        final List<String> idTransacciones = new CopyOnWriteArrayList<>();
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final List<Instant> deadlines = new CopyOnWriteArrayList<>();
+        final Map<String, AtomicInteger> consultas = new ConcurrentHashMap<>();
+
+        @Override
+        public CompletionStage<CrearBonoResponse> crearBonoAsync(CrearBonoRequest request,
+                                                                 HeaderContext headerContext) {
+            calls.incrementAndGet();
+            idTransacciones.add(headerContext.idTransaccion().orElse("-"));
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            CompletableFuture<CrearBonoResponse> future = new CompletableFuture<>();
+            scheduler.schedule(() -> {
+                inFlight.decrementAndGet();
+                if (request.getNombre().contains("FALLA")) {
+                    future.completeExceptionally(new BonoTimeoutException("Tiempo agotado"));
+                } else {
+                    CrearBonoResponse response = new CrearBonoResponse();
+                    response.setCodigoRespuesta("00");
+                    response.setNumeroBono("B" + request.getNumeroDocumento());
+                    future.complete(response);
+                }
+            }, 5 + calls.get() % 10, TimeUnit.MILLISECONDS);
+            return future;
+        }
+
+        @Override
+        public CompletionStage<RecuperarBonoResponse> recuperarBonoAsync(RecuperarBonoRequest request,
+                                                                         HeaderContext headerContext) {
+            calls.incrementAndGet();
+            idTransacciones.add(headerContext.idTransaccion().orElse("-"));
+            deadlines.add(headerContext.deadline().expiresAt());
+            consultas.computeIfAbsent(request.getNumeroDocumento(), ignored -> new AtomicInteger()).incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            CompletableFuture<RecuperarBonoResponse> future = new CompletableFuture<>();
+            scheduler.schedule(() -> {
+                inFlight.decrementAndGet();
+                if (request.getNumeroDocumento().endsWith("13")) {
+                    future.completeExceptionally(new BonoBusinessException("E11", "Sin bonos, \"consulta\" vacía",
+                            404));
+                } else {
+                    RecuperarBonoResponse response = new RecuperarBonoResponse();
+                    response.setCodigoRespuesta("00");
+                    List<Bono> bonos = new ArrayList<>();
+                    for (int i = 0; i < (request.getNumeroDocumento().endsWith("77") ? 0 : 2); i++) {
+                        Bono bono = new Bono();
+                        bono.setNumero("B" + request.getNumeroDocumento() + i);
+                        bono.setValor(1000L + i);
+                        bonos.add(bono);
+                    }
+                    response.setBonos(bonos);
+                    future.complete(response);
+                }
+            }, "999999".equals(request.getNumeroDocumento()) ? 2000 : 20, TimeUnit.MILLISECONDS);
+            return future;
+        }
+
+        @Override
+        public CompletionStage<ActivarBonoResponse> activarBonoAsync(ActivarBonoRequest request,
+                                                                     HeaderContext headerContext) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CrearBonoResponse crearBono(CrearBonoRequest request, HeaderContext headerContext) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ActivarBonoResponse activarBono(ActivarBonoRequest request, HeaderContext headerContext) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public RecuperarBonoResponse recuperarBono(RecuperarBonoRequest request, HeaderContext headerContext) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Registra las operaciones que se loguean como éxito y como error.
+     */
+    static final class RecordingLogger extends RequestResponseLogger {
+
+        final List<String> successes = new CopyOnWriteArrayList<>();
+        final List<String> errors = new CopyOnWriteArrayList<>();
+
+        RecordingLogger(ObjectMapper objectMapper) {
+            super(objectMapper);
+        }
+
+        @Override
+        public void logSuccess(String operation, HeaderContext headerContext, Object request, Object response,
+                               OffsetDateTime start, OffsetDateTime end) {
+            successes.add(operation);
+            super.logSuccess(operation, headerContext, request, response, start, end);
+        }
+
+        @Override
+        public void logError(String operation, HeaderContext headerContext, Object request, Object response,
+                             OffsetDateTime start, OffsetDateTime end, Throwable error) {
+            errors.add(operation);
+            super.logError(operation, headerContext, request, response, start, end, error);
+        }
+    }
+
+    static final class NoViolations implements Validator {
+
+        @Override
+        public <T> Set<ConstraintViolation<T>> validate(T object, Class<?>... groups) {
+            return Set.of();
+        }
+
+        @Override
+        public <T> Set<ConstraintViolation<T>> validateProperty(T object, String propertyName, Class<?>... groups) {
+            return Set.of();
+        }
+
+        @Override
+        public <T> Set<ConstraintViolation<T>> validateValue(Class<T> beanType, String propertyName, Object value,
+                                                             Class<?>... groups) {
+            return Set.of();
+        }
+
+        @Override
+        public BeanDescriptor getConstraintsForClass(Class<?> clazz) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> type) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ExecutableValidator forExecutables() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
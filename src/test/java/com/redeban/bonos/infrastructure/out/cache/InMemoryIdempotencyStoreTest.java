@@ -0,0 +1,206 @@
+package com.redeban.bonos.infrastructure.out.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.redeban.bonos.domain.exception.BonoTechnicalException;
+import com.redeban.bonos.domain.exception.BonoTimeoutException;
+import com.redeban.bonos.domain.model.Deadline;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.TestProperties;
+
+/**
+ * {@link InMemoryIdempotencyStore}: una sola ejecución por clave, errores que liberan la clave, ventana y
+ * tamaño.
+ */
+class InMemoryIdempotencyStoreTest {
+
+    private static final Deadline NONE = Deadline.none();
+
+    private final Map<String, String> properties = new HashMap<>(Map.of(
+            "bonos.idempotency.enabled", "true",
+            "bonos.idempotency.max-size", "3",
+            "bonos.idempotency.window", "PT30S"));
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void replaysTheStoredResponse() {
+        InMemoryIdempotencyStore store = store();
+        AtomicInteger calls = new AtomicInteger();
+
+        String first = store.execute("activar", "k1", NONE, () -> "r" + calls.incrementAndGet());
+        String second = store.execute("activar", "k1", NONE, () -> "r" + calls.incrementAndGet());
+        String otra = store.execute("crear", "k1", NONE, () -> "c" + calls.incrementAndGet());
+
+        Assertions.assertEquals("r1", first);
+        Assertions.assertEquals("r1", second);
+        Assertions.assertEquals("c2", otra);
+    }
+
+    @Test
+    void concurrentDuplicatesShareOneCall() throws Exception {
+        InMemoryIdempotencyStore store = store();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        List<Future<String>> results = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> store.execute("activar", "k2", NONE, () -> {
+                calls.incrementAndGet();
+                await(release);
+                return "x";
+            })));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            Assertions.assertEquals("x", result.get(5, TimeUnit.SECONDS));
+        }
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    void failureReachesTheDuplicateAndReleasesTheKey() throws Exception {
+        InMemoryIdempotencyStore store = store();
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> original = executor.submit(() -> store.execute("activar", "k3", NONE, () -> {
+            await(release);
+            throw new BonoTechnicalException("fallo", 503);
+        }));
+        Thread.sleep(50);
+        Future<String> duplicate = executor.submit(() -> store.execute("activar", "k3", NONE, () -> "no"));
+        Thread.sleep(50);
+        release.countDown();
+
+        ExecutionException error = Assertions.assertThrows(ExecutionException.class,
+                () -> duplicate.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(503, ((BonoTechnicalException) error.getCause()).getHttpStatus());
+        Assertions.assertThrows(ExecutionException.class, () -> original.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals("retry", store.execute("activar", "k3", NONE, () -> "retry"));
+    }
+
+    @Test
+    void errorReleasesTheKeyAndDoesNotHangDuplicates() throws Exception {
+        InMemoryIdempotencyStore store = store();
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> original = executor.submit(() -> store.execute("activar", "k4", NONE, () -> {
+            await(release);
+            throw new StackOverflowError("profundidad");
+        }));
+        Thread.sleep(50);
+        Future<String> duplicate = executor.submit(() -> store.execute("activar", "k4", NONE, () -> "no"));
+        Thread.sleep(50);
+        release.countDown();
+
+        ExecutionException originalError = Assertions.assertThrows(ExecutionException.class,
+                () -> original.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(originalError.getCause() instanceof StackOverflowError);
+        Assertions.assertThrows(ExecutionException.class, () -> duplicate.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals("retry", store.execute("activar", "k4", NONE, () -> "retry"));
+    }
+
+    @Test
+    void duplicateHonoursItsDeadline() throws InterruptedException {
+        InMemoryIdempotencyStore store = store();
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> store.execute("activar", "k5", NONE, () -> {
+            await(release);
+            return "y";
+        }));
+        Thread.sleep(50);
+
+        Assertions.assertThrows(BonoTimeoutException.class, () -> store.execute("activar", "k5",
+                Deadline.at(Instant.now().plusMillis(50)), () -> "no"));
+        release.countDown();
+    }
+
+    @Test
+    void asyncDuplicateSharesTheStage() throws Exception {
+        InMemoryIdempotencyStore store = store();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletionStage<String> first = store.executeAsync("crear", "k6", () -> pending);
+        CompletionStage<String> second = store.executeAsync("crear", "k6",
+                () -> CompletableFuture.completedFuture("no"));
+        pending.complete("z");
+
+        Assertions.assertEquals("z", first.toCompletableFuture().get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals("z", second.toCompletableFuture().get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void asyncFailuresAreNotStored() throws Exception {
+        InMemoryIdempotencyStore store = store();
+
+        CompletionStage<String> failed = store.executeAsync("crear", "k7",
+                () -> CompletableFuture.failedFuture(new BonoTimeoutException("t")));
+        CompletionStage<String> thrown = store.executeAsync("crear", "k8", () -> {
+            throw new AssertionError("al crear la etapa");
+        });
+
+        Assertions.assertThrows(ExecutionException.class, () -> failed.toCompletableFuture().get());
+        ExecutionException error = Assertions.assertThrows(ExecutionException.class,
+                () -> thrown.toCompletableFuture().get());
+        Assertions.assertTrue(error.getCause() instanceof AssertionError);
+        Assertions.assertEquals("ok", store.executeAsync("crear", "k7",
+                () -> CompletableFuture.completedFuture("ok")).toCompletableFuture().get());
+        Assertions.assertEquals("ok", store.executeAsync("crear", "k8",
+                () -> CompletableFuture.completedFuture("ok")).toCompletableFuture().get());
+    }
+
+    @Test
+    void expiresAfterTheWindow() throws InterruptedException {
+        properties.put("bonos.idempotency.window", "PT0.2S");
+        InMemoryIdempotencyStore store = store();
+        store.execute("activar", "k9", NONE, () -> "viejo");
+        Thread.sleep(250);
+
+        Assertions.assertEquals("nuevo", store.execute("activar", "k9", NONE, () -> "nuevo"));
+    }
+
+    @Test
+    void evictsTheEldestBeyondMaxSize() {
+        InMemoryIdempotencyStore store = store();
+        for (int i = 0; i < 6; i++) {
+            store.execute("activar", "s" + i, NONE, () -> "v");
+        }
+
+        Assertions.assertEquals("otra", store.execute("activar", "s0", NONE, () -> "otra"));
+        Assertions.assertEquals("v", store.execute("activar", "s5", NONE, () -> "otra"));
+    }
+
+    private InMemoryIdempotencyStore store() {
+        return new InMemoryIdempotencyStore(TestProperties.of(GestionBonosProperties.class, properties),
+                new SimpleMeterRegistry());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
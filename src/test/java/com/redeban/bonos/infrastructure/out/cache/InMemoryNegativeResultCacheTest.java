@@ -0,0 +1,224 @@
+package com.redeban.bonos.infrastructure.out.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.redeban.bonos.domain.exception.BonoBusinessException;
+import com.redeban.bonos.domain.model.ActivarBonoRequest;
+import com.redeban.bonos.domain.model.ActivarBonoResponse;
+import com.redeban.bonos.domain.model.Bono;
+import com.redeban.bonos.domain.model.CrearBonoRequest;
+import com.redeban.bonos.domain.model.CrearBonoResponse;
+import com.redeban.bonos.domain.model.RecuperarBonoRequest;
+import com.redeban.bonos.domain.model.RecuperarBonoResponse;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.TestProperties;
+
+/**
+ * {@link InMemoryNegativeResultCache} con los códigos de dos caracteres de AUBONB1.
+ */
+class InMemoryNegativeResultCacheTest {
+
+    private final Map<String, String> properties = new HashMap<>(Map.of(
+            "bonos.cache.negativo.enabled", "true",
+            "bonos.cache.negativo.max-size", "3",
+            "bonos.cache.negativo.E11.ttl", "PT30S",
+            "bonos.cache.negativo.E12.ttl", "PT30S"));
+
+    @Test
+    void sinResultadosIsStoredByHolder() {
+        InMemoryNegativeResultCache cache = cache();
+
+        Assertions.assertTrue(cache.find(recuperar("1")).isEmpty());
+        cache.record(recuperar("1"), response("11"), cache.version());
+
+        RecuperarBonoResponse hit = cache.find(recuperar("0001")).orElseThrow();
+        Assertions.assertEquals("11", hit.getCodigoRespuesta());
+        Assertions.assertEquals("descripción 11", hit.getDescripcionRespuesta());
+        Assertions.assertTrue(hit.getBonos().isEmpty());
+    }
+
+    @Test
+    void onlyTheHostCodeWithoutBonosIsStored() {
+        InMemoryNegativeResultCache cache = cache();
+
+        cache.record(recuperar("2"), response("00"), cache.version());
+        cache.record(recuperar("3"), response("11", "7700123400000000001"), cache.version());
+        cache.record(recuperar("4"), response("E11"), cache.version());
+
+        Assertions.assertTrue(cache.find(recuperar("2")).isEmpty());
+        Assertions.assertTrue(cache.find(recuperar("3")).isEmpty());
+        Assertions.assertTrue(cache.find(recuperar("4")).isEmpty());
+    }
+
+    @Test
+    void hostCodesComeFromConfiguration() {
+        properties.put("bonos.codigo.host.sin-resultados", "NR");
+        properties.put("bonos.codigo.host.comercio-bloqueado", "CB");
+        InMemoryNegativeResultCache cache = cache();
+
+        cache.record(recuperar("1"), response("11"), cache.version());
+        cache.record(recuperar("2"), response("NR"), cache.version());
+        cache.record(crear("1"), crearResponse("12"));
+        cache.record(activar(" 800 "), activarResponse("CB"));
+
+        Assertions.assertTrue(cache.find(recuperar("1")).isEmpty());
+        Assertions.assertTrue(cache.find(recuperar("2")).isPresent());
+        Assertions.assertTrue(cache.find(crear("1")).isEmpty());
+        Assertions.assertTrue(cache.find(crear("1", "800")).isPresent());
+    }
+
+    @Test
+    void crearInvalidatesSinResultados() {
+        InMemoryNegativeResultCache cache = cache();
+        cache.record(recuperar("1"), response("11"), cache.version());
+        long version = cache.version();
+
+        cache.invalidate(crear("4"));
+        cache.record(recuperar("4"), response("11"), version);
+        cache.invalidate(crear("1"));
+
+        Assertions.assertTrue(cache.find(recuperar("4")).isEmpty());
+        Assertions.assertTrue(cache.find(recuperar("1")).isEmpty());
+    }
+
+    @Test
+    void comercioBloqueadoIsSharedByCrearAndActivar() {
+        InMemoryNegativeResultCache cache = cache();
+
+        cache.record(crear("1"), crearResponse(" 12 "));
+
+        Assertions.assertEquals("descripción  12 ", cache.find(activar(" 900 ")).map(
+                ActivarBonoResponse::getDescripcionRespuesta).orElseThrow());
+        Assertions.assertTrue(cache.find(crear("9")).isPresent());
+    }
+
+    @Test
+    void expiresWithTheTtlOfEachCode() throws InterruptedException {
+        properties.put("bonos.cache.negativo.E11.ttl", "PT0.2S");
+        properties.put("bonos.cache.negativo.E12.ttl", "PT0.4S");
+        InMemoryNegativeResultCache cache = cache();
+        cache.record(recuperar("5"), response("11"), cache.version());
+        cache.record(crear("5"), crearResponse("12"));
+
+        Thread.sleep(250);
+        Assertions.assertTrue(cache.find(recuperar("5")).isEmpty());
+        Assertions.assertTrue(cache.find(crear("5")).isPresent());
+        Thread.sleep(200);
+        Assertions.assertTrue(cache.find(crear("5")).isEmpty());
+    }
+
+    @Test
+    void zeroTtlDisablesTheCode() {
+        properties.put("bonos.cache.negativo.E11.ttl", "PT0S");
+        InMemoryNegativeResultCache cache = cache();
+
+        cache.record(recuperar("1"), response("11"), cache.version());
+        cache.record(crear("1"), crearResponse("12"));
+
+        Assertions.assertTrue(cache.find(recuperar("1")).isEmpty());
+        Assertions.assertTrue(cache.find(crear("1")).isPresent());
+    }
+
+    @Test
+    void evictsTheEldestBeyondMaxSize() {
+        InMemoryNegativeResultCache cache = cache();
+        for (int i = 0; i < 5; i++) {
+            cache.record(recuperar("9" + i), response("11"), cache.version());
+        }
+
+        Assertions.assertTrue(cache.find(recuperar("90")).isEmpty());
+        Assertions.assertTrue(cache.find(recuperar("94")).isPresent());
+    }
+
+    @Test
+    void purgesByCodeAndNit() {
+        InMemoryNegativeResultCache cache = cache();
+        cache.record(crear("1"), crearResponse("12"));
+        cache.record(crear("1", "777"), crearResponse("12"));
+        cache.record(recuperar("1"), response("11"), cache.version());
+
+        Assertions.assertEquals(1, cache.purge("E12", "900"));
+        Assertions.assertTrue(cache.find(crear("1")).isEmpty());
+        Assertions.assertTrue(cache.find(crear("1", "777")).isPresent());
+        Assertions.assertEquals(2, cache.purge(null, null));
+
+        BonoBusinessException error = Assertions.assertThrows(BonoBusinessException.class,
+                () -> cache.purge("E99", null));
+        Assertions.assertEquals("E01", error.getCodigo());
+        Assertions.assertEquals(400, error.getHttpStatus());
+    }
+
+    private InMemoryNegativeResultCache cache() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        GestionBonosProperties gestionBonos = TestProperties.of(GestionBonosProperties.class, properties);
+        return new InMemoryNegativeResultCache(gestionBonos, TestProperties.settings(gestionBonos, meterRegistry),
+                meterRegistry);
+    }
+
+    private static RecuperarBonoRequest recuperar(String numeroDocumento) {
+        RecuperarBonoRequest request = new RecuperarBonoRequest();
+        request.setBin("457812");
+        request.setSubtipo("001");
+        request.setNit("900");
+        request.setTipoDocumento("CC");
+        request.setNumeroDocumento(numeroDocumento);
+        return request;
+    }
+
+    private static RecuperarBonoResponse response(String codigoRespuesta, String... numeros) {
+        RecuperarBonoResponse response = new RecuperarBonoResponse();
+        response.setCodigoRespuesta(codigoRespuesta);
+        response.setDescripcionRespuesta("descripción " + codigoRespuesta);
+        List<Bono> bonos = new ArrayList<>();
+        for (String numero : numeros) {
+            Bono bono = new Bono();
+            bono.setNumero(numero);
+            bonos.add(bono);
+        }
+        response.setBonos(bonos);
+        return response;
+    }
+
+    private static CrearBonoRequest crear(String numeroDocumento) {
+        return crear(numeroDocumento, "900");
+    }
+
+    private static CrearBonoRequest crear(String numeroDocumento, String nit) {
+        CrearBonoRequest request = new CrearBonoRequest();
+        request.setBin("457812");
+        request.setSubtipo("001");
+        request.setNit(nit);
+        request.setTipoDocumento("CC");
+        request.setNumeroDocumento(numeroDocumento);
+        return request;
+    }
+
+    private static CrearBonoResponse crearResponse(String codigoRespuesta) {
+        CrearBonoResponse response = new CrearBonoResponse();
+        response.setCodigoRespuesta(codigoRespuesta);
+        response.setDescripcionRespuesta("descripción " + codigoRespuesta);
+        return response;
+    }
+
+    private static ActivarBonoRequest activar(String nit) {
+        ActivarBonoRequest request = new ActivarBonoRequest();
+        request.setBin("457812");
+        request.setSubtipo("001");
+        request.setNit(nit);
+        return request;
+    }
+
+    private static ActivarBonoResponse activarResponse(String codigoRespuesta) {
+        ActivarBonoResponse response = new ActivarBonoResponse();
+        response.setCodigoRespuesta(codigoRespuesta);
+        response.setDescripcionRespuesta("descripción " + codigoRespuesta);
+        return response;
+    }
+}
@@ -0,0 +1,200 @@
+package com.redeban.bonos.infrastructure.out.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.redeban.bonos.domain.model.ActivarBonoRequest;
+import com.redeban.bonos.domain.model.ActivarBonoResponse;
+import com.redeban.bonos.domain.model.Bono;
+import com.redeban.bonos.domain.model.CacheDirectives;
+import com.redeban.bonos.domain.model.CrearBonoRequest;
+import com.redeban.bonos.domain.model.RecuperarBonoRequest;
+import com.redeban.bonos.domain.model.RecuperarBonoResponse;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.TestProperties;
+
+/**
+ * {@link InMemoryRecuperarBonoCache}: aciertos, directivas, vencimiento, tamaño e invalidación, incluida la
+ * consulta que empezó antes de una invalidación y termina después.
+ */
+class InMemoryRecuperarBonoCacheTest {
+
+    private static final CacheDirectives NONE = CacheDirectives.none();
+
+    private final Map<String, String> properties = new HashMap<>(Map.of(
+            "bonos.cache.recuperar.enabled", "true",
+            "bonos.cache.recuperar.max-size", "3",
+            "bonos.cache.recuperar.ttl", "PT30S"));
+
+    @Test
+    void storesCopiesByHolder() {
+        InMemoryRecuperarBonoCache cache = cache();
+
+        Assertions.assertTrue(cache.find(request("1234567"), NONE).isEmpty());
+        cache.store(request("1234567"), response("B1", "B2"), NONE, cache.version());
+
+        RecuperarBonoResponse hit = cache.find(request("0001234567"), NONE).orElseThrow();
+        hit.getBonos().get(0).setValor(5L);
+        Assertions.assertEquals(Long.valueOf(100), cache.find(request("1234567"), NONE).orElseThrow().getBonos()
+                .get(0).getValor());
+        Assertions.assertEquals("00", hit.getCodigoRespuesta());
+    }
+
+    @Test
+    void honoursCacheControl() throws InterruptedException {
+        InMemoryRecuperarBonoCache cache = cache();
+        cache.store(request("1234567"), response("B1"), NONE, cache.version());
+        cache.store(request("2222222"), response("F1"), CacheDirectives.of(false, true, null), cache.version());
+        cache.store(request("3333333"), response(), NONE, cache.version());
+        Thread.sleep(20);
+
+        Assertions.assertTrue(cache.find(request("1234567"), CacheDirectives.of(true, false, null)).isEmpty());
+        Assertions.assertTrue(cache.find(request("1234567"), CacheDirectives.of(false, false, Duration.ofMillis(5)))
+                .isEmpty());
+        Assertions.assertTrue(cache.find(request("1234567"), CacheDirectives.of(false, false, Duration.ofSeconds(5)))
+                .isPresent());
+        Assertions.assertTrue(cache.find(request("2222222"), NONE).isEmpty());
+        Assertions.assertTrue(cache.find(request("3333333"), NONE).isEmpty());
+    }
+
+    @Test
+    void expiresAfterTtl() throws InterruptedException {
+        properties.put("bonos.cache.recuperar.ttl", "PT0.2S");
+        InMemoryRecuperarBonoCache cache = cache();
+        cache.store(request("1234567"), response("B1"), NONE, cache.version());
+
+        Assertions.assertTrue(cache.find(request("1234567"), NONE).isPresent());
+        Thread.sleep(250);
+        Assertions.assertTrue(cache.find(request("1234567"), NONE).isEmpty());
+    }
+
+    @Test
+    void evictsTheEldestBeyondMaxSize() {
+        InMemoryRecuperarBonoCache cache = cache();
+        for (int i = 0; i < 5; i++) {
+            cache.store(request("900000" + i), response("X" + i), NONE, cache.version());
+        }
+
+        Assertions.assertTrue(cache.find(request("9000000"), NONE).isEmpty());
+        Assertions.assertTrue(cache.find(request("9000001"), NONE).isEmpty());
+        Assertions.assertTrue(cache.find(request("9000004"), NONE).isPresent());
+    }
+
+    @Test
+    void disabledStoresNothing() {
+        properties.put("bonos.cache.recuperar.enabled", "false");
+        InMemoryRecuperarBonoCache cache = cache();
+        cache.store(request("1234567"), response("B1"), NONE, cache.version());
+
+        Assertions.assertTrue(cache.find(request("1234567"), NONE).isEmpty());
+    }
+
+    @Test
+    void activarInvalidatesByBonoAndByHolder() {
+        InMemoryRecuperarBonoCache cache = cache();
+        cache.store(request("1234567"), response("B1", "B2"), NONE, cache.version());
+        cache.store(request("1111111"), response("E1"), NONE, cache.version());
+
+        cache.invalidate(activar(" B2 "), null);
+        ActivarBonoResponse activada = new ActivarBonoResponse();
+        activada.setTipoDocumento("CC");
+        activada.setNumeroDocumento("000000001111111");
+        cache.invalidate(activar("ZZ"), activada);
+
+        Assertions.assertTrue(cache.find(request("1234567"), NONE).isEmpty());
+        Assertions.assertTrue(cache.find(request("1111111"), NONE).isEmpty());
+    }
+
+    @Test
+    void queryStartedBeforeCrearIsNotStored() {
+        InMemoryRecuperarBonoCache cache = cache();
+        long version = cache.version();
+
+        cache.invalidate(crear("1234567"));
+        cache.store(request("1234567"), response("B1"), NONE, version);
+        cache.store(request("7654321"), response("C1"), NONE, version);
+
+        Assertions.assertTrue(cache.find(request("1234567"), NONE).isEmpty());
+        Assertions.assertTrue(cache.find(request("7654321"), NONE).isPresent());
+    }
+
+    @Test
+    void queryStartedBeforeActivarIsNotStored() {
+        InMemoryRecuperarBonoCache cache = cache();
+        long version = cache.version();
+
+        cache.invalidate(activar("D1"), null);
+        cache.store(request("5555555"), response("D1"), NONE, version);
+
+        Assertions.assertTrue(cache.find(request("5555555"), NONE).isEmpty());
+    }
+
+    @Test
+    void prunedTombstonesRejectOlderQueries() {
+        InMemoryRecuperarBonoCache cache = cache();
+        long old = cache.version();
+        for (int i = 0; i < 10; i++) {
+            cache.invalidate(crear("8" + i));
+        }
+
+        cache.store(request("4444444"), response("G1"), NONE, old);
+        cache.store(request("4444445"), response("G2"), NONE, cache.version());
+
+        Assertions.assertTrue(cache.find(request("4444444"), NONE).isEmpty());
+        Assertions.assertTrue(cache.find(request("4444445"), NONE).isPresent());
+    }
+
+    private InMemoryRecuperarBonoCache cache() {
+        return new InMemoryRecuperarBonoCache(TestProperties.of(GestionBonosProperties.class, properties),
+                new SimpleMeterRegistry());
+    }
+
+    private static RecuperarBonoRequest request(String numeroDocumento) {
+        RecuperarBonoRequest request = new RecuperarBonoRequest();
+        request.setBin("457812");
+        request.setSubtipo("001");
+        request.setNit("900123456");
+        request.setTipoDocumento("CC");
+        request.setNumeroDocumento(numeroDocumento);
+        return request;
+    }
+
+    private static RecuperarBonoResponse response(String... numeros) {
+        RecuperarBonoResponse response = new RecuperarBonoResponse();
+        response.setCodigoRespuesta("00");
+        List<Bono> bonos = new ArrayList<>();
+        for (String numero : numeros) {
+            Bono bono = new Bono();
+            bono.setNumero(numero);
+            bono.setValor(100L);
+            bonos.add(bono);
+        }
+        response.setBonos(bonos);
+        return response;
+    }
+
+    private static ActivarBonoRequest activar(String numeroBono) {
+        ActivarBonoRequest request = new ActivarBonoRequest();
+        request.setBin("457812");
+        request.setSubtipo("001");
+        request.setNit("900123456");
+        request.setNumeroBono(numeroBono);
+        return request;
+    }
+
+    private static CrearBonoRequest crear(String numeroDocumento) {
+        CrearBonoRequest request = new CrearBonoRequest();
+        request.setBin("457812");
+        request.setSubtipo("001");
+        request.setNit("900123456");
+        request.setTipoDocumento("CC");
+        request.setNumeroDocumento(numeroDocumento);
+        return request;
+    }
+}
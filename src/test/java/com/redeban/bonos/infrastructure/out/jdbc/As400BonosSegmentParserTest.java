@@ -0,0 +1,137 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.redeban.bonos.domain.model.Bono;
+
+/**
+ * Compara {@link As400BonosSegmentParser}, leído desde la vista de la trama, con el armado original por
+ * {@code split(";")} y {@code split(",")}.
+ */
+class As400BonosSegmentParserTest {
+
+    private final As400TramaDecoder decoder = BundledLayout.load().decoder(As400Operation.RECUPERAR);
+
+    @Test
+    void matchesSplitMapping() {
+        List<String> segments = List.of(
+                "",
+                "   ",
+                "7700123400000000001,150000",
+                "7700123400000000001,150000;7700123400000000002,2500000",
+                "7700123400000000001,150000;",
+                "7700123400000000001,150000;;;7700123400000000002,2500000;",
+                ";7700123400000000001,150000",
+                "  7700123400000000001 ,150000  ;  7700123400000000002,2500000  ",
+                "123,",
+                "123,;456,78900",
+                "123,,5",
+                "123,,",
+                ",5",
+                ",500",
+                "123,5",
+                "123,4500,99",
+                "123",
+                "123;456,100",
+                "   ;  ;",
+                "123,0000000000000012345");
+        for (String segment : segments) {
+            String trama = trama(segment);
+
+            Assertions.assertEquals(describe(legacy(trama)), describe(parse(trama)), () -> "'" + segment + "'");
+        }
+    }
+
+    @Test
+    void readsFiftyBonos() {
+        StringBuilder segment = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            segment.append(String.format("7700%06d,%d00;", i, i * 1000));
+        }
+        String trama = trama(segment.toString());
+
+        List<Bono> bonos = parse(trama);
+
+        Assertions.assertEquals(50, bonos.size());
+        Assertions.assertEquals(describe(legacy(trama)), describe(bonos));
+        Assertions.assertEquals("7700000049", bonos.get(49).getNumero());
+        Assertions.assertEquals(Long.valueOf(49000), bonos.get(49).getValor());
+    }
+
+    @Test
+    void onlyCentsIsZero() {
+        List<Bono> bonos = parse(trama("123,00;456,100"));
+
+        Assertions.assertEquals(List.of("123=0", "456=1"), describe(bonos));
+        Assertions.assertEquals(List.of("123=0"), describe(parse(trama("123,45"))));
+        // El armado con split no soportaba este caso.
+        Assertions.assertThrows(NumberFormatException.class, () -> legacy(trama("123,00")));
+        Assertions.assertThrows(NumberFormatException.class, () -> legacy(trama("123,45")));
+    }
+
+    @Test
+    void nonNumericValueIsMalformed() {
+        for (String segment : List.of("123,ABC00", "123,12A00", "7700,1500;123, 500", "123,-5", "123,0A",
+                "123,x0")) {
+            As400BonosSegmentParser.MalformedEntryException error = Assertions.assertThrows(
+                    As400BonosSegmentParser.MalformedEntryException.class, () -> parse(trama(segment)), segment);
+
+            Assertions.assertTrue(error.getMessage().contains("no es numérico"), error.getMessage());
+        }
+    }
+
+    @Test
+    void reportsTheMalformedRegistro() {
+        As400BonosSegmentParser.MalformedEntryException error = Assertions.assertThrows(
+                As400BonosSegmentParser.MalformedEntryException.class,
+                () -> parse(trama("7700,1500;;7701,ABC00")));
+
+        Assertions.assertTrue(error.getMessage().startsWith("registro 3 "), error.getMessage());
+    }
+
+    private List<Bono> parse(String trama) {
+        return decoder.view(trama).read(As400TramaField.BONOS, As400BonosSegmentParser::parse);
+    }
+
+    /**
+     * Trama de salida de recuperarBono con {@code segment} en la posición de los bonos.
+     */
+    private static String trama(String segment) {
+        return StringUtils.rightPad("BO002003" + "20240101120000" + StringUtils.repeat(' ', 24) + "00", 160)
+                + StringUtils.rightPad(segment, 1299) + StringUtils.repeat(' ', 565);
+    }
+
+    /**
+     * Armado original de {@code As400StoredProcedureClient#mapRecuperarResultado}.
+     */
+    private static List<Bono> legacy(String resultado) {
+        String bonosSegment = StringUtils.trimToNull(StringUtils.substring(resultado, 160, 1459));
+        List<Bono> bonos = new ArrayList<>();
+        if (StringUtils.isNotBlank(bonosSegment)) {
+            for (String registro : bonosSegment.split(";")) {
+                if (StringUtils.isBlank(registro)) {
+                    continue;
+                }
+                String[] data = registro.split(",");
+                if (data.length >= 2) {
+                    Bono bono = new Bono();
+                    bono.setNumero(StringUtils.trimToNull(data[0]));
+                    String valor = data[1];
+                    if (valor != null && valor.length() >= 2) {
+                        bono.setValor(Long.valueOf(valor.substring(0, valor.length() - 2)));
+                    }
+                    bonos.add(bono);
+                }
+            }
+        }
+        return bonos;
+    }
+
+    private static List<String> describe(List<Bono> bonos) {
+        return bonos.stream().map(bono -> bono.getNumero() + "=" + bono.getValor()).toList();
+    }
+}
@@ -0,0 +1,112 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import java.time.Instant;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.redeban.bonos.domain.exception.BonoTechnicalException;
+import com.redeban.bonos.domain.exception.BonoTimeoutException;
+import com.redeban.bonos.domain.model.Deadline;
+
+/**
+ * {@link As400CallControl}: la acción de cancelación corre una sola vez y quien la retira sabe si la
+ * cancelación ya la tomó, aun cuando ambas cosas ocurren a la vez.
+ */
+class As400CallControlTest {
+
+    @Test
+    void cancelRunsTheRegisteredActionOnce() {
+        As400CallControl control = new As400CallControl(Deadline.none());
+        AtomicInteger runs = new AtomicInteger();
+        Assertions.assertTrue(control.onCancel(runs::incrementAndGet));
+
+        control.cancel();
+        control.cancel();
+
+        Assertions.assertEquals(1, runs.get());
+        Assertions.assertTrue(control.isCancelled());
+        Assertions.assertFalse(control.clearCancel());
+    }
+
+    @Test
+    void registeringAfterTheCancelIsRefused() {
+        As400CallControl control = new As400CallControl(Deadline.none());
+        control.cancel();
+        AtomicInteger runs = new AtomicInteger();
+
+        Assertions.assertFalse(control.onCancel(runs::incrementAndGet));
+        Assertions.assertEquals(0, runs.get());
+    }
+
+    @Test
+    void clearedActionIsNotRunByALateCancel() {
+        As400CallControl control = new As400CallControl(Deadline.none());
+        AtomicInteger runs = new AtomicInteger();
+        control.onCancel(runs::incrementAndGet);
+
+        Assertions.assertTrue(control.clearCancel());
+        control.cancel();
+
+        Assertions.assertEquals(0, runs.get());
+    }
+
+    @Test
+    void clearCancelTellsWhetherTheRacingCancelTookTheAction() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 5000; i++) {
+                As400CallControl control = new As400CallControl(Deadline.none());
+                AtomicInteger runs = new AtomicInteger();
+                CyclicBarrier start = new CyclicBarrier(2);
+                Future<Boolean> call = executor.submit(() -> {
+                    boolean registered = control.onCancel(runs::incrementAndGet);
+                    start.await();
+                    return registered && control.clearCancel();
+                });
+                Future<?> cancel = executor.submit(() -> {
+                    start.await();
+                    control.cancel();
+                    return null;
+                });
+                boolean cleared = call.get(5, TimeUnit.SECONDS);
+                cancel.get(5, TimeUnit.SECONDS);
+
+                // O la invocación retiró la acción (conexión reutilizable) o la cancelación la ejecutó.
+                Assertions.assertEquals(cleared ? 0 : 1, runs.get(), "iteración " + i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void expiredDeadlineCancellationIsATimeout() {
+        As400CallControl expired = new As400CallControl(Deadline.at(Instant.now().minusMillis(1)));
+        As400CallControl pending = new As400CallControl(Deadline.at(Instant.now().plusSeconds(60)));
+
+        Assertions.assertTrue(expired.cancellationException(null) instanceof BonoTimeoutException);
+        RuntimeException hedgeLoser = pending.cancellationException(null);
+        Assertions.assertFalse(hedgeLoser instanceof BonoTimeoutException);
+        Assertions.assertEquals(500, ((BonoTechnicalException) hedgeLoser).getHttpStatus());
+    }
+
+    @Test
+    void siblingSharesTheDeadlineAndAvoidsTheHost() {
+        Deadline deadline = Deadline.at(Instant.now().plusSeconds(5));
+        As400CallControl primary = new As400CallControl(deadline);
+        primary.assignHost("as400a");
+
+        As400CallControl sibling = primary.sibling();
+
+        Assertions.assertSame(deadline, sibling.deadline());
+        Assertions.assertEquals("as400a", sibling.avoidHost());
+        Assertions.assertNull(primary.avoidHost());
+        Assertions.assertFalse(sibling.isCancelled());
+    }
+}
@@ -0,0 +1,156 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.redeban.bonos.domain.exception.BonoProviderUnavailableException;
+import com.redeban.bonos.infrastructure.camel.common.configs.As400ClientProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.TestProperties;
+
+/**
+ * {@link As400CircuitBreaker}: apertura por proporción de fallos en la ventana y recuperación por la prueba de
+ * conectividad, abierto → semiabierto → cerrado o de vuelta a abierto.
+ */
+class As400CircuitBreakerTest {
+
+    private final Map<String, String> properties = new HashMap<>(Map.of(
+            "bonos.as400.circuit-breaker.recuperar.request-volume-threshold", "4",
+            "bonos.as400.circuit-breaker.recuperar.failure-ratio", "0.5",
+            "bonos.as400.circuit-breaker.recuperar.delay", "PT0.05S"));
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicInteger probes = new AtomicInteger();
+
+    @AfterEach
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void opensWhenTheFullWindowReachesTheFailureRatio() {
+        As400CircuitBreaker breaker = breaker(() -> false);
+
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+        Assertions.assertEquals(As400CircuitBreaker.State.CLOSED, breaker.state());
+        breaker.onSuccess();
+
+        Assertions.assertEquals(As400CircuitBreaker.State.OPEN, breaker.state());
+        Assertions.assertThrows(BonoProviderUnavailableException.class, breaker::checkAllowed);
+    }
+
+    @Test
+    void staysClosedBelowTheFailureRatio() {
+        As400CircuitBreaker breaker = breaker(() -> false);
+
+        for (int i = 0; i < 20; i++) {
+            if (i % 4 == 0) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+        }
+
+        Assertions.assertEquals(As400CircuitBreaker.State.CLOSED, breaker.state());
+        breaker.checkAllowed();
+    }
+
+    @Test
+    void openCircuitGoesHalfOpenAndClosesWhenTheProbeAnswers() throws Exception {
+        CountDownLatch probing = new CountDownLatch(1);
+        CountDownLatch answer = new CountDownLatch(1);
+        As400CircuitBreaker breaker = breaker(() -> {
+            probing.countDown();
+            await(answer);
+            return true;
+        });
+        trip(breaker);
+
+        Assertions.assertTrue(probing.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(As400CircuitBreaker.State.HALF_OPEN, breaker.state());
+        Assertions.assertThrows(BonoProviderUnavailableException.class, breaker::checkAllowed);
+        answer.countDown();
+        As400ConnectionPoolTest.awaitCondition(() -> breaker.state() == As400CircuitBreaker.State.CLOSED);
+
+        breaker.checkAllowed();
+        // La ventana empieza de cero: un fallo aislado no vuelve a abrir.
+        breaker.onFailure();
+        breaker.onFailure();
+        Assertions.assertEquals(As400CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void failedProbeReopensAndTriesAgain() throws Exception {
+        AtomicInteger answers = new AtomicInteger();
+        As400CircuitBreaker breaker = breaker(() -> {
+            int answer = answers.incrementAndGet();
+            if (answer == 1) {
+                throw new IllegalStateException("sin conexión");
+            }
+            return answer > 2;
+        });
+        trip(breaker);
+
+        As400ConnectionPoolTest.awaitCondition(() -> breaker.state() == As400CircuitBreaker.State.CLOSED);
+
+        Assertions.assertEquals(3, probes.get());
+    }
+
+    @Test
+    void outcomesWhileOpenAreIgnored() {
+        properties.put("bonos.as400.circuit-breaker.recuperar.delay", "PT1M");
+        As400CircuitBreaker breaker = breaker(() -> true);
+        trip(breaker);
+
+        for (int i = 0; i < 10; i++) {
+            breaker.onSuccess();
+        }
+
+        Assertions.assertEquals(As400CircuitBreaker.State.OPEN, breaker.state());
+        Assertions.assertEquals(0, probes.get());
+    }
+
+    @Test
+    void disabledBreakerNeverOpens() {
+        properties.put("bonos.as400.circuit-breaker.recuperar.enabled", "false");
+        As400CircuitBreaker breaker = breaker(() -> false);
+
+        trip(breaker);
+
+        Assertions.assertEquals(As400CircuitBreaker.State.CLOSED, breaker.state());
+        breaker.checkAllowed();
+    }
+
+    private As400CircuitBreaker breaker(BooleanSupplier probe) {
+        As400ClientProperties.CircuitBreaker config = TestProperties.of(As400ClientProperties.class, properties)
+                .circuitBreaker().recuperar();
+        return new As400CircuitBreaker(As400Operation.RECUPERAR, config, () -> {
+            probes.incrementAndGet();
+            return probe.getAsBoolean();
+        }, scheduler, new SimpleMeterRegistry());
+    }
+
+    private static void trip(As400CircuitBreaker breaker) {
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.redeban.bonos.domain.exception.BonoProviderUnavailableException;
+import com.redeban.bonos.infrastructure.camel.common.configs.As400ClientProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.TestProperties;
+
+/**
+ * {@link As400ConcurrencyLimiter}: rechazo sobre el límite, crecimiento aditivo, reducción multiplicativa y
+ * cupos que vuelven siempre, también bajo concurrencia.
+ */
+class As400ConcurrencyLimiterTest {
+
+    private final Map<String, String> properties = new HashMap<>(Map.of(
+            "bonos.as400.limiter.initial-limit", "2",
+            "bonos.as400.limiter.min-limit", "1",
+            "bonos.as400.limiter.max-limit", "3"));
+
+    @Test
+    void callsBeyondTheLimitAreRejectedUntilAPermitReturns() {
+        As400ConcurrencyLimiter limiter = limiter();
+        As400ConcurrencyLimiter.Permit first = limiter.acquire();
+        limiter.acquire();
+
+        Assertions.assertThrows(BonoProviderUnavailableException.class, limiter::acquire);
+        Assertions.assertNull(limiter.tryAcquire());
+
+        first.release();
+        Assertions.assertNotNull(limiter.tryAcquire());
+    }
+
+    @Test
+    void limitGrowsByOneWhileItIsInUseUpToTheMaximum() {
+        As400ConcurrencyLimiter limiter = limiter();
+        for (int i = 0; i < 5; i++) {
+            As400ConcurrencyLimiter.Permit first = limiter.acquire();
+            As400ConcurrencyLimiter.Permit second = limiter.acquire();
+            first.success();
+            second.success();
+        }
+
+        Assertions.assertEquals(3, capacity(limiter));
+    }
+
+    @Test
+    void limitDoesNotGrowWithLightTraffic() {
+        properties.put("bonos.as400.limiter.initial-limit", "3");
+        properties.put("bonos.as400.limiter.max-limit", "10");
+        As400ConcurrencyLimiter limiter = limiter();
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire().success();
+        }
+
+        Assertions.assertEquals(3, capacity(limiter));
+    }
+
+    @Test
+    void failuresShrinkTheLimitMultiplicativelyDownToTheMinimum() {
+        properties.put("bonos.as400.limiter.initial-limit", "10");
+        properties.put("bonos.as400.limiter.max-limit", "10");
+        properties.put("bonos.as400.limiter.backoff-ratio", "0.5");
+        As400ConcurrencyLimiter limiter = limiter();
+
+        limiter.acquire().dropped();
+        Assertions.assertEquals(5, capacity(limiter));
+        limiter.acquire().dropped();
+        Assertions.assertEquals(2, capacity(limiter));
+        limiter.acquire().dropped();
+        limiter.acquire().dropped();
+        Assertions.assertEquals(1, capacity(limiter));
+    }
+
+    @Test
+    void slowSuccessShrinksTheLimit() throws InterruptedException {
+        properties.put("bonos.as400.limiter.initial-limit", "10");
+        properties.put("bonos.as400.limiter.max-limit", "10");
+        properties.put("bonos.as400.limiter.latency-threshold", "PT0.01S");
+        As400ConcurrencyLimiter limiter = limiter();
+        As400ConcurrencyLimiter.Permit permit = limiter.acquire();
+
+        Thread.sleep(30);
+        permit.success();
+
+        Assertions.assertEquals(9, capacity(limiter));
+    }
+
+    @Test
+    void releaseLeavesTheLimitUnchanged() {
+        As400ConcurrencyLimiter limiter = limiter();
+
+        limiter.acquire().release();
+        limiter.tryAcquire().release();
+
+        Assertions.assertEquals(2, capacity(limiter));
+    }
+
+    @Test
+    void disabledLimiterNeverRejects() {
+        properties.put("bonos.as400.limiter.enabled", "false");
+        As400ConcurrencyLimiter limiter = limiter();
+
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire();
+        }
+
+        Assertions.assertNotNull(limiter.tryAcquire());
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheLimitNorLoseAPermit() throws Exception {
+        properties.put("bonos.as400.limiter.initial-limit", "5");
+        properties.put("bonos.as400.limiter.min-limit", "5");
+        properties.put("bonos.as400.limiter.max-limit", "5");
+        As400ConcurrencyLimiter limiter = limiter();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    As400ConcurrencyLimiter.Permit permit = thread % 2 == 0
+                            ? tryAcquire(limiter)
+                            : limiter.tryAcquire();
+                    if (permit == null) {
+                        continue;
+                    }
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    inFlight.decrementAndGet();
+                    switch (i % 3) {
+                        case 0 -> permit.success();
+                        case 1 -> permit.dropped();
+                        default -> permit.release();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Assertions.assertTrue(maxInFlight.get() <= 5, () -> "en curso: " + maxInFlight.get());
+        Assertions.assertEquals(5, capacity(limiter));
+    }
+
+    private As400ConcurrencyLimiter limiter() {
+        return new As400ConcurrencyLimiter(TestProperties.of(As400ClientProperties.class, properties).limiter(),
+                new SimpleMeterRegistry());
+    }
+
+    private static As400ConcurrencyLimiter.Permit tryAcquire(As400ConcurrencyLimiter limiter) {
+        try {
+            return limiter.acquire();
+        } catch (BonoProviderUnavailableException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Cupos disponibles en este momento; los toma y los libera sin ajustar el límite.
+     */
+    private static int capacity(As400ConcurrencyLimiter limiter) {
+        List<As400ConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        As400ConcurrencyLimiter.Permit permit;
+        while ((permit = limiter.tryAcquire()) != null) {
+            permits.add(permit);
+        }
+        permits.forEach(As400ConcurrencyLimiter.Permit::release);
+        return permits.size();
+    }
+}
@@ -0,0 +1,267 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.redeban.bonos.domain.exception.BonoTechnicalException;
+import com.redeban.bonos.infrastructure.camel.common.configs.As400DataSourceProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.TestProperties;
+
+/**
+ * {@link As400ConnectionPool} sobre conexiones simuladas: límites y permisos bajo préstamos concurrentes,
+ * conexiones rotas, expulsión de inactivas, keepalive y detección de fugas.
+ */
+class As400ConnectionPoolTest {
+
+    private final Map<String, String> properties = new HashMap<>(Map.of(
+            "bonos.datasource.pool.min-size", "0",
+            "bonos.datasource.pool.max-size", "4",
+            "bonos.datasource.pool.eviction-interval", "PT1S"));
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger closed = new AtomicInteger();
+    private final AtomicBoolean valid = new AtomicBoolean(true);
+    private final AtomicInteger validations = new AtomicInteger();
+    private final List<AtomicBoolean> responding = new CopyOnWriteArrayList<>();
+    private final List<As400ConnectionPool> pools = new ArrayList<>();
+
+    @AfterEach
+    void close() {
+        pools.forEach(As400ConnectionPool::close);
+    }
+
+    @Test
+    void concurrentBorrowersNeverExceedMaxSizeNorLoseAPermit() throws Exception {
+        As400ConnectionPool pool = pool();
+        AtomicInteger borrowed = new AtomicInteger();
+        AtomicInteger maxBorrowed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    As400PooledConnection pooled = pool.borrow(Duration.ofSeconds(5));
+                    maxBorrowed.accumulateAndGet(borrowed.incrementAndGet(), Math::max);
+                    borrowed.decrementAndGet();
+                    // Una de cada cinco vuelve rota y se reemplaza.
+                    pool.release(pooled, ThreadLocalRandom.current().nextInt(5) == 0);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Assertions.assertTrue(maxBorrowed.get() <= 4, () -> "prestadas: " + maxBorrowed.get());
+        Assertions.assertTrue(created.get() - closed.get() <= 4, () -> "abiertas: " + (created.get() - closed.get()));
+        Assertions.assertTrue(closed.get() > 0);
+        List<As400PooledConnection> all = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            all.add(pool.borrow(Duration.ZERO));
+        }
+        Assertions.assertThrows(BonoTechnicalException.class, () -> pool.borrow(Duration.ZERO));
+        all.forEach(pooled -> pool.release(pooled, false));
+        Assertions.assertEquals(4, created.get() - closed.get());
+    }
+
+    @Test
+    void exhaustedPoolTimesOutWith503() {
+        properties.put("bonos.datasource.pool.max-size", "1");
+        As400ConnectionPool pool = pool();
+        As400PooledConnection pooled = pool.borrow(Duration.ZERO);
+
+        BonoTechnicalException error = Assertions.assertThrows(BonoTechnicalException.class,
+                () -> pool.borrow(Duration.ofMillis(50)));
+
+        Assertions.assertEquals(503, error.getHttpStatus());
+        pool.release(pooled, false);
+        pool.release(pool.borrow(Duration.ZERO), false);
+    }
+
+    @Test
+    void releasingTwiceDoesNotAddAPermit() {
+        properties.put("bonos.datasource.pool.max-size", "1");
+        As400ConnectionPool pool = pool();
+        As400PooledConnection pooled = pool.borrow(Duration.ZERO);
+
+        pool.release(pooled, false);
+        pool.release(pooled, true);
+        As400PooledConnection again = pool.borrow(Duration.ZERO);
+
+        Assertions.assertSame(pooled, again);
+        Assertions.assertThrows(BonoTechnicalException.class, () -> pool.borrow(Duration.ZERO));
+        Assertions.assertEquals(0, closed.get());
+    }
+
+    @Test
+    void failingFactoryGivesThePermitBack() {
+        properties.put("bonos.datasource.pool.max-size", "1");
+        As400ConnectionPool pool = pool(() -> {
+            throw new SQLException("host caído");
+        });
+
+        for (int i = 0; i < 3; i++) {
+            BonoTechnicalException error = Assertions.assertThrows(BonoTechnicalException.class,
+                    () -> pool.borrow(Duration.ZERO));
+            Assertions.assertTrue(error.getMessage().startsWith("No fue posible abrir conexión AS400"),
+                    error::getMessage);
+        }
+    }
+
+    @Test
+    void invalidIdleConnectionIsReplacedOnBorrow() {
+        As400ConnectionPool pool = pool();
+        As400PooledConnection first = pool.borrow(Duration.ZERO);
+        pool.release(first, false);
+        valid.set(false);
+
+        As400PooledConnection second = pool.borrow(Duration.ZERO);
+
+        Assertions.assertNotSame(first, second);
+        Assertions.assertEquals(2, created.get());
+        Assertions.assertEquals(1, closed.get());
+    }
+
+    @Test
+    void idleConnectionsAboveTheMinimumAreEvicted() throws Exception {
+        properties.put("bonos.datasource.pool.min-size", "1");
+        properties.put("bonos.datasource.pool.idle-timeout", "PT0.2S");
+        As400ConnectionPool pool = pool();
+        List<As400PooledConnection> all = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            all.add(pool.borrow(Duration.ZERO));
+        }
+        all.forEach(pooled -> pool.release(pooled, false));
+
+        awaitCondition(() -> closed.get() == 2);
+
+        Assertions.assertEquals(1, created.get() - closed.get());
+    }
+
+    @Test
+    void borrowHeldBeyondTheThresholdIsReportedAsALeak() throws Exception {
+        properties.put("bonos.datasource.pool.leak-detection-threshold", "PT0.2S");
+        As400ConnectionPool pool = pool();
+        As400PooledConnection pooled = pool.borrow(Duration.ZERO);
+
+        awaitCondition(pooled::leakReported);
+
+        Assertions.assertEquals(Thread.currentThread().getName(), pooled.borrowedBy());
+        pool.release(pooled, false);
+        As400PooledConnection again = pool.borrow(Duration.ZERO);
+        Assertions.assertFalse(again.leakReported());
+        pool.release(again, false);
+    }
+
+    @Test
+    void keepaliveValidatesQuietIdleConnectionsAndKeepsThem() throws Exception {
+        properties.put("bonos.datasource.pool.min-size", "1");
+        properties.put("bonos.datasource.pool.validate-on-borrow", "false");
+        properties.put("bonos.datasource.pool.keepalive-interval", "PT0.2S");
+        As400ConnectionPool pool = pool();
+        pool.prewarm();
+
+        awaitCondition(() -> validations.get() > 0);
+
+        Assertions.assertEquals(1, created.get());
+        Assertions.assertEquals(0, closed.get());
+        As400PooledConnection pooled = pool.borrow(Duration.ZERO);
+        Assertions.assertTrue(pooled.lastActiveAt() > pooled.lastUsedAt());
+        pool.release(pooled, false);
+    }
+
+    @Test
+    void keepaliveReplacesAConnectionThatStoppedResponding() throws Exception {
+        properties.put("bonos.datasource.pool.min-size", "1");
+        properties.put("bonos.datasource.pool.validate-on-borrow", "false");
+        properties.put("bonos.datasource.pool.keepalive-interval", "PT0.2S");
+        As400ConnectionPool pool = pool();
+        pool.prewarm();
+        responding.get(0).set(false);
+
+        awaitCondition(() -> closed.get() == 1 && created.get() == 2);
+
+        As400PooledConnection pooled = pool.borrow(Duration.ZERO);
+        Assertions.assertTrue(pooled.isValid(1));
+        pool.release(pooled, false);
+    }
+
+    @Test
+    void keepaliveSkipsConnectionsWithRecentTraffic() throws Exception {
+        properties.put("bonos.datasource.pool.min-size", "1");
+        properties.put("bonos.datasource.pool.validate-on-borrow", "false");
+        properties.put("bonos.datasource.pool.keepalive-interval", "PT1M");
+        As400ConnectionPool pool = pool();
+        pool.prewarm();
+
+        Thread.sleep(1300);
+
+        Assertions.assertEquals(0, validations.get());
+    }
+
+    private As400ConnectionPool pool() {
+        return pool(this::connection);
+    }
+
+    private As400ConnectionPool pool(As400ConnectionPool.ConnectionFactory factory) {
+        As400ConnectionPool pool = new As400ConnectionPool("test", factory,
+                TestProperties.of(As400DataSourceProperties.class, properties).pool(), new SimpleMeterRegistry());
+        pools.add(pool);
+        return pool;
+    }
+
+    /**
+     * Conexión que sólo responde a {@code isValid}, {@code isClosed} y {@code close}.
+     */
+    private Connection connection() {
+        created.incrementAndGet();
+        AtomicBoolean open = new AtomicBoolean(true);
+        AtomicBoolean responds = new AtomicBoolean(true);
+        responding.add(responds);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "isValid" -> {
+                        validations.incrementAndGet();
+                        yield open.get() && valid.get() && responds.get();
+                    }
+                    case "isClosed" -> !open.get();
+                    case "close" -> {
+                        if (open.compareAndSet(true, false)) {
+                            closed.incrementAndGet();
+                        }
+                        yield null;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        Assertions.assertTrue(condition.getAsBoolean(), "condición no alcanzada en 5 s");
+    }
+}
@@ -0,0 +1,243 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.redeban.bonos.domain.exception.BonoTimeoutException;
+import com.redeban.bonos.domain.model.Deadline;
+import com.redeban.bonos.infrastructure.camel.common.configs.As400ClientProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.As400DataSourceProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.TestProperties;
+import com.redeban.bonos.infrastructure.in.rest.RestErrorMapper;
+
+/**
+ * {@link As400Connector} sobre transportes simulados: vencimiento del deadline con cancelación de la
+ * invocación en curso y hedging, donde la invocación perdedora devuelve su cupo y descarta su conexión.
+ */
+class As400ConnectorTest {
+
+    private final Map<String, String> properties = new HashMap<>(Map.of(
+            "bonos.as400.limiter.initial-limit", "1",
+            "bonos.as400.limiter.min-limit", "1",
+            "bonos.as400.limiter.max-limit", "1",
+            "bonos.datasource.pool.prewarm", "false"));
+    private final List<As400Connector> connectors = new ArrayList<>();
+    private final AtomicInteger cancels = new AtomicInteger();
+    private final AtomicInteger closedConnections = new AtomicInteger();
+
+    @AfterEach
+    void shutdown() {
+        connectors.forEach(As400Connector::shutdown);
+    }
+
+    @Test
+    void expiredDeadlineCancelsTheStatementAndAnswersE10() {
+        As400ConnectionPool pool = new As400ConnectionPool("test", this::connection,
+                TestProperties.of(As400DataSourceProperties.class, properties).pool(), new SimpleMeterRegistry());
+        As400Connector connector = connector(new JdbcAs400Transport(pool, Duration.ofSeconds(1)));
+        long start = System.nanoTime();
+
+        BonoTimeoutException error = Assertions.assertThrows(BonoTimeoutException.class,
+                () -> connector.execute(As400Operation.RECUPERAR, "BONOS(?, ?)", "trama", in(200)));
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assertions.assertTrue(millis < 2000, () -> "respuesta en " + millis + " ms");
+        Assertions.assertEquals(1, cancels.get());
+        // El cancel() alcanzó la conexión: no vuelve al pool.
+        Assertions.assertEquals(1, closedConnections.get());
+        RestErrorMapper restErrorMapper = new RestErrorMapper(TestProperties.settings(
+                TestProperties.of(GestionBonosProperties.class), new SimpleMeterRegistry()));
+        Assertions.assertEquals("E10", restErrorMapper.toError(error).body().getCodigoError());
+        Assertions.assertEquals(504, restErrorMapper.toError(error).status());
+    }
+
+    @Test
+    void expiredDeadlineGivesTheLimiterPermitBack() {
+        FakeAs400Transport transport = new FakeAs400Transport("fake", 5000);
+        As400Connector connector = connector(transport);
+
+        Assertions.assertThrows(BonoTimeoutException.class,
+                () -> connector.execute(As400Operation.RECUPERAR, "BONOS", "trama", in(100)));
+        transport.latency(0);
+
+        Assertions.assertEquals("trama", connector.execute(As400Operation.RECUPERAR, "BONOS", "trama",
+                Deadline.none()));
+        Assertions.assertEquals(1, transport.discarded());
+        Assertions.assertEquals(2, transport.calls());
+    }
+
+    @Test
+    void deadlineAlreadyExpiredNeverReachesTheHost() {
+        FakeAs400Transport transport = new FakeAs400Transport("fake", 0);
+        As400Connector connector = connector(transport);
+
+        Assertions.assertThrows(BonoTimeoutException.class, () -> connector.execute(As400Operation.CREAR, "BONOS",
+                "trama", Deadline.at(Instant.now().minusMillis(1))));
+
+        Assertions.assertEquals(0, transport.calls());
+    }
+
+    @Test
+    void slowPrimaryIsHedgedAndTheLosingPrimaryGivesItsPermitBack() throws Exception {
+        hedging();
+        FakeAs400Transport transport = new FakeAs400Transport("fake", 0).thenLatencies(5000, 0);
+        As400Connector connector = connector(transport);
+        long start = System.nanoTime();
+
+        String resultado = connector.execute(As400Operation.RECUPERAR, "BONOS", "trama", in(10_000));
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assertions.assertEquals("trama", resultado);
+        Assertions.assertTrue(millis < 2000, () -> "respuesta en " + millis + " ms");
+        Assertions.assertEquals(2, transport.calls());
+        Assertions.assertEquals(1, transport.discarded());
+        assertFullCapacityAndClosedCircuit(connector, transport);
+    }
+
+    @Test
+    void losingHedgeGivesItsPermitBackAndDiscardsItsConnection() throws Exception {
+        hedging();
+        FakeAs400Transport transport = new FakeAs400Transport("fake", 0).thenLatencies(200, 5000);
+        As400Connector connector = connector(transport);
+
+        String resultado = connector.execute(As400Operation.RECUPERAR, "BONOS", "trama", in(10_000));
+        As400ConnectionPoolTest.awaitCondition(() -> transport.inFlight() == 0);
+
+        Assertions.assertEquals("trama", resultado);
+        Assertions.assertEquals(2, transport.calls());
+        Assertions.assertEquals(1, transport.discarded());
+        assertFullCapacityAndClosedCircuit(connector, transport);
+    }
+
+    @Test
+    void fastCallsAreNotHedged() {
+        hedging();
+        FakeAs400Transport transport = new FakeAs400Transport("fake", 0);
+        As400Connector connector = connector(transport);
+
+        for (int i = 0; i < 10; i++) {
+            connector.execute(As400Operation.RECUPERAR, "BONOS", "trama", in(10_000));
+        }
+
+        Assertions.assertEquals(10, transport.calls());
+        Assertions.assertEquals(0, transport.discarded());
+    }
+
+    @Test
+    void writesAreNeverHedged() {
+        hedging();
+        FakeAs400Transport transport = new FakeAs400Transport("fake", 300);
+        As400Connector connector = connector(transport);
+
+        connector.execute(As400Operation.ACTIVAR, "BONOS", "trama", in(10_000));
+
+        Assertions.assertEquals(1, transport.calls());
+    }
+
+    /**
+     * Hedging en recuperar tras 50 ms, con presupuesto para todas las solicitudes, dos cupos fijos y un circuito
+     * que abre con un solo fallo.
+     */
+    private void hedging() {
+        properties.put("bonos.as400.hedge.enabled", "true");
+        properties.put("bonos.as400.hedge.min-delay", "PT0.05S");
+        properties.put("bonos.as400.hedge.max-ratio", "1");
+        properties.put("bonos.as400.limiter.initial-limit", "2");
+        properties.put("bonos.as400.limiter.min-limit", "2");
+        properties.put("bonos.as400.limiter.max-limit", "2");
+        properties.put("bonos.as400.circuit-breaker.recuperar.request-volume-threshold", "1");
+    }
+
+    /**
+     * Dos invocaciones simultáneas sólo caben si ambos cupos volvieron al limitador; la cancelada no cuenta
+     * como fallo del circuito.
+     */
+    private static void assertFullCapacityAndClosedCircuit(As400Connector connector, FakeAs400Transport transport)
+            throws Exception {
+        Assertions.assertEquals(As400CircuitBreaker.State.CLOSED,
+                connector.circuitBreakerStates().get(As400Operation.RECUPERAR));
+        transport.latency(300);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                results.add(executor.submit(() -> connector.execute(As400Operation.ACTIVAR, "BONOS", "trama",
+                        in(10_000))));
+            }
+            for (Future<String> result : results) {
+                Assertions.assertEquals("trama", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private As400Connector connector(As400Transport transport) {
+        As400Connector connector = new As400Connector(TestProperties.of(As400DataSourceProperties.class, properties),
+                TestProperties.of(As400ClientProperties.class, properties), new SimpleMeterRegistry());
+        connectors.add(connector);
+        connector.init();
+        connector.start(transport);
+        return connector;
+    }
+
+    private static Deadline in(long millis) {
+        return Deadline.at(Instant.now().plusMillis(millis));
+    }
+
+    /**
+     * Conexión cuyo procedimiento no responde hasta que se cancela la sentencia.
+     */
+    private Connection connection() {
+        CountDownLatch cancelled = new CountDownLatch(1);
+        CallableStatement statement = (CallableStatement) Proxy.newProxyInstance(
+                CallableStatement.class.getClassLoader(), new Class<?>[] {CallableStatement.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "execute" -> {
+                        cancelled.await(10, TimeUnit.SECONDS);
+                        throw new SQLException("Sentencia cancelada", "HY008");
+                    }
+                    case "cancel" -> {
+                        cancels.incrementAndGet();
+                        cancelled.countDown();
+                        yield null;
+                    }
+                    case "setString", "registerOutParameter", "setQueryTimeout", "close" -> null;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new SQLException("No soportado: " + method.getName());
+                });
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "prepareCall" -> statement;
+                    case "isValid" -> true;
+                    case "isClosed" -> false;
+                    case "close" -> {
+                        closedConnections.incrementAndGet();
+                        yield null;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new SQLException("No soportado: " + method.getName());
+                });
+    }
+}
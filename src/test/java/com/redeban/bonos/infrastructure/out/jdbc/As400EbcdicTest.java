@@ -0,0 +1,213 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.redeban.bonos.domain.model.Bono;
+
+/**
+ * Ida y vuelta de la trama en bytes EBCDIC: {@link As400TramaEncoder#encodeBytes} contra la conversión de la
+ * trama en texto, y {@link As400TramaDecoder#view(byte[], As400Ebcdic)} contra la vista sobre el texto.
+ */
+class As400EbcdicTest {
+
+    private static final int[] CCSIDS = {37, 284};
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-12-31T23:59:59Z"), ZoneOffset.UTC);
+    private static final byte SUBSTITUTE = 0x3F;
+
+    private final As400TramaLayout layout = BundledLayout.load();
+
+    @Test
+    void encodeBytesMatchesConvertedText() {
+        for (int ccsid : CCSIDS) {
+            As400Ebcdic codec = new As400Ebcdic(ccsid);
+            for (As400Operation operation : As400Operation.values()) {
+                As400TramaEncoder encoder = layout.encoder(operation);
+                for (String[] values : samples()) {
+                    As400TramaClock clock = new As400TramaClock(CLOCK);
+
+                    byte[] expected = codec.encode(encoder.encode(clock, values));
+                    byte[] actual = encoder.encodeBytes(clock, values, codec);
+
+                    Assertions.assertArrayEquals(expected, actual,
+                            () -> "ccsid " + ccsid + " " + operation + " " + Arrays.toString(values));
+                }
+            }
+        }
+    }
+
+    @Test
+    void unmappableCharactersBecomeSubstitute() {
+        for (int ccsid : CCSIDS) {
+            As400Ebcdic codec = new As400Ebcdic(ccsid);
+            String[] values = values("ANA 中文 €");
+
+            byte[] trama = layout.encoder(As400Operation.CREAR).encodeBytes(new As400TramaClock(CLOCK), values,
+                    codec);
+
+            Assertions.assertEquals(SUBSTITUTE, trama[159 + 4], "ccsid " + ccsid);
+            Assertions.assertEquals(SUBSTITUTE, trama[159 + 5], "ccsid " + ccsid);
+            Assertions.assertEquals(SUBSTITUTE, trama[159 + 7], "ccsid " + ccsid);
+            Assertions.assertEquals(codec.encode('A'), trama[159]);
+        }
+    }
+
+    @Test
+    void shiftedTramaIsEncodedFromText() {
+        for (int ccsid : CCSIDS) {
+            As400Ebcdic codec = new As400Ebcdic(ccsid);
+            As400TramaEncoder encoder = layout.encoder(As400Operation.CREAR);
+            String[] values = values("MARIA FERNANDA ROJAS PÑZ中");
+
+            byte[] trama = encoder.encodeBytes(new As400TramaClock(CLOCK), values, codec);
+
+            byte[] nombre = Arrays.copyOf(codec.encode("MARIA FERNANDA ROJAS PÑZ"), 25);
+            nombre[24] = SUBSTITUTE;
+            Assertions.assertEquals(encoder.length() + 3, trama.length);
+            Assertions.assertArrayEquals(nombre, Arrays.copyOfRange(trama, 159, 159 + 25));
+            Assertions.assertEquals(codec.encode(' '), trama[trama.length - 1]);
+        }
+    }
+
+    @Test
+    void decodedBytesMatchTextView() {
+        for (int ccsid : CCSIDS) {
+            As400Ebcdic codec = new As400Ebcdic(ccsid);
+            for (Map.Entry<As400Operation, String> response : responses().entrySet()) {
+                As400TramaDecoder decoder = layout.decoder(response.getKey());
+                String text = response.getValue();
+
+                As400TramaView expected = decoder.view(text);
+                As400TramaView actual = decoder.view(codec.encode(text), codec);
+
+                for (As400TramaField field : As400TramaField.values()) {
+                    String context = "ccsid " + ccsid + " " + response.getKey() + " " + field;
+                    Assertions.assertEquals(expected.text(field), actual.text(field), context);
+                    Assertions.assertEquals(expected.isBlank(field), actual.isBlank(field), context);
+                }
+                Assertions.assertEquals(bonos(expected), bonos(actual), "ccsid " + ccsid + " " + response.getKey());
+            }
+        }
+    }
+
+    @Test
+    void decodesTheBonosSegment() {
+        As400Ebcdic codec = new As400Ebcdic(284);
+        String text = responses().get(As400Operation.RECUPERAR);
+
+        As400TramaView view = layout.decoder(As400Operation.RECUPERAR).view(codec.encode(text), codec);
+
+        Assertions.assertEquals("00", view.text(As400TramaField.CODIGO_RESPUESTA));
+        Assertions.assertEquals("CONSULTA EXITOSA AÑO", view.text(As400TramaField.DESCRIPCION_RESPUESTA));
+        Assertions.assertEquals(List.of("7700123400000000001=1500", "7700123400000000002=25000",
+                "7700123400000000003=null"), bonos(view));
+    }
+
+    @Test
+    void shortAndNullResponses() {
+        As400Ebcdic codec = new As400Ebcdic(37);
+        As400TramaDecoder decoder = layout.decoder(As400Operation.ACTIVAR);
+
+        As400TramaView nula = decoder.view(null, codec);
+        As400TramaView corta = decoder.view(codec.encode("BO0020022024"), codec);
+
+        Assertions.assertNull(nula.text(As400TramaField.CODIGO_RESPUESTA));
+        Assertions.assertEquals("", corta.text(As400TramaField.CODIGO_RESPUESTA));
+        Assertions.assertNull(corta.text(As400TramaField.ESTADO));
+    }
+
+    private static List<String[]> samples() {
+        return List.of(
+                values("JUAN PEREZ"),
+                values(null),
+                values("JOSÉ NÚÑEZ ¿Ç?"),
+                values("ANA 中文 €"),
+                values("MARIA FERNANDA ROJAS P"),
+                values("MARIA FERNANDA ROJAS PÑZ"),
+                values("MARIA FERNANDA ROJAS PÑZ中"));
+    }
+
+    private static String[] values(String nombre) {
+        String[] values = new String[As400TramaField.COUNT];
+        values[As400TramaField.BIN.ordinal()] = "457812";
+        values[As400TramaField.SUBTIPO.ordinal()] = "001";
+        values[As400TramaField.NIT.ordinal()] = "900123456";
+        values[As400TramaField.TIPO_DOCUMENTO.ordinal()] = "01";
+        values[As400TramaField.NUMERO_DOCUMENTO.ordinal()] = "1020304050";
+        values[As400TramaField.NOMBRE.ordinal()] = nombre;
+        values[As400TramaField.NUMERO_BONO.ordinal()] = "7700123400000000001";
+        values[As400TramaField.VALOR_CARGA.ordinal()] = "15000000";
+        values[As400TramaField.NUMERO_AUDITORIA.ordinal()] = "123456";
+        values[As400TramaField.CONSECUTIVO.ordinal()] = "000000000001";
+        return values;
+    }
+
+    private static Map<As400Operation, String> responses() {
+        String header = "BO002001" + "20241231235959" + "457812001000000900123456";
+        String crear = new Trama(header)
+                .put(46, "00")
+                .put(48, "BONO CREADO CON ÉXITO")
+                .put(181, "7700123400000000001")
+                .build(2048);
+        String activar = new Trama(header)
+                .put(46, "E5")
+                .put(48, "  BONO ACTIVADO  ")
+                .put(203, "A1B2C3")
+                .put(209, "01")
+                .put(211, "0001020304050")
+                .put(227, "JOSÉ NÚÑEZ")
+                .put(252, "123456789")
+                .put(271, "A")
+                .build(2048);
+        String recuperar = new Trama(header)
+                .put(46, "00")
+                .put(48, "CONSULTA EXITOSA AÑO")
+                .put(160, "  7700123400000000001,150000;7700123400000000002,2500000;;7700123400000000003,5;")
+                .build(1459);
+        return Map.of(As400Operation.CREAR, crear, As400Operation.ACTIVAR, activar,
+                As400Operation.RECUPERAR, recuperar);
+    }
+
+    private static List<String> bonos(As400TramaView view) {
+        return view.read(As400TramaField.BONOS, As400BonosSegmentParser::parse).stream()
+                .map(As400EbcdicTest::describe)
+                .toList();
+    }
+
+    private static String describe(Bono bono) {
+        return bono.getNumero() + "=" + bono.getValor();
+    }
+
+    /**
+     * Trama de salida en texto: espacios con los valores en sus posiciones.
+     */
+    private static final class Trama {
+
+        private final StringBuilder chars = new StringBuilder();
+
+        Trama(String header) {
+            chars.append(header);
+        }
+
+        Trama put(int offset, String value) {
+            while (chars.length() < offset + value.length()) {
+                chars.append(' ');
+            }
+            chars.replace(offset, offset + value.length(), value);
+            return this;
+        }
+
+        String build(int length) {
+            while (chars.length() < length) {
+                chars.append(' ');
+            }
+            return chars.toString();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.redeban.bonos.domain.exception.BonoTechnicalException;
+import com.redeban.bonos.domain.exception.BonoTimeoutException;
+import com.redeban.bonos.domain.model.Deadline;
+import com.redeban.bonos.infrastructure.camel.common.configs.As400ClientProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.TestProperties;
+
+/**
+ * {@link As400RequestCoalescer}: invocaciones idénticas concurrentes, errores compartidos y reintento tras el
+ * timeout de la original.
+ */
+class As400RequestCoalescerTest {
+
+    private static final Deadline NONE = Deadline.none();
+
+    private final Map<String, String> properties = new HashMap<>(Map.of(
+            "bonos.as400.coalesce.enabled", "true",
+            "bonos.as400.coalesce.stripes", "5"));
+    private final ExecutorService executor = Executors.newFixedThreadPool(16);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentIdenticalCallsShareOneInvocation() throws Exception {
+        As400RequestCoalescer<String, String> coalescer = coalescer();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            results.add(executor.submit(() -> coalescer.execute("k", NONE, () -> {
+                calls.incrementAndGet();
+                await(release);
+                return "r";
+            })));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            Assertions.assertEquals("r", result.get(5, TimeUnit.SECONDS));
+        }
+        Assertions.assertEquals(1, calls.get());
+        Assertions.assertEquals("nuevo", coalescer.execute("k", NONE, () -> "nuevo"));
+    }
+
+    @Test
+    void distinctKeysAreNotCoalesced() throws Exception {
+        As400RequestCoalescer<String, String> coalescer = coalescer();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        for (int i = 0; i < 6; i++) {
+            String key = "k" + i;
+            results.add(executor.submit(() -> coalescer.execute(key, NONE, () -> {
+                calls.incrementAndGet();
+                await(release);
+                return key;
+            })));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        for (int i = 0; i < results.size(); i++) {
+            Assertions.assertEquals("k" + i, results.get(i).get(5, TimeUnit.SECONDS));
+        }
+        Assertions.assertEquals(6, calls.get());
+    }
+
+    @Test
+    void failureIsShared() throws Exception {
+        As400RequestCoalescer<String, String> coalescer = coalescer();
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> original = executor.submit(() -> coalescer.execute("e", NONE, () -> {
+            await(release);
+            throw new BonoTechnicalException("fallo", 503);
+        }));
+        Thread.sleep(50);
+        Future<String> waiting = executor.submit(() -> coalescer.execute("e", NONE, () -> "no"));
+        Thread.sleep(50);
+        release.countDown();
+
+        Assertions.assertThrows(ExecutionException.class, () -> original.get(5, TimeUnit.SECONDS));
+        ExecutionException error = Assertions.assertThrows(ExecutionException.class,
+                () -> waiting.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(error.getCause() instanceof BonoTechnicalException);
+    }
+
+    @Test
+    void errorRemovesTheKeyAndDoesNotHangWaiters() throws Exception {
+        As400RequestCoalescer<String, String> coalescer = coalescer();
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> original = executor.submit(() -> coalescer.execute("x", NONE, () -> {
+            await(release);
+            throw new OutOfMemoryError("trama");
+        }));
+        Thread.sleep(50);
+        Future<String> waiting = executor.submit(() -> coalescer.execute("x", NONE, () -> "no"));
+        Thread.sleep(50);
+        release.countDown();
+
+        ExecutionException originalError = Assertions.assertThrows(ExecutionException.class,
+                () -> original.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(originalError.getCause() instanceof OutOfMemoryError);
+        Assertions.assertThrows(ExecutionException.class, () -> waiting.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals("nuevo", coalescer.execute("x", NONE, () -> "nuevo"));
+    }
+
+    @Test
+    void waiterRetriesAfterTheOriginalTimesOut() throws Exception {
+        As400RequestCoalescer<String, String> coalescer = coalescer();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> original = executor.submit(() -> coalescer.execute("t", NONE, () -> {
+            calls.incrementAndGet();
+            await(release);
+            throw new BonoTimeoutException("t");
+        }));
+        Thread.sleep(50);
+        Future<String> waiting = executor.submit(() -> coalescer.execute("t",
+                Deadline.at(Instant.now().plusSeconds(5)), () -> {
+                    calls.incrementAndGet();
+                    return "retry";
+                }));
+        Thread.sleep(50);
+        release.countDown();
+
+        Assertions.assertThrows(ExecutionException.class, () -> original.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals("retry", waiting.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(2, calls.get());
+    }
+
+    @Test
+    void waiterHonoursItsDeadline() throws InterruptedException {
+        As400RequestCoalescer<String, String> coalescer = coalescer();
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> coalescer.execute("d", NONE, () -> {
+            await(release);
+            return "tarde";
+        }));
+        Thread.sleep(50);
+
+        Assertions.assertThrows(BonoTimeoutException.class,
+                () -> coalescer.execute("d", Deadline.at(Instant.now().plusMillis(50)), () -> "no"));
+        release.countDown();
+    }
+
+    @Test
+    void asyncCallsAreCoalesced() throws Exception {
+        As400RequestCoalescer<String, String> coalescer = coalescer();
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> first = coalescer.executeAsync("a", NONE, () -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<String> second = coalescer.executeAsync("a", NONE, () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("no");
+        });
+        pending.complete("z");
+
+        Assertions.assertEquals("z", first.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals("z", second.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    void asyncWaiterRetriesAfterTheOriginalTimesOut() throws Exception {
+        As400RequestCoalescer<String, String> coalescer = coalescer();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> first = coalescer.executeAsync("b", NONE, () -> pending);
+        CompletableFuture<String> second = coalescer.executeAsync("b", Deadline.at(Instant.now().plusSeconds(5)),
+                () -> CompletableFuture.completedFuture("again"));
+        pending.completeExceptionally(new CompletionException(new BonoTimeoutException("t")));
+
+        Assertions.assertEquals("again", second.get(5, TimeUnit.SECONDS));
+        ExecutionException error = Assertions.assertThrows(ExecutionException.class,
+                () -> first.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(error.getCause() instanceof BonoTimeoutException);
+    }
+
+    @Test
+    void asyncErrorCreatingTheStageRemovesTheKey() throws Exception {
+        As400RequestCoalescer<String, String> coalescer = coalescer();
+
+        CompletableFuture<String> failed = coalescer.executeAsync("c", NONE, () -> {
+            throw new AssertionError("al crear la etapa");
+        });
+
+        ExecutionException error = Assertions.assertThrows(ExecutionException.class,
+                () -> failed.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(error.getCause() instanceof AssertionError);
+        Assertions.assertEquals("ok", coalescer.executeAsync("c", NONE,
+                () -> CompletableFuture.completedFuture("ok")).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void disabledCallsThrough() {
+        properties.put("bonos.as400.coalesce.enabled", "false");
+
+        Assertions.assertEquals("v", coalescer().execute("k", NONE, () -> "v"));
+    }
+
+    @Test
+    void rejectsInvalidStripes() {
+        properties.put("bonos.as400.coalesce.stripes", "0");
+
+        Assertions.assertThrows(IllegalArgumentException.class, this::coalescer);
+    }
+
+    private As400RequestCoalescer<String, String> coalescer() {
+        return new As400RequestCoalescer<>(As400Operation.RECUPERAR,
+                TestProperties.of(As400ClientProperties.class, properties).coalesce(), new SimpleMeterRegistry());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.redeban.bonos.domain.exception.BonoBusinessException;
+import com.redeban.bonos.domain.model.ActivarBonoRequest;
+import com.redeban.bonos.domain.model.ActivarBonoResponse;
+import com.redeban.bonos.domain.model.CrearBonoRequest;
+import com.redeban.bonos.domain.model.CrearBonoResponse;
+import com.redeban.bonos.domain.model.Deadline;
+import com.redeban.bonos.domain.model.RecuperarBonoRequest;
+import com.redeban.bonos.domain.model.RecuperarBonoResponse;
+import com.redeban.bonos.infrastructure.camel.common.configs.As400ClientProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.GestionBonosSettingsProvider;
+import com.redeban.bonos.infrastructure.camel.common.configs.TestProperties;
+import com.redeban.bonos.infrastructure.out.cache.InMemoryNegativeResultCache;
+
+/**
+ * {@link As400StoredProcedureClient} con el layout incluido y tramas de salida del AS400 preparadas.
+ */
+class As400StoredProcedureClientTest {
+
+    private final FakeAs400Connector connector = new FakeAs400Connector();
+    private final Map<String, String> properties = new HashMap<>();
+    private As400StoredProcedureClient client;
+
+    @Test
+    void recuperarBonoReadsTheBonosSegment() {
+        connector.respond(recuperar("00", "CONSULTA EXITOSA", "7700123400000000001,150000;7700123400000000002,00;"));
+
+        RecuperarBonoResponse response = client().recuperarBono(recuperarRequest("1020304050"), Deadline.none());
+
+        Assertions.assertEquals("00", response.getCodigoRespuesta());
+        Assertions.assertEquals("CONSULTA EXITOSA", response.getDescripcionRespuesta());
+        Assertions.assertEquals(List.of("7700123400000000001=1500", "7700123400000000002=0"),
+                response.getBonos().stream().map(bono -> bono.getNumero() + "=" + bono.getValor()).toList());
+        Assertions.assertEquals("000001020304050", connector.payloads().get(0).substring(144, 159));
+    }
+
+    @Test
+    void malformedBonosSegmentIsE03WithTheGeneralHttpError() {
+        properties.put("bonos.codigo.respuesta.error.general", "502");
+        connector.respond(recuperar("00", "CONSULTA EXITOSA", "7700123400000000001,15A000;"));
+
+        BonoBusinessException error = Assertions.assertThrows(BonoBusinessException.class,
+                () -> client().recuperarBono(recuperarRequest("1020304050"), Deadline.none()));
+
+        Assertions.assertEquals("E03", error.getCodigo());
+        Assertions.assertEquals(502, error.getHttpStatus());
+        Assertions.assertTrue(error.getDescripcion().startsWith("Error en transformaciones: registro 1 "),
+                error.getDescripcion());
+    }
+
+    @Test
+    void unknownTipoDocumentoIsE01WithoutCallingTheHost() {
+        RecuperarBonoRequest request = recuperarRequest("1020304050");
+        request.setTipoDocumento("XX");
+
+        BonoBusinessException error = Assertions.assertThrows(BonoBusinessException.class,
+                () -> client().recuperarBono(request, Deadline.none()));
+
+        Assertions.assertEquals("E01", error.getCodigo());
+        Assertions.assertEquals(400, error.getHttpStatus());
+        Assertions.assertTrue(connector.payloads().isEmpty());
+    }
+
+    @Test
+    void sinResultadosFromTheHostIsServedFromTheNegativeCache() {
+        connector.respond(recuperar("11", "LA CONSULTA NO ARROJA RESULTADOS", ""));
+
+        RecuperarBonoResponse first = client().recuperarBono(recuperarRequest("1020304050"), Deadline.none());
+        RecuperarBonoResponse second = client().recuperarBono(recuperarRequest("001020304050"), Deadline.none());
+
+        Assertions.assertEquals(1, connector.payloads().size());
+        Assertions.assertEquals("11", second.getCodigoRespuesta());
+        Assertions.assertEquals("LA CONSULTA NO ARROJA RESULTADOS", second.getDescripcionRespuesta());
+        Assertions.assertTrue(first.getBonos().isEmpty());
+        Assertions.assertTrue(second.getBonos().isEmpty());
+    }
+
+    @Test
+    void sinResultadosCodeIsConfigurable() {
+        properties.put("bonos.codigo.host.sin-resultados", "NR");
+        connector.respond(recuperar("11", "LA CONSULTA NO ARROJA RESULTADOS", ""))
+                .respond(recuperar("NR", "SIN BONOS", ""));
+
+        client().recuperarBono(recuperarRequest("1020304050"), Deadline.none());
+        client().recuperarBono(recuperarRequest("1020304050"), Deadline.none());
+        RecuperarBonoResponse cached = client().recuperarBono(recuperarRequest("1020304050"), Deadline.none());
+
+        Assertions.assertEquals(2, connector.payloads().size());
+        Assertions.assertEquals("NR", cached.getCodigoRespuesta());
+    }
+
+    @Test
+    void successfulConsultaWithoutBonosIsNotCached() {
+        connector.respond(recuperar("00", "CONSULTA EXITOSA", ""));
+
+        client().recuperarBono(recuperarRequest("1020304050"), Deadline.none());
+        client().recuperarBono(recuperarRequest("1020304050"), Deadline.none());
+
+        Assertions.assertEquals(2, connector.payloads().size());
+    }
+
+    @Test
+    void comercioBloqueadoFromTheHostBlocksTheNit() {
+        connector.respond(response("12", "COMERCIO BLOQUEADO"));
+
+        ActivarBonoResponse activar = client().activarBono(activarRequest(), Deadline.none());
+        ActivarBonoResponse repetida = client().activarBono(activarRequest(), Deadline.none());
+        CrearBonoResponse crear = client().crearBono(crearRequest(), Deadline.none());
+
+        Assertions.assertEquals(1, connector.payloads().size());
+        Assertions.assertEquals("12", activar.getCodigoRespuesta());
+        Assertions.assertEquals("12", repetida.getCodigoRespuesta());
+        Assertions.assertEquals("COMERCIO BLOQUEADO", crear.getDescripcionRespuesta());
+    }
+
+    As400StoredProcedureClient client() {
+        if (client == null) {
+            MeterRegistry meterRegistry = new SimpleMeterRegistry();
+            GestionBonosProperties gestionBonos = TestProperties.of(GestionBonosProperties.class, properties);
+            GestionBonosSettingsProvider settings = TestProperties.settings(gestionBonos, meterRegistry);
+            As400TramaLayoutRegistry layouts = new As400TramaLayoutRegistry(gestionBonos, settings,
+                    new ObjectMapper(), meterRegistry);
+            layouts.init();
+            client = new As400StoredProcedureClient(settings, connector, layouts,
+                    TestProperties.of(As400ClientProperties.class, properties),
+                    new InMemoryNegativeResultCache(gestionBonos, settings, meterRegistry));
+        }
+        return client;
+    }
+
+    static RecuperarBonoRequest recuperarRequest(String numeroDocumento) {
+        RecuperarBonoRequest request = new RecuperarBonoRequest();
+        request.setBin("457812");
+        request.setSubtipo("001");
+        request.setNit("900123456");
+        request.setTipoDocumento("CC");
+        request.setNumeroDocumento(numeroDocumento);
+        return request;
+    }
+
+    static ActivarBonoRequest activarRequest() {
+        ActivarBonoRequest request = new ActivarBonoRequest();
+        request.setBin("457812");
+        request.setSubtipo("001");
+        request.setNit("900123456");
+        request.setNumeroBono("7700123400000000001");
+        request.setValorCarga("150000");
+        request.setNumeroAuditoria("123456");
+        request.setConsecutivo("000000000001");
+        return request;
+    }
+
+    static CrearBonoRequest crearRequest() {
+        CrearBonoRequest request = new CrearBonoRequest();
+        request.setBin("457812");
+        request.setSubtipo("001");
+        request.setNit("900123456");
+        request.setTipoDocumento("CC");
+        request.setNumeroDocumento("1020304050");
+        request.setNombre("JUAN PEREZ");
+        return request;
+    }
+
+    /**
+     * Trama de salida de crearBono o activarBono con sólo el código y la descripción.
+     */
+    static String response(String codigoRespuesta, String descripcion) {
+        return StringUtils.rightPad("BO002002" + "20240101120000" + "457812001000000900123456" + codigoRespuesta
+                + descripcion, 2048);
+    }
+
+    /**
+     * Trama de salida de recuperarBono: código de respuesta de dos caracteres en la posición 46, descripción en
+     * la 48 y segmento de bonos en la 160.
+     */
+    static String recuperar(String codigoRespuesta, String descripcion, String bonos) {
+        return StringUtils.rightPad("BO002003" + "20240101120000" + "457812001000000900123456" + codigoRespuesta
+                + StringUtils.rightPad(descripcion, 75), 160) + StringUtils.rightPad(bonos, 1299)
+                + StringUtils.repeat(' ', 565);
+    }
+}
@@ -0,0 +1,241 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compara la trama de {@link As400TramaEncoder} con la del armado original con {@code StringUtils.rightPad} y
+ * {@code leftPad} para las tres novedades.
+ */
+class As400TramaEncoderTest {
+
+    private static final ZoneId ZONE = ZoneId.of("America/Bogota");
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-03-01T04:59:59.900Z"), ZONE);
+    private static final String NOMBRE_22 = "MARIA FERNANDA ROJAS P";
+
+    private final As400TramaLayout layout = BundledLayout.load();
+
+    @Test
+    void crearMatchesLegacyBuilder() {
+        for (Persona persona : personas()) {
+            String[] values = values();
+            values[As400TramaField.BIN.ordinal()] = persona.bin();
+            values[As400TramaField.SUBTIPO.ordinal()] = persona.subtipo();
+            values[As400TramaField.NIT.ordinal()] = persona.nit();
+            values[As400TramaField.TIPO_DOCUMENTO.ordinal()] = persona.tipoDocumento();
+            values[As400TramaField.NUMERO_DOCUMENTO.ordinal()] = persona.numeroDocumento();
+            values[As400TramaField.NOMBRE.ordinal()] = persona.nombre();
+
+            Assertions.assertEquals(Legacy.crear(persona), encode(As400Operation.CREAR, values), persona::toString);
+        }
+    }
+
+    @Test
+    void activarMatchesLegacyBuilder() {
+        for (Persona persona : personas()) {
+            for (Activacion activacion : activaciones()) {
+                String[] values = values();
+                values[As400TramaField.BIN.ordinal()] = persona.bin();
+                values[As400TramaField.SUBTIPO.ordinal()] = persona.subtipo();
+                values[As400TramaField.NIT.ordinal()] = persona.nit();
+                values[As400TramaField.NUMERO_BONO.ordinal()] = activacion.numeroBono();
+                values[As400TramaField.VALOR_CARGA.ordinal()] = activacion.valorCarga() + "00";
+                values[As400TramaField.NUMERO_AUDITORIA.ordinal()] = activacion.numeroAuditoria();
+                values[As400TramaField.CONSECUTIVO.ordinal()] = activacion.consecutivo();
+
+                Assertions.assertEquals(Legacy.activar(persona, activacion), encode(As400Operation.ACTIVAR, values),
+                        () -> persona + " " + activacion);
+            }
+        }
+    }
+
+    @Test
+    void recuperarMatchesLegacyBuilder() {
+        for (Persona persona : personas()) {
+            String[] values = values();
+            values[As400TramaField.BIN.ordinal()] = persona.bin();
+            values[As400TramaField.SUBTIPO.ordinal()] = persona.subtipo();
+            values[As400TramaField.NIT.ordinal()] = persona.nit();
+            values[As400TramaField.TIPO_DOCUMENTO.ordinal()] = persona.tipoDocumento();
+            values[As400TramaField.NUMERO_DOCUMENTO.ordinal()] = persona.numeroDocumento();
+
+            Assertions.assertEquals(Legacy.recuperar(persona), encode(As400Operation.RECUPERAR, values),
+                    persona::toString);
+        }
+    }
+
+    @Test
+    void nullValorCargaIsSentAsLiteralNull() {
+        String[] values = values();
+        values[As400TramaField.VALOR_CARGA.ordinal()] = null + "00";
+
+        String trama = encode(As400Operation.ACTIVAR, values);
+
+        Assertions.assertEquals("000000null00", trama.substring(161, 173));
+    }
+
+    @Test
+    void longerNombreShiftsTheRestOfTheTrama() {
+        As400TramaEncoder encoder = layout.encoder(As400Operation.CREAR);
+        for (String nombre : List.of(NOMBRE_22 + "X", NOMBRE_22 + "XY", NOMBRE_22 + "XYZ")) {
+            String[] values = values();
+            values[As400TramaField.NOMBRE.ordinal()] = nombre;
+
+            String trama = encoder.encode(new As400TramaClock(CLOCK), values);
+
+            Assertions.assertEquals(encoder.length() + nombre.length() - 22, trama.length());
+            Assertions.assertEquals(nombre, trama.substring(159, 159 + nombre.length()));
+            Assertions.assertTrue(trama.substring(159 + nombre.length()).isBlank());
+        }
+    }
+
+    @Test
+    void timestampComesFromTheClockZone() {
+        String trama = encode(As400Operation.RECUPERAR, values());
+
+        Assertions.assertEquals("BO002003", trama.substring(0, 8));
+        Assertions.assertEquals("20240229235959", trama.substring(8, 22));
+    }
+
+    @Test
+    void rejectsValuesOfTheWrongSize() {
+        As400TramaEncoder encoder = layout.encoder(As400Operation.CREAR);
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> encoder.encode(new As400TramaClock(CLOCK), new String[3]));
+    }
+
+    private String encode(As400Operation operation, String[] values) {
+        return layout.encoder(operation).encode(new As400TramaClock(CLOCK), values);
+    }
+
+    private static String[] values() {
+        return new String[As400TramaField.COUNT];
+    }
+
+    private static List<Persona> personas() {
+        List<Persona> personas = new ArrayList<>();
+        personas.add(new Persona("457812", "001", "900123456", "01", "1020304050", "JUAN PEREZ"));
+        personas.add(new Persona(null, null, null, null, null, null));
+        personas.add(new Persona("", "", "", "", "", ""));
+        // Exactamente la longitud de cada campo.
+        personas.add(new Persona("457812", "001", "900123456789012", "01", "102030405060708", NOMBRE_22));
+        // Más largos que el campo: el resto de la trama se desplaza.
+        personas.add(new Persona("457812", "001", "900123456", "01", "1020304050", NOMBRE_22 + "X"));
+        personas.add(new Persona("457812", "001", "900123456", "01", "1020304050", NOMBRE_22 + "XY"));
+        personas.add(new Persona("457812", "001", "900123456", "01", "1020304050", NOMBRE_22 + "XYZ"));
+        personas.add(new Persona("4578120", "0012", "9001234567890123", "001", "1020304050607080", null));
+        personas.add(new Persona("457812", "001", "900123456", "01", "1020304050", "JOSÉ NÚÑEZ"));
+        return personas;
+    }
+
+    private static List<Activacion> activaciones() {
+        List<Activacion> activaciones = new ArrayList<>();
+        activaciones.add(new Activacion("7700123400000000001", "150000", "123456", "000000000001"));
+        activaciones.add(new Activacion(null, null, null, null));
+        activaciones.add(new Activacion("77001234", "1234567890", "123456", "123456789012"));
+        activaciones.add(new Activacion("77001234000000000012", "12345678901", "1234567", "1234567890123"));
+        return activaciones;
+    }
+
+    private record Persona(String bin, String subtipo, String nit, String tipoDocumento, String numeroDocumento,
+                           String nombre) {
+    }
+
+    private record Activacion(String numeroBono, String valorCarga, String numeroAuditoria, String consecutivo) {
+    }
+
+    /**
+     * Armado de la trama anterior al codificador, tal como estaba en {@code As400StoredProcedureClient}.
+     */
+    private static final class Legacy {
+
+        private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd", Locale.ROOT);
+        private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HHmmss", Locale.ROOT);
+
+        static String crear(Persona persona) {
+            StringBuilder trama = common(BundledLayout.CONSTANTS.get("codigo.novedad.crear"));
+            appendRightPad(trama, persona.bin(), 6);
+            appendRightPad(trama, persona.subtipo(), 3);
+            appendLeftPad(trama, persona.nit(), 15);
+            appendRightPad(trama, "", 2);
+            appendRightPad(trama, "", 75);
+            appendRightPad(trama, "", 19);
+            appendRightPad(trama, persona.tipoDocumento(), 2);
+            appendLeftPad(trama, persona.numeroDocumento(), 15);
+            appendRightPad(trama, persona.nombre(), 22);
+            appendRightPad(trama, "", 19);
+            appendRightPad(trama, "", 1824);
+            return trama.toString();
+        }
+
+        static String activar(Persona persona, Activacion activacion) {
+            StringBuilder trama = common(BundledLayout.CONSTANTS.get("codigo.novedad.activar"));
+            appendRightPad(trama, persona.bin(), 6);
+            appendRightPad(trama, persona.subtipo(), 3);
+            appendLeftPad(trama, persona.nit(), 15);
+            appendRightPad(trama, "", 2);
+            appendRightPad(trama, "", 75);
+            appendRightPad(trama, "", 19);
+            appendRightPad(trama, activacion.numeroBono(), 19);
+            appendLeftPad(trama, activacion.valorCarga() + "00", 12);
+            trama.append(BundledLayout.CONSTANTS.get("codigo.transaccion.activacion"));
+            trama.append(BundledLayout.CONSTANTS.get("dispositivo.activacion"));
+            appendRightPad(trama, activacion.numeroAuditoria(), 6);
+            appendRightPad(trama, activacion.consecutivo(), 12);
+            trama.append(BundledLayout.CONSTANTS.get("tipo.transaccion.activacion"));
+            appendRightPad(trama, "", 6);
+            appendRightPad(trama, "", 2);
+            appendRightPad(trama, "", 16);
+            appendRightPad(trama, "", 25);
+            appendRightPad(trama, "", 19);
+            appendRightPad(trama, "", 1);
+            appendRightPad(trama, "", 1752);
+            return trama.toString();
+        }
+
+        static String recuperar(Persona persona) {
+            StringBuilder trama = common(BundledLayout.CONSTANTS.get("codigo.novedad.consultar"));
+            appendRightPad(trama, persona.bin(), 6);
+            appendRightPad(trama, persona.subtipo(), 3);
+            appendLeftPad(trama, persona.nit(), 15);
+            appendRightPad(trama, "", 2);
+            appendRightPad(trama, "", 75);
+            appendRightPad(trama, "", 19);
+            appendRightPad(trama, persona.tipoDocumento(), 2);
+            appendLeftPad(trama, persona.numeroDocumento(), 15);
+            appendRightPad(trama, "", 1300);
+            appendRightPad(trama, "", 565);
+            return trama.toString();
+        }
+
+        private static StringBuilder common(String codigoNovedad) {
+            LocalDateTime now = LocalDateTime.now(CLOCK);
+            StringBuilder trama = new StringBuilder();
+            trama.append(BundledLayout.CONSTANTS.get("codigo.aplicacion"));
+            trama.append(BundledLayout.CONSTANTS.get("codigo.switch"));
+            trama.append(codigoNovedad);
+            trama.append(DATE_FORMATTER.format(now));
+            trama.append(TIME_FORMATTER.format(now));
+            return trama;
+        }
+
+        private static void appendRightPad(StringBuilder builder, String value, int size) {
+            builder.append(StringUtils.rightPad(Optional.ofNullable(value).orElse(""), size));
+        }
+
+        private static void appendLeftPad(StringBuilder builder, String value, int size) {
+            builder.append(StringUtils.leftPad(Optional.ofNullable(value).orElse(""), size, '0'));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Layout AUBONB1 incluido en la aplicación, compilado con los valores por defecto de
+ * {@code application.properties}.
+ */
+final class BundledLayout {
+
+    static final Map<String, String> CONSTANTS = Map.of(
+            "codigo.aplicacion", "BO",
+            "codigo.switch", "0020",
+            "codigo.novedad.crear", "01",
+            "codigo.novedad.activar", "02",
+            "codigo.novedad.consultar", "03",
+            "codigo.transaccion.activacion", "421000",
+            "dispositivo.activacion", "02",
+            "tipo.transaccion.activacion", "0200");
+
+    private BundledLayout() {
+    }
+
+    static As400TramaLayout load() {
+        try (InputStream input = BundledLayout.class.getClassLoader()
+                .getResourceAsStream(As400TramaLayoutRegistry.BUNDLED_LAYOUT)) {
+            As400TramaLayout.Document document = new ObjectMapper().readValue(input, As400TramaLayout.Document.class);
+            return As400TramaLayout.compile(document, "classpath:" + As400TramaLayoutRegistry.BUNDLED_LAYOUT,
+                    CONSTANTS::get);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
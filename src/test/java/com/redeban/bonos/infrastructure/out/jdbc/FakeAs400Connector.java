@@ -0,0 +1,39 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import com.redeban.bonos.domain.model.Deadline;
+
+/**
+ * Conector que responde con tramas preparadas en lugar de invocar al AS400 y guarda las tramas recibidas.
+ */
+class FakeAs400Connector extends As400Connector {
+
+    private final Deque<String> responses = new ArrayDeque<>();
+    private final List<String> payloads = new ArrayList<>();
+
+    FakeAs400Connector() {
+        super(null, null, null);
+    }
+
+    FakeAs400Connector respond(String resultado) {
+        responses.add(resultado);
+        return this;
+    }
+
+    List<String> payloads() {
+        return payloads;
+    }
+
+    @Override
+    public String execute(As400Operation operation, String storedProcedure, String payload, Deadline deadline) {
+        payloads.add(payload);
+        if (responses.isEmpty()) {
+            throw new AssertionError("Invocación AS400 inesperada: " + operation);
+        }
+        return responses.size() == 1 ? responses.peek() : responses.poll();
+    }
+}
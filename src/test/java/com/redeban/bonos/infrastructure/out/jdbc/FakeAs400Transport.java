@@ -0,0 +1,151 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.redeban.bonos.domain.exception.BonoTechnicalException;
+
+/**
+ * Transporte que responde tras una latencia fija en lugar de invocar al AS400. Registra la acción de
+ * cancelación como los transportes reales: una invocación cancelada termina de inmediato y su conexión se
+ * cuenta como descartada.
+ */
+class FakeAs400Transport implements As400Transport {
+
+    private final String name;
+    private final Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger discarded = new AtomicInteger();
+    private final AtomicInteger pings = new AtomicInteger();
+    private volatile long latencyMillis;
+    private volatile boolean failing;
+    private volatile boolean unavailable;
+    private volatile boolean healthy = true;
+    private volatile boolean closed;
+
+    FakeAs400Transport(String name, long latencyMillis) {
+        this.name = name;
+        this.latencyMillis = latencyMillis;
+    }
+
+    FakeAs400Transport latency(long millis) {
+        latencyMillis = millis;
+        return this;
+    }
+
+    /**
+     * Latencia de las próximas invocaciones, en orden; después se vuelve a la fija.
+     */
+    FakeAs400Transport thenLatencies(long... millis) {
+        for (long value : millis) {
+            latencies.add(value);
+        }
+        return this;
+    }
+
+    FakeAs400Transport failing(boolean failing) {
+        this.failing = failing;
+        return this;
+    }
+
+    /**
+     * Falla como el pool sin conexiones (HTTP 503): nada llega al host.
+     */
+    FakeAs400Transport unavailable(boolean unavailable) {
+        this.unavailable = unavailable;
+        return this;
+    }
+
+    FakeAs400Transport healthy(boolean healthy) {
+        this.healthy = healthy;
+        return this;
+    }
+
+    int calls() {
+        return calls.get();
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    int maxInFlight() {
+        return maxInFlight.get();
+    }
+
+    int discarded() {
+        return discarded.get();
+    }
+
+    int pings() {
+        return pings.get();
+    }
+
+    boolean closed() {
+        return closed;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public void prewarm() {
+    }
+
+    @Override
+    public String call(String storedProcedure, String payload, As400CallControl control) {
+        return new String(callBytes(storedProcedure, payload.getBytes(StandardCharsets.UTF_8), control),
+                StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] callBytes(String storedProcedure, byte[] payload, As400CallControl control) {
+        calls.incrementAndGet();
+        if (unavailable) {
+            throw new BonoTechnicalException("Tiempo de espera agotado obteniendo conexión simulada", 503);
+        }
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        boolean cancellable = control.onCancel(cancelled::countDown);
+        try {
+            if (!cancellable) {
+                throw control.cancellationException(null);
+            }
+            Long next = latencies.poll();
+            if (cancelled.await(next != null ? next : latencyMillis, TimeUnit.MILLISECONDS)) {
+                throw control.cancellationException(null);
+            }
+            if (failing) {
+                throw new BonoTechnicalException("Error ejecutando invocación AS400 simulada", 500);
+            }
+            return payload;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BonoTechnicalException("Interrumpido en la invocación AS400 simulada", 500, ex);
+        } finally {
+            if (cancellable && !control.clearCancel()) {
+                discarded.incrementAndGet();
+            }
+            inFlight.decrementAndGet();
+        }
+    }
+
+    @Override
+    public boolean ping() {
+        pings.incrementAndGet();
+        return healthy;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
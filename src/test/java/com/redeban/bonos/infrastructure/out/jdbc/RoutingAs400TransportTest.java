@@ -0,0 +1,169 @@
+package com.redeban.bonos.infrastructure.out.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.redeban.bonos.domain.exception.BonoTechnicalException;
+import com.redeban.bonos.domain.model.Deadline;
+import com.redeban.bonos.infrastructure.camel.common.configs.As400ClientProperties;
+import com.redeban.bonos.infrastructure.camel.common.configs.TestProperties;
+
+/**
+ * {@link RoutingAs400Transport} con dos hosts simulados: expulsión por fallos consecutivos, readmisión por la
+ * prueba de conectividad, reintento en otro host cuando no hubo conexión y hedges dirigidos al otro host.
+ */
+class RoutingAs400TransportTest {
+
+    private final Map<String, String> properties = new HashMap<>(Map.of(
+            "bonos.as400.routing.ejection-consecutive-failures", "3",
+            "bonos.as400.routing.ejection-duration", "PT1M",
+            "bonos.as400.routing.probe-interval", "PT1S"));
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final FakeAs400Transport a = new FakeAs400Transport("as400a", 0);
+    private final FakeAs400Transport b = new FakeAs400Transport("as400b", 0);
+    private final List<RoutingAs400Transport> routers = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        routers.forEach(RoutingAs400Transport::close);
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void consecutiveFailuresEjectTheHost() {
+        RoutingAs400Transport routing = routing();
+        a.failing(true);
+
+        ejectA(routing);
+        for (int i = 0; i < 50; i++) {
+            Assertions.assertEquals("trama", call(routing));
+        }
+
+        Assertions.assertEquals(3, a.calls());
+    }
+
+    @Test
+    void ejectedHostIsReadmittedOnlyWhenItsProbeAnswers() throws Exception {
+        properties.put("bonos.as400.routing.ejection-duration", "PT0.1S");
+        RoutingAs400Transport routing = routing();
+        a.failing(true).healthy(false);
+        ejectA(routing);
+
+        As400ConnectionPoolTest.awaitCondition(() -> a.pings() > 0);
+        for (int i = 0; i < 30; i++) {
+            call(routing);
+        }
+        Assertions.assertEquals(3, a.calls());
+
+        a.failing(false).healthy(true);
+        As400ConnectionPoolTest.awaitCondition(() -> {
+            call(routing);
+            return a.calls() > 3;
+        });
+    }
+
+    @Test
+    void callWithoutAConnectionIsRetriedOnTheOtherHost() {
+        RoutingAs400Transport routing = routing();
+        a.unavailable(true);
+
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertEquals("trama", call(routing));
+        }
+
+        Assertions.assertTrue(a.calls() > 0);
+        Assertions.assertEquals(20, b.calls());
+    }
+
+    @Test
+    void executionErrorsAreNotRetried() {
+        RoutingAs400Transport routing = routing();
+        a.failing(true);
+        b.failing(true);
+
+        BonoTechnicalException error = Assertions.assertThrows(BonoTechnicalException.class, () -> call(routing));
+
+        Assertions.assertEquals(500, error.getHttpStatus());
+        Assertions.assertEquals(1, a.calls() + b.calls());
+    }
+
+    @Test
+    void hedgeGoesToTheOtherHost() {
+        RoutingAs400Transport routing = routing();
+
+        for (int i = 0; i < 20; i++) {
+            As400CallControl primary = new As400CallControl(Deadline.none());
+            routing.call("BONOS", "trama", primary);
+            As400CallControl hedge = primary.sibling();
+            routing.call("BONOS", "trama", hedge);
+
+            Assertions.assertNotEquals(primary.host(), hedge.host());
+        }
+    }
+
+    @Test
+    void cancelledHedgeLoserDoesNotCountAgainstTheHost() throws Exception {
+        RoutingAs400Transport routing = routing();
+        a.latency(5000);
+
+        for (int i = 0; i < 5; i++) {
+            As400CallControl hedge = avoiding("as400b");
+            scheduler.schedule(hedge::cancel, 20, TimeUnit.MILLISECONDS);
+            Assertions.assertThrows(BonoTechnicalException.class, () -> routing.call("BONOS", "trama", hedge));
+        }
+        a.latency(0);
+        As400CallControl next = avoiding("as400b");
+        routing.call("BONOS", "trama", next);
+
+        Assertions.assertEquals("as400a", next.host());
+        Assertions.assertEquals(6, a.calls());
+    }
+
+    private RoutingAs400Transport routing() {
+        Map<String, As400Transport> hosts = new LinkedHashMap<>();
+        hosts.put("as400a", a);
+        hosts.put("as400b", b);
+        RoutingAs400Transport routing = new RoutingAs400Transport(hosts,
+                TestProperties.of(As400ClientProperties.class, properties).routing(), scheduler,
+                new SimpleMeterRegistry());
+        routers.add(routing);
+        return routing;
+    }
+
+    /**
+     * Invoca hasta que {@code as400a} acumula los tres fallos que lo expulsan.
+     */
+    private void ejectA(RoutingAs400Transport routing) {
+        for (int i = 0; i < 500 && a.calls() < 3; i++) {
+            try {
+                call(routing);
+            } catch (BonoTechnicalException ex) {
+                Assertions.assertEquals(500, ex.getHttpStatus());
+            }
+        }
+        Assertions.assertEquals(3, a.calls());
+    }
+
+    /**
+     * Control de un hedge cuya invocación original fue a {@code host}.
+     */
+    private static As400CallControl avoiding(String host) {
+        As400CallControl primary = new As400CallControl(Deadline.none());
+        primary.assignHost(host);
+        return primary.sibling();
+    }
+
+    private static String call(RoutingAs400Transport routing) {
+        return routing.call("BONOS", "trama", new As400CallControl(Deadline.none()));
+    }
+}